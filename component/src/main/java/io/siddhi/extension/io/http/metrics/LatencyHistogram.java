@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.io.http.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@code LatencyHistogram} records latencies into log-linear buckets, in the same way as an HDR histogram, so that
+ * percentiles can be read with a bounded relative error (about 6%) while recording is lock free.
+ * Each power of two range is split into {@value #SUB_BUCKETS} linear buckets, hence the values up to
+ * {@value #SUB_BUCKETS} are recorded exactly.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalValue = new LongAdder();
+
+    /**
+     * Record a latency.
+     *
+     * @param value the latency, negative values are recorded as zero.
+     */
+    public void record(long value) {
+        long latency = Math.max(value, 0);
+        counts.incrementAndGet(getBucket(latency));
+        totalCount.increment();
+        totalValue.add(latency);
+    }
+
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    /**
+     * Returns the mean of the recorded latencies.
+     *
+     * @return the mean, zero if no latencies are recorded.
+     */
+    public double getMean() {
+        long count = totalCount.sum();
+        return count == 0 ? 0 : (double) totalValue.sum() / count;
+    }
+
+    /**
+     * Returns the latency at or below which the given percentage of the recorded latencies fall.
+     *
+     * @param percentile the percentile, between 0 and 100.
+     * @return the highest value of the bucket containing the percentile, zero if no latencies are recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long[] snapshot = newSnapshot();
+        return getValueAtPercentile(snapshot, addCounts(snapshot), percentile);
+    }
+
+    long getTotalValue() {
+        return totalValue.sum();
+    }
+
+    /**
+     * Adds the bucket counts of this histogram to the given snapshot, so that several histograms can be merged.
+     *
+     * @param snapshot the bucket counts to add to, created by {@link #newSnapshot()}.
+     * @return the number of latencies added.
+     */
+    long addCounts(long[] snapshot) {
+        // The counts are read without a snapshot, hence use their own total to stay consistent
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            long bucketCount = counts.get(i);
+            snapshot[i] += bucketCount;
+            count += bucketCount;
+        }
+        return count;
+    }
+
+    static long[] newSnapshot() {
+        return new long[BUCKETS];
+    }
+
+    static long getValueAtPercentile(long[] snapshot, long count, double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(count * Math.min(percentile, 100) / 100));
+        long cumulativeCount = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulativeCount += snapshot[i];
+            if (cumulativeCount >= rank) {
+                return getHighestValue(i);
+            }
+        }
+        return getHighestValue(BUCKETS - 1);
+    }
+
+    static int getBucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long getHighestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        long lowestValue = (1L << exponent) + (subBucket << (exponent - SUB_BUCKET_BITS));
+        long bucketWidth = 1L << (exponent - SUB_BUCKET_BITS);
+        return lowestValue + bucketWidth - 1;
+    }
+}
@@ -17,15 +17,170 @@
 
 package io.siddhi.extension.io.http.metrics;
 
+import org.wso2.carbon.metrics.core.Counter;
+import org.wso2.carbon.metrics.core.Gauge;
+import org.wso2.carbon.metrics.core.Level;
+import org.wso2.carbon.si.metrics.core.internal.MetricsDataHolder;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
 /**
- * Parent metrics class
+ * Parent metrics class. The metrics are resolved from the metric service once and held by the subclasses, so that
+ * updating a metric on the hot path does not format its name or look it up in the registry.
  */
 public class Metrics {
+    // The metric service keeps the gauge registered first with a name, hence each name is registered once and the
+    // gauge reads the source bound last, e.g. by the metrics of a redeployed siddhi app
+    private static final Map<String, AtomicReference<Gauge<? extends Number>>> GAUGE_SOURCES =
+            new ConcurrentHashMap<>();
+    private static final int MAX_URLS = 1000;
+
     protected final String siddhiAppName;
     protected final String streamName;
+    private final Map<String, Gauge<? extends Number>> gauges = new ConcurrentHashMap<>();
+    private final List<Map<String, ?>> urlMetrics = new CopyOnWriteArrayList<>();
+    private final Map<String, Set<String>> urlGauges = new ConcurrentHashMap<>();
+    private final Set<String> urls = new LinkedHashSet<>();
 
     protected Metrics(String siddhiAppName, String streamName) {
         this.siddhiAppName = siddhiAppName;
         this.streamName = streamName;
     }
+
+    protected static Counter counter(String name) {
+        return MetricsDataHolder.getInstance().getMetricService().counter(name, Level.INFO);
+    }
+
+    protected void gauge(String name, Gauge<? extends Number> source) {
+        GAUGE_SOURCES.computeIfAbsent(name, key -> {
+            AtomicReference<Gauge<? extends Number>> sourceReference = new AtomicReference<>();
+            MetricsDataHolder.getInstance().getMetricService().gauge(key, Level.INFO,
+                    () -> sourceReference.get().getValue());
+            return sourceReference;
+        }).set(source);
+        gauges.put(name, source);
+    }
+
+    /**
+     * Register a gauge reading its value from a mutable cell, so that setting the value does not register a gauge.
+     *
+     * @param name the gauge name.
+     * @return the cell holding the gauge value.
+     */
+    protected AtomicLong gaugeCell(String name) {
+        AtomicLong cell = new AtomicLong();
+        gauge(name, cell::get);
+        return cell;
+    }
+
+    /**
+     * Remove the gauge with the given name from the metric service, unless it reads the source bound by another
+     * metrics instance since.
+     *
+     * @param name the gauge name.
+     */
+    protected void unregisterGauge(String name) {
+        Gauge<? extends Number> source = gauges.remove(name);
+        if (source == null) {
+            return;
+        }
+        GAUGE_SOURCES.computeIfPresent(name, (key, sourceReference) -> {
+            if (sourceReference.get() != source) {
+                return sourceReference;
+            }
+            MetricsDataHolder.getInstance().getMetricService().remove(key);
+            return null;
+        });
+    }
+
+    /**
+     * Remove all the gauges registered by this instance, so that a removed sink or source neither leaks them nor
+     * keeps reporting stale values. Counters are kept, as they keep counting when the siddhi app is redeployed.
+     */
+    public void unregister() {
+        for (String name : gauges.keySet()) {
+            unregisterGauge(name);
+        }
+        urlGauges.clear();
+    }
+
+    /**
+     * Register a gauge of the given url, which is removed along with the other metrics of the url.
+     *
+     * @param url    the url.
+     * @param name   the gauge name.
+     * @param source the source of the gauge value.
+     */
+    protected void urlGauge(String url, String name, Gauge<? extends Number> source) {
+        urlGauges.computeIfAbsent(url, key -> ConcurrentHashMap.newKeySet()).add(name);
+        gauge(name, source);
+    }
+
+    protected AtomicLong urlGaugeCell(String url, String name) {
+        AtomicLong cell = new AtomicLong();
+        urlGauge(url, name, cell::get);
+        return cell;
+    }
+
+    /**
+     * Create a map holding a metric per url. The metrics of the url first used earliest are removed from all such
+     * maps once there are more than {@value #MAX_URLS} urls, hence a sink with a dynamic url does not keep a metric
+     * of every url it has ever sent to. The counters of a removed url keep counting if it is used again.
+     *
+     * @return the map of metrics keyed by url.
+     */
+    protected <T> Map<String, T> urlMetrics() {
+        Map<String, T> metrics = new ConcurrentHashMap<>();
+        urlMetrics.add(metrics);
+        return metrics;
+    }
+
+    /**
+     * Returns the metric of the given url, creating it only at the first use for the url. Unlike
+     * {@link ConcurrentHashMap#computeIfAbsent}, an existing metric is read without locking.
+     */
+    protected <T> T getOrCreate(Map<String, T> metrics, String url, Function<String, T> factory) {
+        T metric = metrics.get(url);
+        if (metric != null) {
+            return metric;
+        }
+        metric = metrics.computeIfAbsent(url, factory);
+        trackUrl(url);
+        return metric;
+    }
+
+    // Urls are tracked when one of their metrics is created, hence in the order they are first used rather than
+    // the order they are used last, so that updating a metric does not take a lock
+    private void trackUrl(String url) {
+        String eldestUrl = null;
+        synchronized (urls) {
+            if (urls.add(url) && urls.size() > MAX_URLS) {
+                Iterator<String> iterator = urls.iterator();
+                eldestUrl = iterator.next();
+                iterator.remove();
+            }
+        }
+        if (eldestUrl != null) {
+            removeUrl(eldestUrl);
+        }
+    }
+
+    private void removeUrl(String url) {
+        for (Map<String, ?> metrics : urlMetrics) {
+            metrics.remove(url);
+        }
+        Set<String> names = urlGauges.remove(url);
+        if (names != null) {
+            names.forEach(this::unregisterGauge);
+        }
+    }
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.io.http.metrics;
+
+import java.util.function.LongSupplier;
+
+/**
+ * {@code RollingLatencyHistogram} keeps the latencies of the current and the previous interval only, so that the
+ * percentiles and the mean reflect the recent latencies of an endpoint instead of all the latencies since the sink
+ * started. The intervals are swapped as the time passes, hence the reported values cover between one and two
+ * intervals of latencies.
+ */
+public class RollingLatencyHistogram {
+    private final long intervalNanos;
+    private final LongSupplier nanoClock;
+    private volatile Interval current;
+    private volatile Interval previous;
+
+    public RollingLatencyHistogram(long intervalNanos) {
+        this(intervalNanos, System::nanoTime);
+    }
+
+    RollingLatencyHistogram(long intervalNanos, LongSupplier nanoClock) {
+        this.intervalNanos = intervalNanos;
+        this.nanoClock = nanoClock;
+        long now = nanoClock.getAsLong();
+        this.current = new Interval(now);
+        this.previous = new Interval(now - intervalNanos);
+    }
+
+    /**
+     * Record a latency into the current interval.
+     *
+     * @param value the latency, negative values are recorded as zero.
+     */
+    public void record(long value) {
+        rotate().histogram.record(value);
+    }
+
+    /**
+     * Returns the number of latencies recorded within the window.
+     *
+     * @return the number of latencies.
+     */
+    public long getCount() {
+        Interval interval = rotate();
+        return interval.histogram.getCount() + previous.histogram.getCount();
+    }
+
+    /**
+     * Returns the mean of the latencies recorded within the window.
+     *
+     * @return the mean, zero if no latencies are recorded within the window.
+     */
+    public double getMean() {
+        Interval interval = rotate();
+        Interval previousInterval = previous;
+        long count = interval.histogram.getCount() + previousInterval.histogram.getCount();
+        return count == 0 ? 0 :
+                (double) (interval.histogram.getTotalValue() + previousInterval.histogram.getTotalValue()) / count;
+    }
+
+    /**
+     * Returns the latency at or below which the given percentage of the latencies recorded within the window fall.
+     *
+     * @param percentile the percentile, between 0 and 100.
+     * @return the highest value of the bucket containing the percentile, zero if no latencies are recorded within
+     * the window.
+     */
+    public long getValueAtPercentile(double percentile) {
+        Interval interval = rotate();
+        long[] snapshot = LatencyHistogram.newSnapshot();
+        long count = interval.histogram.addCounts(snapshot) + previous.histogram.addCounts(snapshot);
+        return LatencyHistogram.getValueAtPercentile(snapshot, count, percentile);
+    }
+
+    // Swaps the intervals once the current one is over, dropping both when no latency was recorded for a whole
+    // interval, and returns the interval to record into
+    private Interval rotate() {
+        long now = nanoClock.getAsLong();
+        Interval interval = current;
+        if (now - interval.startTime < intervalNanos) {
+            return interval;
+        }
+        synchronized (this) {
+            interval = current;
+            long elapsed = now - interval.startTime;
+            if (elapsed >= intervalNanos) {
+                previous = elapsed < 2 * intervalNanos ? interval : new Interval(now - intervalNanos);
+                // Align to the interval boundaries, so that an idle period does not shift them
+                interval = new Interval(interval.startTime + elapsed / intervalNanos * intervalNanos);
+                current = interval;
+            }
+            return interval;
+        }
+    }
+
+    private static class Interval {
+        private final long startTime;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        private Interval(long startTime) {
+            this.startTime = startTime;
+        }
+    }
+}
@@ -17,65 +17,323 @@
 
 package io.siddhi.extension.io.http.metrics;
 
+import io.siddhi.extension.io.http.sink.InflightRequestWindow;
+import io.siddhi.extension.io.http.sink.RequestCoalescer;
+import io.siddhi.extension.io.http.sink.cache.ResponseCache;
+import io.siddhi.extension.io.http.sink.spool.DiskSpool;
+import io.siddhi.extension.io.http.sink.util.CircuitBreaker;
 import org.wso2.carbon.metrics.core.Counter;
-import org.wso2.carbon.metrics.core.Level;
-import org.wso2.carbon.si.metrics.core.internal.MetricsDataHolder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Class to publish sink metrics.
  */
 public class SinkMetrics extends Metrics {
+    private static final int[] LATENCY_PERCENTILES = {50, 95, 99};
+    private static final double NANOS_PER_MILLI = 1000000d;
+    private static final long LATENCY_WINDOW = TimeUnit.MINUTES.toNanos(1);
+
+    private final Counter totalWrites;
+    private final Counter clientConnectorCacheHits;
+    private final Counter clientConnectorCacheMisses;
+    private final Counter clientConnectorCacheEvictions;
+    private final Counter accessTokenCacheHits;
+    private final Counter accessTokenRefreshes;
+    private final Counter accessTokenRefreshFailures;
+    private Counter responseCacheHits;
+    private Counter responseCacheMisses;
+    private Counter responseCacheRevalidations;
+    private Counter coalescingRequestsSent;
+    private Counter coalescingRequestsJoined;
+    private final Map<String, Counter> totalHttpWrites = urlMetrics();
+    private final Map<String, Counter> totalHttpErrors = urlMetrics();
+    private final Map<String, Counter> requestSizes = urlMetrics();
+    private final Map<String, Counter> totalBatches = urlMetrics();
+    private final Map<String, Counter> totalBatchedEvents = urlMetrics();
+    private final Map<String, Counter> totalRetries = urlMetrics();
+    private final Map<String, Counter> totalHedges = urlMetrics();
+    private final Map<String, Counter> totalHedgesWon = urlMetrics();
+    private final Map<String, Counter[]> compressionSizes = urlMetrics();
+    private final Map<String, Counter> compressionTimes = urlMetrics();
+    private final Map<String, AtomicLong> endpointStatuses = urlMetrics();
+    private final Map<String, AtomicLong> lastEventTimes = urlMetrics();
+    private final Map<String, AtomicLong> lastBatchSizes = urlMetrics();
+    private final Map<String, AtomicLong> tokenEndpointLatencies = urlMetrics();
+    private final Map<String, RollingLatencyHistogram> queueLatencies = urlMetrics();
+    private final Map<String, RollingLatencyHistogram> wireLatencies = urlMetrics();
 
     public SinkMetrics(String siddhiAppName, String streamName) {
         super(siddhiAppName, streamName);
+        this.totalWrites = counter(String.format("io.siddhi.SiddhiApps.%s.Siddhi.Total.Writes.%s", siddhiAppName,
+                "http"));
+        this.clientConnectorCacheHits = counter(String.format(
+                "io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Client.Connector.Cache.Hits.%s", siddhiAppName, streamName));
+        this.clientConnectorCacheMisses = counter(String.format(
+                "io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Client.Connector.Cache.Misses.%s", siddhiAppName,
+                streamName));
+        this.clientConnectorCacheEvictions = counter(String.format(
+                "io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Client.Connector.Cache.Evictions.%s", siddhiAppName,
+                streamName));
+        this.accessTokenCacheHits = counter(String.format(
+                "io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Access.Token.Cache.Hits.%s", siddhiAppName, streamName));
+        this.accessTokenRefreshes = counter(String.format(
+                "io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Access.Token.Refreshes.%s", siddhiAppName, streamName));
+        this.accessTokenRefreshFailures = counter(String.format(
+                "io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Access.Token.Refresh.Failures.%s", siddhiAppName,
+                streamName));
     }
 
     // To count the total writes from siddhi app level
     public Counter getTotalWritesMetric() {
-        return MetricsDataHolder.getInstance().getMetricService()
-                .counter(String.format("io.siddhi.SiddhiApps.%s.Siddhi.Total.Writes.%s", siddhiAppName, "http"),
-                        Level.INFO);
+        return totalWrites;
     }
 
     // To count the total HTTP reads
     public Counter getTotalHttpWritesMetric(String url) {
-        return MetricsDataHolder.getInstance().getMetricService()
-                .counter(String.format("io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Total.Writes.%s.%s",
-                        siddhiAppName, streamName, url), Level.INFO);
+        return getOrCreate(totalHttpWrites, url, key -> counter(String.format(
+                "io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Total.Writes.%s.%s", siddhiAppName, streamName, key)));
     }
 
     // To count the total HTTP errors
     public Counter getTotalHttpErrorsMetric(String url) {
-        return MetricsDataHolder.getInstance().getMetricService()
-                .counter(String.format("io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Total.Errors.%s.%s",
-                        siddhiAppName, streamName, url), Level.INFO);
+        return getOrCreate(totalHttpErrors, url, key -> counter(String.format(
+                "io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Total.Errors.%s.%s", siddhiAppName, streamName, key)));
     }
 
     // To count the request size
     public Counter getRequestSizeMetric(String url) {
-        return MetricsDataHolder.getInstance().getMetricService()
-                .counter(String.format("io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Total.Request.Size.%s.%s",
-                        siddhiAppName, streamName, url), Level.INFO);
+        return getOrCreate(requestSizes, url, key -> counter(String.format(
+                "io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Total.Request.Size.%s.%s", siddhiAppName, streamName,
+                key)));
+    }
+
+    // To record the time (in nanos) a request waited in the sink before being sent
+    public void recordQueueLatency(String url, long latency) {
+        getOrCreate(queueLatencies, url, key -> registerLatencyHistogram("Queue.Latency", key)).record(latency);
     }
 
-    // To calculate the response latency
-    public void setLatencyMetric(String url, long latency) {
-        MetricsDataHolder.getInstance().getMetricService()
-                .gauge(String.format("io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Average.Latency.%s.%s",
-                        siddhiAppName, streamName, url), Level.INFO, () -> latency);
+    // To record the time (in nanos) taken for the response of a request after sending it
+    public void recordWireLatency(String url, long latency) {
+        getOrCreate(wireLatencies, url, key -> {
+            RollingLatencyHistogram histogram = registerLatencyHistogram("Wire.Latency", key);
+            urlGauge(key, String.format("io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Average.Latency.%s.%s",
+                    siddhiAppName, streamName, key), () -> histogram.getMean() / NANOS_PER_MILLI);
+            return histogram;
+        }).record(latency);
+    }
+
+    // To export the percentiles (in millis) of the latencies recorded for the url within the last one to two minutes
+    private RollingLatencyHistogram registerLatencyHistogram(String metricName, String url) {
+        RollingLatencyHistogram histogram = new RollingLatencyHistogram(LATENCY_WINDOW);
+        for (int percentile : LATENCY_PERCENTILES) {
+            urlGauge(url, String.format("io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.%s.P%d.%s.%s", siddhiAppName,
+                    metricName, percentile, streamName, url),
+                    () -> histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI);
+        }
+        return histogram;
     }
 
     // To set the online/offline status
     public void setEndpointStatusMetric(String url, EndpointStatus status) {
-        MetricsDataHolder.getInstance().getMetricService()
-                .gauge(String.format("io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Endpoint.Status.%s.%s",
-                        siddhiAppName, streamName, url), Level.INFO, status::ordinal);
+        getOrCreate(endpointStatuses, url, key -> urlGaugeCell(key, String.format(
+                "io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Endpoint.Status.%s.%s", siddhiAppName, streamName, key)))
+                .set(status.ordinal());
     }
 
     // To set the last event time
     public void setLastEventTime(String url, long lastEventTime) {
-        MetricsDataHolder.getInstance().getMetricService()
-                .gauge(String.format("io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Last.Event.Time.%s.%s",
-                        siddhiAppName, streamName, url), Level.INFO, () -> lastEventTime);
+        getOrCreate(lastEventTimes, url, key -> urlGaugeCell(key, String.format(
+                "io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Last.Event.Time.%s.%s", siddhiAppName, streamName, key)))
+                .set(lastEventTime);
+    }
+
+    // To count the client connector cache hits
+    public Counter getClientConnectorCacheHitsMetric() {
+        return clientConnectorCacheHits;
+    }
+
+    // To count the client connector cache misses
+    public Counter getClientConnectorCacheMissesMetric() {
+        return clientConnectorCacheMisses;
+    }
+
+    // To count the client connector cache evictions
+    public Counter getClientConnectorCacheEvictionsMetric() {
+        return clientConnectorCacheEvictions;
+    }
+
+    // To count the total batched requests
+    public Counter getTotalBatchesMetric(String url) {
+        return getOrCreate(totalBatches, url, key -> counter(String.format(
+                "io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Total.Batches.%s.%s", siddhiAppName, streamName, key)));
+    }
+
+    // To count the total events sent in batched requests
+    public Counter getTotalBatchedEventsMetric(String url) {
+        return getOrCreate(totalBatchedEvents, url, key -> counter(String.format(
+                "io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Total.Batched.Events.%s.%s", siddhiAppName, streamName,
+                key)));
+    }
+
+    // To set the number of events in the last batched request
+    public void setLastBatchSizeMetric(String url, int batchSize) {
+        getOrCreate(lastBatchSizes, url, key -> urlGaugeCell(key, String.format(
+                "io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Last.Batch.Size.%s.%s", siddhiAppName, streamName, key)))
+                .set(batchSize);
+    }
+
+    // To count the requests sent with a cached access token
+    public Counter getAccessTokenCacheHitsMetric() {
+        return accessTokenCacheHits;
+    }
+
+    // To count the access tokens refreshed in the background before they expire
+    public Counter getAccessTokenRefreshesMetric() {
+        return accessTokenRefreshes;
+    }
+
+    // To count the failed background access token refreshes
+    public Counter getAccessTokenRefreshFailuresMetric() {
+        return accessTokenRefreshFailures;
+    }
+
+    // To set the latency of the last access token request
+    public void setTokenEndpointLatencyMetric(String url, long latency) {
+        getOrCreate(tokenEndpointLatencies, url, key -> urlGaugeCell(key, String.format(
+                "io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Token.Endpoint.Latency.%s.%s", siddhiAppName, streamName,
+                key))).set(latency);
+    }
+
+    // To set the number of requests waiting for their responses
+    public void setInflightRequestsMetric(String url, InflightRequestWindow inflightRequestWindow) {
+        gauge(getInflightRequestsMetricName(url), inflightRequestWindow::getInflightRequests);
+    }
+
+    // To remove the in-flight requests of an endpoint whose client connector is evicted
+    public void removeInflightRequestsMetric(String url) {
+        unregisterGauge(getInflightRequestsMetricName(url));
+    }
+
+    private String getInflightRequestsMetricName(String url) {
+        return String.format("io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Inflight.Requests.%s.%s", siddhiAppName,
+                streamName, url);
+    }
+
+    // To count the requests sent again after a failure
+    public Counter getTotalRetriesMetric(String url) {
+        return getOrCreate(totalRetries, url, key -> counter(String.format(
+                "io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Total.Retries.%s.%s", siddhiAppName, streamName, key)));
+    }
+
+    // To count the duplicate requests sent as the response of the original request was slow
+    public Counter getTotalHedgesMetric(String url) {
+        return getOrCreate(totalHedges, url, key -> counter(String.format(
+                "io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Total.Hedges.%s.%s", siddhiAppName, streamName, key)));
+    }
+
+    // To count the duplicate requests responded before the original request
+    public Counter getTotalHedgesWonMetric(String url) {
+        return getOrCreate(totalHedgesWon, url, key -> counter(String.format(
+                "io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Total.Hedges.Won.%s.%s", siddhiAppName, streamName, key)));
+    }
+
+    // To record the size of a request body before and after compression, and the time (in nanos) taken for it
+    public void recordCompression(String url, int uncompressedSize, int compressedSize, long compressionTime) {
+        Counter[] sizes = getOrCreate(compressionSizes, url, key -> {
+            Counter uncompressed = counter(String.format(
+                    "io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Total.Uncompressed.Size.%s.%s", siddhiAppName,
+                    streamName, key));
+            Counter compressed = counter(String.format(
+                    "io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Total.Compressed.Size.%s.%s", siddhiAppName,
+                    streamName, key));
+            urlGauge(key, String.format("io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Compression.Ratio.%s.%s",
+                    siddhiAppName, streamName, key), () -> compressed.getCount() == 0 ? 0 :
+                    (double) uncompressed.getCount() / compressed.getCount());
+            return new Counter[]{uncompressed, compressed};
+        });
+        sizes[0].inc(uncompressedSize);
+        sizes[1].inc(compressedSize);
+        getOrCreate(compressionTimes, url, key -> counter(String.format(
+                "io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Total.Compression.Time.%s.%s", siddhiAppName, streamName,
+                key))).inc(compressionTime);
+    }
+
+    // To set the number of spooled requests, the disk space taken by them and the age (in millis) of the oldest
+    public void setSpoolMetrics(DiskSpool spool) {
+        gauge(String.format("io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Spool.Depth.%s", siddhiAppName, streamName),
+                spool::getDepth);
+        gauge(String.format("io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Spool.Size.%s", siddhiAppName, streamName),
+                spool::getSize);
+        gauge(String.format("io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Spool.Age.%s", siddhiAppName, streamName),
+                spool::getAge);
+    }
+
+    // To set the number of cached responses, their size and the ratio of the requests served from the cache
+    public void setResponseCacheMetrics(ResponseCache responseCache) {
+        responseCacheHits = counter(String.format(
+                "io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Response.Cache.Hits.%s", siddhiAppName, streamName));
+        responseCacheMisses = counter(String.format(
+                "io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Response.Cache.Misses.%s", siddhiAppName, streamName));
+        responseCacheRevalidations = counter(String.format(
+                "io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Response.Cache.Revalidations.%s", siddhiAppName,
+                streamName));
+        gauge(String.format("io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Response.Cache.Entries.%s", siddhiAppName,
+                streamName), responseCache::getEntries);
+        gauge(String.format("io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Response.Cache.Size.%s", siddhiAppName,
+                streamName), responseCache::getSize);
+        gauge(String.format("io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Response.Cache.Hit.Ratio.%s", siddhiAppName,
+                streamName), () -> {
+                    long requests = responseCacheHits.getCount() + responseCacheMisses.getCount();
+                    return requests == 0 ? 0 : (double) responseCacheHits.getCount() / requests;
+                });
+    }
+
+    // To count the requests served from the response cache without being sent
+    public Counter getResponseCacheHitsMetric() {
+        return responseCacheHits;
+    }
+
+    // To count the requests sent as there was no fresh cached response for them
+    public Counter getResponseCacheMissesMetric() {
+        return responseCacheMisses;
+    }
+
+    // To count the stale cached responses found to be still valid by a conditional request
+    public Counter getResponseCacheRevalidationsMetric() {
+        return responseCacheRevalidations;
+    }
+
+    // To set the number of coalescing requests in flight and the ratio of the events sharing another's request
+    public void setRequestCoalescingMetrics(RequestCoalescer requestCoalescer) {
+        coalescingRequestsSent = counter(String.format(
+                "io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Coalescing.Requests.Sent.%s", siddhiAppName, streamName));
+        coalescingRequestsJoined = counter(String.format(
+                "io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Coalescing.Requests.Joined.%s", siddhiAppName, streamName));
+        gauge(String.format("io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Coalescing.Inflight.Requests.%s",
+                siddhiAppName, streamName), requestCoalescer::getInflightRequests);
+        gauge(String.format("io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Coalescing.Ratio.%s", siddhiAppName,
+                streamName), () -> {
+                    long requests = coalescingRequestsSent.getCount() + coalescingRequestsJoined.getCount();
+                    return requests == 0 ? 0 : (double) coalescingRequestsJoined.getCount() / requests;
+                });
+    }
+
+    // To count the coalescing requests sent, which later events with an identical request can join
+    public Counter getCoalescingRequestsSentMetric() {
+        return coalescingRequestsSent;
+    }
+
+    // To count the events which joined an identical request in flight instead of sending their own
+    public Counter getCoalescingRequestsJoinedMetric() {
+        return coalescingRequestsJoined;
+    }
+
+    // To set the circuit breaker state (0 closed, 1 open, 2 half open)
+    public void setCircuitBreakerStateMetric(String url, CircuitBreaker circuitBreaker) {
+        gauge(String.format("io.siddhi.SiddhiApps.%s.Siddhi.Http.Sink.Circuit.Breaker.State.%s.%s", siddhiAppName,
+                streamName, url), () -> circuitBreaker.getState().ordinal());
     }
 }
@@ -18,59 +18,92 @@
 package io.siddhi.extension.io.http.metrics;
 
 import org.wso2.carbon.metrics.core.Counter;
-import org.wso2.carbon.metrics.core.Level;
-import org.wso2.carbon.si.metrics.core.internal.MetricsDataHolder;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Class to publish source metrics.
  */
 public class SourceMetrics extends Metrics {
+    private final Counter totalReads;
+    private final Counter totalHttpReads;
+    private final Counter totalHttpErrors;
+    private final Counter requestSize;
+    private final AtomicLong endpointStatus;
+    private final AtomicLong lastEventTime;
     private final String url;
+    private final Map<String, Counter[]> downloads = new ConcurrentHashMap<>();
 
     public SourceMetrics(String siddhiAppName, String streamName, String url) {
         super(siddhiAppName, streamName);
         this.url = url;
+        this.totalReads = counter(String.format("io.siddhi.SiddhiApps.%s.Siddhi.Total.Reads.%s", siddhiAppName,
+                "http"));
+        this.totalHttpReads = counter(String.format("io.siddhi.SiddhiApps.%s.Siddhi.Http.Source.Total.Reads.%s.%s",
+                siddhiAppName, streamName, url));
+        this.totalHttpErrors = counter(String.format(
+                "io.siddhi.SiddhiApps.%s.Siddhi.Http.Source.Total.Errors.%s.%s", siddhiAppName, streamName, url));
+        this.requestSize = counter(String.format(
+                "io.siddhi.SiddhiApps.%s.Siddhi.Http.Source.Total.Request.Size.%s.%s", siddhiAppName, streamName,
+                url));
+        this.endpointStatus = gaugeCell(String.format(
+                "io.siddhi.SiddhiApps.%s.Siddhi.Http.Source.Endpoint.Status.%s.%s", siddhiAppName, streamName, url));
+        this.lastEventTime = gaugeCell(String.format(
+                "io.siddhi.SiddhiApps.%s.Siddhi.Http.Source.Last.Event.Time.%s.%s", siddhiAppName, streamName, url));
     }
 
     // To count the total reads from siddhi app level
     public Counter getTotalReadsMetric() {
-        return MetricsDataHolder.getInstance().getMetricService()
-                .counter(String.format("io.siddhi.SiddhiApps.%s.Siddhi.Total.Reads.%s",
-                        siddhiAppName, "http"), Level.INFO);
+        return totalReads;
     }
 
     // To count the total HTTP reads
     public Counter getTotalHttpReadsMetric() {
-        return MetricsDataHolder.getInstance().getMetricService()
-                .counter(String.format("io.siddhi.SiddhiApps.%s.Siddhi.Http.Source.Total.Reads.%s.%s",
-                        siddhiAppName, streamName, url), Level.INFO);
+        return totalHttpReads;
     }
 
     // To count the total HTTP errors
     public Counter getTotalHttpErrorsMetric() {
-        return MetricsDataHolder.getInstance().getMetricService()
-                .counter(String.format("io.siddhi.SiddhiApps.%s.Siddhi.Http.Source.Total.Errors.%s.%s",
-                        siddhiAppName, streamName, url), Level.INFO);
+        return totalHttpErrors;
     }
 
     // To count the request size
     public Counter getRequestSizeMetric() {
-        return MetricsDataHolder.getInstance().getMetricService()
-                .counter(String.format("io.siddhi.SiddhiApps.%s.Siddhi.Http.Source.Total.Request.Size.%s.%s",
-                        siddhiAppName, streamName, url), Level.INFO);
+        return requestSize;
     }
 
     // To set the online/offline status
     public void setEndpointStatusMetric(EndpointStatus status) {
-        MetricsDataHolder.getInstance().getMetricService()
-                .gauge(String.format("io.siddhi.SiddhiApps.%s.Siddhi.Http.Source.Endpoint.Status.%s.%s",
-                        siddhiAppName, streamName, url), Level.INFO, status::ordinal);
+        endpointStatus.set(status.ordinal());
     }
 
     // To set the last event time
     public void setLastEventTime(long lastEventTime) {
-        MetricsDataHolder.getInstance().getMetricService()
-                .gauge(String.format("io.siddhi.SiddhiApps.%s.Siddhi.Http.Source.Last.Event.Time.%s.%s",
-                        siddhiAppName, streamName, url), Level.INFO, () -> lastEventTime);
+        this.lastEventTime.set(lastEventTime);
+    }
+
+    // To record the size of a downloaded file and the time (in nanos) taken to receive and write it
+    public void recordDownload(long size, long downloadTime) {
+        Counter[] counters = getOrCreate(downloads, url, key -> {
+            Counter totalSize = counter(String.format(
+                    "io.siddhi.SiddhiApps.%s.Siddhi.Http.Source.Total.Download.Size.%s.%s", siddhiAppName,
+                    streamName, key));
+            Counter totalTime = counter(String.format(
+                    "io.siddhi.SiddhiApps.%s.Siddhi.Http.Source.Total.Download.Time.%s.%s", siddhiAppName,
+                    streamName, key));
+            Counter totalFiles = counter(String.format(
+                    "io.siddhi.SiddhiApps.%s.Siddhi.Http.Source.Total.Downloads.%s.%s", siddhiAppName,
+                    streamName, key));
+            // In bytes per second
+            gauge(String.format("io.siddhi.SiddhiApps.%s.Siddhi.Http.Source.Download.Throughput.%s.%s",
+                    siddhiAppName, streamName, key), () -> totalTime.getCount() == 0 ? 0 :
+                    totalSize.getCount() * 1e9 / totalTime.getCount());
+            return new Counter[]{totalSize, totalTime, totalFiles};
+        });
+        counters[0].inc(size);
+        counters[1].inc(downloadTime);
+        counters[2].inc();
     }
 }
@@ -19,6 +19,7 @@
 package io.siddhi.extension.io.http.sink;
 
 import org.wso2.transport.http.netty.contract.HttpClientConnector;
+import org.wso2.transport.http.netty.contract.HttpConnectorListener;
 import org.wso2.transport.http.netty.contract.HttpResponseFuture;
 import org.wso2.transport.http.netty.message.HttpCarbonMessage;
 
@@ -32,12 +33,27 @@ public class ClientConnector {
     private String publisherURL;
     private Map<String, String> httpURLProperties;
     private HttpClientConnector httpClientConnector;
+    private InflightRequestWindow inflightRequestWindow;
+    private ClientConnectorCache.ConnectorEntry connectorEntry;
 
     public ClientConnector(String publisherURL, Map<String, String> httpURLProperties,
                            HttpClientConnector httpClientConnector) {
+        this(publisherURL, httpURLProperties, httpClientConnector, null);
+    }
+
+    public ClientConnector(String publisherURL, Map<String, String> httpURLProperties,
+                           HttpClientConnector httpClientConnector, InflightRequestWindow inflightRequestWindow) {
         this.publisherURL = publisherURL;
         this.httpURLProperties = httpURLProperties;
         this.httpClientConnector = httpClientConnector;
+        this.inflightRequestWindow = inflightRequestWindow;
+    }
+
+    ClientConnector(String publisherURL, Map<String, String> httpURLProperties,
+                    ClientConnectorCache.ConnectorEntry connectorEntry) {
+        this(publisherURL, httpURLProperties, connectorEntry.getHttpClientConnector(),
+                connectorEntry.getInflightRequestWindow());
+        this.connectorEntry = connectorEntry;
     }
 
     public String getPublisherURL() {
@@ -48,8 +64,36 @@ public class ClientConnector {
         return httpClientConnector.send(cMessage);
     }
 
+    /**
+     * Send the request and notify the given listener of its response. A connector shared through the
+     * {@link ClientConnectorCache} is kept open till the listener is notified, even if it is evicted meanwhile.
+     *
+     * @param cMessage         the request.
+     * @param responseListener the response listener.
+     */
+    public void send(HttpCarbonMessage cMessage, HttpConnectorListener responseListener) {
+        if (connectorEntry != null) {
+            connectorEntry.send(publisherURL, cMessage, responseListener);
+        } else {
+            httpClientConnector.send(cMessage).setHttpConnectorListener(responseListener);
+        }
+    }
+
     public Map<String, String> getHttpURLProperties() {
         return httpURLProperties;
     }
 
+    /**
+     * Returns the window bounding the in-flight requests of the endpoint.
+     *
+     * @return the in-flight request window, null if the in-flight requests are not bounded.
+     */
+    public InflightRequestWindow getInflightRequestWindow() {
+        return inflightRequestWindow;
+    }
+
+    public void close() {
+        httpClientConnector.close();
+    }
+
 }
@@ -0,0 +1,381 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.io.http.sink;
+
+import io.siddhi.extension.io.http.metrics.SinkMetrics;
+import io.siddhi.extension.io.http.sink.util.HttpSinkUtil;
+import io.siddhi.extension.io.http.util.HttpConstants;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.contract.HttpClientConnector;
+import org.wso2.transport.http.netty.contract.HttpConnectorListener;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * {@code ClientConnectorCache} keeps a bounded set of client connectors for sinks with a dynamic publisher url.
+ * Connectors are shared by all the urls having the same scheme, host and port, and are evicted once the cache
+ * exceeds its size, a connector has not been used for the configured idle time, or its requests keep failing with
+ * I/O errors. An evicted connector is closed only after the responses of its in-flight requests are received.
+ * The in-flight request window of an endpoint is kept across its connectors, so that the requests still in flight
+ * on an evicted connector count against the window of the connector replacing it.
+ */
+public class ClientConnectorCache {
+    private static final Logger log = LogManager.getLogger(ClientConnectorCache.class);
+    private static final int URL_PROPERTIES_PER_CONNECTOR = 8;
+    static final int MAX_CONSECUTIVE_FAILURES = 5;
+
+    private final int maxSize;
+    private final long idleTimeout;
+    private final Function<Map<String, String>, HttpClientConnector> connectorFactory;
+    private final SinkMetrics metrics;
+    private final int maxInflightRequests;
+    private final Map<String, ConnectorEntry> connectors;
+    private final Map<String, Map<String, String>> urlProperties;
+    private final Map<String, InflightRequestWindow> inflightRequestWindows = new HashMap<>();
+
+    /**
+     * Create the client connector cache.
+     *
+     * @param maxSize          maximum number of connectors (scheme, host and port combinations) to keep.
+     * @param idleTimeout      time in millis after which an unused connector is evicted, non positive to disable.
+     * @param connectorFactory creates the client connector for the given url properties.
+     * @param metrics          sink metrics, null if metrics are disabled.
+     */
+    public ClientConnectorCache(int maxSize, long idleTimeout,
+                                Function<Map<String, String>, HttpClientConnector> connectorFactory,
+                                SinkMetrics metrics) {
+        this(maxSize, idleTimeout, connectorFactory, metrics, 0);
+    }
+
+    /**
+     * Create the client connector cache, bounding the in-flight requests of each endpoint.
+     *
+     * @param maxSize             maximum number of connectors (scheme, host and port combinations) to keep.
+     * @param idleTimeout         time in millis after which an unused connector is evicted, non positive to disable.
+     * @param connectorFactory    creates the client connector for the given url properties.
+     * @param metrics             sink metrics, null if metrics are disabled.
+     * @param maxInflightRequests maximum in-flight requests per endpoint, non positive for no limit.
+     */
+    public ClientConnectorCache(int maxSize, long idleTimeout,
+                                Function<Map<String, String>, HttpClientConnector> connectorFactory,
+                                SinkMetrics metrics, int maxInflightRequests) {
+        this.maxSize = maxSize;
+        this.idleTimeout = idleTimeout;
+        this.connectorFactory = connectorFactory;
+        this.metrics = metrics;
+        this.maxInflightRequests = maxInflightRequests;
+        this.connectors = new LinkedHashMap<>(16, 0.75f, true);
+        this.urlProperties = new LinkedHashMap<String, Map<String, String>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Map<String, String>> eldest) {
+                return size() > maxSize * URL_PROPERTIES_PER_CONNECTOR;
+            }
+        };
+    }
+
+    /**
+     * Returns the client connector for the given publisher url, creating a new one only if there is no cached
+     * connector for the url's scheme, host and port.
+     *
+     * @param publisherURL the publisher url.
+     * @return client connector bound to the given url.
+     */
+    public synchronized ClientConnector getClientConnector(String publisherURL) {
+        long currentTime = System.currentTimeMillis();
+        evictIdleConnectors(currentTime);
+        Map<String, String> httpURLProperties = urlProperties.get(publisherURL);
+        if (httpURLProperties == null) {
+            httpURLProperties = Collections.unmodifiableMap(HttpSinkUtil.getURLProperties(publisherURL));
+            urlProperties.put(publisherURL, httpURLProperties);
+        }
+        String connectorKey = getConnectorKey(httpURLProperties);
+        ConnectorEntry entry = connectors.get(connectorKey);
+        if (entry == null) {
+            if (metrics != null) {
+                metrics.getClientConnectorCacheMissesMetric().inc();
+            }
+            entry = new ConnectorEntry(connectorKey, connectorFactory.apply(httpURLProperties),
+                    getInflightRequestWindow(connectorKey));
+            connectors.put(connectorKey, entry);
+            evictEldestConnectors();
+            removeUnusedInflightRequestWindows();
+        } else if (metrics != null) {
+            metrics.getClientConnectorCacheHitsMetric().inc();
+        }
+        entry.lastAccessTime = currentTime;
+        return new ClientConnector(publisherURL, httpURLProperties, entry);
+    }
+
+    /**
+     * Evict the connector used for the given publisher url, so that the next request creates a new one.
+     * The connector is closed once the responses of its in-flight requests are received.
+     *
+     * @param publisherURL the publisher url.
+     */
+    public synchronized void invalidate(String publisherURL) {
+        Map<String, String> httpURLProperties = urlProperties.get(publisherURL);
+        if (httpURLProperties != null) {
+            ConnectorEntry entry = connectors.remove(getConnectorKey(httpURLProperties));
+            if (entry != null) {
+                evict(entry);
+            }
+        }
+    }
+
+    private synchronized void invalidate(ConnectorEntry entry) {
+        // The connector might have been evicted and replaced already
+        if (connectors.get(entry.connectorKey) == entry) {
+            connectors.remove(entry.connectorKey);
+            evict(entry);
+        }
+    }
+
+    /**
+     * Remove all the cached connectors, closing each once the responses of its in-flight requests are received,
+     * along with the in-flight request windows of their endpoints.
+     */
+    public synchronized void clear() {
+        for (ConnectorEntry entry : connectors.values()) {
+            entry.release();
+        }
+        connectors.clear();
+        urlProperties.clear();
+        if (metrics != null) {
+            for (String connectorKey : inflightRequestWindows.keySet()) {
+                metrics.removeInflightRequestsMetric(connectorKey);
+            }
+        }
+        inflightRequestWindows.clear();
+    }
+
+    /**
+     * Returns the number of cached connectors.
+     *
+     * @return the cached connector count.
+     */
+    public synchronized int size() {
+        return connectors.size();
+    }
+
+    private void evictIdleConnectors(long currentTime) {
+        if (idleTimeout <= 0) {
+            return;
+        }
+        // Connectors are kept in access order, hence the idle ones are always at the head
+        Iterator<ConnectorEntry> iterator = connectors.values().iterator();
+        while (iterator.hasNext()) {
+            ConnectorEntry entry = iterator.next();
+            if (currentTime - entry.lastAccessTime < idleTimeout) {
+                break;
+            }
+            iterator.remove();
+            evict(entry);
+        }
+    }
+
+    private void evictEldestConnectors() {
+        Iterator<ConnectorEntry> iterator = connectors.values().iterator();
+        while (connectors.size() > maxSize && iterator.hasNext()) {
+            ConnectorEntry entry = iterator.next();
+            iterator.remove();
+            evict(entry);
+        }
+    }
+
+    private void evict(ConnectorEntry entry) {
+        if (metrics != null) {
+            metrics.getClientConnectorCacheEvictionsMetric().inc();
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Evicted client connector " + entry.httpClientConnector + " of " + entry.connectorKey + ".");
+        }
+        entry.release();
+    }
+
+    private InflightRequestWindow getInflightRequestWindow(String connectorKey) {
+        if (maxInflightRequests <= 0) {
+            return null;
+        }
+        return inflightRequestWindows.computeIfAbsent(connectorKey, key -> {
+            InflightRequestWindow inflightRequestWindow = new InflightRequestWindow(maxInflightRequests);
+            if (metrics != null) {
+                metrics.setInflightRequestsMetric(key, inflightRequestWindow);
+            }
+            return inflightRequestWindow;
+        });
+    }
+
+    private void removeUnusedInflightRequestWindows() {
+        // The window of an evicted connector is kept till the requests still in flight on it complete, as a
+        // connector created for the same endpoint meanwhile has to share it
+        Iterator<Map.Entry<String, InflightRequestWindow>> iterator = inflightRequestWindows.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, InflightRequestWindow> window = iterator.next();
+            if (!connectors.containsKey(window.getKey()) && window.getValue().getInflightRequests() == 0) {
+                iterator.remove();
+                if (metrics != null) {
+                    metrics.removeInflightRequestsMetric(window.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the key identifying the endpoint (scheme, host and port) of the given url properties.
+     *
+     * @param httpURLProperties the url properties.
+     * @return the endpoint key.
+     */
+    static String getConnectorKey(Map<String, String> httpURLProperties) {
+        return httpURLProperties.get(Constants.PROTOCOL) + HttpConstants.PROTOCOL_HOST_SEPARATOR +
+                httpURLProperties.get(Constants.HTTP_HOST) + HttpConstants.PORT_HOST_SEPARATOR +
+                httpURLProperties.get(Constants.HTTP_PORT);
+    }
+
+    /**
+     * {@code ConnectorEntry} is a cached connector, referenced by the cache until it is evicted and by each of its
+     * in-flight requests till their response listeners are notified. The connector is closed when the last
+     * reference is released, hence evicting it does not fail the requests still using it.
+     */
+    class ConnectorEntry {
+        private final String connectorKey;
+        private final HttpClientConnector httpClientConnector;
+        private final AtomicInteger references = new AtomicInteger(1);
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final InflightRequestWindow inflightRequestWindow;
+        private long lastAccessTime;
+
+        ConnectorEntry(String connectorKey, HttpClientConnector httpClientConnector,
+                       InflightRequestWindow inflightRequestWindow) {
+            this.connectorKey = connectorKey;
+            this.httpClientConnector = httpClientConnector;
+            this.inflightRequestWindow = inflightRequestWindow;
+        }
+
+        /**
+         * Send the request through the connector, holding a reference to it till the response listener is
+         * notified. If the connector got closed in the meantime, the request is sent through the connector
+         * currently cached for the url.
+         *
+         * @param publisherURL     the url the request is sent to.
+         * @param cMessage         the request.
+         * @param responseListener the response listener.
+         */
+        void send(String publisherURL, HttpCarbonMessage cMessage, HttpConnectorListener responseListener) {
+            if (!retain()) {
+                getClientConnector(publisherURL).send(cMessage, responseListener);
+                return;
+            }
+            try {
+                httpClientConnector.send(cMessage).setHttpConnectorListener(
+                        new ReferenceReleasingListener(responseListener));
+            } catch (RuntimeException e) {
+                release();
+                throw e;
+            }
+        }
+
+        InflightRequestWindow getInflightRequestWindow() {
+            return inflightRequestWindow;
+        }
+
+        HttpClientConnector getHttpClientConnector() {
+            return httpClientConnector;
+        }
+
+        boolean isClosed() {
+            return references.get() == 0;
+        }
+
+        private boolean retain() {
+            int count;
+            do {
+                count = references.get();
+                if (count == 0) {
+                    return false;
+                }
+            } while (!references.compareAndSet(count, count + 1));
+            return true;
+        }
+
+        private void release() {
+            if (references.decrementAndGet() == 0) {
+                httpClientConnector.close();
+                if (log.isDebugEnabled()) {
+                    log.debug("Closed client connector " + httpClientConnector + " of " + connectorKey + ".");
+                }
+            }
+        }
+
+        private void recordOutcome(Throwable throwable) {
+            // A single failed connection does not make the connector unhealthy, but consecutive I/O errors with
+            // no successful response in between do
+            if (!(throwable instanceof IOException)) {
+                consecutiveFailures.set(0);
+            } else if (consecutiveFailures.incrementAndGet() == MAX_CONSECUTIVE_FAILURES) {
+                invalidate(this);
+            }
+        }
+
+        private class ReferenceReleasingListener implements HttpConnectorListener {
+            private final HttpConnectorListener responseListener;
+            private final AtomicBoolean released = new AtomicBoolean();
+
+            ReferenceReleasingListener(HttpConnectorListener responseListener) {
+                this.responseListener = responseListener;
+            }
+
+            @Override
+            public void onMessage(HttpCarbonMessage httpCarbonMessage) {
+                try {
+                    responseListener.onMessage(httpCarbonMessage);
+                } finally {
+                    complete(null);
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                try {
+                    responseListener.onError(throwable);
+                } finally {
+                    complete(throwable);
+                }
+            }
+
+            private void complete(Throwable throwable) {
+                if (released.compareAndSet(false, true)) {
+                    recordOutcome(throwable);
+                    release();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.io.http.sink;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
+import io.siddhi.core.util.transport.DynamicOptions;
+import io.siddhi.extension.io.http.util.HttpConstants;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * {@code EventBatch} holds the mapped payloads of the events batched for a single endpoint, together with the
+ * request body built from them in a composite buffer, so that the payloads are not copied when the batch is sent.
+ * The payloads and the delimiters are encoded in the charset of the content type of the batch.
+ */
+public class EventBatch {
+    private static final ByteBuf JSON_ARRAY_START = constant("[");
+    private static final ByteBuf JSON_ARRAY_END = constant("]");
+    private static final ByteBuf JSON_ARRAY_SEPARATOR = constant(",");
+    private static final ByteBuf NEW_LINE = constant("\n");
+
+    private final String format;
+    private final Charset charset;
+    private final CompositeByteBuf body;
+    private final List<Object> payloads = new ArrayList<>();
+    private final List<DynamicOptions> dynamicOptionsList = new ArrayList<>();
+    private final long createdTime = System.nanoTime();
+    private ScheduledFuture<?> lingerTask;
+    private boolean completed;
+
+    EventBatch(String format, int maxEvents, Charset charset, ByteBufAllocator allocator) {
+        this.format = format;
+        this.charset = charset;
+        // Each event adds its payload and a delimiter, hence keep enough components to avoid consolidation
+        this.body = allocator.compositeBuffer((int) Math.min(Integer.MAX_VALUE, 2L * maxEvents + 2));
+        if (HttpConstants.BATCH_FORMAT_JSON.equals(format)) {
+            body.addComponent(true, delimiter(JSON_ARRAY_START, "["));
+        }
+    }
+
+    void add(Object payload, DynamicOptions dynamicOptions, ByteBuf encodedPayload) {
+        if (!payloads.isEmpty()) {
+            ByteBuf separator = getSeparator();
+            if (separator != null) {
+                body.addComponent(true, separator);
+            }
+        }
+        body.addComponent(true, encodedPayload);
+        if (HttpConstants.BATCH_FORMAT_NDJSON.equals(format)) {
+            body.addComponent(true, delimiter(NEW_LINE, "\n"));
+        }
+        payloads.add(payload);
+        dynamicOptionsList.add(dynamicOptions);
+    }
+
+    /**
+     * Returns the size of the completed batch body, if the given payload is added to the batch.
+     *
+     * @param encodedPayload the encoded payload.
+     * @return the body size in bytes including the delimiters.
+     */
+    int getByteSizeWith(ByteBuf encodedPayload) {
+        int byteSize = body.readableBytes() + encodedPayload.readableBytes();
+        switch (format) {
+            case HttpConstants.BATCH_FORMAT_JSON:
+                return byteSize + (payloads.isEmpty() ? 1 : 2);
+            case HttpConstants.BATCH_FORMAT_NDJSON:
+                return byteSize + 1;
+            default:
+                return byteSize + (payloads.isEmpty() ? 0 : 1);
+        }
+    }
+
+    /**
+     * Close the batch by adding its trailing delimiter, after which no events can be added.
+     */
+    void complete() {
+        if (!completed) {
+            completed = true;
+            if (HttpConstants.BATCH_FORMAT_JSON.equals(format)) {
+                body.addComponent(true, delimiter(JSON_ARRAY_END, "]"));
+            }
+            if (lingerTask != null) {
+                lingerTask.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Returns a retained view of the batch body, so that the body can be sent more than once (e.g. when the
+     * request is retried after refreshing the access token). The view has to be released by the user.
+     *
+     * @return the request body.
+     */
+    public ByteBuf getBody() {
+        return body.retainedDuplicate();
+    }
+
+    /**
+     * Retain the batch body, to be released once more with {@link #release()}.
+     */
+    public void retain() {
+        body.retain();
+    }
+
+    /**
+     * Release the batch body.
+     */
+    public void release() {
+        body.release();
+    }
+
+    public int size() {
+        return payloads.size();
+    }
+
+    public int getByteSize() {
+        return body.readableBytes();
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public List<Object> getPayloads() {
+        return Collections.unmodifiableList(payloads);
+    }
+
+    public List<DynamicOptions> getDynamicOptionsList() {
+        return Collections.unmodifiableList(dynamicOptionsList);
+    }
+
+    /**
+     * Returns the time the batch was created, which is when its first event was added.
+     *
+     * @return the {@link System#nanoTime()} at the creation.
+     */
+    public long getCreatedTime() {
+        return createdTime;
+    }
+
+    public DynamicOptions getLastDynamicOptions() {
+        return dynamicOptionsList.get(dynamicOptionsList.size() - 1);
+    }
+
+    void setLingerTask(ScheduledFuture<?> lingerTask) {
+        this.lingerTask = lingerTask;
+    }
+
+    private ByteBuf getSeparator() {
+        switch (format) {
+            case HttpConstants.BATCH_FORMAT_JSON:
+                return delimiter(JSON_ARRAY_SEPARATOR, ",");
+            case HttpConstants.BATCH_FORMAT_TEXT:
+                return delimiter(NEW_LINE, "\n");
+            default:
+                return null;
+        }
+    }
+
+    private ByteBuf delimiter(ByteBuf utf8Delimiter, String delimiter) {
+        return StandardCharsets.UTF_8.equals(charset) ? utf8Delimiter.duplicate() :
+                Unpooled.copiedBuffer(delimiter, charset);
+    }
+
+    private static ByteBuf constant(String value) {
+        return Unpooled.unreleasableBuffer(Unpooled.copiedBuffer(value, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.io.http.sink;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.handler.codec.http.HttpUtil;
+import io.siddhi.core.util.transport.DynamicOptions;
+import io.siddhi.extension.io.http.sink.exception.HttpSinkAdaptorRuntimeException;
+import io.siddhi.extension.io.http.sink.util.HttpSinkUtil;
+import io.siddhi.extension.io.http.util.HttpConstants;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * {@code EventBatcher} accumulates the mapped payloads of a sink per endpoint and hands them over as a single
+ * {@link EventBatch} once the batch reaches its event count or byte size limit, or has been open for the linger
+ * time. Linger timeouts of all the sinks are tracked by a single shared timer thread.
+ */
+public class EventBatcher {
+    private static final Logger log = LogManager.getLogger(EventBatcher.class);
+    private static final ScheduledExecutorService LINGER_TIMER = Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+                Thread thread = new Thread(runnable, "SiddhiHttpSinkBatchLingerTimer");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final int batchSize;
+    private final long batchBytes;
+    private final long lingerTime;
+    private final Consumer<EventBatch> flushHandler;
+    private final Executor flushExecutor;
+    private final Map<String, EventBatch> batches = new HashMap<>();
+    private String format;
+
+    /**
+     * Create the event batcher.
+     *
+     * @param batchSize     maximum number of events in a batch.
+     * @param batchBytes    maximum size of a batch body in bytes, non positive for no limit.
+     * @param lingerTime    maximum time in millis an incomplete batch waits for more events.
+     * @param format        batch format, null to select it from the map type of the first event.
+     * @param flushHandler  sends the completed batches.
+     * @param flushExecutor executes the flushes triggered by the linger timer.
+     */
+    public EventBatcher(int batchSize, long batchBytes, long lingerTime, String format,
+                        Consumer<EventBatch> flushHandler, Executor flushExecutor) {
+        this.batchSize = batchSize;
+        this.batchBytes = batchBytes;
+        this.lingerTime = lingerTime;
+        this.format = format;
+        this.flushHandler = flushHandler;
+        this.flushExecutor = flushExecutor;
+    }
+
+    /**
+     * Add an event to the batch of the given endpoint, flushing the batches that got completed.
+     *
+     * @param endpointKey    key identifying the endpoint, method and headers of the event.
+     * @param payload        mapped payload of the event.
+     * @param dynamicOptions dynamic options of the event.
+     * @param mapType        map type of the sink.
+     * @param contentType    content type of the event, the charset of which the batch body is encoded in. The
+     *                       events of an endpoint key are expected to have the same content type.
+     */
+    public void add(String endpointKey, Object payload, DynamicOptions dynamicOptions, String mapType,
+                    String contentType) {
+        if (!(payload instanceof String)) {
+            throw new HttpSinkAdaptorRuntimeException("Batching is not supported with the '" + mapType +
+                    "' map type.");
+        }
+        List<EventBatch> completedBatches = null;
+        synchronized (this) {
+            if (format == null) {
+                format = getDefaultFormat(mapType);
+            }
+            ByteBuf encodedPayload = HttpSinkUtil.encodeBody((String) payload, contentType);
+            EventBatch batch = batches.get(endpointKey);
+            if (batch != null && batchBytes > 0 && batch.getByteSizeWith(encodedPayload) > batchBytes) {
+                completedBatches = new ArrayList<>(2);
+                completedBatches.add(detach(endpointKey, batch));
+                batch = null;
+            }
+            if (batch == null) {
+                batch = new EventBatch(format, batchSize, HttpUtil.getCharset(contentType, StandardCharsets.UTF_8),
+                        PooledByteBufAllocator.DEFAULT);
+                batches.put(endpointKey, batch);
+                if (lingerTime > 0) {
+                    EventBatch lingeringBatch = batch;
+                    batch.setLingerTask(LINGER_TIMER.schedule(() -> flushOnLinger(endpointKey, lingeringBatch),
+                            lingerTime, TimeUnit.MILLISECONDS));
+                }
+            }
+            batch.add(payload, dynamicOptions, encodedPayload);
+            if (batch.size() >= batchSize || (batchBytes > 0 && batch.getByteSize() >= batchBytes)) {
+                if (completedBatches == null) {
+                    completedBatches = new ArrayList<>(1);
+                }
+                completedBatches.add(detach(endpointKey, batch));
+            }
+        }
+        if (completedBatches != null) {
+            for (EventBatch completedBatch : completedBatches) {
+                flushHandler.accept(completedBatch);
+            }
+        }
+    }
+
+    /**
+     * Flush all the pending batches in the caller's thread.
+     */
+    public void flushAll() {
+        List<EventBatch> completedBatches;
+        synchronized (this) {
+            completedBatches = new ArrayList<>(batches.size());
+            for (EventBatch batch : batches.values()) {
+                batch.complete();
+                completedBatches.add(batch);
+            }
+            batches.clear();
+        }
+        for (EventBatch completedBatch : completedBatches) {
+            flushHandler.accept(completedBatch);
+        }
+    }
+
+    private void flushOnLinger(String endpointKey, EventBatch batch) {
+        synchronized (this) {
+            // The batch might have been already flushed due to reaching its size
+            if (batches.get(endpointKey) != batch) {
+                return;
+            }
+            detach(endpointKey, batch);
+        }
+        try {
+            flushExecutor.execute(() -> flushHandler.accept(batch));
+        } catch (RuntimeException e) {
+            log.error("Failed to flush the batch of " + batch.size() + " events of endpoint '" + endpointKey +
+                    "'.", e);
+            batch.release();
+        }
+    }
+
+    private EventBatch detach(String endpointKey, EventBatch batch) {
+        batches.remove(endpointKey);
+        batch.complete();
+        return batch;
+    }
+
+    private static String getDefaultFormat(String mapType) {
+        return HttpConstants.MAP_JSON.equals(mapType) ? HttpConstants.BATCH_FORMAT_JSON :
+                HttpConstants.BATCH_FORMAT_TEXT;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.io.http.sink;
+
+import io.siddhi.extension.io.http.metrics.LatencyHistogram;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@code HedgingPolicy} decides when a duplicate of a slow request is sent, so that a response delayed by a stall
+ * of the endpoint does not hold up the call. The delay is either fixed, or the given percentile of the latencies
+ * observed per endpoint, recomputed as the latencies are recorded and reset after a window of latencies so that
+ * it follows the changes in the endpoint.
+ * The hedges are limited to a percentage of the requests by a token bucket, which each request fills with the
+ * budget and each hedge drains by one token, so that hedging does not overload an endpoint which is slow for all
+ * the requests.
+ */
+public class HedgingPolicy {
+    private static final int MIN_LATENCIES = 100;
+    private static final int LATENCY_WINDOW = 10000;
+    private static final long TOKEN = 100;
+    private static final long MAX_TOKENS = 10 * TOKEN;
+
+    private final long delay;
+    private final double percentile;
+    private final long budget;
+    private final AtomicLong tokens = new AtomicLong();
+    private final Map<String, EndpointLatencies> endpointLatencies = new ConcurrentHashMap<>();
+
+    /**
+     * Create the hedging policy.
+     *
+     * @param delay      time in millis after which a request is hedged, or till enough latencies are observed when
+     *                   the delay is adaptive.
+     * @param percentile percentile of the observed latencies after which a request is hedged, non positive for a
+     *                   fixed delay.
+     * @param budget     maximum hedges as a percentage of the requests.
+     */
+    public HedgingPolicy(long delay, double percentile, int budget) {
+        this.delay = TimeUnit.MILLISECONDS.toNanos(delay);
+        this.percentile = percentile;
+        this.budget = budget * TOKEN / 100;
+    }
+
+    /**
+     * Returns the time after which a request to the given endpoint is hedged, accounting the request in the
+     * hedge budget.
+     *
+     * @param publisherURL the url of the request.
+     * @return the delay in nanos, non positive if the request is not hedged.
+     */
+    public long getDelay(String publisherURL) {
+        tokens.accumulateAndGet(budget, (current, added) -> Math.min(current + added, MAX_TOKENS));
+        if (percentile > 0) {
+            EndpointLatencies latencies = endpointLatencies.get(publisherURL);
+            if (latencies != null && latencies.percentileLatency > 0) {
+                return latencies.percentileLatency;
+            }
+        }
+        return delay;
+    }
+
+    /**
+     * Take a token from the hedge budget.
+     *
+     * @return true if a hedge can be sent.
+     */
+    public boolean tryAcquire() {
+        long current;
+        do {
+            current = tokens.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!tokens.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+
+    /**
+     * Record the time taken for the response of a request to the given endpoint.
+     *
+     * @param publisherURL the url of the request.
+     * @param latency      the latency in nanos.
+     */
+    public void recordLatency(String publisherURL, long latency) {
+        if (percentile > 0) {
+            endpointLatencies.computeIfAbsent(publisherURL, url -> new EndpointLatencies()).record(latency);
+        }
+    }
+
+    private class EndpointLatencies {
+        private volatile LatencyHistogram latencies = new LatencyHistogram();
+        // Kept from the last window till the new window has enough latencies
+        private volatile long percentileLatency;
+
+        private void record(long latency) {
+            LatencyHistogram histogram = latencies;
+            histogram.record(latency);
+            long count = histogram.getCount();
+            if (count % MIN_LATENCIES == 0) {
+                percentileLatency = histogram.getValueAtPercentile(percentile);
+                if (count >= LATENCY_WINDOW) {
+                    latencies = new LatencyHistogram();
+                }
+            }
+        }
+    }
+}
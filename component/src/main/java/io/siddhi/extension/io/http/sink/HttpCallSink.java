@@ -17,11 +17,7 @@
  */
 package io.siddhi.extension.io.http.sink;
 
-import io.netty.buffer.Unpooled;
-import io.netty.handler.codec.http.DefaultHttpRequest;
-import io.netty.handler.codec.http.DefaultLastHttpContent;
-import io.netty.handler.codec.http.HttpMethod;
-import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.Timeout;
 import io.siddhi.annotation.Example;
 import io.siddhi.annotation.Extension;
 import io.siddhi.annotation.Parameter;
@@ -30,11 +26,15 @@ import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiAppContext;
 import io.siddhi.core.event.Event;
 import io.siddhi.core.exception.ConnectionUnavailableException;
+import io.siddhi.core.exception.SiddhiAppCreationException;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.snapshot.state.StateFactory;
 import io.siddhi.core.util.transport.DynamicOptions;
 import io.siddhi.core.util.transport.Option;
 import io.siddhi.core.util.transport.OptionHolder;
+import io.siddhi.extension.io.http.sink.cache.CachedResponse;
+import io.siddhi.extension.io.http.sink.cache.ResponseCache;
+import io.siddhi.extension.io.http.sink.cache.ResponseCachingListener;
 import io.siddhi.extension.io.http.sink.util.HttpSinkUtil;
 import io.siddhi.extension.io.http.source.HttpResponseMessageListener;
 import io.siddhi.extension.io.http.util.HttpConstants;
@@ -43,19 +43,18 @@ import io.siddhi.query.api.definition.StreamDefinition;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.wso2.carbon.messaging.Header;
-import org.wso2.transport.http.netty.contract.Constants;
-import org.wso2.transport.http.netty.contract.HttpResponseFuture;
+import org.wso2.transport.http.netty.contract.HttpConnectorListener;
 import org.wso2.transport.http.netty.message.HttpCarbonMessage;
 
-import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
-
-import static io.siddhi.extension.io.http.util.HttpConstants.EMPTY_STRING;
-
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * {@code HttpCallSink} Handle the HTTP calling tasks.
@@ -71,8 +70,11 @@ import static io.siddhi.extension.io.http.util.HttpConstants.EMPTY_STRING;
                         description = "The URL which should be called.\n" +
                                 "Examples:\n" +
                                 "`http://localhost:8080/endpoint`,\n" +
-                                "`https://localhost:8080/endpoint`",
-                        type = {DataType.STRING}),
+                                "`https://localhost:8080/endpoint`\n" +
+                                "Not needed when `publisher.urls` or `publisher.urls.file` is given.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "-"),
                 @Parameter(
                         name = "sink.id",
                         description = "Identifier to correlate the http-call sink to its corresponding " +
@@ -337,6 +339,321 @@ import static io.siddhi.extension.io.http.util.HttpConstants.EMPTY_STRING;
                         type = {DataType.BOOL},
                         optional = true,
                         defaultValue = "true"),
+                @Parameter(
+                        name = "client.connector.cache.size",
+                        description = "Maximum number of client connectors (one per scheme, host and port) kept " +
+                                "when the `publisher.url` is dynamic. The least recently used connector is closed " +
+                                "when the limit is exceeded.",
+                        type = {DataType.INT},
+                        optional = true,
+                        defaultValue = "100"),
+                @Parameter(
+                        name = "client.connector.cache.idle.timeout",
+                        description = "Time (in millis) after which an unused client connector of a dynamic " +
+                                "`publisher.url` is closed and removed.",
+                        type = {DataType.LONG},
+                        optional = true,
+                        defaultValue = "300000"),
+                @Parameter(
+                        name = "batch.size",
+                        description = "Maximum number of events sent in a single request. When greater than `1`, " +
+                                "the mapped payloads of the events are batched per endpoint, and sent as a single " +
+                                "request once the batch is full or `batch.linger.ms` has elapsed. " +
+                                "The response of a batched request is routed with the transport properties of the " +
+                                "last event in the batch, hence the transport properties of the other events are " +
+                                "not available with the response. Use a batch size of `1` when the responses have " +
+                                "to be correlated with each event. Batching cannot be used with " +
+                                "`downloading.enabled`.",
+                        type = {DataType.INT},
+                        optional = true,
+                        defaultValue = "1"),
+                @Parameter(
+                        name = "batch.bytes",
+                        description = "Maximum size (in bytes) of a batched request body. `0` for no limit.",
+                        type = {DataType.LONG},
+                        optional = true,
+                        defaultValue = "0"),
+                @Parameter(
+                        name = "batch.linger.ms",
+                        description = "Maximum time (in millis) an incomplete batch waits for more events " +
+                                "before it is sent.",
+                        type = {DataType.LONG},
+                        optional = true,
+                        defaultValue = "100"),
+                @Parameter(
+                        name = "batch.format",
+                        description = "Format of the batched request body. Supports `json` (a JSON array of " +
+                                "the payloads), `ndjson` (newline delimited JSON) and `text` (payloads joined " +
+                                "with new lines). Batching is not supported with the `keyvalue` mapper.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "`json` for the `json` mapper, `text` otherwise"),
+                @Parameter(
+                        name = "token.refresh.skew",
+                        description = "Time (in millis) before the expiry of an OAuth access token at which it is " +
+                                "refreshed in the background, when the token endpoint specifies the `expires_in` " +
+                                "of the token. Until then the cached token is used without contacting the token " +
+                                "endpoint.",
+                        type = {DataType.LONG},
+                        optional = true,
+                        defaultValue = "30000"),
+                @Parameter(
+                        name = "max.inflight.requests",
+                        description = "Maximum number of requests sent to an endpoint (scheme, host and port) " +
+                                "which are still waiting for their responses. Once reached, the events wait for " +
+                                "`inflight.request.wait.time` and then fail with a connection unavailable error, " +
+                                "so that they are handled by the `on.error` action of the sink. `0` does not " +
+                                "bound the in-flight requests.",
+                        type = {DataType.INT},
+                        optional = true,
+                        defaultValue = "0"),
+                @Parameter(
+                        name = "inflight.request.wait.time",
+                        description = "Maximum time (in millis) an event waits for an in-flight request to " +
+                                "complete when `max.inflight.requests` is reached. `0` fails the event right away.",
+                        type = {DataType.LONG},
+                        optional = true,
+                        defaultValue = "0"),
+                @Parameter(
+                        name = "retry.max.attempts",
+                        description = "Maximum number of times a request is sent, including the first attempt. " +
+                                "Requests failing due to connection errors or responded with one of the " +
+                                "`retry.status.codes` are sent again after an exponential backoff with jitter, " +
+                                "without blocking the publishing threads. `1` disables the retries.",
+                        type = {DataType.INT},
+                        optional = true,
+                        defaultValue = "1"),
+                @Parameter(
+                        name = "retry.backoff.initial",
+                        description = "Upper bound of the random wait (in millis) before the first retry, which " +
+                                "doubles with each retry.",
+                        type = {DataType.LONG},
+                        optional = true,
+                        defaultValue = "100"),
+                @Parameter(
+                        name = "retry.backoff.max",
+                        description = "Maximum upper bound of the random wait (in millis) before a retry.",
+                        type = {DataType.LONG},
+                        optional = true,
+                        defaultValue = "10000"),
+                @Parameter(
+                        name = "retry.status.codes",
+                        description = "Comma separated response status codes for which the request is retried.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "429,502,503,504"),
+                @Parameter(
+                        name = "circuit.breaker.failure.threshold",
+                        description = "Number of consecutive connection errors or `5xx` responses of an endpoint " +
+                                "(scheme, host and port) after which its circuit breaker opens, failing the " +
+                                "events of the endpoint right away with a connection unavailable error. After " +
+                                "`circuit.breaker.open.time` a single trial request is sent, which closes the " +
+                                "circuit on success. `0` disables the circuit breaker.",
+                        type = {DataType.INT},
+                        optional = true,
+                        defaultValue = "0"),
+                @Parameter(
+                        name = "circuit.breaker.open.time",
+                        description = "Time (in millis) the circuit breaker of an endpoint stays open before a " +
+                                "trial request is sent.",
+                        type = {DataType.LONG},
+                        optional = true,
+                        defaultValue = "30000"),
+                @Parameter(
+                        name = "publisher.urls",
+                        description = "Comma separated URLs of the replicas of the endpoint, across which the " +
+                                "requests are load balanced. Either `publisher.url`, `publisher.urls` or " +
+                                "`publisher.urls.file` should be given.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "-"),
+                @Parameter(
+                        name = "publisher.urls.file",
+                        description = "Path of a file listing the URLs of the replicas of the endpoint, one per " +
+                                "line, across which the requests are load balanced. Empty lines and lines starting " +
+                                "with `#` are ignored. The file is read again when it is modified, keeping the " +
+                                "state of the URLs still listed.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "-"),
+                @Parameter(
+                        name = "load.balancing.strategy",
+                        description = "Strategy to select the URL of a request when load balancing. Supported " +
+                                "strategies are:\n" +
+                                "`round-robin`: Select the URLs in turn.\n" +
+                                "`least-inflight`: Select the URL with the least requests waiting for responses." +
+                                "\n`power-of-two-choices`: Pick two URLs at random and select the one with the " +
+                                "least in-flight requests weighted by its average response time.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "round-robin"),
+                @Parameter(
+                        name = "endpoint.ejection.time",
+                        description = "Time (in millis) a load balanced URL is not selected after a connection " +
+                                "error.",
+                        type = {DataType.LONG},
+                        optional = true,
+                        defaultValue = "30000"),
+                @Parameter(
+                        name = "endpoint.warmup.time",
+                        description = "Time (in millis) over which an ejected URL gets back its full share of the " +
+                                "requests, once its ejection time has elapsed.",
+                        type = {DataType.LONG},
+                        optional = true,
+                        defaultValue = "30000"),
+                @Parameter(
+                        name = "http.version",
+                        description = "HTTP version used to send the requests, either `1.1` or `2.0`. With " +
+                                "`2.0` the concurrent requests to an endpoint are multiplexed as streams over " +
+                                "a connection, negotiated through ALPN for `https` and the h2c upgrade for " +
+                                "`http`, falling back to HTTP/1.1 when the endpoint does not support HTTP/2.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "1.1"),
+                @Parameter(
+                        name = "http2.prior.knowledge",
+                        description = "When `http.version` is `2.0`, send HTTP/2 requests to `http` endpoints " +
+                                "right away without the h2c upgrade, for endpoints known to support HTTP/2.",
+                        type = {DataType.BOOL},
+                        optional = true,
+                        defaultValue = "false"),
+                @Parameter(
+                        name = "http2.max.active.streams.per.connection",
+                        description = "Maximum number of concurrent requests sent over a single HTTP/2 " +
+                                "connection, after which a new connection is opened to the endpoint.",
+                        type = {DataType.INT},
+                        optional = true,
+                        defaultValue = "100"),
+                @Parameter(
+                        name = "compression",
+                        description = "Content coding used to compress the request bodies, either `gzip` or " +
+                                "`deflate`. The `Content-Encoding` header is set on the compressed requests. " +
+                                "Bodies which do not shrink are sent uncompressed. Requests are not compressed " +
+                                "when this is not given.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "-"),
+                @Parameter(
+                        name = "compression.min.bytes",
+                        description = "Size (in bytes) below which the request bodies are sent uncompressed, as " +
+                                "compressing small bodies costs more than it saves.",
+                        type = {DataType.INT},
+                        optional = true,
+                        defaultValue = "1024"),
+                @Parameter(
+                        name = "hedge.delay",
+                        description = "Time (in millis) after which a duplicate of a request is sent if its " +
+                                "response has not been received, to another endpoint when `publisher.urls` is " +
+                                "given or else over another connection. The first response is passed to the " +
+                                "http-call-response source and the other one is discarded. When " +
+                                "`hedge.delay.percentile` is given, this is the delay used till enough responses " +
+                                "are received from the endpoint. As the request might be processed twice, this " +
+                                "should only be used with idempotent requests. Zero disables hedging.",
+                        type = {DataType.LONG},
+                        optional = true,
+                        defaultValue = "0"),
+                @Parameter(
+                        name = "hedge.delay.percentile",
+                        description = "Percentile of the response times of the endpoint after which a duplicate " +
+                                "of a request is sent, such as `95`, so that the hedge delay follows the " +
+                                "latencies of the endpoint. Zero uses the fixed `hedge.delay`.",
+                        type = {DataType.DOUBLE},
+                        optional = true,
+                        defaultValue = "0"),
+                @Parameter(
+                        name = "hedge.budget",
+                        description = "Maximum duplicate requests sent, as a percentage of the requests, so that " +
+                                "hedging does not overload an endpoint which is slow for all the requests.",
+                        type = {DataType.INT},
+                        optional = true,
+                        defaultValue = "10"),
+                @Parameter(
+                        name = "response.cache.max.entries",
+                        description = "Maximum number of responses of `GET` requests to cache by their url. The " +
+                                "cached responses are passed to the http-call-response source without sending the " +
+                                "request while they are fresh as given by their `Cache-Control: max-age`, and are " +
+                                "revalidated with a conditional request using their `ETag` or `Last-Modified` once " +
+                                "stale. Responses marked `no-store` are not cached, and the ones with a `Vary` " +
+                                "header are only used for requests with the same values of those headers. The " +
+                                "least recently used responses are evicted. Zero disables the cache.",
+                        type = {DataType.INT},
+                        optional = true,
+                        defaultValue = "0"),
+                @Parameter(
+                        name = "response.cache.max.size",
+                        description = "Maximum total size (in bytes) of the cached responses.",
+                        type = {DataType.LONG},
+                        optional = true,
+                        defaultValue = "67108864"),
+                @Parameter(
+                        name = "request.coalescing",
+                        description = "Whether the events resolving to an identical `GET` request, that is with " +
+                                "the same url and headers, share the request in flight for it instead of each " +
+                                "sending its own. The response is passed to the http-call-response source once " +
+                                "for each of the events, with their own transport properties.",
+                        type = {DataType.BOOL},
+                        optional = true,
+                        defaultValue = "false"),
+                @Parameter(
+                        name = "request.coalescing.headers",
+                        description = "Comma separated names of the request headers which tell identical requests " +
+                                "apart when coalescing, such as `'Accept, Accept-Language'`. All the headers " +
+                                "are considered if this is not given.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "-"),
+                @Parameter(
+                        name = "request.coalescing.max.body.size",
+                        description = "Maximum size (in bytes) of a response body held in memory to be passed to " +
+                                "all the events sharing the request. A larger response is passed to the event " +
+                                "which sent the request only, while each of the other events sends its own " +
+                                "request.",
+                        type = {DataType.LONG},
+                        optional = true,
+                        defaultValue = "1048576"),
+                @Parameter(
+                        name = "ordered.io",
+                        description = "Passes the responses to the http-call-response source in the order the " +
+                                "events arrived, like `blocking.io`, while still sending the later requests " +
+                                "before the earlier ones are responded. A response arriving ahead of the " +
+                                "responses of earlier requests is held till they arrive. The http-call-response " +
+                                "source should have a `worker.count` of 1 to keep the order when processing the " +
+                                "responses.",
+                        type = {DataType.BOOL},
+                        optional = true,
+                        defaultValue = "false"),
+                @Parameter(
+                        name = "ordered.io.max.inflight.requests",
+                        description = "Maximum number of requests waiting for their responses to be passed on in " +
+                                "`ordered.io` mode, beyond which the publisher waits for the earliest one. A " +
+                                "request failed due to the `ordered.io.timeout` is still counted till its response " +
+                                "or error is received from the transport.",
+                        type = {DataType.INT},
+                        optional = true,
+                        defaultValue = "100"),
+                @Parameter(
+                        name = "ordered.io.timeout",
+                        description = "Time (in millis) after which a request not responded is failed in " +
+                                "`ordered.io` mode, so that it does not hold up the responses of the later " +
+                                "requests.",
+                        type = {DataType.LONG},
+                        optional = true,
+                        defaultValue = "30000"),
+                @Parameter(
+                        name = "download.fsync",
+                        description = "Whether a downloaded file is flushed to the disk before it is moved to the " +
+                                "`download.path`. The file is written to a temporary file in the same directory " +
+                                "as the content arrives, and moved to the `download.path` once complete.",
+                        type = {DataType.BOOL},
+                        optional = true,
+                        defaultValue = "false"),
+                @Parameter(
+                        name = "download.timeout",
+                        description = "Time (in millis) without any content of a downloaded file arriving after " +
+                                "which the download is failed, and the partially downloaded file is deleted.",
+                        type = {DataType.LONG},
+                        optional = true,
+                        defaultValue = "60000"),
         },
         examples = {
                 @Example(syntax = "" +
@@ -440,8 +757,15 @@ public class HttpCallSink extends HttpSink {
     private String sinkId;
     private boolean isDownloadEnabled;
     private Option downloadPath;
+    private boolean isDownloadFsync;
+    private long downloadTimeout;
     private boolean isBlockingIO;
     private StreamDefinition outputStreamDefinition;
+    private HedgingPolicy hedgingPolicy;
+    private ResponseCache responseCache;
+    private RequestCoalescer requestCoalescer;
+    private String[] coalescingHeaderNames;
+    private ResponseReorderBuffer responseReorderBuffer;
 
     @Override
     protected StateFactory init(StreamDefinition outputStreamDefinition, OptionHolder optionHolder,
@@ -453,63 +777,228 @@ public class HttpCallSink extends HttpSink {
                 .DOWNLOAD_ENABLED, HttpConstants.DEFAULT_DOWNLOAD_ENABLED_VALUE));
         if (isDownloadEnabled) {
             this.downloadPath = optionHolder.validateAndGetOption(HttpConstants.DOWNLOAD_PATH);
+            this.isDownloadFsync = Boolean.parseBoolean(optionHolder.validateAndGetStaticValue(
+                    HttpConstants.DOWNLOAD_FSYNC, HttpConstants.FALSE));
+            this.downloadTimeout = Long.parseLong(optionHolder.validateAndGetStaticValue(
+                    HttpConstants.DOWNLOAD_TIMEOUT, HttpConstants.DEFAULT_DOWNLOAD_TIMEOUT));
+            if (downloadTimeout < 1) {
+                throw new SiddhiAppCreationException(HttpConstants.DOWNLOAD_TIMEOUT + " should be a positive " +
+                        "integer, but found '" + downloadTimeout + "' in " + HttpConstants.HTTP_SINK_ID +
+                        " with the stream " + streamID);
+            }
+        }
+        if (isDownloadEnabled && isBatchingEnabled()) {
+            throw new SiddhiAppCreationException(HttpConstants.DOWNLOAD_ENABLED + " cannot be used with " +
+                    HttpConstants.BATCH_SIZE + " greater than 1 in http-call sink with the stream " + streamID +
+                    ", as the response of a batched request cannot be downloaded for each event.");
         }
         isBlockingIO = Boolean.parseBoolean(
                 optionHolder.validateAndGetStaticValue(HttpConstants.BLOCKING_IO, HttpConstants.FALSE));
         initMetrics(outputStreamDefinition.getId());
+        initResponseReorderBuffer(optionHolder);
+        initHedgingPolicy(optionHolder);
+        initResponseCache(optionHolder);
+        initRequestCoalescer(optionHolder);
         return stateFactory;
     }
 
-    @Override
-    protected int sendRequest(Object payload, DynamicOptions dynamicOptions, List<Header> headersList,
-                              ClientConnector clientConnector)
-            throws ConnectionUnavailableException {
-        if (!publisherURLOption.isStatic()) {
-            super.createClientConnector(dynamicOptions);
+    private void initResponseReorderBuffer(OptionHolder optionHolder) {
+        if (!Boolean.parseBoolean(optionHolder.validateAndGetStaticValue(HttpConstants.ORDERED_IO,
+                HttpConstants.FALSE))) {
+            return;
         }
-
-        String publisherURL;
-        if (publisherURLOption.isStatic()) {
-            publisherURL = publisherURLOption.getValue();
-        } else {
-            publisherURL = publisherURLOption.getValue(dynamicOptions);
+        if (isBlockingIO) {
+            throw new SiddhiAppCreationException(HttpConstants.ORDERED_IO + " and " + HttpConstants.BLOCKING_IO +
+                    " cannot be enabled together in http-call sink with the stream " + streamID);
+        }
+        int maxInflightRequests = Integer.parseInt(optionHolder.validateAndGetStaticValue(
+                HttpConstants.ORDERED_IO_MAX_INFLIGHT_REQUESTS,
+                HttpConstants.DEFAULT_ORDERED_IO_MAX_INFLIGHT_REQUESTS));
+        long timeout = Long.parseLong(optionHolder.validateAndGetStaticValue(HttpConstants.ORDERED_IO_TIMEOUT,
+                HttpConstants.DEFAULT_ORDERED_IO_TIMEOUT));
+        if (maxInflightRequests < 1) {
+            throw new SiddhiAppCreationException(HttpConstants.ORDERED_IO_MAX_INFLIGHT_REQUESTS + " should be a " +
+                    "positive integer, but found '" + maxInflightRequests + "' in " + HttpConstants.HTTP_SINK_ID +
+                    " with the stream " + streamID);
         }
+        if (timeout < 1) {
+            throw new SiddhiAppCreationException(HttpConstants.ORDERED_IO_TIMEOUT + " should be a positive " +
+                    "integer, but found '" + timeout + "' in " + HttpConstants.HTTP_SINK_ID + " with the stream " +
+                    streamID);
+        }
+        responseReorderBuffer = new ResponseReorderBuffer(maxInflightRequests, timeout, RETRY_TIMER);
+    }
 
-        if (mapType == null) {
-            mapType = getMapper().getType();
+    private void initHedgingPolicy(OptionHolder optionHolder) {
+        long hedgeDelay = Long.parseLong(optionHolder.validateAndGetStaticValue(HttpConstants.HEDGE_DELAY,
+                HttpConstants.DEFAULT_HEDGE_DELAY));
+        double hedgeDelayPercentile = Double.parseDouble(optionHolder.validateAndGetStaticValue(
+                HttpConstants.HEDGE_DELAY_PERCENTILE, HttpConstants.DEFAULT_HEDGE_DELAY_PERCENTILE));
+        int hedgeBudget = Integer.parseInt(optionHolder.validateAndGetStaticValue(HttpConstants.HEDGE_BUDGET,
+                HttpConstants.DEFAULT_HEDGE_BUDGET));
+        if (hedgeDelay < 0) {
+            throw new SiddhiAppCreationException(HttpConstants.HEDGE_DELAY + " should not be negative, but found '" +
+                    hedgeDelay + "' in " + HttpConstants.HTTP_SINK_ID + " with the stream " + streamID);
+        }
+        if (hedgeDelayPercentile < 0 || hedgeDelayPercentile >= 100) {
+            throw new SiddhiAppCreationException(HttpConstants.HEDGE_DELAY_PERCENTILE + " should be between 0 " +
+                    "and 100, but found '" + hedgeDelayPercentile + "' in " + HttpConstants.HTTP_SINK_ID +
+                    " with the stream " + streamID);
+        }
+        if (hedgeBudget < 1 || hedgeBudget > 100) {
+            throw new SiddhiAppCreationException(HttpConstants.HEDGE_BUDGET + " should be between 1 and 100, but " +
+                    "found '" + hedgeBudget + "' in " + HttpConstants.HTTP_SINK_ID + " with the stream " + streamID);
         }
+        if (hedgeDelay > 0 || hedgeDelayPercentile > 0) {
+            hedgingPolicy = new HedgingPolicy(hedgeDelay, hedgeDelayPercentile, hedgeBudget);
+        }
+    }
 
-        String httpMethod = EMPTY_STRING.equals(httpMethodOption.getValue(dynamicOptions)) ?
-                HttpConstants.METHOD_DEFAULT : httpMethodOption.getValue(dynamicOptions);
-        String contentType = HttpSinkUtil.getContentType(mapType, headersList);
-        String messageBody = getMessageBody(payload);
+    private void initResponseCache(OptionHolder optionHolder) {
+        int maxEntries = Integer.parseInt(optionHolder.validateAndGetStaticValue(
+                HttpConstants.RESPONSE_CACHE_MAX_ENTRIES, HttpConstants.DEFAULT_RESPONSE_CACHE_MAX_ENTRIES));
+        long maxSize = Long.parseLong(optionHolder.validateAndGetStaticValue(HttpConstants.RESPONSE_CACHE_MAX_SIZE,
+                HttpConstants.DEFAULT_RESPONSE_CACHE_MAX_SIZE));
+        if (maxEntries < 0) {
+            throw new SiddhiAppCreationException(HttpConstants.RESPONSE_CACHE_MAX_ENTRIES + " should not be " +
+                    "negative, but found '" + maxEntries + "' in " + HttpConstants.HTTP_SINK_ID + " with the " +
+                    "stream " + streamID);
+        }
+        if (maxEntries == 0) {
+            return;
+        }
+        if (maxSize < 1) {
+            throw new SiddhiAppCreationException(HttpConstants.RESPONSE_CACHE_MAX_SIZE + " should be a positive " +
+                    "integer, but found '" + maxSize + "' in " + HttpConstants.HTTP_SINK_ID + " with the stream " +
+                    streamID);
+        }
+        // A downloaded file is written by the http-call-response source, hence cannot be served from the cache
+        if (isDownloadEnabled) {
+            throw new SiddhiAppCreationException(HttpConstants.RESPONSE_CACHE_MAX_ENTRIES + " is not supported " +
+                    "with " + HttpConstants.DOWNLOAD_ENABLED + " in http-call sink with the stream " + streamID);
+        }
+        responseCache = new ResponseCache(maxEntries, maxSize);
+        if (metrics != null) {
+            metrics.setResponseCacheMetrics(responseCache);
+        }
+    }
 
+    private void initRequestCoalescer(OptionHolder optionHolder) {
+        if (!Boolean.parseBoolean(optionHolder.validateAndGetStaticValue(HttpConstants.REQUEST_COALESCING,
+                HttpConstants.DEFAULT_REQUEST_COALESCING))) {
+            return;
+        }
+        // A downloaded file is written once by the http-call-response source, hence cannot be shared by the events
+        if (isDownloadEnabled) {
+            throw new SiddhiAppCreationException(HttpConstants.REQUEST_COALESCING + " is not supported with " +
+                    HttpConstants.DOWNLOAD_ENABLED + " in http-call sink with the stream " + streamID);
+        }
+        String coalescingHeaders = optionHolder.validateAndGetStaticValue(HttpConstants.REQUEST_COALESCING_HEADERS,
+                HttpConstants.EMPTY_STRING);
+        if (!coalescingHeaders.trim().isEmpty()) {
+            coalescingHeaderNames = coalescingHeaders.split(",");
+            for (int i = 0; i < coalescingHeaderNames.length; i++) {
+                coalescingHeaderNames[i] = coalescingHeaderNames[i].trim();
+            }
+        }
+        long maxBodySize = Long.parseLong(optionHolder.validateAndGetStaticValue(
+                HttpConstants.REQUEST_COALESCING_MAX_BODY_SIZE,
+                HttpConstants.DEFAULT_REQUEST_COALESCING_MAX_BODY_SIZE));
+        if (maxBodySize < 0) {
+            throw new SiddhiAppCreationException(HttpConstants.REQUEST_COALESCING_MAX_BODY_SIZE + " should not be " +
+                    "negative, but found '" + maxBodySize + "' in http-call sink with the stream " + streamID);
+        }
+        requestCoalescer = new RequestCoalescer(metrics, maxBodySize);
         if (metrics != null) {
-            metrics.getTotalWritesMetric().inc();
-            metrics.getTotalHttpWritesMetric(publisherURL).inc();
-            metrics.getRequestSizeMetric(publisherURL).inc(HttpSinkUtil.getByteSize(messageBody));
+            metrics.setRequestCoalescingMetrics(requestCoalescer);
+        }
+    }
+
+    @Override
+    protected void initSpool(OptionHolder optionHolder, String streamName) {
+        // The responses of the spooled requests could not be passed to the http-call-response source
+        if (optionHolder.isOptionExists(HttpConstants.SPOOL_DIR)) {
+            throw new SiddhiAppCreationException(HttpConstants.SPOOL_DIR + " is not supported in http-call sink " +
+                    "with the stream " + streamID);
+        }
+    }
+
+    @Override
+    protected int sendRequest(Object payload, DynamicOptions dynamicOptions, List<Header> headersList,
+                              ClientConnector clientConnector)
+            throws ConnectionUnavailableException {
+        if (mapType == null) {
+            mapType = getMapper().getType();
         }
 
-        HttpMethod httpReqMethod = new HttpMethod(httpMethod);
-        HttpCarbonMessage cMessage = new HttpCarbonMessage(
-                new DefaultHttpRequest(HttpVersion.HTTP_1_1, httpReqMethod, EMPTY_STRING));
-        cMessage = generateCarbonMessage(headersList, contentType, httpMethod, cMessage,
-                clientConnector.getHttpURLProperties());
-        if (!Constants.HTTP_GET_METHOD.equals(httpMethod)) {
-            cMessage.addHttpContent(new DefaultLastHttpContent(Unpooled.wrappedBuffer(messageBody
-                    .getBytes(Charset.defaultCharset()))));
-        }
-        cMessage.completeMessage();
-        HttpResponseFuture httpResponseFuture = clientConnector.send(cMessage);
         CountDownLatch latch = null;
-        if (isBlockingIO || HttpConstants.OAUTH.equals(authType)) {
+        if (isBlockingIO) {
             latch = new CountDownLatch(1);
         }
-        HttpResponseMessageListener httpListener = new HttpResponseMessageListener(this,
+        HttpConnectorListener httpListener = new HttpResponseMessageListener(this,
                 getTrpProperties(dynamicOptions), sinkId, isDownloadEnabled, latch,
                 payload, dynamicOptions, siddhiAppContext.getName(),
-                clientConnector.getPublisherURL(), metrics, startTime);
-        httpResponseFuture.setHttpConnectorListener(httpListener);
+                clientConnector.getPublisherURL(), metrics);
+        ResponseReorderBuffer.Slot slot = null;
+        if (responseReorderBuffer != null) {
+            slot = responseReorderBuffer.register(httpListener, clientConnector.getPublisherURL());
+            httpListener = slot;
+        }
+        HttpConnectorListener responseListener = httpListener;
+        boolean isGetRequest = HttpConstants.HTTP_METHOD_GET.equalsIgnoreCase(
+                httpMethodOption.getValue(dynamicOptions));
+        CachedResponse cachedResponse = null;
+        if (responseCache != null && isGetRequest) {
+            cachedResponse = responseCache.get(clientConnector.getPublisherURL(), headersList);
+            if (cachedResponse != null && cachedResponse.isFresh(System.currentTimeMillis())) {
+                if (metrics != null) {
+                    metrics.getResponseCacheHitsMetric().inc();
+                }
+                httpListener.onMessage(cachedResponse.toCarbonMessage());
+                return HttpConstants.SUCCESS_CODE;
+            }
+            if (metrics != null) {
+                metrics.getResponseCacheMissesMetric().inc();
+            }
+        }
+        RequestCoalescer.CoalescingListener coalescingListener = null;
+        // The body of a batch might be released by the time it has to be sent on its own, hence it is not coalesced
+        if (requestCoalescer != null && isGetRequest && !(payload instanceof EventBatch)) {
+            coalescingListener = requestCoalescer.join(getCoalescingKey(clientConnector.getPublisherURL(),
+                    headersList), httpListener, getUncoalescedSender(payload, dynamicOptions, headersList,
+                    clientConnector, httpListener));
+            responseListener = coalescingListener;
+        }
+        if (responseListener != null) {
+            if (responseCache != null && isGetRequest) {
+                List<Header> conditionalHeaders = cachedResponse != null ?
+                        cachedResponse.getConditionalHeaders() : null;
+                boolean isConditional = conditionalHeaders != null && !conditionalHeaders.isEmpty();
+                responseListener = new ResponseCachingListener(responseCache, clientConnector.getPublisherURL(),
+                        headersList, isConditional ? cachedResponse : null, responseListener, metrics);
+                if (isConditional) {
+                    List<Header> conditionalHeadersList = headersList != null ?
+                            new ArrayList<>(headersList) : new ArrayList<>();
+                    conditionalHeadersList.addAll(conditionalHeaders);
+                    headersList = conditionalHeadersList;
+                }
+            }
+            try {
+                if (hedgingPolicy != null) {
+                    new HedgedCall(payload, dynamicOptions, headersList, clientConnector, responseListener).send();
+                } else {
+                    send(payload, dynamicOptions, headersList, clientConnector, responseListener);
+                }
+            } catch (ConnectionUnavailableException | RuntimeException e) {
+                if (coalescingListener != null) {
+                    coalescingListener.abort(e);
+                }
+                if (slot != null) {
+                    slot.skip();
+                }
+                throw e;
+            }
+        }
 
         if (latch != null) {
             try {
@@ -527,13 +1016,24 @@ public class HttpCallSink extends HttpSink {
                 throw new ConnectionUnavailableException("Failed to get a response from " +
                         clientConnector.getPublisherURL() + ", " + e + ". Message dropped.");
             }
-            if (isBlockingIO) {
-                return HttpConstants.SUCCESS_CODE;
-            }
-            return httpListener.getHttpResponseStatusCode();
-        } else {
-            return HttpConstants.SUCCESS_CODE;
         }
+        return HttpConstants.SUCCESS_CODE;
+    }
+
+    /**
+     * Returns the sender of the own request of an event attached to a coalesced request, for when the response is
+     * too large to be shared. The request is sent in the sink executor, as the response arrives in an I/O thread
+     * while sending the request might wait for an in-flight request permit.
+     */
+    private Runnable getUncoalescedSender(Object payload, DynamicOptions dynamicOptions, List<Header> headersList,
+                                          ClientConnector clientConnector, HttpConnectorListener responseListener) {
+        return () -> executor.execute(() -> {
+            try {
+                send(payload, dynamicOptions, headersList, clientConnector, responseListener);
+            } catch (ConnectionUnavailableException | RuntimeException e) {
+                responseListener.onError(e);
+            }
+        });
     }
 
     @Override
@@ -542,6 +1042,28 @@ public class HttpCallSink extends HttpSink {
                 HttpConstants.DOWNLOAD_PATH, HttpConstants.PUBLISHER_URL, HttpConstants.RECEIVER_REFRESH_TOKEN};
     }
 
+    private String getCoalescingKey(String publisherURL, List<Header> headersList) {
+        StringBuilder key = new StringBuilder(publisherURL);
+        if (headersList != null) {
+            for (Header header : headersList) {
+                if (coalescingHeaderNames == null || isCoalescingHeader(header.getName())) {
+                    key.append(HttpConstants.NEW_LINE).append(header.getName().toLowerCase(Locale.ENGLISH))
+                            .append(':').append(header.getValue());
+                }
+            }
+        }
+        return key.toString();
+    }
+
+    private boolean isCoalescingHeader(String headerName) {
+        for (String coalescingHeaderName : coalescingHeaderNames) {
+            if (coalescingHeaderName.equalsIgnoreCase(headerName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private Map<String, Object> getTrpProperties(DynamicOptions dynamicOptions) {
         Event event = dynamicOptions.getEvent();
         Object[] data = event.getData();
@@ -552,8 +1074,130 @@ public class HttpCallSink extends HttpSink {
         }
         if (isDownloadEnabled) {
             trpProperties.put(HttpConstants.DOWNLOAD_PATH, downloadPath.getValue(dynamicOptions));
+            trpProperties.put(HttpConstants.DOWNLOAD_FSYNC, isDownloadFsync);
+            trpProperties.put(HttpConstants.DOWNLOAD_TIMEOUT, downloadTimeout);
         }
         return trpProperties;
     }
 
+    /**
+     * {@code HedgedCall} sends a request and, if its response is not received within the hedge delay, a duplicate
+     * of it. The first response is passed to the response listener and the other one is released as it arrives, as
+     * the transport cannot cancel a request already written. An error is passed on only when no other attempt of
+     * the request could still respond.
+     */
+    private class HedgedCall {
+        private final Object payload;
+        private final DynamicOptions dynamicOptions;
+        private final List<Header> headersList;
+        private final ClientConnector clientConnector;
+        private final HttpConnectorListener responseListener;
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private final AtomicInteger pendingAttempts = new AtomicInteger(1);
+        private final AtomicBoolean payloadReleased = new AtomicBoolean(true);
+        private volatile Timeout hedgeTimeout;
+
+        HedgedCall(Object payload, DynamicOptions dynamicOptions, List<Header> headersList,
+                   ClientConnector clientConnector, HttpConnectorListener responseListener) {
+            this.payload = payload;
+            this.dynamicOptions = dynamicOptions;
+            this.headersList = headersList;
+            this.clientConnector = clientConnector;
+            this.responseListener = responseListener;
+        }
+
+        void send() throws ConnectionUnavailableException {
+            long delay = hedgingPolicy.getDelay(clientConnector.getPublisherURL());
+            HttpCallSink.this.send(payload, dynamicOptions, headersList, clientConnector,
+                    new AttemptListener(clientConnector.getPublisherURL(), false));
+            if (delay > 0 && !completed.get()) {
+                if (payload instanceof EventBatch) {
+                    // Keep the batch body till the hedge is sent, as it is released once this request is sent
+                    ((EventBatch) payload).retain();
+                    payloadReleased.set(false);
+                }
+                // The hedge is sent in the sink executor, as sending waits for an in-flight request permit
+                hedgeTimeout = RETRY_TIMER.newTimeout(timeout -> executor.execute(this::sendHedge), delay,
+                        TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private void sendHedge() {
+            try {
+                if (completed.get() || !hedgingPolicy.tryAcquire()) {
+                    return;
+                }
+                ClientConnector hedgeClientConnector = getAlternateClientConnector(clientConnector);
+                pendingAttempts.incrementAndGet();
+                try {
+                    // The hedge is counted as a hedge rather than as a new write
+                    HttpCallSink.this.send(payload, dynamicOptions, headersList, hedgeClientConnector,
+                            new AttemptListener(hedgeClientConnector.getPublisherURL(), true), false);
+                } catch (ConnectionUnavailableException | RuntimeException e) {
+                    log.debug("Failed to send the hedged request to " + hedgeClientConnector.getPublisherURL() +
+                            " of the stream " + streamID + ", " + e);
+                    pendingAttempts.decrementAndGet();
+                    return;
+                }
+                if (metrics != null) {
+                    metrics.getTotalHedgesMetric(hedgeClientConnector.getPublisherURL()).inc();
+                }
+            } finally {
+                releasePayload();
+            }
+        }
+
+        private void cancelHedge() {
+            Timeout timeout = hedgeTimeout;
+            if (timeout != null && timeout.cancel()) {
+                releasePayload();
+            }
+        }
+
+        private void releasePayload() {
+            if (payloadReleased.compareAndSet(false, true)) {
+                ((EventBatch) payload).release();
+            }
+        }
+
+        /**
+         * {@code AttemptListener} passes on the outcome of an attempt of the call, if it is the first one.
+         */
+        private class AttemptListener implements HttpConnectorListener {
+            private final String publisherURL;
+            private final boolean hedge;
+            private final long sentTime = System.nanoTime();
+
+            AttemptListener(String publisherURL, boolean hedge) {
+                this.publisherURL = publisherURL;
+                this.hedge = hedge;
+            }
+
+            @Override
+            public void onMessage(HttpCarbonMessage httpCarbonMessage) {
+                hedgingPolicy.recordLatency(publisherURL, System.nanoTime() - sentTime);
+                if (!completed.compareAndSet(false, true)) {
+                    HttpSinkUtil.releaseContent(httpCarbonMessage);
+                    return;
+                }
+                cancelHedge();
+                if (hedge && metrics != null) {
+                    metrics.getTotalHedgesWonMetric(publisherURL).inc();
+                }
+                responseListener.onMessage(httpCarbonMessage);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                if (pendingAttempts.decrementAndGet() > 0) {
+                    // The other attempt might still respond
+                    return;
+                }
+                cancelHedge();
+                if (completed.compareAndSet(false, true)) {
+                    responseListener.onError(throwable);
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.io.http.sink;
+
+import io.siddhi.core.util.config.ConfigReader;
+import io.siddhi.extension.io.http.sink.util.HttpSinkUtil;
+import org.apache.commons.pool.ObjectPool;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.wso2.transport.http.netty.contract.HttpClientConnector;
+import org.wso2.transport.http.netty.contract.config.ProxyServerConfiguration;
+import org.wso2.transport.http.netty.contract.config.SenderConfiguration;
+import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
+import org.wso2.transport.http.netty.contractimpl.sender.channel.pool.ConnectionManager;
+import org.wso2.transport.http.netty.contractimpl.sender.channel.pool.PoolConfiguration;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * {@code HttpClientConnectorRegistry} The code is responsible for maintaining the client side transport runtime
+ * shared by all the http client components (http, http-call and websubhub sinks and the sse source).
+ * The connector factory (and hence its event loop groups) is created by the first registered component and shut
+ * down when the last one unregisters, while the connection managers are shared by the components having the same
+ * pool configuration and the same sender properties of the pooled connections (protocol version, SSL and proxy),
+ * as the pool of an endpoint creates its connections with the configuration of the component that created it.
+ */
+public class HttpClientConnectorRegistry {
+    private static final Logger log = LogManager.getLogger(HttpClientConnectorRegistry.class);
+    private static HttpClientConnectorRegistry instance = new HttpClientConnectorRegistry();
+    private DefaultHttpWsConnectorFactory httpConnectorFactory;
+    private int referenceCount = 0;
+    private Map<String, ConnectionManagerContext> connectionManagers = new HashMap<>();
+
+    private HttpClientConnectorRegistry() {
+    }
+
+    /**
+     * Get HttpClientConnectorRegistry instance.
+     *
+     * @return HttpClientConnectorRegistry instance
+     */
+    public static HttpClientConnectorRegistry getInstance() {
+        return instance;
+    }
+
+    /**
+     * Register a client component. The connector factory is created at the first registration, with the client
+     * bootstrap group sizes read from the given configuration.
+     *
+     * @param configReader          the config reader of the registering component.
+     * @param poolConfiguration     the connection pool configuration of the registering component.
+     */
+    public synchronized void register(ConfigReader configReader, PoolConfiguration poolConfiguration) {
+        if (httpConnectorFactory == null) {
+            httpConnectorFactory = HttpSinkUtil.createConnectorFactory(configReader);
+            log.debug("Client connector factory created.");
+        }
+        referenceCount++;
+        String poolKey = getPoolKey(poolConfiguration);
+        ConnectionManagerContext context = connectionManagers.get(poolKey);
+        if (context == null) {
+            context = new ConnectionManagerContext(poolConfiguration);
+            connectionManagers.put(poolKey, context);
+        }
+        context.referenceCount++;
+    }
+
+    /**
+     * Unregister a client component. The connection managers of the pool configuration are released, closing their
+     * connection pools, when the last component having it unregisters, and the connector factory when the last
+     * component unregisters.
+     *
+     * @param poolConfiguration the connection pool configuration used at the registration.
+     */
+    public synchronized void unregister(PoolConfiguration poolConfiguration) {
+        String poolKey = getPoolKey(poolConfiguration);
+        ConnectionManagerContext context = connectionManagers.get(poolKey);
+        if (context != null && --context.referenceCount == 0) {
+            connectionManagers.remove(poolKey);
+            context.close();
+        }
+        if (referenceCount > 0 && --referenceCount == 0 && httpConnectorFactory != null) {
+            httpConnectorFactory.shutdownNow();
+            httpConnectorFactory = null;
+            log.debug("Client connector factory shutdown as there are no registered client components.");
+        }
+    }
+
+    /**
+     * Create a client connector on the shared runtime.
+     *
+     * @param bootStrapProperties client bootstrap properties.
+     * @param senderConfig        sender configuration, having the pool configuration used at the registration.
+     * @return the client connector.
+     */
+    public synchronized HttpClientConnector createHttpClientConnector(Map<String, Object> bootStrapProperties,
+                                                                      SenderConfiguration senderConfig) {
+        if (httpConnectorFactory == null) {
+            throw new IllegalStateException("Client connector requested without registering to the " +
+                    HttpClientConnectorRegistry.class.getSimpleName());
+        }
+        ConnectionManagerContext context = connectionManagers.get(getPoolKey(senderConfig.getPoolConfiguration()));
+        if (context == null) {
+            return httpConnectorFactory.createHttpClientConnector(bootStrapProperties, senderConfig);
+        }
+        return httpConnectorFactory.createHttpClientConnector(bootStrapProperties, senderConfig,
+                context.getConnectionManager(senderConfig));
+    }
+
+    /**
+     * Returns the number of connection managers, which are shared by the components having the same pool
+     * configuration and sender properties.
+     *
+     * @return the connection manager count.
+     */
+    synchronized int getConnectionManagerCount() {
+        int count = 0;
+        for (ConnectionManagerContext context : connectionManagers.values()) {
+            count += context.connectionManagers.size();
+        }
+        return count;
+    }
+
+    synchronized boolean isActive() {
+        return httpConnectorFactory != null;
+    }
+
+    /**
+     * Returns the number of idle connections in the connection pools of the given connection managers.
+     *
+     * @param connectionManagers the connection managers.
+     * @return the idle connection count.
+     */
+    static int getIdleConnectionCount(List<ConnectionManager> connectionManagers) {
+        int count = 0;
+        for (ConnectionManager connectionManager : connectionManagers) {
+            for (ObjectPool pool : getConnectionPools(connectionManager)) {
+                count += pool.getNumIdle();
+            }
+        }
+        return count;
+    }
+
+    synchronized List<ConnectionManager> getConnectionManagers() {
+        List<ConnectionManager> managers = new ArrayList<>();
+        for (ConnectionManagerContext context : connectionManagers.values()) {
+            managers.addAll(context.connectionManagers.values());
+        }
+        return managers;
+    }
+
+    /**
+     * Returns the per route connection pools of a connection manager. The connection manager does not expose its
+     * pools, hence they are read from its pool maps.
+     *
+     * @param connectionManager the connection manager.
+     * @return the connection pools.
+     */
+    private static List<ObjectPool> getConnectionPools(ConnectionManager connectionManager) {
+        List<ObjectPool> pools = new ArrayList<>();
+        for (Field field : ConnectionManager.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers()) || !Map.class.isAssignableFrom(field.getType())) {
+                continue;
+            }
+            try {
+                field.setAccessible(true);
+                Map<?, ?> poolMap = (Map<?, ?>) field.get(connectionManager);
+                if (poolMap == null) {
+                    continue;
+                }
+                for (Object value : poolMap.values()) {
+                    if (value instanceof ObjectPool) {
+                        pools.add((ObjectPool) value);
+                    }
+                }
+            } catch (IllegalAccessException | RuntimeException e) {
+                log.debug("Unable to read the connection pools of the connection manager.", e);
+            }
+        }
+        return pools;
+    }
+
+    static String getPoolKey(PoolConfiguration poolConfiguration) {
+        return poolConfiguration.getMaxActivePerPool() + ":" + poolConfiguration.getMinIdlePerPool() + ":" +
+                poolConfiguration.getMaxIdlePerPool() + ":" + poolConfiguration.isTestOnBorrow() + ":" +
+                poolConfiguration.isTestWhileIdle() + ":" + poolConfiguration.getTimeBetweenEvictionRuns() + ":" +
+                poolConfiguration.getMinEvictableIdleTime() + ":" + poolConfiguration.getExhaustedAction() + ":" +
+                poolConfiguration.getMaxWaitTime() + ":" + poolConfiguration.getHttp2MaxActiveStreamsPerConnection();
+    }
+
+    /**
+     * Returns the key of the sender properties with which the pooled connections are created. Passwords are
+     * only included as their hashes.
+     *
+     * @param senderConfig the sender configuration.
+     * @return the sender key.
+     */
+    static String getSenderKey(SenderConfiguration senderConfig) {
+        StringBuilder senderKey = new StringBuilder()
+                .append(senderConfig.getScheme()).append(':')
+                .append(senderConfig.getHttpVersion()).append(':')
+                .append(senderConfig.isForceHttp2()).append(':')
+                .append(senderConfig.getSocketIdleTimeout(0)).append(':')
+                .append(senderConfig.getTrustStoreFile()).append(':')
+                .append(Objects.hashCode(senderConfig.getTrustStorePass())).append(':')
+                .append(senderConfig.getKeyStoreFile()).append(':')
+                .append(Objects.hashCode(senderConfig.getKeyStorePass())).append(':')
+                .append(senderConfig.getSSLProtocol()).append(':')
+                .append(senderConfig.getTLSStoreType()).append(':')
+                .append(senderConfig.isHostNameVerificationEnabled()).append(':')
+                .append(senderConfig.isDisableSsl());
+        ProxyServerConfiguration proxyServerConfiguration = senderConfig.getProxyServerConfiguration();
+        if (proxyServerConfiguration != null) {
+            senderKey.append(':').append(proxyServerConfiguration.getProxyHost())
+                    .append(':').append(proxyServerConfiguration.getProxyPort())
+                    .append(':').append(proxyServerConfiguration.getProxyUsername())
+                    .append(':').append(Objects.hashCode(proxyServerConfiguration.getProxyPassword()));
+        }
+        return senderKey.toString();
+    }
+
+    /**
+     * The connection manager context of a pool configuration, having a connection manager per sender key.
+     */
+    private static class ConnectionManagerContext {
+        private final PoolConfiguration poolConfiguration;
+        private final Map<String, ConnectionManager> connectionManagers = new HashMap<>();
+        private int referenceCount = 0;
+
+        ConnectionManagerContext(PoolConfiguration poolConfiguration) {
+            this.poolConfiguration = poolConfiguration;
+        }
+
+        ConnectionManager getConnectionManager(SenderConfiguration senderConfig) {
+            return connectionManagers.computeIfAbsent(getSenderKey(senderConfig),
+                    senderKey -> new ConnectionManager(poolConfiguration));
+        }
+
+        /**
+         * Close the connection pools of the connection managers, closing their idle connections. The connections
+         * borrowed by the in-flight requests are closed when they are returned to the closed pools.
+         */
+        void close() {
+            for (ConnectionManager connectionManager : connectionManagers.values()) {
+                for (ObjectPool pool : getConnectionPools(connectionManager)) {
+                    try {
+                        pool.close();
+                    } catch (Exception e) {
+                        log.error("Error while closing a connection pool of the connection manager.", e);
+                    }
+                }
+            }
+            connectionManagers.clear();
+        }
+    }
+}
@@ -31,13 +31,11 @@ import io.siddhi.core.util.snapshot.state.StateFactory;
 import io.siddhi.core.util.transport.DynamicOptions;
 import io.siddhi.core.util.transport.Option;
 import io.siddhi.core.util.transport.OptionHolder;
-import io.siddhi.extension.io.http.sink.util.HttpSinkUtil;
+import io.siddhi.extension.io.http.sink.util.HeaderTemplate;
 import io.siddhi.extension.io.http.util.HTTPSourceRegistry;
 import io.siddhi.extension.io.http.util.HttpConstants;
 import io.siddhi.query.api.definition.StreamDefinition;
-import org.wso2.carbon.messaging.Header;
 
-import java.util.List;
 
 /**
  * {@code HttpServiceResponseSink} Handle the HTTP Service Response publishing tasks.
@@ -120,6 +118,7 @@ public class HttpServiceResponseSink extends Sink {
     private Option messageIdOption;
     private String sourceId;
     private Option httpHeaderOption;
+    private HeaderTemplate headerTemplate;
     private String mapType;
 
     /**
@@ -177,6 +176,7 @@ public class HttpServiceResponseSink extends Sink {
         this.messageIdOption = optionHolder.validateAndGetOption(HttpConstants.MESSAGE_ID);
         this.sourceId = optionHolder.validateAndGetStaticValue(HttpConstants.SOURCE_ID);
         this.httpHeaderOption = optionHolder.getOrCreateOption(HttpConstants.HEADERS, HttpConstants.DEFAULT_HEADER);
+        this.headerTemplate = new HeaderTemplate(httpHeaderOption);
         this.mapType = outputStreamDefinition.getAnnotations().get(0).getAnnotations().get(0).getElements().get(0)
                 .getValue();
         return null;
@@ -185,12 +185,10 @@ public class HttpServiceResponseSink extends Sink {
     @Override
     public void publish(Object payload, DynamicOptions dynamicOptions, State state)
             throws ConnectionUnavailableException {
-        String headers = httpHeaderOption.getValue(dynamicOptions);
-        List<Header> headersList = HttpSinkUtil.getHeaders(headers);
+        HeaderTemplate.CompiledHeaders compiledHeaders = headerTemplate.resolve(dynamicOptions);
         String messageId = messageIdOption.getValue(dynamicOptions);
-        String contentType = HttpSinkUtil.getContentType(mapType, headersList);
-        HTTPSourceRegistry.
-                getServiceSource(sourceId).handleCallback(messageId, (String) payload, headersList, contentType);
+        HTTPSourceRegistry.getServiceSource(sourceId).handleCallback(messageId, (String) payload,
+                compiledHeaders.getHeaders(), compiledHeaders.getContentType(mapType));
     }
 
     /**
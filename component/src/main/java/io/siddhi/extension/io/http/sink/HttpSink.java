@@ -19,13 +19,18 @@
 package io.siddhi.extension.io.http.sink;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.base64.Base64;
 import io.netty.handler.codec.http.DefaultHttpRequest;
 import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpHeaders;
 import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
 import io.siddhi.annotation.Example;
 import io.siddhi.annotation.Extension;
 import io.siddhi.annotation.Parameter;
@@ -34,9 +39,9 @@ import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiAppContext;
 import io.siddhi.core.exception.ConnectionUnavailableException;
 import io.siddhi.core.exception.SiddhiAppCreationException;
-import io.siddhi.core.exception.SiddhiAppRuntimeException;
 import io.siddhi.core.stream.ServiceDeploymentInfo;
 import io.siddhi.core.stream.output.sink.Sink;
+import io.siddhi.core.util.SiddhiConstants;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
@@ -46,45 +51,48 @@ import io.siddhi.core.util.transport.OptionHolder;
 import io.siddhi.extension.io.http.metrics.EndpointStatus;
 import io.siddhi.extension.io.http.metrics.SinkMetrics;
 import io.siddhi.extension.io.http.sink.exception.HttpSinkAdaptorRuntimeException;
+import io.siddhi.extension.io.http.sink.spool.DiskSpool;
+import io.siddhi.extension.io.http.sink.spool.SpooledRequest;
 import io.siddhi.extension.io.http.sink.updatetoken.AccessTokenCache;
-import io.siddhi.extension.io.http.sink.updatetoken.DefaultListener;
 import io.siddhi.extension.io.http.sink.updatetoken.HttpsClient;
+import io.siddhi.extension.io.http.sink.util.BodyCompressor;
+import io.siddhi.extension.io.http.sink.util.CircuitBreaker;
+import io.siddhi.extension.io.http.sink.util.FormUrlEncoder;
+import io.siddhi.extension.io.http.sink.util.HeaderTemplate;
 import io.siddhi.extension.io.http.sink.util.HttpSinkUtil;
+import io.siddhi.extension.io.http.sink.util.RetryPolicy;
 import io.siddhi.extension.io.http.util.HttpConstants;
 import io.siddhi.extension.io.http.util.HttpIoUtil;
+import io.siddhi.query.api.annotation.Annotation;
 import io.siddhi.query.api.definition.StreamDefinition;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.wso2.carbon.messaging.Header;
 import org.wso2.carbon.si.metrics.core.internal.MetricsDataHolder;
 import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.contract.HttpClientConnector;
 import org.wso2.transport.http.netty.contract.HttpConnectorListener;
-import org.wso2.transport.http.netty.contract.HttpResponseFuture;
 import org.wso2.transport.http.netty.contract.config.ChunkConfig;
 import org.wso2.transport.http.netty.contract.config.ProxyServerConfiguration;
 import org.wso2.transport.http.netty.contract.config.SenderConfiguration;
-import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
 import org.wso2.transport.http.netty.contractimpl.sender.channel.pool.PoolConfiguration;
 import org.wso2.transport.http.netty.message.HttpCarbonMessage;
-import org.wso2.transport.http.netty.message.HttpMessageDataStreamer;
 
-import java.io.BufferedInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
-import java.util.HashMap;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CountDownLatch;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-import static io.siddhi.extension.io.http.sink.util.HttpSinkUtil.createConnectorFactory;
 import static io.siddhi.extension.io.http.sink.util.HttpSinkUtil.createPoolConfigurations;
 import static io.siddhi.extension.io.http.sink.util.HttpSinkUtil.createProxyServerConfiguration;
 import static io.siddhi.extension.io.http.util.HttpConstants.EMPTY_STRING;
@@ -108,8 +116,11 @@ import static org.wso2.carbon.analytics.idp.client.external.ExternalIdPClientCon
                         description = "The URL to which the outgoing events should be published.\n" +
                                 "Examples:\n" +
                                 "`http://localhost:8080/endpoint`,\n" +
-                                "`https://localhost:8080/endpoint`",
-                        type = {DataType.STRING}),
+                                "`https://localhost:8080/endpoint`\n" +
+                                "Not needed when `publisher.urls` or `publisher.urls.file` is given.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "-"),
                 @Parameter(
                         name = "basic.auth.username",
                         description = "The username to be included in the authentication header when calling " +
@@ -377,6 +388,257 @@ import static org.wso2.carbon.analytics.idp.client.external.ExternalIdPClientCon
                         type = {DataType.BOOL},
                         optional = true,
                         defaultValue = "true"),
+                @Parameter(
+                        name = "client.connector.cache.size",
+                        description = "Maximum number of client connectors (one per scheme, host and port) kept " +
+                                "when the `publisher.url` is dynamic. The least recently used connector is closed " +
+                                "when the limit is exceeded.",
+                        type = {DataType.INT},
+                        optional = true,
+                        defaultValue = "100"),
+                @Parameter(
+                        name = "client.connector.cache.idle.timeout",
+                        description = "Time (in millis) after which an unused client connector of a dynamic " +
+                                "`publisher.url` is closed and removed.",
+                        type = {DataType.LONG},
+                        optional = true,
+                        defaultValue = "300000"),
+                @Parameter(
+                        name = "batch.size",
+                        description = "Maximum number of events sent in a single request. When greater than `1`, " +
+                                "the mapped payloads of the events are batched per endpoint, and sent as a single " +
+                                "request once the batch is full or `batch.linger.ms` has elapsed. " +
+                                "If a batched request fails, the error handling is applied to each of its events.",
+                        type = {DataType.INT},
+                        optional = true,
+                        defaultValue = "1"),
+                @Parameter(
+                        name = "batch.bytes",
+                        description = "Maximum size (in bytes) of a batched request body. `0` for no limit.",
+                        type = {DataType.LONG},
+                        optional = true,
+                        defaultValue = "0"),
+                @Parameter(
+                        name = "batch.linger.ms",
+                        description = "Maximum time (in millis) an incomplete batch waits for more events " +
+                                "before it is sent.",
+                        type = {DataType.LONG},
+                        optional = true,
+                        defaultValue = "100"),
+                @Parameter(
+                        name = "batch.format",
+                        description = "Format of the batched request body. Supports `json` (a JSON array of " +
+                                "the payloads), `ndjson` (newline delimited JSON) and `text` (payloads joined " +
+                                "with new lines). Batching is not supported with the `keyvalue` mapper.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "`json` for the `json` mapper, `text` otherwise"),
+                @Parameter(
+                        name = "token.refresh.skew",
+                        description = "Time (in millis) before the expiry of an OAuth access token at which it is " +
+                                "refreshed in the background, when the token endpoint specifies the `expires_in` " +
+                                "of the token. Until then the cached token is used without contacting the token " +
+                                "endpoint.",
+                        type = {DataType.LONG},
+                        optional = true,
+                        defaultValue = "30000"),
+                @Parameter(
+                        name = "response.mode",
+                        description = "Handling of the responses of the endpoint. `discard` releases the " +
+                                "response body as it arrives without reading it, `status-only` additionally logs " +
+                                "the status code and headers of the unsuccessful responses, and `full` reads the " +
+                                "response body and logs it for the unsuccessful responses.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "discard"),
+                @Parameter(
+                        name = "max.inflight.requests",
+                        description = "Maximum number of requests sent to an endpoint (scheme, host and port) " +
+                                "which are still waiting for their responses. Once reached, the events wait for " +
+                                "`inflight.request.wait.time` and then fail with a connection unavailable error, " +
+                                "so that they are handled by the `on.error` action of the sink. `0` does not " +
+                                "bound the in-flight requests.",
+                        type = {DataType.INT},
+                        optional = true,
+                        defaultValue = "0"),
+                @Parameter(
+                        name = "inflight.request.wait.time",
+                        description = "Maximum time (in millis) an event waits for an in-flight request to " +
+                                "complete when `max.inflight.requests` is reached. `0` fails the event right away.",
+                        type = {DataType.LONG},
+                        optional = true,
+                        defaultValue = "0"),
+                @Parameter(
+                        name = "retry.max.attempts",
+                        description = "Maximum number of times a request is sent, including the first attempt. " +
+                                "Requests failing due to connection errors or responded with one of the " +
+                                "`retry.status.codes` are sent again after an exponential backoff with jitter, " +
+                                "without blocking the publishing threads. `1` disables the retries.",
+                        type = {DataType.INT},
+                        optional = true,
+                        defaultValue = "1"),
+                @Parameter(
+                        name = "retry.backoff.initial",
+                        description = "Upper bound of the random wait (in millis) before the first retry, which " +
+                                "doubles with each retry.",
+                        type = {DataType.LONG},
+                        optional = true,
+                        defaultValue = "100"),
+                @Parameter(
+                        name = "retry.backoff.max",
+                        description = "Maximum upper bound of the random wait (in millis) before a retry.",
+                        type = {DataType.LONG},
+                        optional = true,
+                        defaultValue = "10000"),
+                @Parameter(
+                        name = "retry.status.codes",
+                        description = "Comma separated response status codes for which the request is retried.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "429,502,503,504"),
+                @Parameter(
+                        name = "circuit.breaker.failure.threshold",
+                        description = "Number of consecutive connection errors or `5xx` responses of an endpoint " +
+                                "(scheme, host and port) after which its circuit breaker opens, failing the " +
+                                "events of the endpoint right away with a connection unavailable error. After " +
+                                "`circuit.breaker.open.time` a single trial request is sent, which closes the " +
+                                "circuit on success. `0` disables the circuit breaker.",
+                        type = {DataType.INT},
+                        optional = true,
+                        defaultValue = "0"),
+                @Parameter(
+                        name = "circuit.breaker.open.time",
+                        description = "Time (in millis) the circuit breaker of an endpoint stays open before a " +
+                                "trial request is sent.",
+                        type = {DataType.LONG},
+                        optional = true,
+                        defaultValue = "30000"),
+                @Parameter(
+                        name = "publisher.urls",
+                        description = "Comma separated URLs of the replicas of the endpoint, across which the " +
+                                "requests are load balanced. Either `publisher.url`, `publisher.urls` or " +
+                                "`publisher.urls.file` should be given.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "-"),
+                @Parameter(
+                        name = "publisher.urls.file",
+                        description = "Path of a file listing the URLs of the replicas of the endpoint, one per " +
+                                "line, across which the requests are load balanced. Empty lines and lines starting " +
+                                "with `#` are ignored. The file is read again when it is modified, keeping the " +
+                                "state of the URLs still listed.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "-"),
+                @Parameter(
+                        name = "load.balancing.strategy",
+                        description = "Strategy to select the URL of a request when load balancing. Supported " +
+                                "strategies are:\n" +
+                                "`round-robin`: Select the URLs in turn.\n" +
+                                "`least-inflight`: Select the URL with the least requests waiting for responses." +
+                                "\n`power-of-two-choices`: Pick two URLs at random and select the one with the " +
+                                "least in-flight requests weighted by its average response time.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "round-robin"),
+                @Parameter(
+                        name = "endpoint.ejection.time",
+                        description = "Time (in millis) a load balanced URL is not selected after a connection " +
+                                "error.",
+                        type = {DataType.LONG},
+                        optional = true,
+                        defaultValue = "30000"),
+                @Parameter(
+                        name = "endpoint.warmup.time",
+                        description = "Time (in millis) over which an ejected URL gets back its full share of the " +
+                                "requests, once its ejection time has elapsed.",
+                        type = {DataType.LONG},
+                        optional = true,
+                        defaultValue = "30000"),
+                @Parameter(
+                        name = "http.version",
+                        description = "HTTP version used to send the requests, either `1.1` or `2.0`. With " +
+                                "`2.0` the concurrent requests to an endpoint are multiplexed as streams over " +
+                                "a connection, negotiated through ALPN for `https` and the h2c upgrade for " +
+                                "`http`, falling back to HTTP/1.1 when the endpoint does not support HTTP/2.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "1.1"),
+                @Parameter(
+                        name = "http2.prior.knowledge",
+                        description = "When `http.version` is `2.0`, send HTTP/2 requests to `http` endpoints " +
+                                "right away without the h2c upgrade, for endpoints known to support HTTP/2.",
+                        type = {DataType.BOOL},
+                        optional = true,
+                        defaultValue = "false"),
+                @Parameter(
+                        name = "http2.max.active.streams.per.connection",
+                        description = "Maximum number of concurrent requests sent over a single HTTP/2 " +
+                                "connection, after which a new connection is opened to the endpoint.",
+                        type = {DataType.INT},
+                        optional = true,
+                        defaultValue = "100"),
+                @Parameter(
+                        name = "compression",
+                        description = "Content coding used to compress the request bodies, either `gzip` or " +
+                                "`deflate`. The `Content-Encoding` header is set on the compressed requests. " +
+                                "Bodies which do not shrink are sent uncompressed. Requests are not compressed " +
+                                "when this is not given.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "-"),
+                @Parameter(
+                        name = "compression.min.bytes",
+                        description = "Size (in bytes) below which the request bodies are sent uncompressed, as " +
+                                "compressing small bodies costs more than it saves.",
+                        type = {DataType.INT},
+                        optional = true,
+                        defaultValue = "1024"),
+                @Parameter(
+                        name = "spool.dir",
+                        description = "Directory of a persistent spool, keeping the requests which fail due to a " +
+                                "connection error or a status code in `retry.status.codes`. The spooled " +
+                                "requests are sent again in order once the endpoint is available. The new events " +
+                                "are spooled behind them till the spool is drained at `spool.replay.rate`, so " +
+                                "that they arrive in order, hence the replay rate should be higher than the rate " +
+                                "of the events for the spool to drain. The spool of a sink is kept in the " +
+                                "`<spool.dir>/<app name>/<stream name>` directory and its requests are sent " +
+                                "at least once, including after a restart. Not supported with OAuth. The " +
+                                "requests are not spooled when this is not given.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "-"),
+                @Parameter(
+                        name = "spool.max.size",
+                        description = "Maximum disk space (in bytes) taken by the spool, beyond which the failed " +
+                                "requests are handled by the `on.error` action of the sink.",
+                        type = {DataType.LONG},
+                        optional = true,
+                        defaultValue = "1073741824"),
+                @Parameter(
+                        name = "spool.segment.size",
+                        description = "Size (in bytes) of each memory-mapped file of the spool, which also " +
+                                "bounds the size of a spooled request.",
+                        type = {DataType.LONG},
+                        optional = true,
+                        defaultValue = "67108864"),
+                @Parameter(
+                        name = "spool.fsync",
+                        description = "When the spooled requests are flushed to the disk. Supported values are:\n" +
+                                "`always`: After each request, so that none is lost when the host fails.\n" +
+                                "`periodic`: Every second.\n" +
+                                "`never`: Left to the operating system, which still keeps the requests when " +
+                                "Siddhi fails.",
+                        type = {DataType.STRING},
+                        optional = true,
+                        defaultValue = "periodic"),
+                @Parameter(
+                        name = "spool.replay.rate",
+                        description = "Maximum number of spooled requests sent per second once the endpoint is " +
+                                "available. The requests are sent one at a time, in order.",
+                        type = {DataType.INT},
+                        optional = true,
+                        defaultValue = "100"),
         },
         examples = {
                 @Example(syntax = "" +
@@ -459,6 +721,13 @@ import static org.wso2.carbon.analytics.idp.client.external.ExternalIdPClientCon
 )
 public class HttpSink extends Sink {
     private static final Logger log = LogManager.getLogger(HttpSink.class);
+    static final HashedWheelTimer RETRY_TIMER = new HashedWheelTimer(runnable -> {
+        Thread thread = new Thread(runnable, "SiddhiHttpSinkRetryTimer");
+        thread.setDaemon(true);
+        return thread;
+    }, 10, TimeUnit.MILLISECONDS);
+    private static final long SPOOL_POLL_INTERVAL = 1000;
+    private static final long SPOOL_FORCE_INTERVAL = 1000;
     protected String streamID;
     protected String consumerKey;
     protected String consumerSecret;
@@ -473,6 +742,7 @@ public class HttpSink extends Sink {
     protected String tokenURL;
     String mapType;
     Option httpHeaderOption;
+    HeaderTemplate headerTemplate;
     Option httpMethodOption;
     private String authorizationHeader;
     private String clientStoreFile;
@@ -481,6 +751,17 @@ public class HttpSink extends Sink {
     private String sslProtocol;
     private String tlsStoreType;
     private String chunkDisabled;
+    private String httpVersion;
+    private boolean http2PriorKnowledge;
+    private BodyCompressor bodyCompressor;
+    private Set<Integer> retriableStatusCodes;
+    private DiskSpool spool;
+    private final Object spoolLock = new Object();
+    private long spoolReplayInterval;
+    private long lastSpoolForceTime;
+    private volatile boolean spoolReplayActive;
+    private volatile boolean spoolingNewRequests;
+    private volatile Timeout spoolReplayTimeout;
     private String parametersList;
     private String clientBootstrapConfiguration;
     private ConfigReader configReader;
@@ -488,18 +769,27 @@ public class HttpSink extends Sink {
     private AccessTokenCache accessTokenCache = AccessTokenCache.getInstance();
     private String hostnameVerificationEnabled;
     private String sslVerificationDisabled;
-    private Executor executor = null;
+    protected Executor executor = null;
     private String publisherURL;
     protected SinkMetrics metrics;
-    protected long startTime;
-    protected long endTime;
     private String bodyConsumerKey;
     private String bodyConsumerSecret;
     private String oauth2Scope;
+    private long accessTokenRefreshSkew;
+    private String responseMode;
+    private int maxInflightRequests;
+    private long inflightRequestWaitTime;
+    private RetryPolicy retryPolicy;
+    private int circuitBreakerFailureThreshold;
+    private long circuitBreakerOpenTime;
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private LoadBalancer loadBalancer;
 
-    private DefaultHttpWsConnectorFactory httpConnectorFactory;
+    private boolean clientRuntimeRegistered;
     private ProxyServerConfiguration proxyServerConfiguration;
     private PoolConfiguration connectionPoolConfiguration;
+    private ClientConnectorCache clientConnectorCache;
+    private EventBatcher eventBatcher;
 
     /**
      * Returns the list of classes which this sink can consume.
@@ -544,8 +834,14 @@ public class HttpSink extends Sink {
         this.configReader = configReader;
         this.siddhiAppContext = siddhiAppContext;
         this.streamID = siddhiAppContext.getName() + PORT_HOST_SEPARATOR + outputStreamDefinition.toString();
-        this.publisherURLOption = optionHolder.validateAndGetOption(HttpConstants.PUBLISHER_URL);
+        this.loadBalancer = createLoadBalancer(optionHolder);
+        if (loadBalancer == null) {
+            this.publisherURLOption = optionHolder.validateAndGetOption(HttpConstants.PUBLISHER_URL);
+        } else {
+            this.publisherURLOption = optionHolder.getOrCreateOption(HttpConstants.PUBLISHER_URL, EMPTY_STRING);
+        }
         this.httpHeaderOption = optionHolder.getOrCreateOption(HttpConstants.HEADERS, HttpConstants.DEFAULT_HEADER);
+        this.headerTemplate = new HeaderTemplate(httpHeaderOption);
         this.httpMethodOption = optionHolder.getOrCreateOption(HttpConstants.METHOD, HttpConstants.DEFAULT_METHOD);
         this.consumerKey = optionHolder.validateAndGetStaticValue(HttpConstants.CONSUMER_KEY, EMPTY_STRING);
         this.consumerSecret = optionHolder.validateAndGetStaticValue(HttpConstants.CONSUMER_SECRET, EMPTY_STRING);
@@ -569,6 +865,26 @@ public class HttpSink extends Sink {
         sslProtocol = optionHolder.validateAndGetStaticValue(HttpConstants.SSL_PROTOCOL, EMPTY_STRING);
         tlsStoreType = optionHolder.validateAndGetStaticValue(HttpConstants.TLS_STORE_TYPE, EMPTY_STRING);
         chunkDisabled = optionHolder.validateAndGetStaticValue(HttpConstants.CLIENT_CHUNK_DISABLED, EMPTY_STRING);
+        httpVersion = optionHolder.validateAndGetStaticValue(HttpConstants.HTTP_VERSION,
+                HttpConstants.HTTP_VERSION_1_1);
+        if (!HttpConstants.HTTP_VERSION_1_1.equals(httpVersion) &&
+                !HttpConstants.HTTP_VERSION_2_0.equals(httpVersion)) {
+            throw new SiddhiAppCreationException(HttpConstants.HTTP_VERSION + " should be either '" +
+                    HttpConstants.HTTP_VERSION_1_1 + "' or '" + HttpConstants.HTTP_VERSION_2_0 + "', but found '" +
+                    httpVersion + "' in " + HttpConstants.HTTP_SINK_ID + " with the stream " + streamID);
+        }
+        http2PriorKnowledge = Boolean.parseBoolean(optionHolder.validateAndGetStaticValue(
+                HttpConstants.HTTP2_PRIOR_KNOWLEDGE, HttpConstants.DEFAULT_HTTP2_PRIOR_KNOWLEDGE));
+        String compression = optionHolder.validateAndGetStaticValue(HttpConstants.COMPRESSION, EMPTY_STRING);
+        if (!EMPTY_STRING.equals(compression)) {
+            if (!BodyCompressor.GZIP.equals(compression) && !BodyCompressor.DEFLATE.equals(compression)) {
+                throw new SiddhiAppCreationException(HttpConstants.COMPRESSION + " should be either '" +
+                        BodyCompressor.GZIP + "' or '" + BodyCompressor.DEFLATE + "', but found '" + compression +
+                        "' in " + HttpConstants.HTTP_SINK_ID + " with the stream " + streamID);
+            }
+            bodyCompressor = new BodyCompressor(compression, Integer.parseInt(optionHolder.validateAndGetStaticValue(
+                    HttpConstants.COMPRESSION_MIN_BYTES, HttpConstants.DEFAULT_COMPRESSION_MIN_BYTES)));
+        }
 
         //pool configurations
         connectionPoolConfiguration = createPoolConfigurations(optionHolder);
@@ -599,6 +915,23 @@ public class HttpSink extends Sink {
         } else {
             authType = HttpConstants.NO_AUTH;
         }
+        accessTokenRefreshSkew = Long.parseLong(optionHolder.validateAndGetStaticValue(
+                HttpConstants.TOKEN_REFRESH_SKEW, HttpConstants.DEFAULT_TOKEN_REFRESH_SKEW));
+        if (accessTokenRefreshSkew < 0) {
+            throw new SiddhiAppCreationException(HttpConstants.TOKEN_REFRESH_SKEW + " should not be negative, but " +
+                    "found '" + accessTokenRefreshSkew + "' in " + HttpConstants.HTTP_SINK_ID + " with the stream " +
+                    streamID);
+        }
+        maxInflightRequests = Integer.parseInt(optionHolder.validateAndGetStaticValue(
+                HttpConstants.MAX_INFLIGHT_REQUESTS, HttpConstants.DEFAULT_MAX_INFLIGHT_REQUESTS));
+        if (maxInflightRequests < 0) {
+            throw new SiddhiAppCreationException(HttpConstants.MAX_INFLIGHT_REQUESTS + " should not be negative, " +
+                    "but found '" + maxInflightRequests + "' in " + HttpConstants.HTTP_SINK_ID + " with the stream " +
+                    streamID);
+        }
+        inflightRequestWaitTime = Long.parseLong(optionHolder.validateAndGetStaticValue(
+                HttpConstants.INFLIGHT_REQUEST_WAIT_TIME, HttpConstants.DEFAULT_INFLIGHT_REQUEST_WAIT_TIME));
+        initRetryPolicy(optionHolder);
 
         // if username and password both not equal to null consider as basic auth enabled if only one is null take it
         // as exception
@@ -616,14 +949,280 @@ public class HttpSink extends Sink {
 
         proxyServerConfiguration = createProxyServerConfiguration(optionHolder, streamID, siddhiAppContext.getName());
 
-        httpConnectorFactory = createConnectorFactory(configReader);
-        if (publisherURLOption.isStatic()) {
+        initMetrics(outputStreamDefinition.getId());
+        if (!hasStaticPublisherURL()) {
+            int clientConnectorCacheSize = Integer.parseInt(optionHolder.validateAndGetStaticValue(
+                    HttpConstants.CLIENT_CONNECTOR_CACHE_SIZE, HttpConstants.DEFAULT_CLIENT_CONNECTOR_CACHE_SIZE));
+            long clientConnectorCacheIdleTimeout = Long.parseLong(optionHolder.validateAndGetStaticValue(
+                    HttpConstants.CLIENT_CONNECTOR_CACHE_IDLE_TIMEOUT,
+                    HttpConstants.DEFAULT_CLIENT_CONNECTOR_CACHE_IDLE_TIMEOUT));
+            if (clientConnectorCacheSize < 1) {
+                throw new SiddhiAppCreationException(HttpConstants.CLIENT_CONNECTOR_CACHE_SIZE + " should be a " +
+                        "positive integer, but found '" + clientConnectorCacheSize + "' in " +
+                        HttpConstants.HTTP_SINK_ID + " with the stream " + streamID);
+            }
+            clientConnectorCache = new ClientConnectorCache(clientConnectorCacheSize,
+                    clientConnectorCacheIdleTimeout, this::createHttpClientConnector, metrics, maxInflightRequests);
+        }
+        initEventBatcher(optionHolder, outputStreamDefinition);
+        initSpool(optionHolder, outputStreamDefinition.getId());
+        responseMode = optionHolder.validateAndGetStaticValue(HttpConstants.RESPONSE_MODE,
+                HttpConstants.RESPONSE_MODE_DISCARD);
+        if (!HttpConstants.RESPONSE_MODE_DISCARD.equals(responseMode) &&
+                !HttpConstants.RESPONSE_MODE_STATUS_ONLY.equals(responseMode) &&
+                !HttpConstants.RESPONSE_MODE_FULL.equals(responseMode)) {
+            throw new SiddhiAppCreationException(HttpConstants.RESPONSE_MODE + " should be one of '" +
+                    HttpConstants.RESPONSE_MODE_DISCARD + "', '" + HttpConstants.RESPONSE_MODE_STATUS_ONLY + "' or '" +
+                    HttpConstants.RESPONSE_MODE_FULL + "', but found '" + responseMode + "' in " +
+                    HttpConstants.HTTP_SINK_ID + " with the stream " + streamID);
+        }
+        registerClientRuntime();
+        if (hasStaticPublisherURL()) {
             staticClientConnector = createClientConnector(null);
         }
-        initMetrics(outputStreamDefinition.getId());
         return null;
     }
 
+    private LoadBalancer createLoadBalancer(OptionHolder optionHolder) {
+        String publisherURLs = optionHolder.validateAndGetStaticValue(HttpConstants.PUBLISHER_URLS, EMPTY_STRING);
+        String publisherURLsFile = optionHolder.validateAndGetStaticValue(HttpConstants.PUBLISHER_URLS_FILE,
+                EMPTY_STRING);
+        if (EMPTY_STRING.equals(publisherURLs) && EMPTY_STRING.equals(publisherURLsFile)) {
+            return null;
+        }
+        if (optionHolder.isOptionExists(HttpConstants.PUBLISHER_URL) ||
+                !(EMPTY_STRING.equals(publisherURLs) || EMPTY_STRING.equals(publisherURLsFile))) {
+            throw new SiddhiAppCreationException("Only one of " + HttpConstants.PUBLISHER_URL + ", " +
+                    HttpConstants.PUBLISHER_URLS + " or " + HttpConstants.PUBLISHER_URLS_FILE + " should be " +
+                    "given in " + HttpConstants.HTTP_SINK_ID + " with the stream " + streamID);
+        }
+        String strategyName = optionHolder.validateAndGetStaticValue(HttpConstants.LOAD_BALANCING_STRATEGY,
+                HttpConstants.DEFAULT_LOAD_BALANCING_STRATEGY);
+        LoadBalancer.Strategy strategy = LoadBalancer.Strategy.fromName(strategyName);
+        if (strategy == null) {
+            throw new SiddhiAppCreationException(HttpConstants.LOAD_BALANCING_STRATEGY + " should be one of " +
+                    "'round-robin', 'least-inflight' or 'power-of-two-choices', but found '" + strategyName +
+                    "' in " + HttpConstants.HTTP_SINK_ID + " with the stream " + streamID);
+        }
+        long ejectionTime = Long.parseLong(optionHolder.validateAndGetStaticValue(
+                HttpConstants.ENDPOINT_EJECTION_TIME, HttpConstants.DEFAULT_ENDPOINT_EJECTION_TIME));
+        long warmUpTime = Long.parseLong(optionHolder.validateAndGetStaticValue(
+                HttpConstants.ENDPOINT_WARMUP_TIME, HttpConstants.DEFAULT_ENDPOINT_WARMUP_TIME));
+        if (ejectionTime < 0 || warmUpTime < 0) {
+            throw new SiddhiAppCreationException(HttpConstants.ENDPOINT_EJECTION_TIME + " and " +
+                    HttpConstants.ENDPOINT_WARMUP_TIME + " should not be negative, but found '" + ejectionTime +
+                    "' and '" + warmUpTime + "' in " + HttpConstants.HTTP_SINK_ID + " with the stream " + streamID);
+        }
+        if (!EMPTY_STRING.equals(publisherURLsFile)) {
+            try {
+                return new LoadBalancer(Paths.get(publisherURLsFile), strategy, ejectionTime, warmUpTime);
+            } catch (HttpSinkAdaptorRuntimeException e) {
+                throw new SiddhiAppCreationException(e.getMessage() + " Given in " + HttpConstants.HTTP_SINK_ID +
+                        " with the stream " + streamID, e);
+            }
+        }
+        List<String> urls = new ArrayList<>();
+        for (String url : publisherURLs.split(",")) {
+            if (!url.trim().isEmpty()) {
+                urls.add(url.trim());
+            }
+        }
+        if (urls.isEmpty()) {
+            throw new SiddhiAppCreationException(HttpConstants.PUBLISHER_URLS + " should be a comma separated " +
+                    "list of urls, but found '" + publisherURLs + "' in " + HttpConstants.HTTP_SINK_ID +
+                    " with the stream " + streamID);
+        }
+        return new LoadBalancer(urls, strategy, ejectionTime, warmUpTime);
+    }
+
+    /**
+     * Check whether all the events are sent to the same url, so that a single client connector is used.
+     *
+     * @return true if the publisher url is static and the requests are not load balanced.
+     */
+    private boolean hasStaticPublisherURL() {
+        return loadBalancer == null && publisherURLOption.isStatic();
+    }
+
+    private void initRetryPolicy(OptionHolder optionHolder) {
+        int retryMaxAttempts = Integer.parseInt(optionHolder.validateAndGetStaticValue(
+                HttpConstants.RETRY_MAX_ATTEMPTS, HttpConstants.DEFAULT_RETRY_MAX_ATTEMPTS));
+        long retryBackoffInitial = Long.parseLong(optionHolder.validateAndGetStaticValue(
+                HttpConstants.RETRY_BACKOFF_INITIAL, HttpConstants.DEFAULT_RETRY_BACKOFF_INITIAL));
+        long retryBackoffMax = Long.parseLong(optionHolder.validateAndGetStaticValue(
+                HttpConstants.RETRY_BACKOFF_MAX, HttpConstants.DEFAULT_RETRY_BACKOFF_MAX));
+        String retryStatusCodes = optionHolder.validateAndGetStaticValue(HttpConstants.RETRY_STATUS_CODES,
+                HttpConstants.DEFAULT_RETRY_STATUS_CODES);
+        if (retryMaxAttempts < 1) {
+            throw new SiddhiAppCreationException(HttpConstants.RETRY_MAX_ATTEMPTS + " should be a positive " +
+                    "integer, but found '" + retryMaxAttempts + "' in " + HttpConstants.HTTP_SINK_ID + " with the " +
+                    "stream " + streamID);
+        }
+        if (retryBackoffInitial < 0 || retryBackoffMax < retryBackoffInitial) {
+            throw new SiddhiAppCreationException(HttpConstants.RETRY_BACKOFF_INITIAL + " should not be negative " +
+                    "or greater than " + HttpConstants.RETRY_BACKOFF_MAX + ", but found '" + retryBackoffInitial +
+                    "' and '" + retryBackoffMax + "' in " + HttpConstants.HTTP_SINK_ID + " with the stream " +
+                    streamID);
+        }
+        retriableStatusCodes = new HashSet<>();
+        for (String statusCode : retryStatusCodes.split(",")) {
+            if (!statusCode.trim().isEmpty()) {
+                try {
+                    retriableStatusCodes.add(Integer.parseInt(statusCode.trim()));
+                } catch (NumberFormatException e) {
+                    throw new SiddhiAppCreationException(HttpConstants.RETRY_STATUS_CODES + " should be a comma " +
+                            "separated list of status codes, but found '" + retryStatusCodes + "' in " +
+                            HttpConstants.HTTP_SINK_ID + " with the stream " + streamID, e);
+                }
+            }
+        }
+        if (retryMaxAttempts > 1) {
+            retryPolicy = new RetryPolicy(retryMaxAttempts, retryBackoffInitial, retryBackoffMax,
+                    retriableStatusCodes);
+        }
+        circuitBreakerFailureThreshold = Integer.parseInt(optionHolder.validateAndGetStaticValue(
+                HttpConstants.CIRCUIT_BREAKER_FAILURE_THRESHOLD,
+                HttpConstants.DEFAULT_CIRCUIT_BREAKER_FAILURE_THRESHOLD));
+        circuitBreakerOpenTime = Long.parseLong(optionHolder.validateAndGetStaticValue(
+                HttpConstants.CIRCUIT_BREAKER_OPEN_TIME, HttpConstants.DEFAULT_CIRCUIT_BREAKER_OPEN_TIME));
+        if (circuitBreakerFailureThreshold < 0) {
+            throw new SiddhiAppCreationException(HttpConstants.CIRCUIT_BREAKER_FAILURE_THRESHOLD + " should not " +
+                    "be negative, but found '" + circuitBreakerFailureThreshold + "' in " +
+                    HttpConstants.HTTP_SINK_ID + " with the stream " + streamID);
+        }
+    }
+
+    private void initEventBatcher(OptionHolder optionHolder, StreamDefinition outputStreamDefinition) {
+        int batchSize = Integer.parseInt(optionHolder.validateAndGetStaticValue(HttpConstants.BATCH_SIZE,
+                HttpConstants.DEFAULT_BATCH_SIZE));
+        long batchBytes = Long.parseLong(optionHolder.validateAndGetStaticValue(HttpConstants.BATCH_BYTES,
+                HttpConstants.DEFAULT_BATCH_BYTES));
+        long batchLingerTime = Long.parseLong(optionHolder.validateAndGetStaticValue(HttpConstants.BATCH_LINGER_MS,
+                HttpConstants.DEFAULT_BATCH_LINGER_MS));
+        String batchFormat = optionHolder.validateAndGetStaticValue(HttpConstants.BATCH_FORMAT, EMPTY_STRING);
+        if (batchSize < 1) {
+            throw new SiddhiAppCreationException(HttpConstants.BATCH_SIZE + " should be a positive integer, but " +
+                    "found '" + batchSize + "' in " + HttpConstants.HTTP_SINK_ID + " with the stream " + streamID);
+        }
+        if (batchLingerTime < 0) {
+            throw new SiddhiAppCreationException(HttpConstants.BATCH_LINGER_MS + " should not be negative, but " +
+                    "found '" + batchLingerTime + "' in " + HttpConstants.HTTP_SINK_ID + " with the stream " +
+                    streamID);
+        }
+        if (!EMPTY_STRING.equals(batchFormat) && !HttpConstants.BATCH_FORMAT_JSON.equals(batchFormat) &&
+                !HttpConstants.BATCH_FORMAT_NDJSON.equals(batchFormat) &&
+                !HttpConstants.BATCH_FORMAT_TEXT.equals(batchFormat)) {
+            throw new SiddhiAppCreationException(HttpConstants.BATCH_FORMAT + " should be one of '" +
+                    HttpConstants.BATCH_FORMAT_JSON + "', '" + HttpConstants.BATCH_FORMAT_NDJSON + "' or '" +
+                    HttpConstants.BATCH_FORMAT_TEXT + "', but found '" + batchFormat + "' in " +
+                    HttpConstants.HTTP_SINK_ID + " with the stream " + streamID);
+        }
+        if (batchSize > 1 && isKeyValueMapped(outputStreamDefinition)) {
+            throw new SiddhiAppCreationException("Batching is not supported with the '" +
+                    HttpConstants.MAP_KEYVALUE + "' map type, but found " + HttpConstants.BATCH_SIZE + " '" +
+                    batchSize + "' in " + HttpConstants.HTTP_SINK_ID + " with the stream " + streamID);
+        }
+        if (batchSize > 1) {
+            eventBatcher = new EventBatcher(batchSize, batchBytes, batchLingerTime,
+                    EMPTY_STRING.equals(batchFormat) ? null : batchFormat, this::publishBatch, executor);
+        }
+    }
+
+    /**
+     * Check whether the batching http sinks of the stream use the keyvalue mapper. The mapper is only set once the
+     * sink is initialised, hence its type is read from the sink annotations of the stream.
+     *
+     * @param outputStreamDefinition the stream definition of the sink.
+     * @return true if a sink of the stream having a batch size uses the keyvalue mapper.
+     */
+    private static boolean isKeyValueMapped(StreamDefinition outputStreamDefinition) {
+        for (Annotation sinkAnnotation : outputStreamDefinition.getAnnotations()) {
+            if (!SiddhiConstants.ANNOTATION_SINK.equalsIgnoreCase(sinkAnnotation.getName()) ||
+                    sinkAnnotation.getElement(HttpConstants.BATCH_SIZE) == null) {
+                continue;
+            }
+            for (Annotation mapAnnotation : sinkAnnotation.getAnnotations()) {
+                if (SiddhiConstants.ANNOTATION_MAP.equalsIgnoreCase(mapAnnotation.getName()) &&
+                        HttpConstants.MAP_KEYVALUE.equalsIgnoreCase(
+                                mapAnnotation.getElement(SiddhiConstants.ANNOTATION_ELEMENT_TYPE))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns whether the events are batched into a single request.
+     *
+     * @return true if batching is enabled.
+     */
+    boolean isBatchingEnabled() {
+        return eventBatcher != null;
+    }
+
+    /**
+     * Open the spool keeping the requests which failed due to the endpoint being unavailable, when a spool
+     * directory is given.
+     *
+     * @param optionHolder option holder of the sink.
+     * @param streamName   name of the stream of the sink.
+     */
+    protected void initSpool(OptionHolder optionHolder, String streamName) {
+        String spoolDir = optionHolder.validateAndGetStaticValue(HttpConstants.SPOOL_DIR, EMPTY_STRING);
+        if (EMPTY_STRING.equals(spoolDir)) {
+            return;
+        }
+        if (HttpConstants.OAUTH.equals(authType)) {
+            throw new SiddhiAppCreationException(HttpConstants.SPOOL_DIR + " is not supported with OAuth, as the " +
+                    "access tokens of the spooled requests might expire, in " + HttpConstants.HTTP_SINK_ID +
+                    " with the stream " + streamID);
+        }
+        long spoolMaxSize = Long.parseLong(optionHolder.validateAndGetStaticValue(HttpConstants.SPOOL_MAX_SIZE,
+                HttpConstants.DEFAULT_SPOOL_MAX_SIZE));
+        long spoolSegmentSize = Long.parseLong(optionHolder.validateAndGetStaticValue(
+                HttpConstants.SPOOL_SEGMENT_SIZE, HttpConstants.DEFAULT_SPOOL_SEGMENT_SIZE));
+        String spoolFsync = optionHolder.validateAndGetStaticValue(HttpConstants.SPOOL_FSYNC,
+                HttpConstants.DEFAULT_SPOOL_FSYNC);
+        int spoolReplayRate = Integer.parseInt(optionHolder.validateAndGetStaticValue(
+                HttpConstants.SPOOL_REPLAY_RATE, HttpConstants.DEFAULT_SPOOL_REPLAY_RATE));
+        if (spoolSegmentSize < 1024 || spoolSegmentSize > Integer.MAX_VALUE || spoolMaxSize < spoolSegmentSize) {
+            throw new SiddhiAppCreationException(HttpConstants.SPOOL_SEGMENT_SIZE + " should be between 1024 " +
+                    "and " + Integer.MAX_VALUE + " bytes, and not greater than " + HttpConstants.SPOOL_MAX_SIZE +
+                    ", but found '" + spoolSegmentSize + "' and '" + spoolMaxSize + "' in " +
+                    HttpConstants.HTTP_SINK_ID + " with the stream " + streamID);
+        }
+        DiskSpool.FsyncPolicy fsyncPolicy = null;
+        for (DiskSpool.FsyncPolicy policy : DiskSpool.FsyncPolicy.values()) {
+            if (policy.name().equalsIgnoreCase(spoolFsync)) {
+                fsyncPolicy = policy;
+            }
+        }
+        if (fsyncPolicy == null) {
+            throw new SiddhiAppCreationException(HttpConstants.SPOOL_FSYNC + " should be one of 'always', " +
+                    "'periodic' or 'never', but found '" + spoolFsync + "' in " + HttpConstants.HTTP_SINK_ID +
+                    " with the stream " + streamID);
+        }
+        if (spoolReplayRate < 1) {
+            throw new SiddhiAppCreationException(HttpConstants.SPOOL_REPLAY_RATE + " should be a positive " +
+                    "integer, but found '" + spoolReplayRate + "' in " + HttpConstants.HTTP_SINK_ID +
+                    " with the stream " + streamID);
+        }
+        spoolReplayInterval = Math.max(1000 / spoolReplayRate, 1);
+        try {
+            spool = new DiskSpool(Paths.get(spoolDir, siddhiAppContext.getName(), streamName),
+                    (int) spoolSegmentSize, spoolMaxSize, fsyncPolicy);
+        } catch (IOException e) {
+            throw new SiddhiAppCreationException("Failed to open the spool in '" + spoolDir + "' of " +
+                    HttpConstants.HTTP_SINK_ID + " with the stream " + streamID, e);
+        }
+        // The endpoint is not known to be available till it responds to a replayed request
+        spoolingNewRequests = !spool.isEmpty();
+        if (metrics != null) {
+            metrics.setSpoolMetrics(spool);
+        }
+    }
+
 
     @Override
     protected ServiceDeploymentInfo exposeServiceDeploymentInfo() {
@@ -641,11 +1240,23 @@ public class HttpSink extends Sink {
     @Override
     public void publish(Object payload, DynamicOptions dynamicOptions, State state)
             throws ConnectionUnavailableException {
-        startTime = System.currentTimeMillis();
+        if (mapType == null) {
+            mapType = getMapper().getType();
+        }
 
+        if (eventBatcher != null) {
+            // Load balanced batches are spread across the endpoints only when they are sent
+            String publisherURLKey = loadBalancer == null ? publisherURLOption.getValue(dynamicOptions) :
+                    EMPTY_STRING;
+            // Encoded in the charset of the content type, like the payloads sent without batching
+            eventBatcher.add(publisherURLKey + HttpConstants.NEW_LINE +
+                    httpMethodOption.getValue(dynamicOptions) + HttpConstants.NEW_LINE +
+                    httpHeaderOption.getValue(dynamicOptions), payload, dynamicOptions, mapType,
+                    headerTemplate.resolve(dynamicOptions).getContentType(mapType));
+            return;
+        }
         //get the dynamic parameter
-        String headers = httpHeaderOption.getValue(dynamicOptions);
-        List<Header> headersList = HttpSinkUtil.getHeaders(headers);
+        HeaderTemplate.CompiledHeaders compiledHeaders = headerTemplate.resolve(dynamicOptions);
 
         ClientConnector clientConnector;
         if (staticClientConnector != null) {
@@ -654,180 +1265,506 @@ public class HttpSink extends Sink {
             clientConnector = createClientConnector(dynamicOptions);
         }
 
-        if (mapType == null) {
-            mapType = getMapper().getType();
+        if (authType.equals(HttpConstants.BASIC_AUTH) || authType.equals(HttpConstants.NO_AUTH)) {
+            sendRequest(payload, dynamicOptions, compiledHeaders.getHeaders(), clientConnector);
+        } else {
+            // The access token headers are set on a copy, as the compiled headers are shared by the events
+            sendOauthRequest(payload, dynamicOptions, compiledHeaders.copyHeaders(), clientConnector);
         }
+    }
 
-        if (authType.equals(HttpConstants.BASIC_AUTH) || authType.equals(HttpConstants.NO_AUTH)) {
-            sendRequest(payload, dynamicOptions, headersList, clientConnector);
+    /**
+     * Send the events of a completed batch as a single request.
+     *
+     * @param batch the event batch.
+     */
+    private void publishBatch(EventBatch batch) {
+        DynamicOptions dynamicOptions = batch.getLastDynamicOptions();
+        try {
+            List<Header> headersList = headerTemplate.resolve(dynamicOptions).copyHeaders();
+            if (!HttpConstants.BATCH_FORMAT_TEXT.equals(batch.getFormat()) && !hasContentTypeHeader(headersList)) {
+                headersList.add(new Header(HttpConstants.HTTP_CONTENT_TYPE,
+                        HttpConstants.BATCH_FORMAT_NDJSON.equals(batch.getFormat()) ?
+                                HttpConstants.APPLICATION_NDJSON : HttpConstants.APPLICATION_JSON));
+            }
+            ClientConnector clientConnector;
+            if (staticClientConnector != null) {
+                clientConnector = staticClientConnector;
+            } else {
+                clientConnector = createClientConnector(dynamicOptions);
+            }
+            if (metrics != null) {
+                metrics.getTotalBatchesMetric(clientConnector.getPublisherURL()).inc();
+                metrics.getTotalBatchedEventsMetric(clientConnector.getPublisherURL()).inc(batch.size());
+                metrics.setLastBatchSizeMetric(clientConnector.getPublisherURL(), batch.size());
+            }
+            if (authType.equals(HttpConstants.BASIC_AUTH) || authType.equals(HttpConstants.NO_AUTH)) {
+                sendRequest(batch, dynamicOptions, headersList, clientConnector);
+            } else {
+                sendOauthRequest(batch, dynamicOptions, headersList, clientConnector);
+            }
+        } catch (ConnectionUnavailableException | RuntimeException e) {
+            onError(batch, dynamicOptions, e);
+        } finally {
+            batch.release();
+        }
+    }
+
+    private static boolean hasContentTypeHeader(List<Header> headersList) {
+        for (Header header : headersList) {
+            if (HttpConstants.HTTP_CONTENT_TYPE.equalsIgnoreCase(header.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Handles the failure of a request, applying the error handling on each event when the request was batched.
+     */
+    @Override
+    public void onError(Object payload, DynamicOptions dynamicOptions, Exception e) {
+        if (payload instanceof EventBatch) {
+            EventBatch batch = (EventBatch) payload;
+            List<Object> payloads = batch.getPayloads();
+            List<DynamicOptions> dynamicOptionsList = batch.getDynamicOptionsList();
+            for (int i = 0; i < payloads.size(); i++) {
+                super.onError(payloads.get(i), dynamicOptionsList.get(i), e);
+            }
         } else {
-            sendOauthRequest(payload, dynamicOptions, headersList, clientConnector);
+            super.onError(payload, dynamicOptions, e);
         }
     }
 
     protected int sendRequest(Object payload, DynamicOptions dynamicOptions, List<Header> headersList,
                               ClientConnector clientConnector)
             throws ConnectionUnavailableException {
-        String httpMethod = EMPTY_STRING.equals(httpMethodOption.getValue(dynamicOptions)) ?
-                HttpConstants.METHOD_DEFAULT : httpMethodOption.getValue(dynamicOptions);
-        String contentType = HttpSinkUtil.getContentType(mapType, headersList);
-        String messageBody = getMessageBody(payload);
-        HttpMethod httpReqMethod = new HttpMethod(httpMethod);
-        HttpCarbonMessage cMessage = new HttpCarbonMessage(
-                new DefaultHttpRequest(HttpVersion.HTTP_1_1, httpReqMethod, EMPTY_STRING));
-        cMessage = generateCarbonMessage(headersList, contentType, httpMethod, cMessage,
-                clientConnector.getHttpURLProperties());
-
-        if (publisherURLOption.isStatic()) {
-            publisherURL = publisherURLOption.getValue();
-        } else {
-            publisherURL = publisherURLOption.getValue(dynamicOptions);
+        if (spoolingNewRequests && spoolRequest(payload, dynamicOptions, headersList,
+                clientConnector.getPublisherURL(), true)) {
+            // Keep the events in order behind the requests waiting in the spool, till the endpoint is available
+            return HttpConstants.SUCCESS_CODE;
         }
-
-        if (metrics != null) {
-            metrics.getTotalWritesMetric().inc();
-            metrics.getTotalHttpWritesMetric(publisherURL).inc();
-            metrics.getRequestSizeMetric(publisherURL).inc(HttpSinkUtil.getByteSize(messageBody));
+        HTTPResponseListener responseListener = new HTTPResponseListener(payload, dynamicOptions, headersList,
+                this, clientConnector.getPublisherURL());
+        try {
+            send(payload, dynamicOptions, headersList, clientConnector, responseListener);
+        } catch (ConnectionUnavailableException e) {
+            responseListener.releasePayload();
+            if (spool != null && spoolRequest(payload, dynamicOptions, headersList,
+                    clientConnector.getPublisherURL(), true)) {
+                return HttpConstants.SUCCESS_CODE;
+            }
+            throw e;
+        } catch (RuntimeException e) {
+            responseListener.releasePayload();
+            throw e;
         }
+        return HttpConstants.SUCCESS_CODE;
+    }
 
-        if (!Constants.HTTP_GET_METHOD.equals(httpMethod)) {
-            cMessage.addHttpContent(new DefaultLastHttpContent(Unpooled.wrappedBuffer(messageBody
-                    .getBytes(Charset.defaultCharset()))));
+    /**
+     * Append the request of the given payload to the spool, to be sent again once the endpoint is available.
+     *
+     * @param payload        the payload.
+     * @param dynamicOptions dynamic options of the event.
+     * @param headersList    request headers.
+     * @param publisherURL   the url the request failed to be sent to.
+     * @param isFirstAttempt whether the request is spooled without being sent, hence it is counted as a new
+     *                       write, as it is not counted when it is replayed.
+     * @return true if the request is spooled, false if the spool is full.
+     */
+    private boolean spoolRequest(Object payload, DynamicOptions dynamicOptions, List<Header> headersList,
+                                 String publisherURL, boolean isFirstAttempt) {
+        String httpMethod = EMPTY_STRING.equals(httpMethodOption.getValue(dynamicOptions)) ?
+                HttpConstants.METHOD_DEFAULT : httpMethodOption.getValue(dynamicOptions);
+        ByteBuf messageBody = getMessageBodyBuffer(payload, HttpSinkUtil.getContentType(mapType, headersList));
+        byte[] body;
+        try {
+            body = ByteBufUtil.getBytes(messageBody);
+        } finally {
+            messageBody.release();
         }
-        cMessage.completeMessage();
-        if (HttpConstants.OAUTH.equals(authType)) {
-            CountDownLatch latch = new CountDownLatch(1);
-            DefaultListener listener = new DefaultListener(latch, authType);
-            HttpResponseFuture responseFuture = clientConnector.send(cMessage);
-            responseFuture.setHttpConnectorListener(listener);
-            try {
-                boolean latchCount = latch.await(30, TimeUnit.SECONDS);
-                if (!latchCount) {
-                    log.debug("Time out due to getting getting response from " + clientConnector.getPublisherURL() +
-                            ". Message dropped.");
-                    throw new ConnectionUnavailableException("Time out due to getting getting response from "
-                            + clientConnector.getPublisherURL() + ". Message dropped.");
+        // Load balanced requests are sent to the endpoint selected when they are replayed
+        SpooledRequest request = new SpooledRequest(loadBalancer == null ? publisherURL : EMPTY_STRING,
+                httpMethod, headersList, body, getEventCount(payload));
+        try {
+            boolean isSpooled;
+            synchronized (spoolLock) {
+                isSpooled = spool.append(request.encode());
+                if (isSpooled) {
+                    // New events are spooled behind the request till the spool is drained
+                    spoolingNewRequests = true;
                 }
-            } catch (InterruptedException e) {
-                log.debug("Failed to get a response from " + clientConnector.getPublisherURL() + "," + e +
-                        ". Message dropped.");
-                throw new ConnectionUnavailableException("Failed to get a response from " +
-                        clientConnector.getPublisherURL() + ", " + e + ". Message dropped.");
             }
-            HttpCarbonMessage response = listener.getHttpResponseMessage();
-            log.info(" Response: *********** " + response.getNettyHttpResponse().status());
-            return response.getNettyHttpResponse().status().code();
-        } else {
-            HttpResponseFuture responseFuture = clientConnector.send(cMessage);
-            HTTPResponseListener responseListener = new HTTPResponseListener(payload, dynamicOptions, this,
-                    clientConnector.getPublisherURL());
-            responseFuture.setHttpConnectorListener(responseListener);
-            return HttpConstants.SUCCESS_CODE;
+            if (isSpooled) {
+                if (metrics != null && isFirstAttempt) {
+                    metrics.getTotalWritesMetric().inc(request.getEventCount());
+                    metrics.getTotalHttpWritesMetric(publisherURL).inc();
+                    metrics.getRequestSizeMetric(publisherURL).inc(body.length);
+                }
+                return true;
+            }
+            log.error("Spool of the stream " + streamID + " is full with " + spool.getDepth() + " requests, " +
+                    "hence the request to '" + publisherURL + "' is not spooled.");
+        } catch (IOException e) {
+            log.error("Failed to spool the request to '" + publisherURL + "' of the stream " + streamID + ".", e);
         }
+        return false;
     }
 
-    private String getStringFromInputStream(InputStream in) {
-        BufferedInputStream bis = new BufferedInputStream(in);
-        String result;
-        try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-            int data;
-            while ((data = bis.read()) != -1) {
-                bos.write(data);
+    private void startSpoolReplay() {
+        if (spool != null && !spoolReplayActive) {
+            spoolReplayActive = true;
+            scheduleSpoolReplay(0);
+        }
+    }
+
+    private void stopSpoolReplay() {
+        if (spool != null) {
+            spoolReplayActive = false;
+            Timeout timeout = spoolReplayTimeout;
+            if (timeout != null) {
+                timeout.cancel();
             }
-            result = bos.toString(StandardCharsets.UTF_8.toString());
-        } catch (IOException ioe) {
-            log.error("Couldn't read the complete input stream");
-            return "";
+            spool.force();
         }
-        return result;
     }
 
+    private void scheduleSpoolReplay(long delay) {
+        if (spoolReplayActive) {
+            // The replay runs in the sink executor, as flushing the spool to the disk blocks
+            spoolReplayTimeout = RETRY_TIMER.newTimeout(timeout -> executor.execute(this::replaySpool), delay,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
 
-    protected void sendOauthRequest(Object payload, DynamicOptions dynamicOptions, List<Header> headersList,
-                                    ClientConnector clientConnector)
-            throws ConnectionUnavailableException {
-        //generate encoded base64 auth for getting refresh token
-        String consumerKeyValue;
+    /**
+     * Send the first request of the spool, one at a time and at most at the replay rate, removing it from the
+     * spool once the endpoint responds with a status which is not retriable. Like the new requests, a replayed
+     * request takes a permit of the in-flight requests of the endpoint and is not sent while its circuit breaker
+     * is open.
+     */
+    private void replaySpool() {
+        if (!spoolReplayActive) {
+            return;
+        }
+        long currentTime = System.currentTimeMillis();
+        if (spool.getFsyncPolicy() == DiskSpool.FsyncPolicy.PERIODIC &&
+                currentTime - lastSpoolForceTime >= SPOOL_FORCE_INTERVAL) {
+            lastSpoolForceTime = currentTime;
+            spool.force();
+        }
+        byte[] record = spool.peek();
+        if (record == null) {
+            scheduleSpoolReplay(SPOOL_POLL_INTERVAL);
+            return;
+        }
+        SpooledRequest request;
+        try {
+            request = SpooledRequest.decode(record);
+        } catch (IOException e) {
+            log.error("Dropping a corrupted request of " + record.length + " bytes from the spool of the stream " +
+                    streamID + ".", e);
+            spool.remove();
+            scheduleSpoolReplay(0);
+            return;
+        }
+        String publisherURL = request.getPublisherURL();
+        ClientConnector clientConnector;
+        try {
+            if (staticClientConnector != null) {
+                clientConnector = staticClientConnector;
+            } else {
+                clientConnector = clientConnectorCache.getClientConnector(EMPTY_STRING.equals(publisherURL) ?
+                        loadBalancer.select() : publisherURL);
+            }
+            publisherURL = clientConnector.getPublisherURL();
+        } catch (RuntimeException e) {
+            log.debug("Failed to replay the spooled request to '" + publisherURL + "', hence retrying in " +
+                    SPOOL_POLL_INTERVAL + " ms.", e);
+            scheduleSpoolReplay(SPOOL_POLL_INTERVAL);
+            return;
+        }
+        CircuitBreaker circuitBreaker = getCircuitBreaker(clientConnector);
+        HttpConnectorListener responseListener = new SpoolReplayListener(publisherURL, circuitBreaker);
+        InflightRequestWindow inflightRequestWindow = clientConnector.getInflightRequestWindow();
+        InflightRequestWindow.PermitReleasingListener permitReleasingListener = null;
+        try {
+            if (inflightRequestWindow != null) {
+                permitReleasingListener = inflightRequestWindow.acquire(inflightRequestWaitTime, responseListener,
+                        publisherURL);
+                responseListener = permitReleasingListener;
+            }
+            if (circuitBreaker != null && !circuitBreaker.allowRequest()) {
+                throw new ConnectionUnavailableException("Circuit breaker of the endpoint '" + publisherURL +
+                        "' is open due to consecutive failures.");
+            }
+            ByteBuf messageBody = Unpooled.wrappedBuffer(request.getBody());
+            clientConnector.send(createRequestMessage(request.getHttpMethod(), request.getHeaders(),
+                    HttpSinkUtil.getContentType(mapType, request.getHeaders()), messageBody,
+                    request.getEventCount(), clientConnector, false), responseListener);
+        } catch (ConnectionUnavailableException | RuntimeException e) {
+            if (permitReleasingListener != null) {
+                permitReleasingListener.release();
+            }
+            if (circuitBreaker != null && e instanceof RuntimeException) {
+                // A half open circuit waits for the outcome of its trial request, which might have been this one
+                circuitBreaker.recordFailure();
+            }
+            log.debug("Failed to replay the spooled request to '" + publisherURL + "', hence retrying in " +
+                    SPOOL_POLL_INTERVAL + " ms.", e);
+            scheduleSpoolReplay(SPOOL_POLL_INTERVAL);
+        }
+    }
 
-        if (!HttpConstants.EMPTY_STRING.equals(this.consumerKey)
-                && !HttpConstants.EMPTY_STRING.equals(this.consumerSecret)) {
-            consumerKeyValue = consumerKey + ":" + consumerSecret;
-        } else {
-            consumerKeyValue = bodyConsumerKey + ":" + bodyConsumerSecret;
+    /**
+     * Send the request of the given payload to the endpoint. When the in-flight requests of the endpoint are
+     * bounded, a permit is held from sending the request till the response listener is notified, including the
+     * time taken to send the request again with a renewed access token or after a retriable failure.
+     * The request is not sent at all while the circuit breaker of the endpoint is open.
+     *
+     * @param payload          the payload.
+     * @param dynamicOptions   dynamic options of the event.
+     * @param headersList      request headers.
+     * @param clientConnector  client connector of the endpoint.
+     * @param responseListener the response listener.
+     * @throws ConnectionUnavailableException if the endpoint has reached its maximum in-flight requests or its
+     *                                        circuit breaker is open.
+     */
+    void send(Object payload, DynamicOptions dynamicOptions, List<Header> headersList,
+              ClientConnector clientConnector, HttpConnectorListener responseListener)
+            throws ConnectionUnavailableException {
+        send(payload, dynamicOptions, headersList, clientConnector, responseListener, true);
+    }
+
+    /**
+     * Send the request of the given payload to the endpoint, as {@link #send(Object, DynamicOptions, List,
+     * ClientConnector, HttpConnectorListener)} does.
+     *
+     * @param payload          the payload.
+     * @param dynamicOptions   dynamic options of the event.
+     * @param headersList      request headers.
+     * @param clientConnector  client connector of the endpoint.
+     * @param responseListener the response listener.
+     * @param isFirstAttempt   whether the request is sent for the first time, as the duplicates of a request (such
+     *                         as hedged requests) are not counted as new writes.
+     * @throws ConnectionUnavailableException if the endpoint has reached its maximum in-flight requests or its
+     *                                        circuit breaker is open.
+     */
+    void send(Object payload, DynamicOptions dynamicOptions, List<Header> headersList,
+              ClientConnector clientConnector, HttpConnectorListener responseListener, boolean isFirstAttempt)
+            throws ConnectionUnavailableException {
+        long queuedTime = payload instanceof EventBatch ? ((EventBatch) payload).getCreatedTime() : System.nanoTime();
+        InflightRequestWindow inflightRequestWindow = clientConnector.getInflightRequestWindow();
+        InflightRequestWindow.PermitReleasingListener permitReleasingListener = null;
+        if (inflightRequestWindow != null) {
+            permitReleasingListener = inflightRequestWindow.acquire(inflightRequestWaitTime, responseListener,
+                    clientConnector.getPublisherURL());
+            responseListener = permitReleasingListener;
         }
-        String encodedAuth = "Basic " + encodeBase64(consumerKeyValue)
-                .replaceAll(HttpConstants.NEW_LINE, HttpConstants.EMPTY_STRING);
-        //check the availability of access token in the header
-        setAccessToken(encodedAuth, dynamicOptions, headersList, clientConnector.getPublisherURL());
-        //send a request to API and get the response
-        int response = sendRequest(payload, dynamicOptions, headersList, clientConnector);
-        //if authentication fails then get the new access token
-        if (response == HttpConstants.AUTHENTICATION_FAIL_CODE) {
-            handleOAuthFailure(payload, dynamicOptions, headersList, encodedAuth, clientConnector);
-        } else if (HttpConstants.SUCCESS_CODE <= response && response < HttpConstants.MULTIPLE_CHOICES) {
-            log.info("Request sent successfully to " + clientConnector.getPublisherURL());
-        } else if (response == HttpConstants.INTERNAL_SERVER_FAIL_CODE) {
-            log.error("Error at sending oauth request to API endpoint " + clientConnector.getPublisherURL() +
-                    "', with response code: " +
-                    response + "- Internal server error. Message dropped");
-            throw new HttpSinkAdaptorRuntimeException("Error at sending oauth request to API endpoint, " +
-                    clientConnector.getPublisherURL() + "', with response code: " + response +
-                    "- Internal server error. Message dropped.");
+        LoadBalancer.Endpoint endpoint = loadBalancer != null ?
+                loadBalancer.getEndpoint(clientConnector.getPublisherURL()) : null;
+        CircuitBreaker circuitBreaker = getCircuitBreaker(clientConnector);
+        if (circuitBreaker != null && !circuitBreaker.allowRequest()) {
+            if (permitReleasingListener != null) {
+                permitReleasingListener.release();
+            }
+            throw new ConnectionUnavailableException("Circuit breaker of the endpoint '" +
+                    clientConnector.getPublisherURL() + "' is open due to consecutive failures, hence the request " +
+                    "of the stream " + streamID + " is not sent.");
+        }
+        try {
+            HttpCarbonMessage cMessage = createRequestMessage(payload, dynamicOptions, headersList, clientConnector,
+                    isFirstAttempt);
+            long sentTime = System.nanoTime();
+            if (metrics != null) {
+                if (isFirstAttempt) {
+                    metrics.recordQueueLatency(clientConnector.getPublisherURL(), sentTime - queuedTime);
+                }
+                responseListener = new LatencyRecordingListener(responseListener, clientConnector.getPublisherURL(),
+                        sentTime);
+            }
+            if (retryPolicy != null || circuitBreaker != null) {
+                responseListener = new RetryingResponseListener(responseListener, payload, dynamicOptions,
+                        headersList, clientConnector, circuitBreaker);
+            }
+            if (endpoint != null) {
+                responseListener = endpoint.track(responseListener);
+            }
+            // Outermost, so that the request sent again with a renewed access token is handled by all the other
+            // listeners like any other attempt, while they never see the rejected one
+            responseListener = getResponseListener(responseListener, payload, dynamicOptions, headersList,
+                    clientConnector);
+            clientConnector.send(cMessage, responseListener);
+        } catch (RuntimeException e) {
+            if (permitReleasingListener != null) {
+                permitReleasingListener.release();
+            }
+            if (circuitBreaker != null) {
+                // A half open circuit waits for the outcome of its trial request, which might have been this one
+                circuitBreaker.recordFailure();
+            }
+            throw e;
+        }
+    }
+
+    private CircuitBreaker getCircuitBreaker(ClientConnector clientConnector) {
+        if (circuitBreakerFailureThreshold <= 0) {
+            return null;
+        }
+        return circuitBreakers.computeIfAbsent(
+                ClientConnectorCache.getConnectorKey(clientConnector.getHttpURLProperties()), endpoint -> {
+                    CircuitBreaker circuitBreaker = new CircuitBreaker(circuitBreakerFailureThreshold,
+                            circuitBreakerOpenTime);
+                    if (metrics != null) {
+                        metrics.setCircuitBreakerStateMetric(endpoint, circuitBreaker);
+                    }
+                    return circuitBreaker;
+                });
+    }
+
+    /**
+     * Create the request message of the given payload, which is either a mapped event or an {@link EventBatch}.
+     *
+     * @param payload         the payload.
+     * @param dynamicOptions  dynamic options of the event.
+     * @param headersList     request headers.
+     * @param clientConnector client connector of the endpoint.
+     * @param isFirstAttempt  whether the request is sent for the first time, as the requests sent again (with a
+     *                        renewed access token or after a failure) are not counted as new writes.
+     * @return the completed request message.
+     */
+    HttpCarbonMessage createRequestMessage(Object payload, DynamicOptions dynamicOptions, List<Header> headersList,
+                                           ClientConnector clientConnector, boolean isFirstAttempt) {
+        String httpMethod = EMPTY_STRING.equals(httpMethodOption.getValue(dynamicOptions)) ?
+                HttpConstants.METHOD_DEFAULT : httpMethodOption.getValue(dynamicOptions);
+        String contentType = HttpSinkUtil.getContentType(mapType, headersList);
+        return createRequestMessage(httpMethod, headersList, contentType, getMessageBodyBuffer(payload, contentType),
+                getEventCount(payload), clientConnector, isFirstAttempt);
+    }
+
+    /**
+     * Create the request message of the given body.
+     *
+     * @param httpMethod      the http method.
+     * @param headersList     request headers.
+     * @param contentType     content type of the body.
+     * @param messageBody     the body, released once the request is sent.
+     * @param eventCount      number of events in the body.
+     * @param clientConnector client connector of the endpoint.
+     * @param isFirstAttempt  whether the request is sent for the first time.
+     * @return the completed request message.
+     */
+    private HttpCarbonMessage createRequestMessage(String httpMethod, List<Header> headersList, String contentType,
+                                                   ByteBuf messageBody, int eventCount,
+                                                   ClientConnector clientConnector, boolean isFirstAttempt) {
+        String contentEncoding = null;
+        if (bodyCompressor != null && !Constants.HTTP_GET_METHOD.equals(httpMethod) &&
+                bodyCompressor.isCompressible(messageBody.readableBytes())) {
+            long compressionStartTime = System.nanoTime();
+            ByteBuf compressedBody = bodyCompressor.compress(messageBody, PooledByteBufAllocator.DEFAULT);
+            if (metrics != null) {
+                metrics.recordCompression(clientConnector.getPublisherURL(), messageBody.readableBytes(),
+                        compressedBody.readableBytes(), System.nanoTime() - compressionStartTime);
+            }
+            // Bodies which do not shrink, such as already compressed content, are sent as they are
+            if (compressedBody.readableBytes() < messageBody.readableBytes()) {
+                messageBody.release();
+                messageBody = compressedBody;
+                contentEncoding = bodyCompressor.getEncoding();
+            } else {
+                compressedBody.release();
+            }
+        }
+        HttpMethod httpReqMethod = new HttpMethod(httpMethod);
+        // The version is HTTP/1.1 even with http.version '2.0', as the transport sends the request as HTTP/2
+        // streams based on the sender configuration of the connector, while the h2c upgrade request and the
+        // fallback for endpoints not supporting HTTP/2 are HTTP/1.1 requests
+        HttpCarbonMessage cMessage = new HttpCarbonMessage(
+                new DefaultHttpRequest(HttpVersion.HTTP_1_1, httpReqMethod, EMPTY_STRING));
+        cMessage = generateCarbonMessage(headersList, contentType, httpMethod, cMessage,
+                clientConnector.getHttpURLProperties());
+        if (contentEncoding != null) {
+            cMessage.getHeaders().set(HttpHeaderNames.CONTENT_ENCODING, contentEncoding);
+        }
+
+        if (metrics != null && isFirstAttempt) {
+            metrics.getTotalWritesMetric().inc(eventCount);
+            metrics.getTotalHttpWritesMetric(clientConnector.getPublisherURL()).inc();
+            metrics.getRequestSizeMetric(clientConnector.getPublisherURL()).inc(messageBody.readableBytes());
+        }
+
+        if (!Constants.HTTP_GET_METHOD.equals(httpMethod)) {
+            cMessage.addHttpContent(new DefaultLastHttpContent(messageBody));
         } else {
-            log.error("Error at sending oauth request to API endpoint " +
-                    clientConnector.getPublisherURL() + "', with response code: " + response + ". Message dropped.");
-            throw new ConnectionUnavailableException("Error at sending oauth request to API endpoint " +
-                    clientConnector.getPublisherURL() + "', and response code: " + response + ". Message dropped.");
+            messageBody.release();
+        }
+        cMessage.completeMessage();
+        return cMessage;
+    }
+
+    /**
+     * Returns the listener to be set on the response future of a request. With OAuth, the given listener is
+     * wrapped so that the request is sent again with a new access token when it is rejected with 401.
+     *
+     * @param responseListener the response listener.
+     * @param payload          the payload of the request.
+     * @param dynamicOptions   dynamic options of the event.
+     * @param headersList      request headers.
+     * @param clientConnector  client connector of the endpoint.
+     * @return the listener for the response future.
+     */
+    HttpConnectorListener getResponseListener(HttpConnectorListener responseListener, Object payload,
+                                              DynamicOptions dynamicOptions, List<Header> headersList,
+                                              ClientConnector clientConnector) {
+        if (HttpConstants.OAUTH.equals(authType)) {
+            return new OAuthResponseListener(responseListener, payload, dynamicOptions, headersList,
+                    clientConnector);
         }
+        return responseListener;
     }
 
-    private void handleOAuthFailure(Object payload, DynamicOptions dynamicOptions, List<Header> headersList,
-                                    String encodedAuth, ClientConnector clientConnector)
+
+    protected void sendOauthRequest(Object payload, DynamicOptions dynamicOptions, List<Header> headersList,
+                                    ClientConnector clientConnector)
             throws ConnectionUnavailableException {
-        boolean checkFromCache = accessTokenCache.checkAvailableKey(encodedAuth);
-        if (checkFromCache) {
-            getNewAccessTokenWithCache(payload, dynamicOptions, headersList, encodedAuth, clientConnector);
+        //check the availability of access token in the header
+        setAccessToken(getEncodedAuth(), dynamicOptions, headersList, clientConnector.getPublisherURL());
+        //send a request to API, a rejected request is sent again with a new access token by the response listener
+        sendRequest(payload, dynamicOptions, headersList, clientConnector);
+    }
+
+    private String getEncodedAuth() {
+        //generate encoded base64 auth for getting refresh token
+        String consumerKeyValue;
+        if (!HttpConstants.EMPTY_STRING.equals(this.consumerKey)
+                && !HttpConstants.EMPTY_STRING.equals(this.consumerSecret)) {
+            consumerKeyValue = consumerKey + ":" + consumerSecret;
         } else {
-            requestForNewAccessToken(payload, dynamicOptions, headersList, encodedAuth, clientConnector);
+            consumerKeyValue = bodyConsumerKey + ":" + bodyConsumerSecret;
         }
+        return "Basic " + encodeBase64(consumerKeyValue)
+                .replaceAll(HttpConstants.NEW_LINE, HttpConstants.EMPTY_STRING);
     }
 
-    private void getNewAccessTokenWithCache(Object payload, DynamicOptions dynamicOptions, List<Header> headersList,
-                                            String encodedAuth, ClientConnector clientConnector)
+    /**
+     * Update the authorization header with a valid access token, after the request with the current token was
+     * rejected. A new token is requested only if no other request has already renewed the token.
+     */
+    private void renewAccessToken(DynamicOptions dynamicOptions, List<Header> headersList, String encodedAuth,
+                                  String publisherURL)
             throws ConnectionUnavailableException {
-        String accessToken = accessTokenCache.getAccessToken(encodedAuth);
-        for (Header header : headersList) {
-            if (header.getName().equals(HttpConstants.AUTHORIZATION_HEADER)) {
-                header.setValue(accessToken);
-                break;
-            }
-        }
-        //send a request to API with a new access token
-        int response = sendRequest(payload, dynamicOptions, headersList, clientConnector
-        );
-        if (response == HttpConstants.SUCCESS_CODE) {
-            log.info("Request sent successfully to " + clientConnector.getPublisherURL());
-        } else if (response == HttpConstants.AUTHENTICATION_FAIL_CODE) {
-            requestForNewAccessToken(payload, dynamicOptions, headersList, encodedAuth, clientConnector);
-        } else if (response == HttpConstants.INTERNAL_SERVER_FAIL_CODE) {
-            log.error("Error at sending oauth request to API endpoint, " + clientConnector.getPublisherURL() +
-                    "', with response code: " +
-                    response + "- Internal server error. Message dropped");
-            throw new HttpSinkAdaptorRuntimeException("Error at sending oauth request to API endpoint, " +
-                    clientConnector.getPublisherURL() + "', with response code: " + response +
-                    "- Internal server error. Message dropped");
+        String cachedAccessToken = accessTokenCache.getAccessToken(encodedAuth);
+        if (cachedAccessToken != null && !cachedAccessToken.equals(getHeaderValue(headersList,
+                HttpConstants.AUTHORIZATION_HEADER))) {
+            setHeaderValue(headersList, HttpConstants.AUTHORIZATION_HEADER, cachedAccessToken);
         } else {
-            log.error("Error at sending oauth request to API endpoint " + clientConnector.getPublisherURL() +
-                    "', with response code: " +
-                    response + ". Message dropped.");
-            throw new ConnectionUnavailableException("Error at sending oauth request to API endpoint " +
-                    clientConnector.getPublisherURL() +
-                    "', with response code: " + response + ". Message dropped.");
+            requestForNewAccessToken(dynamicOptions, headersList, encodedAuth, publisherURL);
         }
     }
 
-    private void requestForNewAccessToken(Object payload, DynamicOptions dynamicOptions, List<Header> headersList,
-                                          String encodedAuth, ClientConnector clientConnector)
+    private void requestForNewAccessToken(DynamicOptions dynamicOptions, List<Header> headersList,
+                                          String encodedAuth, String publisherURL)
             throws ConnectionUnavailableException {
         Boolean checkRefreshToken = accessTokenCache.checkRefreshAvailableKey(encodedAuth);
         if (checkRefreshToken) {
@@ -842,55 +1779,15 @@ public class HttpSink extends Sink {
         }
         getAccessToken(dynamicOptions, encodedAuth, tokenURL);
         if (accessTokenCache.getResponseCode(encodedAuth) == HttpConstants.SUCCESS_CODE) {
-            String newAccessToken = accessTokenCache.getAccessToken(encodedAuth);
-            accessTokenCache.setAccessToken(encodedAuth, newAccessToken);
-            if (accessTokenCache.getRefreshtoken(encodedAuth) != null) {
-                accessTokenCache.setRefreshtoken(encodedAuth, accessTokenCache.getRefreshtoken(encodedAuth));
-            }
-            for (Header header : headersList) {
-                if (header.getName().equals(HttpConstants.AUTHORIZATION_HEADER)) {
-                    header.setValue(newAccessToken);
-                    break;
-                }
-            }
-            //send a request to API with a new access token
-            int response = sendRequest(payload, dynamicOptions, headersList, clientConnector
-            );
-            if (response == HttpConstants.SUCCESS_CODE) {
-                log.info("Request sent successfully to " + clientConnector.getPublisherURL());
-            } else if (response == HttpConstants.AUTHENTICATION_FAIL_CODE) {
-                log.error("Error at sending oauth request to API endpoint " + clientConnector.getPublisherURL() +
-                        "', with response code: " +
-                        response + "- Authentication Failure. Please provide a valid Consumer key, Consumer secret" +
-                        " and token endpoint URL . Message dropped");
-                throw new HttpSinkAdaptorRuntimeException("Error at sending oauth request to API endpoint " +
-                        clientConnector.getPublisherURL() + "', with response code: " + response +
-                        "- Authentication Failure." +
-                        " Please provide a valid Consumer key, Consumer secret and token endpoint URL." +
-                        " Message dropped");
-            } else if (response == HttpConstants.INTERNAL_SERVER_FAIL_CODE) {
-                log.error("Error at sending oauth request to API endpoint " + clientConnector.getPublisherURL() +
-                        "', with response code: " +
-                        response + "- Internal server error. Message dropped");
-                throw new HttpSinkAdaptorRuntimeException("Error at sending oauth request to API endpoint "
-                        + clientConnector.getPublisherURL() + "', with response code: " + response +
-                        "- Internal server error. Message dropped");
-            } else {
-                log.error("Error at sending oauth request to API endpoint " + clientConnector.getPublisherURL() +
-                        "', with response code: " +
-                        response + ". Message dropped.");
-                throw new ConnectionUnavailableException("Error at sending oauth request to API endpoint " +
-                        clientConnector.getPublisherURL() + "', with response code: " + response +
-                        ". Message dropped.");
-            }
+            setHeaderValue(headersList, HttpConstants.AUTHORIZATION_HEADER,
+                    accessTokenCache.getAccessToken(encodedAuth));
+            scheduleAccessTokenRefresh(encodedAuth, dynamicOptions);
         } else if (accessTokenCache.getResponseCode(encodedAuth) == HttpConstants.AUTHENTICATION_FAIL_CODE) {
-            log.error("Failed to generate new access token for the expired access token to " +
-                    clientConnector.getPublisherURL() + "', " +
-                    accessTokenCache.getResponseCode(encodedAuth) + ": Authentication Failure.cPlease provide a " +
-                    "valid Consumer key, Consumer secret and token endpoint URL . Message dropped");
+            log.error("Failed to generate new access token for the expired access token to " + publisherURL +
+                    "', " + accessTokenCache.getResponseCode(encodedAuth) + ": Authentication Failure. Please " +
+                    "provide a valid Consumer key, Consumer secret and token endpoint URL . Message dropped");
             throw new HttpSinkAdaptorRuntimeException("Failed to generate new access token for the expired access " +
-                    "token to " + clientConnector.getPublisherURL() + "', " +
-                    accessTokenCache.getResponseCode(encodedAuth) +
+                    "token to " + publisherURL + "', " + accessTokenCache.getResponseCode(encodedAuth) +
                     ": Authentication Failure.Please provide a valid Consumer key, Consumer secret" +
                     " and token endpoint URL . Message dropped");
         } else {
@@ -902,8 +1799,37 @@ public class HttpSink extends Sink {
         }
     }
 
+    private static String getHeaderValue(List<Header> headersList, String name) {
+        for (Header header : headersList) {
+            if (header.getName().equals(name)) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static void setHeaderValue(List<Header> headersList, String name, String value) {
+        for (Header header : headersList) {
+            if (header.getName().equals(name)) {
+                header.setValue(value);
+                return;
+            }
+        }
+        headersList.add(new Header(name, value));
+    }
+
+    /**
+     * Request a new access token, which is cached with the response code of the request. Concurrent requests for
+     * the same credentials are coalesced, so that the token endpoint receives a single request.
+     */
     void getAccessToken(DynamicOptions dynamicOptions, String encodedAuth, String tokenURL) {
         this.tokenURL = tokenURL;
+        accessTokenCache.requestAccessToken(encodedAuth, tokenURL,
+                () -> requestAccessToken(dynamicOptions, encodedAuth, tokenURL));
+    }
+
+    private void requestAccessToken(DynamicOptions dynamicOptions, String encodedAuth, String tokenURL) {
+        long requestStartTime = System.currentTimeMillis();
         HttpsClient httpsClient = new HttpsClient();
         if (!HttpConstants.EMPTY_STRING.equals(refreshToken.getValue(dynamicOptions)) ||
                 accessTokenCache.getRefreshtoken(encodedAuth) != null) {
@@ -918,6 +1844,9 @@ public class HttpSink extends Sink {
             httpsClient.getClientGrantAccessToken(tokenURL, clientStoreFile,
                     clientStorePass, encodedAuth);
         }
+        if (metrics != null) {
+            metrics.setTokenEndpointLatencyMetric(tokenURL, System.currentTimeMillis() - requestStartTime);
+        }
     }
 
     void setAccessToken(String encodedAuth, DynamicOptions dynamicOptions,
@@ -934,15 +1863,19 @@ public class HttpSink extends Sink {
         }
 
         if (!authAvailability) {
-            //generate encoded base64 auth for getting refresh token
+            //use the cached access token until it expires, as it is refreshed in the background
+            accessToken = accessTokenCache.getValidAccessToken(encodedAuth);
+            if (accessToken != null) {
+                if (metrics != null) {
+                    metrics.getAccessTokenCacheHitsMetric().inc();
+                }
+                addAccessTokenHeaders(encodedAuth, accessToken, headersList);
+                return;
+            }
             getAccessToken(dynamicOptions, encodedAuth, tokenURL);
             if (accessTokenCache.getResponseCode(encodedAuth) == HttpConstants.SUCCESS_CODE) {
-                headersList.add(new Header(HttpConstants.AUTHORIZATION_HEADER,
-                        accessTokenCache.getAccessToken(encodedAuth)));
-                if (accessTokenCache.getRefreshtoken(encodedAuth) != null) {
-                    headersList.add(new Header(HttpConstants.RECEIVER_REFRESH_TOKEN,
-                            accessTokenCache.getRefreshtoken(encodedAuth)));
-                }
+                addAccessTokenHeaders(encodedAuth, accessTokenCache.getAccessToken(encodedAuth), headersList);
+                scheduleAccessTokenRefresh(encodedAuth, dynamicOptions);
             } else if (accessTokenCache.getResponseCode(encodedAuth) == HttpConstants.AUTHENTICATION_FAIL_CODE) {
                 log.error("Failed to generate new access token for the expired access token to " + publisherURL +
                         "', with response code: " + accessTokenCache.getResponseCode(encodedAuth) +
@@ -981,6 +1914,50 @@ public class HttpSink extends Sink {
         }
     }
 
+    private void addAccessTokenHeaders(String encodedAuth, String accessToken, List<Header> headersList) {
+        headersList.add(new Header(HttpConstants.AUTHORIZATION_HEADER, accessToken));
+        String cachedRefreshToken = accessTokenCache.getRefreshtoken(encodedAuth);
+        if (cachedRefreshToken != null) {
+            headersList.add(new Header(HttpConstants.RECEIVER_REFRESH_TOKEN, cachedRefreshToken));
+        }
+    }
+
+    /**
+     * Schedule the renewal of the cached access token, to be done in the background before the token expires,
+     * so that the events are not sent with an expired token.
+     */
+    private void scheduleAccessTokenRefresh(String encodedAuth, DynamicOptions dynamicOptions) {
+        // The token is requested in the sink executor, not to hold up the refresh timer shared by the sinks
+        accessTokenCache.scheduleRefresh(encodedAuth, accessTokenRefreshSkew,
+                () -> executor.execute(() -> refreshAccessToken(encodedAuth, dynamicOptions)));
+    }
+
+    private void refreshAccessToken(String encodedAuth, DynamicOptions dynamicOptions) {
+        try {
+            getAccessToken(dynamicOptions, encodedAuth, tokenURL);
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh the access token of the stream " + streamID + " before it expires. A new " +
+                    "access token will be requested when the token is used after its expiry.", e);
+            if (metrics != null) {
+                metrics.getAccessTokenRefreshFailuresMetric().inc();
+            }
+            return;
+        }
+        if (accessTokenCache.getResponseCode(encodedAuth) == HttpConstants.SUCCESS_CODE) {
+            if (metrics != null) {
+                metrics.getAccessTokenRefreshesMetric().inc();
+            }
+            scheduleAccessTokenRefresh(encodedAuth, dynamicOptions);
+        } else {
+            log.warn("Failed to refresh the access token of the stream " + streamID + " before it expires. Error " +
+                    "code: " + accessTokenCache.getResponseCode(encodedAuth) + ". A new access token will be " +
+                    "requested when the token is used after its expiry.");
+            if (metrics != null) {
+                metrics.getAccessTokenRefreshFailuresMetric().inc();
+            }
+        }
+    }
+
     /**
      * This method will be called before the processing method.
      * Intention to establish connection to publish event.
@@ -988,7 +1965,13 @@ public class HttpSink extends Sink {
      */
     @Override
     public void connect() {
-
+        if (!clientRuntimeRegistered) {
+            registerClientRuntime();
+            if (hasStaticPublisherURL()) {
+                staticClientConnector = createClientConnector(null);
+            }
+        }
+        startSpoolReplay();
     }
 
     /**
@@ -996,16 +1979,23 @@ public class HttpSink extends Sink {
      */
     @Override
     public void disconnect() {
+        if (eventBatcher != null) {
+            eventBatcher.flushAll();
+        }
+        stopSpoolReplay();
         if (staticClientConnector != null) {
             String publisherURL = staticClientConnector.getPublisherURL();
+            staticClientConnector.close();
             staticClientConnector = null;
             log.debug("Server connector for url " + publisherURL + " disconnected.");
         }
-
-        if (httpConnectorFactory != null) {
-            httpConnectorFactory.shutdownNow();
-            httpConnectorFactory = null;
+        if (clientConnectorCache != null) {
+            clientConnectorCache.clear();
+        }
+        if (HttpConstants.OAUTH.equals(authType)) {
+            accessTokenCache.cancelRefresh(getEncodedAuth());
         }
+        unregisterClientRuntime();
     }
 
     /**
@@ -1019,6 +2009,21 @@ public class HttpSink extends Sink {
             staticClientConnector = null;
             log.debug("Server connector for url " + publisherURL + " disconnected.");
         }
+        if (metrics != null) {
+            metrics.unregister();
+        }
+    }
+
+    private void registerClientRuntime() {
+        HttpClientConnectorRegistry.getInstance().register(configReader, connectionPoolConfiguration);
+        clientRuntimeRegistered = true;
+    }
+
+    private void unregisterClientRuntime() {
+        if (clientRuntimeRegistered) {
+            HttpClientConnectorRegistry.getInstance().unregister(connectionPoolConfiguration);
+            clientRuntimeRegistered = false;
+        }
     }
 
     /**
@@ -1093,19 +2098,49 @@ public class HttpSink extends Sink {
         return cMessage;
     }
 
-    String getMessageBody(Object payload) {
+    /**
+     * Returns the request body of the given payload, which is either a mapped event or an {@link EventBatch}.
+     *
+     * @param payload     the payload.
+     * @param contentType content type of the request, specifying the charset of the body.
+     * @return the request body, to be released by the caller unless it is sent.
+     */
+    ByteBuf getMessageBodyBuffer(Object payload, String contentType) {
+        if (payload instanceof EventBatch) {
+            return ((EventBatch) payload).getBody();
+        }
         if (HttpConstants.MAP_KEYVALUE.equals(mapType)) {
-            Map<String, Object> params = (HashMap) payload;
-            return params.entrySet().stream()
-                    .map(p -> encodeMessage(p.getKey()) + "=" + encodeMessage(p.getValue()))
-                    .reduce("", (p1, p2) -> p1 + "&" + p2);
-        } else {
-            return (String) payload;
+            return FormUrlEncoder.encode((Map<?, ?>) payload, PooledByteBufAllocator.DEFAULT);
+        }
+        return HttpSinkUtil.encodeBody((String) payload, contentType);
+    }
+
+    static int getEventCount(Object payload) {
+        return payload instanceof EventBatch ? ((EventBatch) payload).size() : 1;
+    }
+
+    /**
+     * Returns the client connector to send a duplicate of a request sent through the given client connector, which
+     * is of another endpoint when load balancing, or else the same one as its pool gives another connection.
+     *
+     * @param clientConnector client connector of the original request.
+     * @return the client connector for the duplicate request.
+     */
+    ClientConnector getAlternateClientConnector(ClientConnector clientConnector) {
+        if (loadBalancer == null) {
+            return clientConnector;
+        }
+        String alternateURL = loadBalancer.select();
+        if (alternateURL.equals(clientConnector.getPublisherURL())) {
+            alternateURL = loadBalancer.select();
         }
+        return clientConnectorCache.getClientConnector(alternateURL);
     }
 
     public ClientConnector createClientConnector(DynamicOptions dynamicOptions) {
-        if (publisherURLOption.isStatic()) {
+        if (loadBalancer != null) {
+            publisherURL = loadBalancer.select();
+        } else if (publisherURLOption.isStatic()) {
             publisherURL = publisherURLOption.getValue();
         } else {
             publisherURL = publisherURLOption.getValue(dynamicOptions);
@@ -1122,15 +2157,30 @@ public class HttpSink extends Sink {
                         "field in " + HttpConstants.HTTP_SINK_ID + " in " + streamID);
             }
         }
-        String scheme = HttpSinkUtil.getScheme(publisherURL);
-        Map<String, String> httpURLProperties = HttpSinkUtil.getURLProperties(publisherURL);
-        //Generate basic sender configurations
-        SenderConfiguration senderConfig = HttpSinkUtil
-                .getSenderConfigurations(httpURLProperties, clientStoreFile, clientStorePass, configReader);
         if (EMPTY_STRING.equals(publisherURL)) {
             throw new SiddhiAppCreationException("Receiver URL found empty but it is Mandatory field in " +
                     "" + HttpConstants.HTTP_SINK_ID + " in " + streamID);
         }
+        if (clientConnectorCache != null) {
+            return clientConnectorCache.getClientConnector(publisherURL);
+        }
+        Map<String, String> httpURLProperties = HttpSinkUtil.getURLProperties(publisherURL);
+        InflightRequestWindow inflightRequestWindow = null;
+        if (maxInflightRequests > 0) {
+            inflightRequestWindow = new InflightRequestWindow(maxInflightRequests);
+            if (metrics != null) {
+                metrics.setInflightRequestsMetric(publisherURL, inflightRequestWindow);
+            }
+        }
+        return new ClientConnector(publisherURL, httpURLProperties, createHttpClientConnector(httpURLProperties),
+                inflightRequestWindow);
+    }
+
+    private HttpClientConnector createHttpClientConnector(Map<String, String> httpURLProperties) {
+        String scheme = httpURLProperties.get(Constants.PROTOCOL);
+        //Generate basic sender configurations
+        SenderConfiguration senderConfig = HttpSinkUtil
+                .getSenderConfigurations(httpURLProperties, clientStoreFile, clientStorePass, configReader);
         if (HttpConstants.SCHEME_HTTPS.equals(scheme) && ((clientStoreFile == null) || (clientStorePass == null))) {
             throw new ExceptionInInitializerError("Client trustStore file path or password are empty while " +
                     "default scheme is 'https'. Please provide client " +
@@ -1140,6 +2190,12 @@ public class HttpSink extends Sink {
             senderConfig.setProxyServerConfiguration(proxyServerConfiguration);
         }
         senderConfig.setPoolConfiguration(connectionPoolConfiguration);
+        // With HTTP/2 the requests are multiplexed over a connection negotiated through ALPN for https, or the
+        // h2c upgrade for http, both of which fall back to HTTP/1.1 when the endpoint does not support HTTP/2
+        senderConfig.setHttpVersion(httpVersion);
+        if (HttpConstants.HTTP_VERSION_2_0.equals(httpVersion) && http2PriorKnowledge) {
+            senderConfig.setForceHttp2(true);
+        }
 
         //add advanced sender configurations
         if (socketIdleTimeout != -1) {
@@ -1174,17 +2230,7 @@ public class HttpSink extends Sink {
         //overwrite default transport configuration
         Map<String, Object> bootStrapProperties = HttpSinkUtil
                 .populateTransportConfiguration(clientBootstrapConfiguration);
-        return new ClientConnector(publisherURL, httpURLProperties,
-                httpConnectorFactory.createHttpClientConnector(bootStrapProperties, senderConfig));
-    }
-
-    private String encodeMessage(Object s) {
-        try {
-            return URLEncoder.encode((String) s, HttpConstants.DEFAULT_ENCODING);
-        } catch (UnsupportedEncodingException e) {
-            throw new SiddhiAppRuntimeException("Execution of Siddhi app " + siddhiAppContext.getName() +
-                    " failed due to " + e.getMessage(), e);
-        }
+        return HttpClientConnectorRegistry.getInstance().createHttpClientConnector(bootStrapProperties, senderConfig);
     }
 
     private String encodeBase64(String consumerKeyValue) {
@@ -1197,43 +2243,81 @@ public class HttpSink extends Sink {
         Object payload;
         DynamicOptions dynamicOptions;
         HttpSink httpSink;
+        private final List<Header> headersList;
         private final String publisherURL;
+        private final AtomicBoolean payloadReleased = new AtomicBoolean();
 
-        HTTPResponseListener(Object payload, DynamicOptions dynamicOptions, HttpSink httpSink, String publisherURL) {
+        HTTPResponseListener(Object payload, DynamicOptions dynamicOptions, List<Header> headersList,
+                             HttpSink httpSink, String publisherURL) {
             this.payload = payload;
             this.dynamicOptions = dynamicOptions;
+            this.headersList = headersList;
             this.httpSink = httpSink;
             this.publisherURL = publisherURL;
+            if (spool != null && payload instanceof EventBatch) {
+                // Keep the batch body till the response, as the request might have to be spooled
+                ((EventBatch) payload).retain();
+            }
         }
 
         @Override
         public void onMessage(HttpCarbonMessage httpCarbonMessage) {
-            endTime = System.currentTimeMillis();
+            int statusCode = httpCarbonMessage.getHttpStatusCode();
 
             if (metrics != null) {
                 metrics.setEndpointStatusMetric(publisherURL, EndpointStatus.ONLINE);
-                metrics.setLatencyMetric(publisherURL, endTime - startTime);
-                metrics.setLastEventTime(publisherURL, endTime);
+                metrics.setLastEventTime(publisherURL, System.currentTimeMillis());
 
                 // Catch unsuccessful requests
-                if (httpCarbonMessage.getHttpStatusCode() / 100 != 2) {
+                if (statusCode / 100 != 2) {
                     metrics.getTotalHttpErrorsMetric(publisherURL).inc();
                 }
             }
 
-            if (executor != null) {
-                executor.execute(new Runnable() {
-                    @Override
-                    public void run() {
-                            /*
-                            Read content from the input stream of the HTTP Carbon message
-                            and make sure that the Carbon message is cleaned up,
-                            for preventing leaks.
-                             */
-                        getStringFromInputStream(
-                                new HttpMessageDataStreamer(httpCarbonMessage).getInputStream());
+            if (spool != null && retriableStatusCodes.contains(statusCode)) {
+                // Appending to the spool might create and flush a memory-mapped file, hence it is done in the sink
+                // executor instead of the I/O thread
+                executor.execute(() -> {
+                    try {
+                        if (spoolRequest(payload, dynamicOptions, headersList, publisherURL, false)) {
+                            HttpSinkUtil.releaseContent(httpCarbonMessage);
+                            log.warn("Endpoint '" + publisherURL + "' of the stream " + streamID + " responded " +
+                                    "with status code " + statusCode + ", hence the request is spooled to be " +
+                                    "sent again.");
+                        } else {
+                            // The spool is full, hence the response is handled as without a spool
+                            handleResponse(httpCarbonMessage, statusCode);
+                        }
+                    } finally {
+                        releasePayload();
                     }
                 });
+                return;
+            }
+            try {
+                handleResponse(httpCarbonMessage, statusCode);
+            } finally {
+                releasePayload();
+            }
+        }
+
+        private void handleResponse(HttpCarbonMessage httpCarbonMessage, int statusCode) {
+            if (HttpConstants.RESPONSE_MODE_FULL.equals(responseMode) && executor != null) {
+                // Reading the content blocks till it arrives, hence read it outside the I/O thread
+                executor.execute(() -> {
+                    String responseBody = HttpSinkUtil.readContent(httpCarbonMessage);
+                    if (statusCode / 100 != 2) {
+                        log.error("Endpoint '" + publisherURL + "' of the stream " + streamID + " responded " +
+                                "with status code " + statusCode + ": " + responseBody);
+                    }
+                });
+                return;
+            }
+            // The content is released as it arrives, for preventing leaks
+            HttpSinkUtil.releaseContent(httpCarbonMessage);
+            if (HttpConstants.RESPONSE_MODE_STATUS_ONLY.equals(responseMode) && statusCode / 100 != 2) {
+                log.error("Endpoint '" + publisherURL + "' of the stream " + streamID + " responded with " +
+                        "status code " + statusCode + " and headers " + httpCarbonMessage.getHeaders());
             }
         }
 
@@ -1244,11 +2328,306 @@ public class HttpSink extends Sink {
                 metrics.setEndpointStatusMetric(publisherURL, EndpointStatus.OFFLINE);
             }
 
+            if (spool == null) {
+                handleError(throwable);
+                return;
+            }
+            // Appending to the spool might create and flush a memory-mapped file, hence it is done in the sink
+            // executor instead of the I/O thread
+            executor.execute(() -> {
+                try {
+                    if (!spoolRequest(payload, dynamicOptions, headersList, publisherURL, false)) {
+                        handleError(throwable);
+                    }
+                } finally {
+                    releasePayload();
+                }
+            });
+        }
+
+        private void handleError(Throwable throwable) {
             httpSink.onError(payload, dynamicOptions,
                     new ConnectionUnavailableException("HTTP sink on stream " + httpSink.streamID +
                             " of Siddhi App '" + httpSink.siddhiAppContext.getName() +
                             "' failed to publish events to endpoint '" + publisherURL + "'. " +
                             throwable.getMessage(), throwable));
         }
+
+        /**
+         * Release the batch body retained for spooling the request, if it has not been released already.
+         */
+        void releasePayload() {
+            if (spool != null && payload instanceof EventBatch && payloadReleased.compareAndSet(false, true)) {
+                ((EventBatch) payload).release();
+            }
+        }
+    }
+
+    /**
+     * {@code SpoolReplayListener} removes a replayed request from the spool once the endpoint responds with a
+     * status which is not retriable, and schedules the next replay.
+     */
+    private class SpoolReplayListener implements HttpConnectorListener {
+        private final String publisherURL;
+        private final CircuitBreaker circuitBreaker;
+
+        SpoolReplayListener(String publisherURL, CircuitBreaker circuitBreaker) {
+            this.publisherURL = publisherURL;
+            this.circuitBreaker = circuitBreaker;
+        }
+
+        @Override
+        public void onMessage(HttpCarbonMessage httpCarbonMessage) {
+            int statusCode = httpCarbonMessage.getHttpStatusCode();
+            HttpSinkUtil.releaseContent(httpCarbonMessage);
+            recordOutcome(statusCode >= HttpConstants.INTERNAL_SERVER_FAIL_CODE);
+            if (metrics != null) {
+                metrics.setEndpointStatusMetric(publisherURL, EndpointStatus.ONLINE);
+            }
+            if (retriableStatusCodes.contains(statusCode)) {
+                scheduleSpoolReplay(SPOOL_POLL_INTERVAL);
+                return;
+            }
+            if (statusCode / 100 != 2) {
+                log.error("Endpoint '" + publisherURL + "' of the stream " + streamID + " responded to a spooled " +
+                        "request with status code " + statusCode + ", hence the request is dropped.");
+            }
+            // Removing the request might flush the spool to the disk, hence it is done in the sink executor
+            // instead of the I/O thread
+            executor.execute(() -> {
+                spool.remove();
+                synchronized (spoolLock) {
+                    // The new requests are sent right away once the requests spooled before them are sent
+                    if (spool.isEmpty()) {
+                        spoolingNewRequests = false;
+                    }
+                }
+                scheduleSpoolReplay(spoolReplayInterval);
+            });
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            recordOutcome(true);
+            if (metrics != null) {
+                metrics.setEndpointStatusMetric(publisherURL, EndpointStatus.OFFLINE);
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Failed to replay the spooled request to '" + publisherURL + "', hence retrying in " +
+                        SPOOL_POLL_INTERVAL + " ms. " + throwable.getMessage());
+            }
+            scheduleSpoolReplay(SPOOL_POLL_INTERVAL);
+        }
+
+        private void recordOutcome(boolean failed) {
+            if (circuitBreaker != null) {
+                if (failed) {
+                    circuitBreaker.recordFailure();
+                } else {
+                    circuitBreaker.recordSuccess();
+                }
+            }
+        }
+    }
+
+    /**
+     * {@code LatencyRecordingListener} records the time taken for the response of a request, measured per request
+     * from the time it is sent, till the response of its last attempt when the request is sent again.
+     */
+    private class LatencyRecordingListener implements HttpConnectorListener {
+        private final HttpConnectorListener responseListener;
+        private final String publisherURL;
+        private final long sentTime;
+
+        LatencyRecordingListener(HttpConnectorListener responseListener, String publisherURL, long sentTime) {
+            this.responseListener = responseListener;
+            this.publisherURL = publisherURL;
+            this.sentTime = sentTime;
+        }
+
+        @Override
+        public void onMessage(HttpCarbonMessage httpCarbonMessage) {
+            metrics.recordWireLatency(publisherURL, System.nanoTime() - sentTime);
+            responseListener.onMessage(httpCarbonMessage);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            responseListener.onError(throwable);
+        }
+    }
+
+    /**
+     * {@code OAuthResponseListener} sends a request rejected with 401 once again with a renewed access token. Any
+     * other response is passed to the wrapped listener, which handles unsuccessful responses in the same way as
+     * without OAuth, so that each response is reported exactly once. It wraps the listeners retrying the request,
+     * recording its outcome on the circuit breaker and tracking the endpoint, hence they handle the outcome of the
+     * request sent with the renewed access token instead of the rejection.
+     */
+    class OAuthResponseListener implements HttpConnectorListener {
+        private final HttpConnectorListener responseListener;
+        private final Object payload;
+        private final DynamicOptions dynamicOptions;
+        private final List<Header> headersList;
+        private final ClientConnector clientConnector;
+        private boolean isTokenRenewed;
+
+        OAuthResponseListener(HttpConnectorListener responseListener, Object payload, DynamicOptions dynamicOptions,
+                              List<Header> headersList, ClientConnector clientConnector) {
+            this.responseListener = responseListener;
+            this.payload = payload;
+            this.dynamicOptions = dynamicOptions;
+            this.headersList = headersList;
+            this.clientConnector = clientConnector;
+            if (payload instanceof EventBatch) {
+                // Keep the batch body till the request completes, as it might have to be sent again
+                ((EventBatch) payload).retain();
+            }
+        }
+
+        @Override
+        public void onMessage(HttpCarbonMessage httpCarbonMessage) {
+            int statusCode = httpCarbonMessage.getHttpStatusCode();
+            if (statusCode == HttpConstants.AUTHENTICATION_FAIL_CODE && !isTokenRenewed) {
+                isTokenRenewed = true;
+                HttpSinkUtil.releaseContent(httpCarbonMessage);
+                // Token endpoint is called synchronously, hence renew the token outside the I/O thread
+                executor.execute(this::sendWithRenewedToken);
+                return;
+            }
+            responseListener.onMessage(httpCarbonMessage);
+            String publisherURL = clientConnector.getPublisherURL();
+            if (HttpConstants.SUCCESS_CODE <= statusCode && statusCode < HttpConstants.MULTIPLE_CHOICES) {
+                log.debug("Request sent successfully to " + publisherURL);
+            } else if (statusCode == HttpConstants.AUTHENTICATION_FAIL_CODE) {
+                log.error("Error at sending oauth request to API endpoint " + publisherURL + "', with response " +
+                        "code: " + statusCode + "- Authentication Failure. Please provide a valid Consumer key, " +
+                        "Consumer secret and token endpoint URL.");
+            }
+            release();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            responseListener.onError(throwable);
+            release();
+        }
+
+        private void sendWithRenewedToken() {
+            try {
+                renewAccessToken(dynamicOptions, headersList, getEncodedAuth(), clientConnector.getPublisherURL());
+                clientConnector.send(createRequestMessage(payload, dynamicOptions, headersList, clientConnector,
+                        false), this);
+            } catch (ConnectionUnavailableException | RuntimeException e) {
+                onError(e);
+            }
+        }
+
+        private void release() {
+            if (payload instanceof EventBatch) {
+                ((EventBatch) payload).release();
+            }
+        }
+    }
+
+    /**
+     * {@code RetryingResponseListener} sends a request again after a backoff, when it fails due to a connection
+     * error or is responded with a retriable status code, and records the outcome of each attempt on the circuit
+     * breaker of the endpoint. Only the outcome of the last attempt is passed to the wrapped listener.
+     */
+    class RetryingResponseListener implements HttpConnectorListener {
+        private final HttpConnectorListener responseListener;
+        private final Object payload;
+        private final DynamicOptions dynamicOptions;
+        private final List<Header> headersList;
+        private final ClientConnector clientConnector;
+        private final CircuitBreaker circuitBreaker;
+        private int attempts = 1;
+
+        RetryingResponseListener(HttpConnectorListener responseListener, Object payload,
+                                 DynamicOptions dynamicOptions, List<Header> headersList,
+                                 ClientConnector clientConnector, CircuitBreaker circuitBreaker) {
+            this.responseListener = responseListener;
+            this.payload = payload;
+            this.dynamicOptions = dynamicOptions;
+            this.headersList = headersList;
+            this.clientConnector = clientConnector;
+            this.circuitBreaker = circuitBreaker;
+            if (payload instanceof EventBatch) {
+                // Keep the batch body till the request completes, as it might have to be sent again
+                ((EventBatch) payload).retain();
+            }
+        }
+
+        @Override
+        public void onMessage(HttpCarbonMessage httpCarbonMessage) {
+            int statusCode = httpCarbonMessage.getHttpStatusCode();
+            recordOutcome(statusCode >= HttpConstants.INTERNAL_SERVER_FAIL_CODE);
+            if (retryPolicy != null && retryPolicy.isRetriable(statusCode, attempts) && allowRetry()) {
+                HttpSinkUtil.releaseContent(httpCarbonMessage);
+                scheduleRetry("status code " + statusCode);
+                return;
+            }
+            responseListener.onMessage(httpCarbonMessage);
+            release();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            recordOutcome(true);
+            if (retryPolicy != null && retryPolicy.isRetriable(attempts) && allowRetry()) {
+                scheduleRetry(throwable.getMessage());
+                return;
+            }
+            responseListener.onError(throwable);
+            release();
+        }
+
+        private void recordOutcome(boolean failed) {
+            if (circuitBreaker != null) {
+                if (failed) {
+                    circuitBreaker.recordFailure();
+                } else {
+                    circuitBreaker.recordSuccess();
+                }
+            }
+        }
+
+        private boolean allowRetry() {
+            return circuitBreaker == null || circuitBreaker.allowRequest();
+        }
+
+        private void scheduleRetry(String reason) {
+            long backoff = retryPolicy.getBackoff(attempts);
+            if (log.isDebugEnabled()) {
+                log.debug("Request " + attempts + " of " + retryPolicy.getMaxAttempts() + " to '" +
+                        clientConnector.getPublisherURL() + "' failed with " + reason + ", hence retrying in " +
+                        backoff + " ms.");
+            }
+            if (metrics != null) {
+                metrics.getTotalRetriesMetric(clientConnector.getPublisherURL()).inc();
+            }
+            // The timer only triggers the retry, as sending the request does not block
+            RETRY_TIMER.newTimeout(timeout -> retry(), backoff, TimeUnit.MILLISECONDS);
+        }
+
+        private void retry() {
+            attempts++;
+            try {
+                // A retry rejected with 401 is also sent again with a renewed access token
+                clientConnector.send(createRequestMessage(payload, dynamicOptions, headersList, clientConnector,
+                        false), getResponseListener(this, payload, dynamicOptions, headersList, clientConnector));
+            } catch (RuntimeException e) {
+                recordOutcome(true);
+                responseListener.onError(e);
+                release();
+            }
+        }
+
+        private void release() {
+            if (payload instanceof EventBatch) {
+                ((EventBatch) payload).release();
+            }
+        }
     }
 }
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.io.http.sink;
+
+import io.siddhi.core.exception.ConnectionUnavailableException;
+import org.wso2.transport.http.netty.contract.HttpConnectorListener;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@code InflightRequestWindow} bounds the number of requests sent to an endpoint without having received their
+ * responses. A permit is taken before a request is sent and given back once its response listener is notified,
+ * so that a slow endpoint pushes back on the publishing threads instead of piling up requests in the transport.
+ */
+public class InflightRequestWindow {
+    private final int maxInflightRequests;
+    private final Semaphore permits;
+
+    public InflightRequestWindow(int maxInflightRequests) {
+        this.maxInflightRequests = maxInflightRequests;
+        this.permits = new Semaphore(maxInflightRequests);
+    }
+
+    /**
+     * Take a permit for a request, waiting at most the given time for an in-flight request to complete.
+     *
+     * @param waitTime         maximum time in millis to wait for a permit, non positive to fail right away.
+     * @param responseListener the listener of the request's response.
+     * @param publisherURL     the url the request is sent to.
+     * @return listener giving back the permit once the response listener is notified.
+     * @throws ConnectionUnavailableException if no permit became available within the wait time.
+     */
+    public PermitReleasingListener acquire(long waitTime, HttpConnectorListener responseListener,
+                                           String publisherURL) throws ConnectionUnavailableException {
+        boolean acquired;
+        try {
+            acquired = waitTime > 0 ? permits.tryAcquire(waitTime, TimeUnit.MILLISECONDS) : permits.tryAcquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConnectionUnavailableException("Interrupted while waiting for an in-flight request to " +
+                    publisherURL + " to complete.", e);
+        }
+        if (!acquired) {
+            throw new ConnectionUnavailableException("Maximum of " + maxInflightRequests + " in-flight " +
+                    "requests reached for " + publisherURL + ", as the endpoint is not responding fast enough.");
+        }
+        return new PermitReleasingListener(responseListener);
+    }
+
+    /**
+     * Returns the number of requests waiting for their responses.
+     *
+     * @return the in-flight request count.
+     */
+    public int getInflightRequests() {
+        return maxInflightRequests - permits.availablePermits();
+    }
+
+    public int getMaxInflightRequests() {
+        return maxInflightRequests;
+    }
+
+    /**
+     * {@code PermitReleasingListener} gives back the permit of a request exactly once, either when the response
+     * listener is notified or when the request could not be sent at all.
+     */
+    public class PermitReleasingListener implements HttpConnectorListener {
+        private final HttpConnectorListener responseListener;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        PermitReleasingListener(HttpConnectorListener responseListener) {
+            this.responseListener = responseListener;
+        }
+
+        @Override
+        public void onMessage(HttpCarbonMessage httpCarbonMessage) {
+            release();
+            responseListener.onMessage(httpCarbonMessage);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            release();
+            responseListener.onError(throwable);
+        }
+
+        /**
+         * Give back the permit of the request, if it has not been given back already.
+         */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.io.http.sink;
+
+import io.siddhi.extension.io.http.metrics.EndpointStatus;
+import io.siddhi.extension.io.http.sink.exception.HttpSinkAdaptorRuntimeException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.wso2.transport.http.netty.contract.HttpConnectorListener;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@code LoadBalancer} spreads the requests of a sink across the replicas of an endpoint, given either as a static
+ * list of urls or as a file which is read again when it changes.
+ * An endpoint going offline due to a connection error is ejected for the ejection time, after which its share of
+ * the requests is increased linearly over the warm up time, so that a recovering replica is not flooded at once.
+ */
+public class LoadBalancer {
+    private static final Logger log = LogManager.getLogger(LoadBalancer.class);
+    private static final long FILE_CHECK_INTERVAL = 1000;
+    // Weight of the latest response time in the moving average of an endpoint
+    private static final double LATENCY_DECAY = 0.2;
+
+    /**
+     * Strategies to select the endpoint of a request.
+     */
+    public enum Strategy {
+        ROUND_ROBIN("round-robin"),
+        LEAST_INFLIGHT("least-inflight"),
+        POWER_OF_TWO_CHOICES("power-of-two-choices");
+
+        private final String name;
+
+        Strategy(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the strategy of the given name.
+         *
+         * @param name the strategy name.
+         * @return the strategy, null if there is no strategy with the name.
+         */
+        public static Strategy fromName(String name) {
+            for (Strategy strategy : values()) {
+                if (strategy.name.equalsIgnoreCase(name)) {
+                    return strategy;
+                }
+            }
+            return null;
+        }
+    }
+
+    private final Strategy strategy;
+    private final long ejectionTime;
+    private final long warmUpTime;
+    private final Path urlsFile;
+    private final AtomicInteger nextIndex = new AtomicInteger();
+    private final AtomicLong nextFileCheckTime = new AtomicLong();
+    private volatile Endpoint[] endpoints;
+    private volatile Map<String, Endpoint> endpointsByURL;
+    private long urlsFileModifiedTime;
+
+    /**
+     * Create a load balancer for a static list of urls.
+     *
+     * @param urls         the endpoint urls.
+     * @param strategy     the selection strategy.
+     * @param ejectionTime time in millis an offline endpoint is not selected.
+     * @param warmUpTime   time in millis over which an endpoint gets its full share after its ejection.
+     */
+    public LoadBalancer(List<String> urls, Strategy strategy, long ejectionTime, long warmUpTime) {
+        this((Path) null, strategy, ejectionTime, warmUpTime);
+        setEndpoints(urls);
+    }
+
+    /**
+     * Create a load balancer for the urls listed in a file, one per line, ignoring empty lines and lines starting
+     * with '#'. The file is checked for changes at most once a second.
+     *
+     * @param urlsFile     the file listing the endpoint urls.
+     * @param strategy     the selection strategy.
+     * @param ejectionTime time in millis an offline endpoint is not selected.
+     * @param warmUpTime   time in millis over which an endpoint gets its full share after its ejection.
+     */
+    public LoadBalancer(Path urlsFile, Strategy strategy, long ejectionTime, long warmUpTime) {
+        this.urlsFile = urlsFile;
+        this.strategy = strategy;
+        this.ejectionTime = ejectionTime;
+        this.warmUpTime = warmUpTime;
+        if (urlsFile != null) {
+            readURLsFile();
+            if (endpoints.length == 0) {
+                throw new HttpSinkAdaptorRuntimeException("No endpoint urls found in file '" + urlsFile + "'.");
+            }
+            nextFileCheckTime.set(System.currentTimeMillis() + FILE_CHECK_INTERVAL);
+        }
+    }
+
+    /**
+     * Select the endpoint of a request.
+     *
+     * @return the endpoint url.
+     */
+    public String select() {
+        long currentTime = System.currentTimeMillis();
+        checkURLsFile(currentTime);
+        Endpoint[] currentEndpoints = endpoints;
+        Endpoint endpoint;
+        switch (strategy) {
+            case LEAST_INFLIGHT:
+                endpoint = selectLeastInflight(currentEndpoints, currentTime);
+                break;
+            case POWER_OF_TWO_CHOICES:
+                endpoint = selectPowerOfTwoChoices(currentEndpoints, currentTime);
+                break;
+            default:
+                endpoint = selectRoundRobin(currentEndpoints, currentTime);
+        }
+        if (endpoint == null) {
+            // All the endpoints are ejected, hence keep sending to them so that the failures are reported
+            endpoint = currentEndpoints[Math.floorMod(nextIndex.get(), currentEndpoints.length)];
+        }
+        return endpoint.url;
+    }
+
+    /**
+     * Returns the endpoint of the given url.
+     *
+     * @param url the endpoint url.
+     * @return the endpoint, null if the url is not balanced by this load balancer.
+     */
+    public Endpoint getEndpoint(String url) {
+        return endpointsByURL.get(url);
+    }
+
+    private Endpoint selectRoundRobin(Endpoint[] currentEndpoints, long currentTime) {
+        int start = nextIndex.getAndIncrement();
+        for (int i = 0; i < currentEndpoints.length; i++) {
+            Endpoint endpoint = currentEndpoints[Math.floorMod(start + i, currentEndpoints.length)];
+            if (endpoint.isSelectable(currentTime)) {
+                return endpoint;
+            }
+        }
+        return null;
+    }
+
+    private Endpoint selectLeastInflight(Endpoint[] currentEndpoints, long currentTime) {
+        Endpoint selected = null;
+        // Start from a rotating position, so that the idle endpoints share the requests
+        int start = nextIndex.getAndIncrement();
+        for (int i = 0; i < currentEndpoints.length; i++) {
+            Endpoint endpoint = currentEndpoints[Math.floorMod(start + i, currentEndpoints.length)];
+            if (endpoint.isSelectable(currentTime) &&
+                    (selected == null || endpoint.inflightRequests.get() < selected.inflightRequests.get())) {
+                selected = endpoint;
+            }
+        }
+        return selected;
+    }
+
+    private Endpoint selectPowerOfTwoChoices(Endpoint[] currentEndpoints, long currentTime) {
+        if (currentEndpoints.length == 1) {
+            return currentEndpoints[0].isSelectable(currentTime) ? currentEndpoints[0] : null;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(currentEndpoints.length);
+        int second = random.nextInt(currentEndpoints.length - 1);
+        if (second >= first) {
+            second++;
+        }
+        boolean firstSelectable = currentEndpoints[first].isSelectable(currentTime);
+        boolean secondSelectable = currentEndpoints[second].isSelectable(currentTime);
+        if (firstSelectable && secondSelectable) {
+            return currentEndpoints[first].getCost() <= currentEndpoints[second].getCost() ?
+                    currentEndpoints[first] : currentEndpoints[second];
+        } else if (firstSelectable) {
+            return currentEndpoints[first];
+        } else if (secondSelectable) {
+            return currentEndpoints[second];
+        }
+        return selectRoundRobin(currentEndpoints, currentTime);
+    }
+
+    private void checkURLsFile(long currentTime) {
+        long checkTime = nextFileCheckTime.get();
+        if (urlsFile == null || currentTime < checkTime ||
+                !nextFileCheckTime.compareAndSet(checkTime, currentTime + FILE_CHECK_INTERVAL)) {
+            return;
+        }
+        try {
+            if (Files.getLastModifiedTime(urlsFile).toMillis() != urlsFileModifiedTime) {
+                readURLsFile();
+            }
+        } catch (IOException | HttpSinkAdaptorRuntimeException e) {
+            log.error("Failed to read the endpoint urls from file '" + urlsFile + "', hence using the " +
+                    endpoints.length + " endpoints read earlier.", e);
+        }
+    }
+
+    private void readURLsFile() {
+        List<String> urls = new ArrayList<>();
+        try {
+            urlsFileModifiedTime = Files.getLastModifiedTime(urlsFile).toMillis();
+            for (String line : Files.readAllLines(urlsFile, StandardCharsets.UTF_8)) {
+                String url = line.trim();
+                if (!url.isEmpty() && !url.startsWith("#")) {
+                    urls.add(url);
+                }
+            }
+        } catch (IOException e) {
+            throw new HttpSinkAdaptorRuntimeException("Failed to read the endpoint urls from file '" + urlsFile +
+                    "'.", e);
+        }
+        if (urls.isEmpty() && endpoints != null) {
+            log.warn("No endpoint urls found in file '" + urlsFile + "', hence using the " + endpoints.length +
+                    " endpoints read earlier.");
+            return;
+        }
+        setEndpoints(urls);
+        log.info("Load balancing across " + urls.size() + " endpoints read from file '" + urlsFile + "'.");
+    }
+
+    private void setEndpoints(List<String> urls) {
+        Map<String, Endpoint> previousEndpoints = endpointsByURL;
+        Map<String, Endpoint> newEndpointsByURL = new HashMap<>();
+        for (String url : urls) {
+            // Keep the state of the endpoints which are still listed
+            Endpoint endpoint = previousEndpoints == null ? null : previousEndpoints.get(url);
+            newEndpointsByURL.put(url, endpoint != null ? endpoint : new Endpoint(url));
+        }
+        endpoints = newEndpointsByURL.values().toArray(new Endpoint[0]);
+        endpointsByURL = newEndpointsByURL;
+    }
+
+    /**
+     * {@code Endpoint} keeps the status, in-flight requests and response time of an endpoint.
+     */
+    public class Endpoint {
+        private final String url;
+        private final AtomicInteger inflightRequests = new AtomicInteger();
+        private volatile EndpointStatus status = EndpointStatus.ONLINE;
+        private volatile long ejectedUntil;
+        private volatile double averageLatency;
+
+        Endpoint(String url) {
+            this.url = url;
+        }
+
+        /**
+         * Track a request sent to the endpoint till its response.
+         *
+         * @param responseListener the listener of the request's response.
+         * @return listener updating the endpoint on the response.
+         */
+        public HttpConnectorListener track(HttpConnectorListener responseListener) {
+            inflightRequests.incrementAndGet();
+            long sentTime = System.nanoTime();
+            return new HttpConnectorListener() {
+                @Override
+                public void onMessage(HttpCarbonMessage httpCarbonMessage) {
+                    inflightRequests.decrementAndGet();
+                    double latency = System.nanoTime() - sentTime;
+                    averageLatency = averageLatency == 0 ? latency :
+                            averageLatency + LATENCY_DECAY * (latency - averageLatency);
+                    status = EndpointStatus.ONLINE;
+                    responseListener.onMessage(httpCarbonMessage);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    inflightRequests.decrementAndGet();
+                    markOffline();
+                    responseListener.onError(throwable);
+                }
+            };
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public EndpointStatus getStatus() {
+            return status;
+        }
+
+        public int getInflightRequests() {
+            return inflightRequests.get();
+        }
+
+        private void markOffline() {
+            if (status == EndpointStatus.ONLINE) {
+                log.warn("Endpoint '" + url + "' is offline, hence not selected for " + ejectionTime + " ms.");
+            }
+            status = EndpointStatus.OFFLINE;
+            ejectedUntil = System.currentTimeMillis() + ejectionTime;
+        }
+
+        private boolean isSelectable(long currentTime) {
+            long ejectionEnd = ejectedUntil;
+            if (currentTime < ejectionEnd) {
+                return false;
+            }
+            long warmUpElapsed = currentTime - ejectionEnd;
+            // Take a share of the requests growing with the time since the ejection ended
+            return warmUpElapsed >= warmUpTime || ThreadLocalRandom.current().nextLong(warmUpTime) < warmUpElapsed;
+        }
+
+        private double getCost() {
+            // Prefer the endpoints with less outstanding work, estimated from their in-flight requests and latency
+            return (inflightRequests.get() + 1) * Math.max(averageLatency, 1);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.io.http.sink;
+
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.siddhi.extension.io.http.metrics.SinkMetrics;
+import io.siddhi.extension.io.http.sink.cache.CachedResponse;
+import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.contract.HttpConnectorListener;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@code RequestCoalescer} lets the events resolving to an identical request share the request in flight for it,
+ * instead of each sending its own. The first event sends the request, the later ones attach their response
+ * listeners to it till its response arrives, and the response is then passed to each of the listeners as a copy,
+ * so that each event gets the response with its own transport properties. A response body larger than the
+ * maximum is not held for sharing, instead it is passed to the first event only and each attached event sends its
+ * own request.
+ */
+public class RequestCoalescer {
+    private final Map<String, CoalescingListener> inflightRequests = new ConcurrentHashMap<>();
+    private final SinkMetrics metrics;
+    private final long maxBodySize;
+
+    /**
+     * Create the request coalescer.
+     *
+     * @param metrics     sink metrics, null if metrics are disabled.
+     * @param maxBodySize maximum size (in bytes) of a response body held to be passed to all the attached events.
+     */
+    public RequestCoalescer(SinkMetrics metrics, long maxBodySize) {
+        this.metrics = metrics;
+        this.maxBodySize = maxBodySize;
+    }
+
+    /**
+     * Attach the given response listener to the request in flight with the given key, if there is one.
+     *
+     * @param key              the key identifying the request.
+     * @param responseListener the response listener of the event.
+     * @param sender           sends the own request of the event, if it is attached to a request whose response
+     *                         is too large to be shared.
+     * @return the listener to send the request with, null if the response listener is attached to the request
+     * in flight.
+     */
+    public CoalescingListener join(String key, HttpConnectorListener responseListener, Runnable sender) {
+        CoalescingListener coalescingListener = new CoalescingListener(key, responseListener);
+        while (true) {
+            CoalescingListener inflightRequest = inflightRequests.putIfAbsent(key, coalescingListener);
+            if (inflightRequest == null) {
+                if (metrics != null) {
+                    metrics.getCoalescingRequestsSentMetric().inc();
+                }
+                return coalescingListener;
+            }
+            if (inflightRequest.attach(responseListener, sender)) {
+                if (metrics != null) {
+                    metrics.getCoalescingRequestsJoinedMetric().inc();
+                }
+                return null;
+            }
+            // The request in flight has got its response, hence a new request is needed
+            inflightRequests.remove(key, inflightRequest);
+        }
+    }
+
+    /**
+     * Returns the number of requests in flight which events can attach to.
+     *
+     * @return the in-flight request count.
+     */
+    public int getInflightRequests() {
+        return inflightRequests.size();
+    }
+
+    /**
+     * {@code CoalescingListener} passes the response of a request to the response listeners of all the events
+     * attached to it.
+     */
+    public class CoalescingListener implements HttpConnectorListener {
+        private final String key;
+        private final List<HttpConnectorListener> responseListeners = new ArrayList<>();
+        private final List<Runnable> senders = new ArrayList<>();
+        private boolean completed;
+
+        CoalescingListener(String key, HttpConnectorListener responseListener) {
+            this.key = key;
+            this.responseListeners.add(responseListener);
+            // The first event sends the request, hence never needs to send its own
+            this.senders.add(null);
+        }
+
+        private synchronized boolean attach(HttpConnectorListener responseListener, Runnable sender) {
+            if (completed) {
+                return false;
+            }
+            responseListeners.add(responseListener);
+            senders.add(sender);
+            return true;
+        }
+
+        private List<HttpConnectorListener> complete() {
+            inflightRequests.remove(key, this);
+            synchronized (this) {
+                completed = true;
+                return responseListeners;
+            }
+        }
+
+        @Override
+        public void onMessage(HttpCarbonMessage httpCarbonMessage) {
+            List<HttpConnectorListener> listeners = complete();
+            if (listeners.size() == 1) {
+                listeners.get(0).onMessage(httpCarbonMessage);
+                return;
+            }
+            long contentLength;
+            try {
+                contentLength = HttpUtil.getContentLength(httpCarbonMessage.getNettyHttpResponse(), -1L);
+            } catch (NumberFormatException e) {
+                contentLength = -1;
+            }
+            if (contentLength > maxBodySize) {
+                sendSeparately(listeners);
+                listeners.get(0).onMessage(httpCarbonMessage);
+                return;
+            }
+            ResponseAggregator responseAggregator = new ResponseAggregator(httpCarbonMessage, listeners);
+            httpCarbonMessage.getHttpContentAsync().setMessageListener(responseAggregator::onContent);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            for (HttpConnectorListener responseListener : complete()) {
+                responseListener.onError(throwable);
+            }
+        }
+
+        /**
+         * Fail the events attached to the request, as it could not be sent. The event which was to send the request
+         * is not notified, as the failure is thrown to it.
+         *
+         * @param throwable the cause of the failure.
+         */
+        public void abort(Throwable throwable) {
+            List<HttpConnectorListener> listeners = complete();
+            for (int i = 1; i < listeners.size(); i++) {
+                listeners.get(i).onError(throwable);
+            }
+        }
+
+        // Let the attached events send their own requests, as the response is too large to be held for them
+        private void sendSeparately(List<HttpConnectorListener> listeners) {
+            for (int i = 1; i < listeners.size(); i++) {
+                try {
+                    senders.get(i).run();
+                } catch (RuntimeException e) {
+                    listeners.get(i).onError(e);
+                }
+            }
+        }
+
+        /**
+         * {@code ResponseAggregator} holds the content of the response as it arrives, and passes a copy of the
+         * whole response to each of the listeners once it is complete. The listeners are failed if the content
+         * could not be received, such as when the connection is closed before the last content, which the
+         * transport reports as a content with a decoder failure.
+         */
+        private class ResponseAggregator {
+            private final HttpCarbonMessage httpCarbonMessage;
+            private final List<HttpConnectorListener> listeners;
+            private final int statusCode;
+            private final long receivedTime = System.currentTimeMillis();
+            private final CompositeByteBuf content = PooledByteBufAllocator.DEFAULT.compositeBuffer(Integer.MAX_VALUE);
+            private HttpCarbonMessage forwardedResponse;
+
+            ResponseAggregator(HttpCarbonMessage httpCarbonMessage, List<HttpConnectorListener> listeners) {
+                this.httpCarbonMessage = httpCarbonMessage;
+                this.listeners = listeners;
+                this.statusCode = httpCarbonMessage.getNettyHttpResponse().status().code();
+            }
+
+            // The content arrives one at a time in the I/O thread of the response
+            private void onContent(HttpContent httpContent) {
+                if (forwardedResponse != null) {
+                    forwardedResponse.addHttpContent(httpContent);
+                    return;
+                }
+                if (httpContent.decoderResult().isFailure()) {
+                    httpContent.release();
+                    content.release();
+                    for (HttpConnectorListener responseListener : listeners) {
+                        responseListener.onError(httpContent.decoderResult().cause());
+                    }
+                    return;
+                }
+                content.addComponent(true, httpContent.content());
+                boolean isLastContent = httpContent instanceof LastHttpContent;
+                if (content.readableBytes() > maxBodySize) {
+                    forward(isLastContent);
+                    return;
+                }
+                if (isLastContent) {
+                    CachedResponse response;
+                    try {
+                        response = new CachedResponse(statusCode, httpCarbonMessage.getHeaders(),
+                                ByteBufUtil.getBytes(content), Collections.emptyList(), receivedTime);
+                    } finally {
+                        content.release();
+                    }
+                    for (HttpConnectorListener responseListener : listeners) {
+                        responseListener.onMessage(response.toCarbonMessage());
+                    }
+                }
+            }
+
+            // Pass the content received so far and the rest of it as it arrives to the event which sent the
+            // request only, without holding it
+            private void forward(boolean isLastContent) {
+                DefaultHttpResponse httpResponse = new DefaultHttpResponse(HttpVersion.HTTP_1_1,
+                        HttpResponseStatus.valueOf(statusCode));
+                httpResponse.headers().set(httpCarbonMessage.getHeaders());
+                forwardedResponse = new HttpCarbonMessage(httpResponse);
+                forwardedResponse.setProperty(Constants.HTTP_STATUS_CODE, statusCode);
+                forwardedResponse.addHttpContent(isLastContent ? new DefaultLastHttpContent(content) :
+                        new DefaultHttpContent(content));
+                sendSeparately(listeners);
+                listeners.get(0).onMessage(forwardedResponse);
+            }
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.io.http.sink;
+
+import io.netty.util.Timeout;
+import io.netty.util.Timer;
+import io.siddhi.core.exception.ConnectionUnavailableException;
+import io.siddhi.extension.io.http.sink.util.HttpSinkUtil;
+import org.wso2.transport.http.netty.contract.HttpConnectorListener;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * {@code ResponseReorderBuffer} passes the responses of the requests to their listeners in the order the requests
+ * were sent, while keeping up to the given number of requests in flight. Each request takes a slot numbered in
+ * sequence, and a response arriving ahead of the responses of earlier requests is held in its slot till they
+ * arrive. A request not responded within the timeout is failed, so that it does not hold up the later responses,
+ * but it is still counted as in flight till the transport gives up on it, so that the timed-out requests do not
+ * pile up beyond the maximum. The responses are passed on outside the lock, by one thread at a time.
+ */
+public class ResponseReorderBuffer {
+    private final Slot[] slots;
+    private final Semaphore permits;
+    private final long timeout;
+    private final Timer timer;
+    private long nextSequence;
+    private long headSequence;
+    private boolean draining;
+
+    /**
+     * Create the reorder buffer.
+     *
+     * @param maxInflightRequests maximum number of requests waiting for their responses to be passed on.
+     * @param timeout             time in millis after which a request not responded is failed.
+     * @param timer               timer failing the requests not responded within the timeout.
+     */
+    public ResponseReorderBuffer(int maxInflightRequests, long timeout, Timer timer) {
+        this.slots = new Slot[maxInflightRequests];
+        this.permits = new Semaphore(maxInflightRequests);
+        this.timeout = timeout;
+        this.timer = timer;
+    }
+
+    /**
+     * Take the next slot for a request, waiting at most the timeout for the response of the earliest request to
+     * be passed on when the maximum requests are in flight.
+     *
+     * @param responseListener the listener of the request's response.
+     * @param publisherURL     the url the request is sent to.
+     * @return listener holding the response till the responses of the earlier requests are passed on.
+     * @throws ConnectionUnavailableException if no slot became available within the timeout.
+     */
+    public Slot register(HttpConnectorListener responseListener, String publisherURL)
+            throws ConnectionUnavailableException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConnectionUnavailableException("Interrupted while waiting for the responses of the earlier " +
+                    "requests to be received, to send a request to " + publisherURL + ".", e);
+        }
+        if (!acquired) {
+            throw new ConnectionUnavailableException("Maximum of " + slots.length + " ordered requests are " +
+                    "waiting for their responses, hence the request to " + publisherURL + " is not sent.");
+        }
+        Slot slot = new Slot(responseListener);
+        synchronized (this) {
+            slots[(int) (nextSequence++ % slots.length)] = slot;
+        }
+        slot.timeout = timer.newTimeout(expiry -> slot.expire(new TimeoutException("No response received from " +
+                publisherURL + " within " + timeout + " ms.")), timeout, TimeUnit.MILLISECONDS);
+        return slot;
+    }
+
+    /**
+     * Returns the number of requests whose responses are not passed on yet.
+     *
+     * @return the pending response count.
+     */
+    public synchronized int getPendingResponses() {
+        return (int) (nextSequence - headSequence);
+    }
+
+    private void releaseCompletedSlots() {
+        synchronized (this) {
+            if (draining) {
+                // The draining thread passes on the slots completed meanwhile, keeping the order
+                return;
+            }
+            draining = true;
+        }
+        boolean drained = false;
+        try {
+            while (true) {
+                List<Slot> completedSlots = takeCompletedSlots();
+                if (completedSlots.isEmpty()) {
+                    drained = true;
+                    return;
+                }
+                for (Slot slot : completedSlots) {
+                    slot.deliver();
+                }
+            }
+        } finally {
+            if (!drained) {
+                synchronized (this) {
+                    draining = false;
+                }
+            }
+        }
+    }
+
+    private synchronized List<Slot> takeCompletedSlots() {
+        List<Slot> completedSlots = new ArrayList<>();
+        while (headSequence < nextSequence) {
+            int index = (int) (headSequence % slots.length);
+            Slot head = slots[index];
+            if (!head.completed) {
+                break;
+            }
+            slots[index] = null;
+            headSequence++;
+            head.taken = true;
+            if (head.responded) {
+                permits.release();
+            }
+            completedSlots.add(head);
+        }
+        if (completedSlots.isEmpty()) {
+            draining = false;
+        }
+        return completedSlots;
+    }
+
+    /**
+     * {@code Slot} holds the outcome of a request till the outcomes of the earlier requests are passed on.
+     */
+    public class Slot implements HttpConnectorListener {
+        private final HttpConnectorListener responseListener;
+        private HttpCarbonMessage response;
+        private Throwable error;
+        private boolean completed;
+        private boolean responded;
+        private boolean taken;
+        private volatile Timeout timeout;
+
+        private Slot(HttpConnectorListener responseListener) {
+            this.responseListener = responseListener;
+        }
+
+        @Override
+        public void onMessage(HttpCarbonMessage httpCarbonMessage) {
+            if (!complete(httpCarbonMessage, null, true)) {
+                // The request has already been failed due to the timeout
+                HttpSinkUtil.releaseContent(httpCarbonMessage);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            complete(null, throwable, true);
+        }
+
+        /**
+         * Free the slot without passing anything on, as the request could not be sent and the failure is thrown
+         * to the publisher instead.
+         */
+        public void skip() {
+            complete(null, null, true);
+        }
+
+        private void expire(Throwable throwable) {
+            complete(null, throwable, false);
+        }
+
+        private boolean complete(HttpCarbonMessage httpCarbonMessage, Throwable throwable, boolean isResponse) {
+            synchronized (ResponseReorderBuffer.this) {
+                if (completed) {
+                    if (isResponse && !responded) {
+                        // The request failed due to the timeout is no longer in flight
+                        responded = true;
+                        if (taken) {
+                            permits.release();
+                        }
+                    }
+                    return false;
+                }
+                response = httpCarbonMessage;
+                error = throwable;
+                completed = true;
+                responded = isResponse;
+            }
+            Timeout expiry = timeout;
+            if (expiry != null) {
+                expiry.cancel();
+            }
+            releaseCompletedSlots();
+            return true;
+        }
+
+        private void deliver() {
+            if (response != null) {
+                responseListener.onMessage(response);
+            } else if (error != null) {
+                responseListener.onError(error);
+            }
+        }
+    }
+}
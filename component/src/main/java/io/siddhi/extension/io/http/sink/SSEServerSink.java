@@ -17,6 +17,7 @@
 
 package io.siddhi.extension.io.http.sink;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.http.DefaultHttpContent;
 import io.netty.handler.codec.http.DefaultHttpResponse;
@@ -40,6 +41,7 @@ import io.siddhi.core.util.transport.DynamicOptions;
 import io.siddhi.core.util.transport.Option;
 import io.siddhi.core.util.transport.OptionHolder;
 import io.siddhi.extension.io.http.metrics.SinkMetrics;
+import io.siddhi.extension.io.http.sink.util.HeaderTemplate;
 import io.siddhi.extension.io.http.sink.util.HttpSinkUtil;
 import io.siddhi.extension.io.http.source.exception.HttpSourceAdaptorRuntimeException;
 import io.siddhi.extension.io.http.source.util.HttpSourceUtil;
@@ -60,7 +62,6 @@ import org.wso2.transport.http.netty.message.HttpCarbonMessage;
 
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
@@ -185,6 +186,7 @@ public class SSEServerSink extends Sink {
     private ServiceDeploymentInfo serviceDeploymentInfo;
     private SSESyncConnectorRegistry httpConnectorRegistry;
     private Option httpHeaderOption;
+    private HeaderTemplate headerTemplate;
     private String mapType;
     private final List<HttpCarbonMessage> requestContainerList = new ArrayList<HttpCarbonMessage>();
 
@@ -256,6 +258,7 @@ public class SSEServerSink extends Sink {
                 .validateAndGetStaticValue(HttpConstants.WORKER_COUNT, DEFAULT_WORKER_COUNT));
         this.requestedTransportPropertyNames = requestedTransportPropertyNames.clone();
         this.httpHeaderOption = optionHolder.getOrCreateOption(HttpConstants.HEADERS, HttpConstants.DEFAULT_HEADER);
+        this.headerTemplate = new HeaderTemplate(httpHeaderOption);
         this.mapType = streamDefinition.getAnnotations().get(0).getAnnotations().get(0).getElements().get(0)
                 .getValue();
         String sslConfigs = optionHolder
@@ -298,11 +301,17 @@ public class SSEServerSink extends Sink {
 
     public void handleCallback(String payload, List<Header> headersList, String contentType) {
         if (!requestContainerList.isEmpty()) {
-            requestContainerList.forEach(carbonMessage -> {
-                if (carbonMessage != null) {
-                    handleResponse(carbonMessage, 200, payload, headersList, contentType);
-                }
-            });
+            // The payload is encoded once and shared by the responses to all the subscribers
+            ByteBuf body = HttpSinkUtil.encodeBody(payload, contentType);
+            try {
+                requestContainerList.forEach(carbonMessage -> {
+                    if (carbonMessage != null) {
+                        handleResponse(carbonMessage, 200, body.retainedDuplicate(), headersList, contentType);
+                    }
+                });
+            } finally {
+                body.release();
+            }
         } else {
             logger.warn("No subscription found" + streamId);
         }
@@ -329,28 +338,28 @@ public class SSEServerSink extends Sink {
         }
     }
 
-    private void handleResponse(HttpCarbonMessage requestMessage, Integer code, String payload, List<Header>
+    private void handleResponse(HttpCarbonMessage requestMessage, Integer code, ByteBuf body, List<Header>
             headers, String contentType) {
         int statusCode = (code == null) ? 500 : code;
-        String responsePayload = (payload != null) ? payload : "";
         String publisherUrl = requestMessage.getRequestUrl();
         if (metrics != null) {
             metrics.getTotalWritesMetric().inc();
             metrics.getTotalHttpWritesMetric(publisherUrl).inc();
-            metrics.getRequestSizeMetric(publisherUrl).inc(HttpSinkUtil.getByteSize(payload));
+            metrics.getRequestSizeMetric(publisherUrl).inc(body.readableBytes());
             metrics.setLastEventTime(publisherUrl, System.currentTimeMillis());
+            // No latency is recorded, as the events are written to the subscribers right as they are published,
+            // and streamed without responses
         }
 
-        handleResponse(requestMessage, createResponseMessage(responsePayload, statusCode, headers, contentType));
+        handleResponse(requestMessage, createResponseMessage(body, statusCode, headers, contentType));
     }
 
-    private HttpCarbonMessage createResponseMessage(String payload, int statusCode, List<Header> headers,
+    private HttpCarbonMessage createResponseMessage(ByteBuf body, int statusCode, List<Header> headers,
                                                     String contentType) {
 
         HttpCarbonMessage response = new HttpCarbonMessage(
                 new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK));
-        response.addHttpContent(new DefaultHttpContent(Unpooled.wrappedBuffer(payload
-                .getBytes(Charset.defaultCharset()))));
+        response.addHttpContent(new DefaultHttpContent(body));
 
         HttpHeaders httpHeaders = response.getHeaders();
 
@@ -389,11 +398,9 @@ public class SSEServerSink extends Sink {
     @Override
     public void publish(Object payload, DynamicOptions dynamicOptions, State state)
             throws ConnectionUnavailableException {
-        String headers = httpHeaderOption.getValue(dynamicOptions);
-        List<Header> headersList = HttpSinkUtil.getHeaders(headers);
-        String contentType = HttpSinkUtil.getContentType(mapType, headersList);
-        HTTPSinkRegistry.
-                findAndGetSSESource(streamId).handleCallback((String) payload, headersList, contentType);
+        HeaderTemplate.CompiledHeaders compiledHeaders = headerTemplate.resolve(dynamicOptions);
+        HTTPSinkRegistry.findAndGetSSESource(streamId).handleCallback((String) payload,
+                compiledHeaders.getHeaders(), compiledHeaders.getContentType(mapType));
     }
 
     @Override
@@ -414,7 +421,7 @@ public class SSEServerSink extends Sink {
         if (!requestContainerList.isEmpty()) {
             requestContainerList.forEach(carbonMessage -> {
                 if (carbonMessage != null) {
-                    handleResponse(carbonMessage, 200, null, null, null);
+                    handleResponse(carbonMessage, 200, Unpooled.EMPTY_BUFFER, null, null);
                 }
             });
             requestContainerList.clear();
@@ -425,5 +432,8 @@ public class SSEServerSink extends Sink {
     public void destroy() {
         this.httpConnectorRegistry.clearBootstrapConfigIfLast();
         HTTPSinkRegistry.removeSSESink(streamId);
+        if (metrics != null) {
+            metrics.unregister();
+        }
     }
 }
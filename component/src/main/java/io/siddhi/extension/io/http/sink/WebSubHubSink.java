@@ -17,7 +17,7 @@
 
 package io.siddhi.extension.io.http.sink;
 
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBuf;
 import io.netty.handler.codec.http.DefaultHttpRequest;
 import io.netty.handler.codec.http.DefaultLastHttpContent;
 import io.netty.handler.codec.http.HttpHeaders;
@@ -55,6 +55,7 @@ import io.siddhi.core.util.transport.OptionHolder;
 import io.siddhi.core.window.Window;
 import io.siddhi.extension.io.http.metrics.EndpointStatus;
 import io.siddhi.extension.io.http.metrics.SinkMetrics;
+import io.siddhi.extension.io.http.sink.util.HeaderTemplate;
 import io.siddhi.extension.io.http.sink.util.HttpSinkUtil;
 import io.siddhi.extension.io.http.util.HttpConstants;
 import io.siddhi.extension.io.http.util.HttpIoUtil;
@@ -75,22 +76,14 @@ import org.apache.logging.log4j.Logger;
 import org.wso2.carbon.messaging.Header;
 import org.wso2.carbon.si.metrics.core.internal.MetricsDataHolder;
 import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.contract.HttpClientConnector;
 import org.wso2.transport.http.netty.contract.HttpConnectorListener;
-import org.wso2.transport.http.netty.contract.HttpResponseFuture;
 import org.wso2.transport.http.netty.contract.config.ChunkConfig;
 import org.wso2.transport.http.netty.contract.config.ProxyServerConfiguration;
 import org.wso2.transport.http.netty.contract.config.SenderConfiguration;
-import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
 import org.wso2.transport.http.netty.contractimpl.sender.channel.pool.PoolConfiguration;
 import org.wso2.transport.http.netty.message.HttpCarbonMessage;
-import org.wso2.transport.http.netty.message.HttpMessageDataStreamer;
-
-import java.io.BufferedInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
+
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -101,7 +94,6 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
-import static io.siddhi.extension.io.http.sink.util.HttpSinkUtil.createConnectorFactory;
 import static io.siddhi.extension.io.http.sink.util.HttpSinkUtil.createPoolConfigurations;
 import static io.siddhi.extension.io.http.sink.util.HttpSinkUtil.createProxyServerConfiguration;
 import static io.siddhi.extension.io.http.util.HttpConstants.EMPTY_STRING;
@@ -413,10 +405,9 @@ public class WebSubHubSink extends Sink {
     protected SiddhiAppContext siddhiAppContext;
     protected String tokenURL;
     protected SinkMetrics metrics;
-    protected long startTime;
-    protected long endTime;
     String mapType;
     Option httpHeaderOption;
+    HeaderTemplate headerTemplate;
     Option httpMethodOption;
     String[] mandatoryColumns = new String[]{HUB_CALLBACK, HUB_LEASE_SECONDS, HUB_SECRET, HUB_TOPIC,
             HUB_MODE_COLUMN_NAME, HUB_ID_COLUMN_NAME, REQUEST_TIMESTAMP};
@@ -432,7 +423,8 @@ public class WebSubHubSink extends Sink {
     private String hostnameVerificationEnabled;
     private String sslVerificationDisabled;
     private Executor executor = null;
-    private DefaultHttpWsConnectorFactory httpConnectorFactory;
+    private ClientConnectorCache clientConnectorCache;
+    private boolean clientRuntimeRegistered;
     private ProxyServerConfiguration proxyServerConfiguration;
     private PoolConfiguration connectionPoolConfiguration;
     private String hubId;
@@ -469,6 +461,7 @@ public class WebSubHubSink extends Sink {
         this.siddhiAppContext = siddhiAppContext;
         this.streamID = siddhiAppContext.getName() + PORT_HOST_SEPARATOR + outputStreamDefinition.toString();
         this.httpHeaderOption = optionHolder.getOrCreateOption(HttpConstants.HEADERS, HttpConstants.DEFAULT_HEADER);
+        this.headerTemplate = new HeaderTemplate(httpHeaderOption);
         this.httpMethodOption = optionHolder.getOrCreateOption(HttpConstants.METHOD, HttpConstants.DEFAULT_METHOD);
         this.consumerKey = optionHolder.validateAndGetStaticValue(HttpConstants.CONSUMER_KEY, EMPTY_STRING);
         this.consumerSecret = optionHolder.validateAndGetStaticValue(HttpConstants.CONSUMER_SECRET, EMPTY_STRING);
@@ -503,21 +496,23 @@ public class WebSubHubSink extends Sink {
         sslVerificationDisabled = optionHolder.validateAndGetStaticValue(HttpConstants.SSL_VERIFICATION_DISABLED,
                 FALSE);
         proxyServerConfiguration = createProxyServerConfiguration(optionHolder, streamID, siddhiAppContext.getName());
-        httpConnectorFactory = createConnectorFactory(configReader);
         initMetrics(outputStreamDefinition.getId());
+        clientConnectorCache = new ClientConnectorCache(
+                Integer.parseInt(HttpConstants.DEFAULT_CLIENT_CONNECTOR_CACHE_SIZE),
+                Long.parseLong(HttpConstants.DEFAULT_CLIENT_CONNECTOR_CACHE_IDLE_TIMEOUT),
+                this::createHttpClientConnector, metrics);
+        registerClientRuntime();
         return null;
     }
 
     @Override
     public void publish(Object payload, DynamicOptions dynamicOptions, State state)
             throws ConnectionUnavailableException {
-        startTime = System.currentTimeMillis();
+        long queuedTime = System.nanoTime();
         Map<Object, Object> payloadMap = ((HashMap) (payload));
         Object topic = payloadMap.remove(HUB_TOPIC);
         List<WebSubSubscriptionDTO> subscriptionListToPublish;
-        String headers = httpHeaderOption.getValue(dynamicOptions);
-        List<Header> headersList = HttpSinkUtil.getHeaders(headers) != null ? HttpSinkUtil.getHeaders(headers) :
-                new ArrayList<>();
+        List<Header> headersList = headerTemplate.resolve(dynamicOptions).copyHeaders();
         if (topic != null) {
             subscriptionListToPublish = this.webSubSubscriptionMap.get(topic.toString());
             if (subscriptionListToPublish != null) {
@@ -539,7 +534,8 @@ public class WebSubHubSink extends Sink {
                         if (mapType == null) {
                             mapType = getMapper().getType();
                         }
-                        sendRequest(payloadMap, dynamicOptions, headersList, clientConnector, publisherURL);
+                        sendRequest(payloadMap, dynamicOptions, headersList, clientConnector, publisherURL,
+                                queuedTime);
                     } else {
                         log.debug("Added to expired subscription list " + webSubDTO.getCallback() + " : "
                                 + webSubDTO.getTopic());
@@ -555,12 +551,12 @@ public class WebSubHubSink extends Sink {
     }
 
     protected int sendRequest(Object payload, DynamicOptions dynamicOptions, List<Header> headersList,
-                              ClientConnector clientConnector, String publisherURL)
+                              ClientConnector clientConnector, String publisherURL, long queuedTime)
             throws ConnectionUnavailableException {
         String httpMethod = EMPTY_STRING.equals(httpMethodOption.getValue(dynamicOptions)) ?
                 HttpConstants.METHOD_DEFAULT : httpMethodOption.getValue(dynamicOptions);
         String contentType = HttpSinkUtil.getContentType(mapType, headersList);
-        String messageBody = getMessageBody(payload);
+        ByteBuf messageBody = HttpSinkUtil.encodeBody(getMessageBody(payload), contentType);
         HttpMethod httpReqMethod = new HttpMethod(httpMethod);
         HttpCarbonMessage cMessage = new HttpCarbonMessage(
                 new DefaultHttpRequest(HttpVersion.HTTP_1_1, httpReqMethod, EMPTY_STRING));
@@ -570,39 +566,30 @@ public class WebSubHubSink extends Sink {
         if (metrics != null) {
             metrics.getTotalWritesMetric().inc();
             metrics.getTotalHttpWritesMetric(publisherURL).inc();
-            metrics.getRequestSizeMetric(publisherURL).inc(HttpSinkUtil.getByteSize(messageBody));
+            metrics.getRequestSizeMetric(publisherURL).inc(messageBody.readableBytes());
         }
 
         if (!Constants.HTTP_GET_METHOD.equals(httpMethod)) {
-            cMessage.addHttpContent(new DefaultLastHttpContent(Unpooled.wrappedBuffer(messageBody
-                    .getBytes(Charset.defaultCharset()))));
+            cMessage.addHttpContent(new DefaultLastHttpContent(messageBody));
+        } else {
+            messageBody.release();
         }
         cMessage.completeMessage();
-        HttpResponseFuture responseFuture = clientConnector.send(cMessage);
+        long sentTime = System.nanoTime();
+        if (metrics != null) {
+            metrics.recordQueueLatency(publisherURL, sentTime - queuedTime);
+        }
         HTTPWebSubResponseListener responseListener = new HTTPWebSubResponseListener(payload, dynamicOptions, this,
-                clientConnector.getPublisherURL());
-        responseFuture.setHttpConnectorListener(responseListener);
+                clientConnector.getPublisherURL(), sentTime);
+        clientConnector.send(cMessage, responseListener);
         return HttpConstants.SUCCESS_CODE;
     }
 
-    private String getStringFromInputStream(InputStream in) {
-        BufferedInputStream bis = new BufferedInputStream(in);
-        String result;
-        try (ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-            int data;
-            while ((data = bis.read()) != -1) {
-                bos.write(data);
-            }
-            result = bos.toString(StandardCharsets.UTF_8.toString());
-        } catch (IOException ioe) {
-            log.error("Couldn't read the complete input stream due to: " + ioe.getMessage(), ioe);
-            return "";
-        }
-        return result;
-    }
-
     @Override
     public void connect() throws ConnectionUnavailableException {
+        if (!clientRuntimeRegistered) {
+            registerClientRuntime();
+        }
         subscriptionTable.connectWithRetry();
         if (webSubSubscriptionMapUpdateTimeInterval != 0) {
             scheduledExecutorService.scheduleAtFixedRate(new SubscriptionMapUpdate(false,
@@ -624,10 +611,10 @@ public class WebSubHubSink extends Sink {
             staticClientConnector = null;
             log.debug("Server connector for url " + publisherURL + " disconnected.");
         }
-
-        if (httpConnectorFactory != null) {
-            httpConnectorFactory.shutdownNow();
-            httpConnectorFactory = null;
+        clientConnectorCache.clear();
+        if (clientRuntimeRegistered) {
+            HttpClientConnectorRegistry.getInstance().unregister(connectionPoolConfiguration);
+            clientRuntimeRegistered = false;
         }
         scheduledExecutorService.shutdownNow();
     }
@@ -639,6 +626,14 @@ public class WebSubHubSink extends Sink {
             staticClientConnector = null;
             log.debug("Server connector for url " + publisherURL + " disconnected.");
         }
+        if (metrics != null) {
+            metrics.unregister();
+        }
+    }
+
+    private void registerClientRuntime() {
+        HttpClientConnectorRegistry.getInstance().register(configReader, connectionPoolConfiguration);
+        clientRuntimeRegistered = true;
     }
 
     /**
@@ -714,16 +709,18 @@ public class WebSubHubSink extends Sink {
     }
 
     public ClientConnector createClientConnector(String publisherURL) {
-
-        String scheme = HttpSinkUtil.getScheme(publisherURL);
-        Map<String, String> httpURLProperties = HttpSinkUtil.getURLProperties(publisherURL);
-        //Generate basic sender configurations
-        SenderConfiguration senderConfig = HttpSinkUtil
-                .getSenderConfigurations(httpURLProperties, clientStoreFile, clientStorePass, configReader);
         if (EMPTY_STRING.equals(publisherURL)) {
             throw new SiddhiAppCreationException("Receiver URL found empty but it is Mandatory field in " +
                     "" + HttpConstants.HTTP_SINK_ID + " in " + streamID);
         }
+        return clientConnectorCache.getClientConnector(publisherURL);
+    }
+
+    private HttpClientConnector createHttpClientConnector(Map<String, String> httpURLProperties) {
+        String scheme = httpURLProperties.get(Constants.PROTOCOL);
+        //Generate basic sender configurations
+        SenderConfiguration senderConfig = HttpSinkUtil
+                .getSenderConfigurations(httpURLProperties, clientStoreFile, clientStorePass, configReader);
         if (HttpConstants.SCHEME_HTTPS.equals(scheme) && ((clientStoreFile == null) || (clientStorePass == null))) {
             throw new ExceptionInInitializerError("Client trustStore file path or password are empty while " +
                     "default scheme is 'https'. Please provide client " +
@@ -767,8 +764,7 @@ public class WebSubHubSink extends Sink {
         //overwrite default transport configuration
         Map<String, Object> bootStrapProperties = HttpSinkUtil
                 .populateTransportConfiguration(clientBootstrapConfiguration);
-        return new ClientConnector(publisherURL, httpURLProperties,
-                httpConnectorFactory.createHttpClientConnector(bootStrapProperties, senderConfig));
+        return HttpClientConnectorRegistry.getInstance().createHttpClientConnector(bootStrapProperties, senderConfig);
     }
 
     private Table getSubscriptionTable(String tableName) {
@@ -829,46 +825,34 @@ public class WebSubHubSink extends Sink {
 
     private class HTTPWebSubResponseListener implements HttpConnectorListener {
         private final String publisherURL;
+        private final long sentTime;
         Object payload;
         DynamicOptions dynamicOptions;
         WebSubHubSink httpSink;
 
         HTTPWebSubResponseListener(Object payload, DynamicOptions dynamicOptions, WebSubHubSink httpSink,
-                                   String publisherURL) {
+                                   String publisherURL, long sentTime) {
             this.payload = payload;
             this.dynamicOptions = dynamicOptions;
             this.httpSink = httpSink;
             this.publisherURL = publisherURL;
+            this.sentTime = sentTime;
         }
 
         @Override
         public void onMessage(HttpCarbonMessage httpCarbonMessage) {
-            endTime = System.currentTimeMillis();
-
             if (metrics != null) {
                 metrics.setEndpointStatusMetric(publisherURL, EndpointStatus.ONLINE);
-                metrics.setLatencyMetric(publisherURL, endTime - startTime);
-                metrics.setLastEventTime(publisherURL, endTime);
+                metrics.recordWireLatency(publisherURL, System.nanoTime() - sentTime);
+                metrics.setLastEventTime(publisherURL, System.currentTimeMillis());
 
                 // Catch unsuccessful requests
                 if (httpCarbonMessage.getHttpStatusCode() / 100 != 2) {
                     metrics.getTotalHttpErrorsMetric(publisherURL).inc();
                 }
             }
-            if (executor != null) {
-                executor.execute(new Runnable() {
-                    @Override
-                    public void run() {
-                            /*
-                            Read content from the input stream of the HTTP Carbon message
-                            and make sure that the Carbon message is cleaned up,
-                            for preventing leaks.
-                             */
-                        getStringFromInputStream(
-                                new HttpMessageDataStreamer(httpCarbonMessage).getInputStream());
-                    }
-                });
-            }
+            // The content is released as it arrives, for preventing leaks
+            HttpSinkUtil.releaseContent(httpCarbonMessage);
         }
 
         @Override
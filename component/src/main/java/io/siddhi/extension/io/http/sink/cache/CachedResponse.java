@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.io.http.sink.cache;
+
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaderValues;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import org.wso2.carbon.messaging.Header;
+import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code CachedResponse} is a response kept in the {@link ResponseCache}, along with the values of the request
+ * headers it varies on and the time till which it is fresh, as given by its {@code Cache-Control} header.
+ * Once stale, it is revalidated with a conditional request when it has an {@code ETag} or {@code Last-Modified}
+ * header.
+ */
+public class CachedResponse {
+    private static final String MAX_AGE = "max-age";
+    private static final String ANY = "*";
+    private static final int HEADER_OVERHEAD = 4;
+
+    private final int statusCode;
+    private final HttpHeaders headers;
+    private final byte[] body;
+    private final Map<String, String> varyHeaders;
+    private final long expiryTime;
+    private final int size;
+
+    /**
+     * Create the cached response.
+     *
+     * @param statusCode  the response status code.
+     * @param headers     the response headers, which are copied.
+     * @param body        the response body.
+     * @param headersList the request headers.
+     * @param currentTime the time in millis the response is received.
+     */
+    public CachedResponse(int statusCode, HttpHeaders headers, byte[] body, List<Header> headersList,
+                          long currentTime) {
+        this(statusCode, headers.copy(), getVaryHeaders(headers, headersList), body, currentTime);
+    }
+
+    private CachedResponse(int statusCode, HttpHeaders headers, Map<String, String> varyHeaders, byte[] body,
+                           long currentTime) {
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.body = body;
+        this.varyHeaders = varyHeaders;
+        this.expiryTime = currentTime + getFreshness(headers);
+        int headersSize = 0;
+        for (Map.Entry<String, String> header : headers) {
+            headersSize += header.getKey().length() + header.getValue().length() + HEADER_OVERHEAD;
+        }
+        this.size = body.length + headersSize;
+    }
+
+    /**
+     * Check whether a response with the given headers can be cached, that is it is not marked {@code no-store},
+     * does not vary on every request, and is either fresh for a while or can be revalidated.
+     *
+     * @param headers the response headers.
+     * @return true if the response can be cached.
+     */
+    public static boolean isStorable(HttpHeaders headers) {
+        String cacheControl = headers.get(HttpHeaderNames.CACHE_CONTROL);
+        if (cacheControl != null && containsDirective(cacheControl, HttpHeaderValues.NO_STORE.toString())) {
+            return false;
+        }
+        String vary = headers.get(HttpHeaderNames.VARY);
+        if (vary != null && vary.contains(ANY)) {
+            return false;
+        }
+        return getFreshness(headers) > 0 || headers.contains(HttpHeaderNames.ETAG) ||
+                headers.contains(HttpHeaderNames.LAST_MODIFIED);
+    }
+
+    /**
+     * Returns the time the response is fresh for, as given by the {@code max-age} directive less its
+     * {@code Age}. Responses without a {@code max-age}, or marked {@code no-cache}, are revalidated on each use.
+     *
+     * @param headers the response headers.
+     * @return the freshness lifetime in millis, zero if the response is stale as soon as it is received.
+     */
+    static long getFreshness(HttpHeaders headers) {
+        String cacheControl = headers.get(HttpHeaderNames.CACHE_CONTROL);
+        if (cacheControl == null || containsDirective(cacheControl, HttpHeaderValues.NO_CACHE.toString())) {
+            return 0;
+        }
+        long maxAge = -1;
+        for (String directive : cacheControl.split(",")) {
+            String[] nameValue = directive.trim().split("=", 2);
+            if (nameValue.length == 2 && MAX_AGE.equalsIgnoreCase(nameValue[0].trim())) {
+                try {
+                    maxAge = Long.parseLong(nameValue[1].trim().replace("\"", ""));
+                } catch (NumberFormatException e) {
+                    // An invalid max-age makes the response stale
+                    return 0;
+                }
+            }
+        }
+        if (maxAge <= 0) {
+            return 0;
+        }
+        long age = 0;
+        String ageHeader = headers.get(HttpHeaderNames.AGE);
+        if (ageHeader != null) {
+            try {
+                age = Long.parseLong(ageHeader.trim());
+            } catch (NumberFormatException e) {
+                age = 0;
+            }
+        }
+        return Math.max(maxAge - age, 0) * 1000;
+    }
+
+    private static boolean containsDirective(String cacheControl, String directive) {
+        for (String cacheDirective : cacheControl.split(",")) {
+            String name = cacheDirective.trim();
+            int separator = name.indexOf('=');
+            if ((separator < 0 ? name : name.substring(0, separator).trim()).equalsIgnoreCase(directive)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Map<String, String> getVaryHeaders(HttpHeaders headers, List<Header> headersList) {
+        String vary = headers.get(HttpHeaderNames.VARY);
+        if (vary == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> varyHeaders = new HashMap<>();
+        for (String name : vary.split(",")) {
+            String headerName = name.trim();
+            if (!headerName.isEmpty()) {
+                varyHeaders.put(headerName, getHeader(headersList, headerName));
+            }
+        }
+        return varyHeaders;
+    }
+
+    private static String getHeader(List<Header> headersList, String name) {
+        if (headersList != null) {
+            for (Header header : headersList) {
+                if (header.getName().equalsIgnoreCase(name)) {
+                    return header.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Check whether the response was received for a request with the same values of the headers it varies on.
+     *
+     * @param headersList the request headers.
+     * @return true if the response can be used for the request.
+     */
+    public boolean matches(List<Header> headersList) {
+        for (Map.Entry<String, String> varyHeader : varyHeaders.entrySet()) {
+            String value = getHeader(headersList, varyHeader.getKey());
+            if (value == null ? varyHeader.getValue() != null : !value.equals(varyHeader.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isFresh(long currentTime) {
+        return currentTime < expiryTime;
+    }
+
+    /**
+     * Returns the headers making a request for this response conditional, so that the endpoint responds with
+     * 304 if the response is still valid.
+     *
+     * @return the conditional request headers, empty if the response cannot be revalidated.
+     */
+    public List<Header> getConditionalHeaders() {
+        String eTag = headers.get(HttpHeaderNames.ETAG);
+        if (eTag != null) {
+            return Collections.singletonList(new Header(HttpHeaderNames.IF_NONE_MATCH.toString(), eTag));
+        }
+        String lastModified = headers.get(HttpHeaderNames.LAST_MODIFIED);
+        if (lastModified != null) {
+            return Collections.singletonList(new Header(HttpHeaderNames.IF_MODIFIED_SINCE.toString(),
+                    lastModified));
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Returns this response updated with the headers of the 304 response revalidating it.
+     *
+     * @param notModifiedHeaders headers of the 304 response.
+     * @param currentTime        the time in millis the 304 response is received.
+     * @return the revalidated response.
+     */
+    public CachedResponse revalidate(HttpHeaders notModifiedHeaders, long currentTime) {
+        HttpHeaders revalidatedHeaders = headers.copy();
+        for (String name : notModifiedHeaders.names()) {
+            // The body is the cached one, hence its framing headers are kept
+            if (!HttpHeaderNames.CONTENT_LENGTH.contentEqualsIgnoreCase(name) &&
+                    !HttpHeaderNames.TRANSFER_ENCODING.contentEqualsIgnoreCase(name)) {
+                revalidatedHeaders.set(name, notModifiedHeaders.getAll(name));
+            }
+        }
+        return new CachedResponse(statusCode, revalidatedHeaders, varyHeaders, body, currentTime);
+    }
+
+    /**
+     * Create a response message with the cached status, headers and body, to be passed to the response listener
+     * in place of a response from the endpoint.
+     *
+     * @return the response message.
+     */
+    public HttpCarbonMessage toCarbonMessage() {
+        DefaultHttpResponse httpResponse = new DefaultHttpResponse(HttpVersion.HTTP_1_1,
+                HttpResponseStatus.valueOf(statusCode));
+        httpResponse.headers().set(headers);
+        HttpCarbonMessage response = new HttpCarbonMessage(httpResponse);
+        response.setProperty(Constants.HTTP_STATUS_CODE, statusCode);
+        response.addHttpContent(new DefaultLastHttpContent(Unpooled.wrappedBuffer(body)));
+        return response;
+    }
+
+    public int getSize() {
+        return size;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.io.http.sink.cache;
+
+import org.wso2.carbon.messaging.Header;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code ResponseCache} keeps the cacheable responses of GET requests by their url, so that the requests for which
+ * a fresh response is cached are not sent, and the ones for which a stale response is cached are sent conditionally.
+ * The cache is bounded by the number of responses and their total size, evicting the least recently used ones.
+ */
+public class ResponseCache {
+    private final int maxEntries;
+    private final long maxSize;
+    private final Map<String, CachedResponse> responses = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+
+    /**
+     * Create the response cache.
+     *
+     * @param maxEntries maximum number of responses to keep.
+     * @param maxSize    maximum total size in bytes of the responses to keep.
+     */
+    public ResponseCache(int maxEntries, long maxSize) {
+        this.maxEntries = maxEntries;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the response cached for the given url, if it was received for a request with the same values of the
+     * headers it varies on.
+     *
+     * @param publisherURL the url of the request.
+     * @param headersList  the request headers.
+     * @return the cached response, either fresh or stale, null if there is none matching the request.
+     */
+    public synchronized CachedResponse get(String publisherURL, List<Header> headersList) {
+        CachedResponse response = responses.get(publisherURL);
+        return response != null && response.matches(headersList) ? response : null;
+    }
+
+    /**
+     * Cache the response for the given url, replacing the one cached for it.
+     *
+     * @param publisherURL the url of the request.
+     * @param response     the response.
+     */
+    public synchronized void put(String publisherURL, CachedResponse response) {
+        if (response.getSize() > maxSize) {
+            remove(publisherURL);
+            return;
+        }
+        CachedResponse previous = responses.put(publisherURL, response);
+        if (previous != null) {
+            size -= previous.getSize();
+        }
+        size += response.getSize();
+        // Responses are kept in access order, hence the least recently used ones are at the head
+        Iterator<CachedResponse> iterator = responses.values().iterator();
+        while ((responses.size() > maxEntries || size > maxSize) && iterator.hasNext()) {
+            size -= iterator.next().getSize();
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Remove the response cached for the given url.
+     *
+     * @param publisherURL the url of the request.
+     */
+    public synchronized void remove(String publisherURL) {
+        CachedResponse response = responses.remove(publisherURL);
+        if (response != null) {
+            size -= response.getSize();
+        }
+    }
+
+    public synchronized int getEntries() {
+        return responses.size();
+    }
+
+    public synchronized long getSize() {
+        return size;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+}
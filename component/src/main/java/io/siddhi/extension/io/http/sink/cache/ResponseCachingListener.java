@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.io.http.sink.cache;
+
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.siddhi.extension.io.http.metrics.SinkMetrics;
+import io.siddhi.extension.io.http.sink.util.HttpSinkUtil;
+import org.wso2.carbon.messaging.Header;
+import org.wso2.transport.http.netty.contract.HttpConnectorListener;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+
+import java.util.List;
+
+/**
+ * {@code ResponseCachingListener} caches the response of a GET request before passing it on to the response
+ * listener. A cacheable response is passed on once its body is received, as a message created from the cached
+ * response, and a 304 response to a conditional request is passed on as the revalidated cached response.
+ */
+public class ResponseCachingListener implements HttpConnectorListener {
+    private final ResponseCache responseCache;
+    private final String publisherURL;
+    private final List<Header> headersList;
+    private final CachedResponse staleResponse;
+    private final HttpConnectorListener responseListener;
+    private final SinkMetrics metrics;
+
+    /**
+     * Create the listener caching the response of a request.
+     *
+     * @param responseCache    the response cache.
+     * @param publisherURL     the url of the request.
+     * @param headersList      the request headers, without the conditional ones.
+     * @param staleResponse    the stale response the request revalidates, null if it is not conditional.
+     * @param responseListener the response listener.
+     * @param metrics          sink metrics, null if metrics are disabled.
+     */
+    public ResponseCachingListener(ResponseCache responseCache, String publisherURL, List<Header> headersList,
+                                   CachedResponse staleResponse, HttpConnectorListener responseListener,
+                                   SinkMetrics metrics) {
+        this.responseCache = responseCache;
+        this.publisherURL = publisherURL;
+        this.headersList = headersList;
+        this.staleResponse = staleResponse;
+        this.responseListener = responseListener;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void onMessage(HttpCarbonMessage httpCarbonMessage) {
+        int statusCode = httpCarbonMessage.getNettyHttpResponse().status().code();
+        HttpHeaders headers = httpCarbonMessage.getHeaders();
+        if (statusCode == HttpResponseStatus.NOT_MODIFIED.code() && staleResponse != null) {
+            HttpSinkUtil.releaseContent(httpCarbonMessage);
+            CachedResponse revalidatedResponse = staleResponse.revalidate(headers, System.currentTimeMillis());
+            responseCache.put(publisherURL, revalidatedResponse);
+            if (metrics != null) {
+                metrics.getResponseCacheRevalidationsMetric().inc();
+            }
+            responseListener.onMessage(revalidatedResponse.toCarbonMessage());
+            return;
+        }
+        if (statusCode != HttpResponseStatus.OK.code() || !CachedResponse.isStorable(headers) ||
+                headers.getInt(HttpHeaderNames.CONTENT_LENGTH, 0) > responseCache.getMaxSize()) {
+            if (statusCode == HttpResponseStatus.OK.code()) {
+                responseCache.remove(publisherURL);
+            }
+            responseListener.onMessage(httpCarbonMessage);
+            return;
+        }
+        long receivedTime = System.currentTimeMillis();
+        CompositeByteBuf content = PooledByteBufAllocator.DEFAULT.compositeBuffer(Integer.MAX_VALUE);
+        httpCarbonMessage.getHttpContentAsync().setMessageListener(httpContent -> {
+            content.addComponent(true, httpContent.content());
+            if (httpContent instanceof LastHttpContent) {
+                CachedResponse response;
+                try {
+                    response = new CachedResponse(statusCode, headers, ByteBufUtil.getBytes(content), headersList,
+                            receivedTime);
+                } finally {
+                    content.release();
+                }
+                responseCache.put(publisherURL, response);
+                responseListener.onMessage(response.toCarbonMessage());
+            }
+        });
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        responseListener.onError(throwable);
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.io.http.sink.spool;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * {@code DiskSpool} is a persistent first in first out queue of records, kept in a directory as a sequence of
+ * memory-mapped {@link SpoolSegment}s of a fixed size. Records are appended to the last segment and read from the
+ * first, which is deleted once all its records are removed. The segments left by an earlier run are opened again,
+ * so that their remaining records are read first.
+ */
+public class DiskSpool {
+    private static final Logger log = LogManager.getLogger(DiskSpool.class);
+    private static final String SEGMENT_FILE_EXTENSION = ".spool";
+
+    /**
+     * Policies to flush the appended records to the disk.
+     */
+    public enum FsyncPolicy {
+        // Flush after each record, so that no record is lost when the host fails
+        ALWAYS,
+        // Flush when requested, which the owner of the spool does periodically
+        PERIODIC,
+        // Leave flushing to the operating system, which still keeps the records when the process fails
+        NEVER
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final long maxSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final Deque<SpoolSegment> segments = new ArrayDeque<>();
+    private long nextSegmentSequence;
+    private int records;
+
+    /**
+     * Create the spool, opening the segments left in the directory.
+     *
+     * @param directory   the directory of the segment files.
+     * @param segmentSize size in bytes of a segment, which bounds the size of a record.
+     * @param maxSize     maximum size in bytes of all the segments.
+     * @param fsyncPolicy policy to flush the appended records to the disk.
+     * @throws IOException if the directory or its segments could not be opened.
+     */
+    public DiskSpool(Path directory, int segmentSize, long maxSize, FsyncPolicy fsyncPolicy) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSize = maxSize;
+        this.fsyncPolicy = fsyncPolicy;
+        Files.createDirectories(directory);
+        List<Path> segmentFiles = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SEGMENT_FILE_EXTENSION)) {
+            for (Path file : files) {
+                segmentFiles.add(file);
+            }
+        }
+        // The file names are zero padded sequence numbers, hence sorting them gives the order of the segments
+        Collections.sort(segmentFiles);
+        for (Path segmentFile : segmentFiles) {
+            String fileName = segmentFile.getFileName().toString();
+            nextSegmentSequence = Math.max(nextSegmentSequence, Long.parseLong(
+                    fileName.substring(0, fileName.length() - SEGMENT_FILE_EXTENSION.length())) + 1);
+            SpoolSegment segment = SpoolSegment.open(segmentFile, segmentSize);
+            if (segment.isExhausted()) {
+                segment.delete();
+            } else {
+                segments.addLast(segment);
+                records += segment.getRecords();
+            }
+        }
+        if (records > 0) {
+            log.info("Recovered " + records + " records from spool '" + directory + "'.");
+        }
+    }
+
+    /**
+     * Append a record at the end of the spool.
+     *
+     * @param record the record.
+     * @return true if the record is appended, false if it does not fit within the maximum size of the spool.
+     * @throws IOException if a new segment could not be created.
+     */
+    public synchronized boolean append(byte[] record) throws IOException {
+        long appendTime = System.currentTimeMillis();
+        SpoolSegment segment = segments.peekLast();
+        if (segment == null || !segment.append(record, appendTime)) {
+            if (SpoolSegment.HEADER_SIZE + SpoolSegment.RECORD_HEADER_SIZE + record.length > segmentSize ||
+                    (long) (segments.size() + 1) * segmentSize > maxSize) {
+                return false;
+            }
+            if (segment != null && fsyncPolicy != FsyncPolicy.NEVER) {
+                segment.force();
+            }
+            segment = SpoolSegment.open(directory.resolve(String.format("%020d%s", nextSegmentSequence++,
+                    SEGMENT_FILE_EXTENSION)), segmentSize);
+            segments.addLast(segment);
+            segment.append(record, appendTime);
+        }
+        records++;
+        if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+            segment.force();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the first record of the spool, without removing it.
+     *
+     * @return the record, null if the spool is empty.
+     */
+    public synchronized byte[] peek() {
+        SpoolSegment segment = getFirstSegment();
+        return segment == null ? null : segment.peek();
+    }
+
+    /**
+     * Remove the first record of the spool, deleting its segment when it has no more records.
+     */
+    public synchronized void remove() {
+        SpoolSegment segment = getFirstSegment();
+        if (segment != null && !segment.isExhausted()) {
+            segment.remove();
+            records--;
+            getFirstSegment();
+        }
+    }
+
+    private SpoolSegment getFirstSegment() {
+        // The last segment is kept even without records, as the following records are appended to it
+        while (segments.size() > 1 && segments.peekFirst().isExhausted()) {
+            SpoolSegment segment = segments.pollFirst();
+            try {
+                segment.delete();
+            } catch (IOException e) {
+                log.warn("Failed to delete the spool segment '" + segment.getPath() + "'.", e);
+            }
+        }
+        return segments.peekFirst();
+    }
+
+    public synchronized boolean isEmpty() {
+        return records == 0;
+    }
+
+    /**
+     * Returns the number of records in the spool.
+     *
+     * @return the record count.
+     */
+    public synchronized int getDepth() {
+        return records;
+    }
+
+    /**
+     * Returns the disk space taken by the segments of the spool.
+     *
+     * @return the size in bytes.
+     */
+    public synchronized long getSize() {
+        return (long) segments.size() * segmentSize;
+    }
+
+    /**
+     * Returns the time the first record of the spool has been waiting.
+     *
+     * @return the age in millis, zero if the spool is empty.
+     */
+    public synchronized long getAge() {
+        SpoolSegment segment = getFirstSegment();
+        long appendTime = segment == null ? 0 : segment.getOldestAppendTime();
+        return appendTime == 0 ? 0 : Math.max(System.currentTimeMillis() - appendTime, 0);
+    }
+
+    /**
+     * Flush the records and read positions of the spool to the disk, unless flushing is left to the operating
+     * system.
+     */
+    public synchronized void force() {
+        if (fsyncPolicy != FsyncPolicy.NEVER) {
+            for (SpoolSegment segment : segments) {
+                segment.force();
+            }
+        }
+    }
+
+    public FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+}
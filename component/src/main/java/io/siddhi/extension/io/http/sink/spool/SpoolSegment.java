@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.io.http.sink.spool;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@code SpoolSegment} is a memory-mapped file of a {@link DiskSpool}, holding records appended one after the other.
+ * The file starts with the position of the next record to be read, which is updated as the records are removed,
+ * and each record is prefixed with its length and append time. The length is written after the record itself, so
+ * that a record torn by a crash is seen as the end of the segment when it is opened again.
+ */
+class SpoolSegment {
+    static final int HEADER_SIZE = Integer.BYTES;
+    static final int RECORD_HEADER_SIZE = Integer.BYTES + Long.BYTES;
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private int readPosition;
+    private int writePosition;
+    private int records;
+
+    private SpoolSegment(Path path, MappedByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+        this.capacity = buffer.capacity();
+        this.readPosition = Math.max(buffer.getInt(0), HEADER_SIZE);
+        int position = HEADER_SIZE;
+        while (position + RECORD_HEADER_SIZE <= capacity) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || length > capacity - position - RECORD_HEADER_SIZE) {
+                break;
+            }
+            if (position >= readPosition) {
+                records++;
+            }
+            position += RECORD_HEADER_SIZE + length;
+        }
+        this.writePosition = position;
+        this.readPosition = Math.min(readPosition, writePosition);
+    }
+
+    /**
+     * Open the segment of the given file, creating it if it does not exist.
+     *
+     * @param path     the segment file.
+     * @param capacity size in bytes of a new segment.
+     * @return the segment, with the records not yet removed.
+     * @throws IOException if the file could not be mapped.
+     */
+    static SpoolSegment open(Path path, int capacity) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            long size = Math.max(channel.size(), capacity);
+            return new SpoolSegment(path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+    }
+
+    /**
+     * Append a record, if it fits in the remaining space of the segment.
+     *
+     * @param record     the record.
+     * @param appendTime time in millis the record is appended.
+     * @return true if the record is appended.
+     */
+    boolean append(byte[] record, long appendTime) {
+        int nextPosition = writePosition + RECORD_HEADER_SIZE + record.length;
+        if (record.length == 0 || nextPosition > capacity) {
+            return false;
+        }
+        ByteBuffer recordBuffer = buffer.duplicate();
+        recordBuffer.position(writePosition + RECORD_HEADER_SIZE);
+        recordBuffer.put(record);
+        buffer.putLong(writePosition + Integer.BYTES, appendTime);
+        if (nextPosition + Integer.BYTES <= capacity) {
+            // Clear what a torn record might have left, so that the records end here till the next is appended
+            buffer.putInt(nextPosition, 0);
+        }
+        buffer.putInt(writePosition, record.length);
+        writePosition = nextPosition;
+        records++;
+        return true;
+    }
+
+    /**
+     * Returns the next record to be read.
+     *
+     * @return the record, null if all the records are removed.
+     */
+    byte[] peek() {
+        if (readPosition >= writePosition) {
+            return null;
+        }
+        byte[] record = new byte[buffer.getInt(readPosition)];
+        ByteBuffer recordBuffer = buffer.duplicate();
+        recordBuffer.position(readPosition + RECORD_HEADER_SIZE);
+        recordBuffer.get(record);
+        return record;
+    }
+
+    /**
+     * Returns the append time of the next record to be read.
+     *
+     * @return the time in millis, zero if all the records are removed.
+     */
+    long getOldestAppendTime() {
+        return readPosition < writePosition ? buffer.getLong(readPosition + Integer.BYTES) : 0;
+    }
+
+    /**
+     * Remove the next record to be read, persisting the new read position.
+     */
+    void remove() {
+        if (readPosition < writePosition) {
+            readPosition += RECORD_HEADER_SIZE + buffer.getInt(readPosition);
+            records--;
+            buffer.putInt(0, readPosition);
+        }
+    }
+
+    boolean isExhausted() {
+        return readPosition >= writePosition;
+    }
+
+    int getRecords() {
+        return records;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    void delete() throws IOException {
+        // The mapping is released once the buffer is collected, which does not keep the file from being deleted
+        Files.deleteIfExists(path);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.io.http.sink.spool;
+
+import org.wso2.carbon.messaging.Header;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code SpooledRequest} is a request of a sink kept in a {@link DiskSpool}, with its url, method and headers
+ * resolved from the dynamic options of its events, so that it can be sent again after a restart.
+ */
+public class SpooledRequest {
+    private final String publisherURL;
+    private final String httpMethod;
+    private final List<Header> headers;
+    private final byte[] body;
+    private final int eventCount;
+
+    /**
+     * Create the spooled request.
+     *
+     * @param publisherURL the url, empty to select it when the request is sent.
+     * @param httpMethod   the http method.
+     * @param headers      the request headers.
+     * @param body         the request body, uncompressed.
+     * @param eventCount   number of events in the request.
+     */
+    public SpooledRequest(String publisherURL, String httpMethod, List<Header> headers, byte[] body,
+                          int eventCount) {
+        this.publisherURL = publisherURL;
+        this.httpMethod = httpMethod;
+        this.headers = headers;
+        this.body = body;
+        this.eventCount = eventCount;
+    }
+
+    /**
+     * Encode the request as a spool record.
+     *
+     * @return the record.
+     */
+    public byte[] encode() {
+        ByteArrayOutputStream record = new ByteArrayOutputStream(body.length + 256);
+        try (DataOutputStream output = new DataOutputStream(record)) {
+            output.writeUTF(publisherURL);
+            output.writeUTF(httpMethod);
+            output.writeInt(eventCount);
+            output.writeInt(headers.size());
+            for (Header header : headers) {
+                output.writeUTF(header.getName());
+                output.writeUTF(header.getValue());
+            }
+            output.writeInt(body.length);
+            output.write(body);
+        } catch (IOException e) {
+            // Not thrown when writing to memory
+            throw new IllegalStateException(e);
+        }
+        return record.toByteArray();
+    }
+
+    /**
+     * Decode a request from a spool record.
+     *
+     * @param record the record.
+     * @return the request.
+     * @throws IOException if the record is not a valid request.
+     */
+    public static SpooledRequest decode(byte[] record) throws IOException {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(record))) {
+            String publisherURL = input.readUTF();
+            String httpMethod = input.readUTF();
+            int eventCount = input.readInt();
+            int headerCount = input.readInt();
+            List<Header> headers = new ArrayList<>(headerCount);
+            for (int i = 0; i < headerCount; i++) {
+                headers.add(new Header(input.readUTF(), input.readUTF()));
+            }
+            byte[] body = new byte[input.readInt()];
+            input.readFully(body);
+            return new SpooledRequest(publisherURL, httpMethod, headers, body, eventCount);
+        }
+    }
+
+    public String getPublisherURL() {
+        return publisherURL;
+    }
+
+    public String getHttpMethod() {
+        return httpMethod;
+    }
+
+    public List<Header> getHeaders() {
+        return headers;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+}
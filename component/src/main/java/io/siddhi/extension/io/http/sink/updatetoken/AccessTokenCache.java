@@ -18,16 +18,47 @@
  */
 package io.siddhi.extension.io.http.sink.updatetoken;
 
-import java.util.HashMap;
+import io.siddhi.extension.io.http.sink.util.CircuitBreaker;
+import io.siddhi.extension.io.http.util.HttpConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 /**
  * {@code AccessTokenCache} Handle the access token caching.
+ * Along with the tokens, the time each access token was issued at and its lifetime (the {@code expires_in} of the
+ * token response) are kept, so that the tokens can be refreshed in the background before they expire.
+ * Token requests are made through {@link #requestAccessToken(String, String, Runnable)}, which lets only one
+ * request per key reach the token endpoint at a time, remembers failed requests for a short while and stops the
+ * requests to a failing token endpoint with a circuit breaker.
  */
 public class AccessTokenCache {
+    private static final Logger LOG = LoggerFactory.getLogger(AccessTokenCache.class);
+    private static final long FAILED_REQUEST_CACHE_TIME = 1000;
+    private static final int TOKEN_ENDPOINT_FAILURE_THRESHOLD = 5;
+    private static final long TOKEN_ENDPOINT_OPEN_TIME = 30000;
+    private static final ScheduledExecutorService REFRESH_TIMER = Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+                Thread thread = new Thread(runnable, "SiddhiHttpAccessTokenRefresher");
+                thread.setDaemon(true);
+                return thread;
+            });
     private static Map<String, String> accessToken;
     private static Map<String, String> refreshToken;
     private static Map<String, Integer> responseCode;
+    private static Map<String, Long> expiryTime;
+    private static Map<String, ScheduledFuture<?>> refreshTasks;
+    private static Map<String, CompletableFuture<Integer>> inflightRequests;
+    private static Map<String, Long> failedRequestTime;
+    private static Map<String, CircuitBreaker> tokenEndpointCircuitBreakers;
 
     private static AccessTokenCache accessTokenCache;
 
@@ -37,9 +68,14 @@ public class AccessTokenCache {
     public static synchronized AccessTokenCache getInstance() {
         if (accessTokenCache == null) {
             accessTokenCache = new AccessTokenCache();
-            accessToken = new HashMap<>();
-            refreshToken = new HashMap<>();
-            responseCode = new HashMap<>();
+            accessToken = new ConcurrentHashMap<>();
+            refreshToken = new ConcurrentHashMap<>();
+            responseCode = new ConcurrentHashMap<>();
+            expiryTime = new ConcurrentHashMap<>();
+            refreshTasks = new ConcurrentHashMap<>();
+            inflightRequests = new ConcurrentHashMap<>();
+            failedRequestTime = new ConcurrentHashMap<>();
+            tokenEndpointCircuitBreakers = new ConcurrentHashMap<>();
             return accessTokenCache;
         } else {
             return accessTokenCache;
@@ -47,6 +83,22 @@ public class AccessTokenCache {
     }
 
     public void setAccessToken(String key, String value) {
+        setAccessToken(key, value, -1);
+    }
+
+    /**
+     * Cache an access token along with its lifetime.
+     *
+     * @param key       the key of the token.
+     * @param value     the access token.
+     * @param expiresIn lifetime of the token in seconds, non positive if the token endpoint did not specify it.
+     */
+    public void setAccessToken(String key, String value, long expiresIn) {
+        if (expiresIn > 0) {
+            expiryTime.put(key, System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(expiresIn));
+        } else {
+            expiryTime.remove(key);
+        }
         accessToken.put(key, value);
     }
 
@@ -58,14 +110,47 @@ public class AccessTokenCache {
         responseCode.put(key, value);
     }
 
+    /**
+     * Returns the response code of the last token request of the key.
+     *
+     * @param key the key of the token.
+     * @return the response code, or 503 if no token request of the key was responded with a status code.
+     */
     public int getResponseCode(String key) {
-        return responseCode.get(key);
+        Integer code = responseCode.get(key);
+        return code == null ? HttpConstants.SERVICE_UNAVAILABLE_CODE : code;
     }
 
     public String getAccessToken(String key) {
         return accessToken.get(key);
     }
 
+    /**
+     * Returns the cached access token if it has not expired.
+     *
+     * @param key the key of the token.
+     * @return the access token, or null if there is no token or the token has expired.
+     */
+    public String getValidAccessToken(String key) {
+        String token = accessToken.get(key);
+        Long expiry = expiryTime.get(key);
+        if (token == null || (expiry != null && expiry <= System.currentTimeMillis())) {
+            return null;
+        }
+        return token;
+    }
+
+    /**
+     * Returns the time at which the cached access token expires.
+     *
+     * @param key the key of the token.
+     * @return the expiry time in millis, or -1 if the lifetime of the token is not known.
+     */
+    public long getExpiryTime(String key) {
+        Long expiry = expiryTime.get(key);
+        return expiry == null ? -1 : expiry;
+    }
+
     public String getRefreshtoken(String key) {
         return refreshToken.get(key);
     }
@@ -77,4 +162,113 @@ public class AccessTokenCache {
     public boolean checkRefreshAvailableKey(String value) {
         return refreshToken.containsKey(value);
     }
+
+    /**
+     * Request a new access token for the key, coalescing the concurrent requests of the same key into a single
+     * request to the token endpoint. The callers arriving while a request is in progress wait for its outcome
+     * instead of sending their own request. A failed request is not repeated for a short while, and no requests
+     * are sent to a token endpoint while its circuit is open. The response code is set to 503 when the token endpoint
+     * could not be reached or its circuit is open.
+     *
+     * @param key          the key of the token.
+     * @param tokenUrl     the token endpoint url.
+     * @param tokenRequest the request to the token endpoint, which updates the cache with its outcome.
+     * @return the response code of the token request.
+     */
+    public int requestAccessToken(String key, String tokenUrl, Runnable tokenRequest) {
+        CompletableFuture<Integer> request = new CompletableFuture<>();
+        CompletableFuture<Integer> inflightRequest = inflightRequests.putIfAbsent(key, request);
+        if (inflightRequest != null) {
+            try {
+                return inflightRequest.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        try {
+            Long failedTime = failedRequestTime.get(key);
+            if (failedTime != null && System.currentTimeMillis() - failedTime < FAILED_REQUEST_CACHE_TIME) {
+                int responseCode = getResponseCode(key);
+                request.complete(responseCode);
+                return responseCode;
+            }
+            CircuitBreaker circuitBreaker = tokenEndpointCircuitBreakers.computeIfAbsent(tokenUrl,
+                    url -> new CircuitBreaker(TOKEN_ENDPOINT_FAILURE_THRESHOLD, TOKEN_ENDPOINT_OPEN_TIME));
+            if (!circuitBreaker.allowRequest()) {
+                LOG.debug("Access token is not requested from " + tokenUrl + " as the token endpoint is failing.");
+                setResponseCode(key, HttpConstants.SERVICE_UNAVAILABLE_CODE);
+                request.complete(HttpConstants.SERVICE_UNAVAILABLE_CODE);
+                return HttpConstants.SERVICE_UNAVAILABLE_CODE;
+            }
+            int responseCode;
+            try {
+                // Clear the code of the previous request, so that a response without a status is not taken for it
+                AccessTokenCache.responseCode.remove(key);
+                tokenRequest.run();
+                Integer code = AccessTokenCache.responseCode.get(key);
+                if (code == null) {
+                    LOG.error("Access token request to " + tokenUrl + " completed without a response status code.");
+                    responseCode = HttpConstants.SERVICE_UNAVAILABLE_CODE;
+                    setResponseCode(key, responseCode);
+                } else {
+                    responseCode = code;
+                }
+            } catch (RuntimeException e) {
+                LOG.error("Error occurred while requesting an access token from " + tokenUrl, e);
+                responseCode = HttpConstants.SERVICE_UNAVAILABLE_CODE;
+                setResponseCode(key, responseCode);
+            }
+            if (responseCode >= HttpConstants.INTERNAL_SERVER_FAIL_CODE) {
+                circuitBreaker.recordFailure();
+            } else {
+                circuitBreaker.recordSuccess();
+            }
+            if (responseCode == HttpConstants.SUCCESS_CODE) {
+                failedRequestTime.remove(key);
+            } else {
+                failedRequestTime.put(key, System.currentTimeMillis());
+            }
+            request.complete(responseCode);
+            return responseCode;
+        } catch (RuntimeException e) {
+            request.completeExceptionally(e);
+            throw e;
+        } finally {
+            inflightRequests.remove(key, request);
+        }
+    }
+
+    /**
+     * Schedule the given refresh task to run the given skew before the cached access token expires, replacing any
+     * refresh already scheduled for the key. Nothing is scheduled if the lifetime of the token is not known.
+     *
+     * @param key         the key of the token.
+     * @param refreshSkew time in millis before the expiry at which the token is refreshed.
+     * @param refreshTask the task requesting the new token.
+     */
+    public void scheduleRefresh(String key, long refreshSkew, Runnable refreshTask) {
+        long expiry = getExpiryTime(key);
+        if (expiry < 0) {
+            cancelRefresh(key);
+            return;
+        }
+        long delay = Math.max(0, expiry - refreshSkew - System.currentTimeMillis());
+        ScheduledFuture<?> previousTask = refreshTasks.put(key,
+                REFRESH_TIMER.schedule(refreshTask, delay, TimeUnit.MILLISECONDS));
+        if (previousTask != null) {
+            previousTask.cancel(false);
+        }
+    }
+
+    /**
+     * Cancel the background refresh scheduled for the key.
+     *
+     * @param key the key of the token.
+     */
+    public void cancelRefresh(String key) {
+        ScheduledFuture<?> task = refreshTasks.remove(key);
+        if (task != null) {
+            task.cancel(false);
+        }
+    }
 }
@@ -56,11 +56,9 @@ public class HttpRequest {
 
         Request request = new Request.Builder().url(tokenUrl).method(HTTP_METHOD_POST, requestBody)
                 .headers(headerbuilder).build();
-        try {
-            Response response = client.newCall(request).execute();
+        try (Response response = client.newCall(request).execute()) {
             responses.add(String.valueOf(response.code()));
             responses.add(response.body().string());
-            response.close();
         } catch (IOException e) {
             log.error("Error occurred while generating a new access token ", e);
         }
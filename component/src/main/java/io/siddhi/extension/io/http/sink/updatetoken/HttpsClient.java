@@ -19,6 +19,7 @@
 package io.siddhi.extension.io.http.sink.updatetoken;
 
 import io.netty.handler.codec.http.HttpHeaderValues;
+import io.siddhi.extension.io.http.sink.util.FormUrlEncoder;
 import io.siddhi.extension.io.http.util.HttpConstants;
 import okhttp3.OkHttpClient;
 import org.json.JSONObject;
@@ -29,19 +30,21 @@ import org.wso2.transport.http.netty.contractimpl.common.Util;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.security.KeyManagementException;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
+import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.security.UnrecoverableKeyException;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.net.ssl.KeyManagerFactory;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManagerFactory;
@@ -50,25 +53,18 @@ import javax.net.ssl.X509TrustManager;
 
 /**
  * {@code HttpsClient} Handle the HTTP client.
+ * The clients of the token endpoints are cached per trust store, and share the connection pool and the dispatcher,
+ * so that the trust store is read and the SSL context is built only once, and the connections to the token
+ * endpoints are reused across the token requests.
  */
 public class HttpsClient {
     private static final Logger LOG = LoggerFactory.getLogger(HttpsClient.class);
+    private static final OkHttpClient BASE_CLIENT = new OkHttpClient();
+    private static final Map<String, OkHttpClient> CLIENTS = new ConcurrentHashMap<>();
     private AccessTokenCache accessTokenCache = AccessTokenCache.getInstance();
 
-    private static String encodeMessage(Object s) {
-        try {
-            return URLEncoder.encode((String) s, "UTF-8");
-        } catch (UnsupportedEncodingException e) {
-            LOG.error("Unable to encode the message while generating new access token: " + e);
-            return HttpConstants.EMPTY_STRING;
-        }
-    }
-
     private static String getPayload(Map<String, String> refreshTokenBody) {
-        return refreshTokenBody.entrySet().stream()
-                .map(p -> encodeMessage(p.getKey()) + "=" + encodeMessage(p.getValue()))
-                .reduce((p1, p2) -> p1 + "&" + p2)
-                .orElse("");
+        return FormUrlEncoder.encode(refreshTokenBody);
     }
 
     private static HashMap<String, String> setHeaders(String encodedAuth) {
@@ -80,6 +76,25 @@ public class HttpsClient {
     }
 
     private static OkHttpClient getOkHttpClient(String trustStorePath, String trustStorePassword) {
+        // A client which failed to initialise is not cached, so that the trust store is read again at the next
+        // token request, and the password is only kept in the key as its digest
+        OkHttpClient client = CLIENTS.computeIfAbsent(trustStorePath + HttpConstants.NEW_LINE +
+                getDigest(trustStorePassword), key -> createOkHttpClient(trustStorePath, trustStorePassword));
+        return client != null ? client : BASE_CLIENT;
+    }
+
+    private static String getDigest(String value) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(messageDigest.digest(
+                    String.valueOf(value).getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException("SHA-256 message digest is not available.", e);
+        }
+    }
+
+    private static OkHttpClient createOkHttpClient(String trustStorePath, String trustStorePassword) {
         KeyStore keyStore;
         try {
             keyStore = readKeyStore(trustStorePath, trustStorePassword);
@@ -108,13 +123,13 @@ public class HttpsClient {
                     return new X509Certificate[0];
                 }
             };
-            return new OkHttpClient().newBuilder()
+            return BASE_CLIENT.newBuilder()
                     .sslSocketFactory(sslContext.getSocketFactory(), dummyX509TrustManager)
                     .hostnameVerifier((host, sslSession) -> true).build();
         } catch (IOException | NoSuchAlgorithmException | UnrecoverableKeyException | KeyStoreException
                 | KeyManagementException e) {
             LOG.error("Error occurred while initializing the http client, Returning normal client", e);
-            return new OkHttpClient();
+            return null;
         }
     }
 
@@ -160,12 +175,12 @@ public class HttpsClient {
         Map<String, String> headers = setHeaders(encodedAuth);
         List<String> response = HttpRequest.getResponse(tokenUrl, encodedAuth, getPayload(refreshTokenBody), client,
                 headers);
-        client.dispatcher().executorService().shutdown();
         JSONObject jsonObject = new JSONObject(response.get(1));
         int statusCode = Integer.parseInt(response.get(0));
         if (statusCode == HttpConstants.SUCCESS_CODE) {
             String accessToken = jsonObject.getString(HttpConstants.ACCESS_TOKEN);
-            accessTokenCache.setAccessToken(encodedAuth, HttpConstants.BEARER + accessToken);
+            accessTokenCache.setAccessToken(encodedAuth, HttpConstants.BEARER + accessToken,
+                    jsonObject.optLong(HttpConstants.EXPIRES_IN, -1));
             String newRefreshToken = jsonObject.getString(HttpConstants.REFRESH_TOKEN);
             if (newRefreshToken != null) {
                 accessTokenCache.setRefreshtoken(encodedAuth, newRefreshToken);
@@ -187,13 +202,13 @@ public class HttpsClient {
         OkHttpClient client = getOkHttpClient(trustStorePath, trustStorePassword);
         List<String> response = HttpRequest.getResponse(url, encodedAuth, getPayload(refreshTokenBody), client,
                 headers);
-        client.dispatcher().executorService().shutdown();
         int statusCode = Integer.parseInt(response.get(0));
         JSONObject jsonObject = new JSONObject(response.get(1));
         if (statusCode == HttpConstants.SUCCESS_CODE) {
             String accessToken = jsonObject.getString(HttpConstants.ACCESS_TOKEN);
             String newRefreshToken = jsonObject.getString(HttpConstants.REFRESH_TOKEN);
-            accessTokenCache.setAccessToken(encodedAuth, HttpConstants.BEARER + accessToken);
+            accessTokenCache.setAccessToken(encodedAuth, HttpConstants.BEARER + accessToken,
+                    jsonObject.optLong(HttpConstants.EXPIRES_IN, -1));
             accessTokenCache.setRefreshtoken(encodedAuth, newRefreshToken);
             accessTokenCache.setResponseCode(encodedAuth, statusCode);
         } else if ((statusCode == HttpConstants.AUTHENTICATION_FAIL_CODE
@@ -218,12 +233,12 @@ public class HttpsClient {
         Map<String, String> headers = setHeaders(encodedAuth);
         List<String> response = HttpRequest.getResponse(url, encodedAuth, getPayload(refreshTokenBody), client,
                 headers);
-        client.dispatcher().executorService().shutdown();
         JSONObject jsonObject = new JSONObject(response.get(1));
         int statusCode = Integer.parseInt(response.get(0));
         if (statusCode == HttpConstants.SUCCESS_CODE) {
             String accessToken = jsonObject.getString(HttpConstants.ACCESS_TOKEN);
-            accessTokenCache.setAccessToken(encodedAuth, HttpConstants.BEARER + accessToken);
+            accessTokenCache.setAccessToken(encodedAuth, HttpConstants.BEARER + accessToken,
+                    jsonObject.optLong(HttpConstants.EXPIRES_IN, -1));
             accessTokenCache.setResponseCode(encodedAuth, statusCode);
         } else {
             accessTokenCache.setResponseCode(encodedAuth, statusCode);
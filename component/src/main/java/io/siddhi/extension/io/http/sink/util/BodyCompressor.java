@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.io.http.sink.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * {@code BodyCompressor} compresses request bodies with the {@code gzip} or {@code deflate} content coding, writing
+ * straight into a buffer of the given allocator. The {@link Deflater}s and scratch arrays are kept per thread and
+ * reset after each body, so that compressing a request does not allocate native memory.
+ */
+public class BodyCompressor {
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+
+    private static final int CHUNK_SIZE = 8192;
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int GZIP_TRAILER_SIZE = 8;
+    // gzip wraps raw deflate data with its own header and trailer, while deflate uses the zlib format
+    private static final ThreadLocal<Deflater> RAW_DEFLATERS = ThreadLocal.withInitial(
+            () -> new Deflater(Deflater.DEFAULT_COMPRESSION, true));
+    private static final ThreadLocal<Deflater> ZLIB_DEFLATERS = ThreadLocal.withInitial(
+            () -> new Deflater(Deflater.DEFAULT_COMPRESSION, false));
+    private static final ThreadLocal<byte[]> INPUT_CHUNKS = ThreadLocal.withInitial(() -> new byte[CHUNK_SIZE]);
+    private static final ThreadLocal<byte[]> OUTPUT_CHUNKS = ThreadLocal.withInitial(() -> new byte[CHUNK_SIZE]);
+
+    private final String encoding;
+    private final int minBytes;
+
+    /**
+     * Create the body compressor.
+     *
+     * @param encoding the content coding, either {@value #GZIP} or {@value #DEFLATE}.
+     * @param minBytes size in bytes below which the bodies are not compressed.
+     */
+    public BodyCompressor(String encoding, int minBytes) {
+        this.encoding = encoding;
+        this.minBytes = minBytes;
+    }
+
+    /**
+     * Check whether a body of the given size should be compressed.
+     *
+     * @param length the body size in bytes.
+     * @return true if the body is not smaller than the minimum size.
+     */
+    public boolean isCompressible(int length) {
+        return length >= minBytes;
+    }
+
+    /**
+     * Compress the readable bytes of the given body, leaving the body untouched.
+     *
+     * @param body      the body.
+     * @param allocator the allocator of the compressed body.
+     * @return the compressed body, to be released by the caller unless it is sent.
+     */
+    public ByteBuf compress(ByteBuf body, ByteBufAllocator allocator) {
+        boolean gzip = GZIP.equals(encoding);
+        Deflater deflater = gzip ? RAW_DEFLATERS.get() : ZLIB_DEFLATERS.get();
+        byte[] output = OUTPUT_CHUNKS.get();
+        int length = body.readableBytes();
+        CRC32 crc = gzip ? new CRC32() : null;
+        ByteBuf compressed = allocator.buffer(length / 2 + GZIP_HEADER.length + GZIP_TRAILER_SIZE);
+        try {
+            if (gzip) {
+                compressed.writeBytes(GZIP_HEADER);
+            }
+            if (body.hasArray()) {
+                int offset = body.arrayOffset() + body.readerIndex();
+                if (crc != null) {
+                    crc.update(body.array(), offset, length);
+                }
+                deflater.setInput(body.array(), offset, length);
+                deflate(deflater, output, compressed);
+            } else {
+                // Direct buffers are copied in chunks, as the deflater of Java 8 only takes arrays
+                byte[] input = INPUT_CHUNKS.get();
+                for (int index = body.readerIndex(); index < body.writerIndex(); index += CHUNK_SIZE) {
+                    int chunkSize = Math.min(CHUNK_SIZE, body.writerIndex() - index);
+                    body.getBytes(index, input, 0, chunkSize);
+                    if (crc != null) {
+                        crc.update(input, 0, chunkSize);
+                    }
+                    deflater.setInput(input, 0, chunkSize);
+                    deflate(deflater, output, compressed);
+                }
+            }
+            deflater.finish();
+            while (!deflater.finished()) {
+                compressed.writeBytes(output, 0, deflater.deflate(output));
+            }
+            if (crc != null) {
+                compressed.writeIntLE((int) crc.getValue());
+                compressed.writeIntLE(length);
+            }
+            return compressed;
+        } catch (RuntimeException e) {
+            compressed.release();
+            throw e;
+        } finally {
+            deflater.reset();
+        }
+    }
+
+    private static void deflate(Deflater deflater, byte[] output, ByteBuf compressed) {
+        while (!deflater.needsInput()) {
+            compressed.writeBytes(output, 0, deflater.deflate(output));
+        }
+    }
+
+    public String getEncoding() {
+        return encoding;
+    }
+}
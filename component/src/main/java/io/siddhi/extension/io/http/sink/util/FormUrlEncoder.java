@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.io.http.sink.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * {@code FormUrlEncoder} encodes parameters as an {@code application/x-www-form-urlencoded} body in a single pass,
+ * writing the percent-encoded UTF-8 bytes of the names and values directly into a buffer. The encoding is the same
+ * as that of {@link java.net.URLEncoder} with UTF-8.
+ */
+public final class FormUrlEncoder {
+    private static final byte[] HEX_DIGITS = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+    private static final int DEFAULT_VALUE_SIZE = 16;
+
+    private FormUrlEncoder() {
+    }
+
+    /**
+     * Encode the given parameters into a buffer.
+     *
+     * @param params    the parameters, whose names and values are encoded in their string form.
+     * @param allocator the allocator of the buffer.
+     * @return the encoded body, to be released by the caller unless it is sent.
+     */
+    public static ByteBuf encode(Map<?, ?> params, ByteBufAllocator allocator) {
+        ByteBuf buffer = allocator.buffer(estimateSize(params));
+        boolean first = true;
+        for (Map.Entry<?, ?> param : params.entrySet()) {
+            if (!first) {
+                buffer.writeByte('&');
+            }
+            first = false;
+            encode(String.valueOf(param.getKey()), buffer);
+            buffer.writeByte('=');
+            encode(String.valueOf(param.getValue()), buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Encode the given parameters into a string.
+     *
+     * @param params the parameters, whose names and values are encoded in their string form.
+     * @return the encoded parameters.
+     */
+    public static String encode(Map<?, ?> params) {
+        ByteBuf buffer = encode(params, PooledByteBufAllocator.DEFAULT);
+        try {
+            return buffer.toString(StandardCharsets.US_ASCII);
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * Write the percent-encoded UTF-8 bytes of the given value into the buffer.
+     *
+     * @param value  the value.
+     * @param buffer the buffer.
+     */
+    public static void encode(String value, ByteBuf buffer) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (isUnreserved(c)) {
+                buffer.writeByte(c);
+            } else if (c == ' ') {
+                buffer.writeByte('+');
+            } else if (c < 0x80) {
+                writeEncodedByte(c, buffer);
+            } else if (c < 0x800) {
+                writeEncodedByte(0xC0 | (c >> 6), buffer);
+                writeEncodedByte(0x80 | (c & 0x3F), buffer);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                writeEncodedByte(0xF0 | (codePoint >> 18), buffer);
+                writeEncodedByte(0x80 | ((codePoint >> 12) & 0x3F), buffer);
+                writeEncodedByte(0x80 | ((codePoint >> 6) & 0x3F), buffer);
+                writeEncodedByte(0x80 | (codePoint & 0x3F), buffer);
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogates are replaced as done by the UTF-8 encoder
+                writeEncodedByte('?', buffer);
+            } else {
+                writeEncodedByte(0xE0 | (c >> 12), buffer);
+                writeEncodedByte(0x80 | ((c >> 6) & 0x3F), buffer);
+                writeEncodedByte(0x80 | (c & 0x3F), buffer);
+            }
+        }
+    }
+
+    private static boolean isUnreserved(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '_' || c == '.' || c == '*';
+    }
+
+    private static void writeEncodedByte(int b, ByteBuf buffer) {
+        buffer.writeByte('%');
+        buffer.writeByte(HEX_DIGITS[(b >> 4) & 0xF]);
+        buffer.writeByte(HEX_DIGITS[b & 0xF]);
+    }
+
+    private static int estimateSize(Map<?, ?> params) {
+        int size = 0;
+        for (Map.Entry<?, ?> param : params.entrySet()) {
+            size += getSize(param.getKey()) + getSize(param.getValue()) + 2;
+        }
+        return size;
+    }
+
+    private static int getSize(Object value) {
+        return value instanceof CharSequence ? ((CharSequence) value).length() : DEFAULT_VALUE_SIZE;
+    }
+}
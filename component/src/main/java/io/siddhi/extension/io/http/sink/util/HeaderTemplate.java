@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.io.http.sink.util;
+
+import io.siddhi.core.util.transport.DynamicOptions;
+import io.siddhi.core.util.transport.Option;
+import io.siddhi.extension.io.http.util.HttpConstants;
+import org.wso2.carbon.messaging.Header;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@code HeaderTemplate} compiles the `headers` option of a sink, so that the header string is not parsed for each
+ * event. A static option is compiled once at creation, while each distinct value of a dynamic option is compiled
+ * when first seen and kept in a bounded cache of the most recently used values.
+ */
+public class HeaderTemplate {
+    private static final int MAX_CACHED_HEADER_VALUES = 100;
+    private static final CompiledHeaders NO_HEADERS = new CompiledHeaders(null);
+
+    private final Option headersOption;
+    private final CompiledHeaders staticHeaders;
+    private final Map<String, CompiledHeaders> compiledHeadersCache;
+
+    /**
+     * Create the header template, compiling the headers if the option is static.
+     *
+     * @param headersOption the `headers` option of the sink.
+     */
+    public HeaderTemplate(Option headersOption) {
+        this.headersOption = headersOption;
+        if (headersOption.isStatic()) {
+            staticHeaders = compile(headersOption.getValue());
+            compiledHeadersCache = null;
+        } else {
+            staticHeaders = null;
+            compiledHeadersCache = new LinkedHashMap<String, CompiledHeaders>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CompiledHeaders> eldest) {
+                    return size() > MAX_CACHED_HEADER_VALUES;
+                }
+            };
+        }
+    }
+
+    /**
+     * Returns the compiled headers of an event.
+     *
+     * @param dynamicOptions dynamic options of the event.
+     * @return the compiled headers.
+     */
+    public CompiledHeaders resolve(DynamicOptions dynamicOptions) {
+        if (staticHeaders != null) {
+            return staticHeaders;
+        }
+        String headers = headersOption.getValue(dynamicOptions);
+        if (headers == null) {
+            return NO_HEADERS;
+        }
+        synchronized (compiledHeadersCache) {
+            CompiledHeaders compiledHeaders = compiledHeadersCache.get(headers);
+            if (compiledHeaders == null) {
+                compiledHeaders = compile(headers);
+                compiledHeadersCache.put(headers, compiledHeaders);
+            }
+            return compiledHeaders;
+        }
+    }
+
+    private static CompiledHeaders compile(String headers) {
+        return headers == null ? NO_HEADERS : new CompiledHeaders(HttpSinkUtil.getHeaders(headers));
+    }
+
+    /**
+     * The parsed headers, shared by the events having the same header values, along with the content type given
+     * in them.
+     */
+    public static class CompiledHeaders {
+        private final List<Header> headers;
+        private final String contentType;
+
+        private CompiledHeaders(List<Header> headers) {
+            this.headers = headers == null ? null : Collections.unmodifiableList(headers);
+            String contentType = null;
+            if (headers != null) {
+                for (Header header : headers) {
+                    if (HttpConstants.HTTP_CONTENT_TYPE.equalsIgnoreCase(header.getName())) {
+                        contentType = header.getValue();
+                        break;
+                    }
+                }
+            }
+            this.contentType = contentType;
+        }
+
+        /**
+         * Returns the shared header list, which must not be modified.
+         *
+         * @return the headers, or null if no headers are given.
+         */
+        public List<Header> getHeaders() {
+            return headers;
+        }
+
+        /**
+         * Returns a copy of the headers, to be used when the headers of a request are modified.
+         *
+         * @return a modifiable list of new header instances.
+         */
+        public List<Header> copyHeaders() {
+            if (headers == null) {
+                return new ArrayList<>(2);
+            }
+            List<Header> headersList = new ArrayList<>(headers.size() + 2);
+            for (Header header : headers) {
+                headersList.add(new Header(header.getName(), header.getValue()));
+            }
+            return headersList;
+        }
+
+        /**
+         * Returns the content type given in the headers, or the default content type of the map type.
+         *
+         * @param mapType the map type of the sink.
+         * @return the content type.
+         */
+        public String getContentType(String mapType) {
+            return contentType != null ? contentType : HttpSinkUtil.getContentType(mapType, null);
+        }
+    }
+}
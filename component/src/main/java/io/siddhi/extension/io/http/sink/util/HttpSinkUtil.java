@@ -18,6 +18,13 @@
  */
 package io.siddhi.extension.io.http.sink.util;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.LastHttpContent;
 import io.siddhi.core.exception.SiddhiAppCreationException;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.transport.OptionHolder;
@@ -32,11 +39,14 @@ import org.wso2.transport.http.netty.contract.config.ProxyServerConfiguration;
 import org.wso2.transport.http.netty.contract.config.SenderConfiguration;
 import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
 import org.wso2.transport.http.netty.contractimpl.sender.channel.pool.PoolConfiguration;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
 
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.UnknownHostException;
+import java.nio.CharBuffer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -317,6 +327,8 @@ public class HttpSinkUtil {
                 HttpConstants.EXHAUSTED_ACTION, HttpConstants.DEFAULT_EXHAUSTED_ACTION));
         int maxWaitTime = Integer.parseInt(optionHolder.validateAndGetStaticValue(
                 HttpConstants.MAX_WAIT_TIME, HttpConstants.DEFAULT_MAX_WAIT_TIME));
+        int http2MaxActiveStreams = Integer.parseInt(optionHolder.validateAndGetStaticValue(
+                HttpConstants.HTTP2_MAX_ACTIVE_STREAMS, HttpConstants.DEFAULT_HTTP2_MAX_ACTIVE_STREAMS));
         PoolConfiguration connectionPoolConfiguration = new PoolConfiguration();
         connectionPoolConfiguration.setExecutorServiceThreads(executorServiceThreads);
         connectionPoolConfiguration.setMaxActivePerPool(maxActivePerPool);
@@ -328,6 +340,7 @@ public class HttpSinkUtil {
         connectionPoolConfiguration.setMinEvictableIdleTime(minEvictableIdleTime);
         connectionPoolConfiguration.setExhaustedAction(exhaustedAction);
         connectionPoolConfiguration.setMaxWaitTime(maxWaitTime);
+        connectionPoolConfiguration.setHttp2MaxActiveStreamsPerConnection(http2MaxActiveStreams);
         return connectionPoolConfiguration;
     }
 
@@ -379,12 +392,55 @@ public class HttpSinkUtil {
     }
 
     /**
-     * This method return byte size for a given string.
+     * Encode the given body into a pooled buffer, using the charset of the content type, or UTF-8 if the content
+     * type does not specify a charset. The size of the encoded body is given by the readable bytes of the buffer.
      *
-     * @param body http request body
-     * @return byte size of the body
+     * @param body        http message body
+     * @param contentType content type of the message
+     * @return encoded body, to be released by the caller unless it is sent
      */
-    public static long getByteSize(String body) {
-        return body.getBytes(Charset.defaultCharset()).length;
+    public static ByteBuf encodeBody(String body, String contentType) {
+        Charset charset = HttpUtil.getCharset(contentType, StandardCharsets.UTF_8);
+        if (StandardCharsets.UTF_8.equals(charset)) {
+            ByteBuf buffer = PooledByteBufAllocator.DEFAULT.buffer(ByteBufUtil.utf8Bytes(body));
+            ByteBufUtil.writeUtf8(buffer, body);
+            return buffer;
+        }
+        return ByteBufUtil.encodeString(PooledByteBufAllocator.DEFAULT, CharBuffer.wrap(body), charset);
+    }
+
+    /**
+     * Release the content of the given message as it arrives, without reading it. This does not block, hence can
+     * be called in the I/O thread.
+     *
+     * @param message http message whose content is not used
+     */
+    public static void releaseContent(HttpCarbonMessage message) {
+        message.getHttpContentAsync().setMessageListener(HttpContent::release);
+    }
+
+    /**
+     * Read the complete content of the given message as a string. This blocks till the content arrives, hence must
+     * not be called in the I/O thread.
+     *
+     * @param message http message
+     * @return the content of the message
+     */
+    public static String readContent(HttpCarbonMessage message) {
+        CompositeByteBuf content = PooledByteBufAllocator.DEFAULT.compositeBuffer(Integer.MAX_VALUE);
+        try {
+            HttpContent httpContent;
+            do {
+                httpContent = message.getHttpContent();
+                if (httpContent == null) {
+                    break;
+                }
+                content.addComponent(true, httpContent.content());
+            } while (!(httpContent instanceof LastHttpContent));
+            return content.toString(HttpUtil.getCharset(message.getHeaders().get(HttpConstants.HTTP_CONTENT_TYPE),
+                    StandardCharsets.UTF_8));
+        } finally {
+            content.release();
+        }
     }
 }
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.io.http.sink.util;
+
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * {@code RetryPolicy} decides whether a failed request is sent again and how long to wait before that.
+ * Connection failures and responses with one of the retriable status codes are retried till the maximum attempts
+ * are made, backing off exponentially from the initial backoff up to the maximum backoff, with full jitter so that
+ * the retries of concurrent requests are spread out.
+ */
+public class RetryPolicy {
+    private final int maxAttempts;
+    private final long initialBackoff;
+    private final long maxBackoff;
+    private final Set<Integer> retriableStatusCodes;
+
+    /**
+     * Create the retry policy.
+     *
+     * @param maxAttempts          maximum number of times a request is sent, including the first attempt.
+     * @param initialBackoff       upper bound in millis of the wait before the first retry.
+     * @param maxBackoff           upper bound in millis of the wait before any retry.
+     * @param retriableStatusCodes response status codes for which the request is retried.
+     */
+    public RetryPolicy(int maxAttempts, long initialBackoff, long maxBackoff, Set<Integer> retriableStatusCodes) {
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.retriableStatusCodes = retriableStatusCodes;
+    }
+
+    /**
+     * Check whether a request responded with the given status code can be retried after the given attempts.
+     *
+     * @param statusCode the response status code.
+     * @param attempts   number of times the request has been sent.
+     * @return true if the request should be sent again.
+     */
+    public boolean isRetriable(int statusCode, int attempts) {
+        return attempts < maxAttempts && retriableStatusCodes.contains(statusCode);
+    }
+
+    /**
+     * Check whether a request failed due to a connection error can be retried after the given attempts.
+     *
+     * @param attempts number of times the request has been sent.
+     * @return true if the request should be sent again.
+     */
+    public boolean isRetriable(int attempts) {
+        return attempts < maxAttempts;
+    }
+
+    /**
+     * Returns the time to wait before sending the request again.
+     *
+     * @param attempts number of times the request has been sent.
+     * @return the backoff in millis.
+     */
+    public long getBackoff(int attempts) {
+        // Cap the shift, as the backoff reaches its maximum long before that, and avoid overflowing past it
+        int shift = Math.min(attempts - 1, 30);
+        long backoff = initialBackoff > (maxBackoff >> shift) ? maxBackoff : initialBackoff << shift;
+        return backoff > 0 ? ThreadLocalRandom.current().nextLong(Math.min(backoff, Long.MAX_VALUE - 1) + 1) : 0;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package io.siddhi.extension.io.http.source;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import io.siddhi.extension.io.http.metrics.SourceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * {@code DownloadFileWriter} writes the content of a response to a file as the content arrives, without holding a
+ * worker thread till the whole file is received. The content buffers are written as they are to the file channel,
+ * and the content is written to a temporary file in the same directory which is renamed to the download path once
+ * complete, so that a partially downloaded file is never seen at the download path.
+ * The file is written in the executor, one task at a time in the order the content arrives, as writing blocks the
+ * transport thread the content arrives in. The temporary file is deleted if the response is aborted or no content
+ * arrives within the timeout.
+ */
+class DownloadFileWriter {
+    private static final Logger logger = LoggerFactory.getLogger(DownloadFileWriter.class);
+    private static final String TEMP_FILE_SUFFIX = ".part";
+    private static final HashedWheelTimer TIMEOUT_TIMER = new HashedWheelTimer(runnable -> {
+        Thread thread = new Thread(runnable, "SiddhiHttpDownloadTimer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String filePath;
+    private final boolean fsync;
+    private final long timeout;
+    private final Executor executor;
+    private final SourceMetrics metrics;
+    private final Consumer<String> completionCallback;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private Path tempFilePath;
+    private FileChannel fileChannel;
+    private long size;
+    private long startTime;
+    private boolean failed;
+    private boolean completed;
+    private volatile long lastContentTime;
+    private volatile Timeout timeoutCheck;
+
+    /**
+     * Create the writer of a downloaded file.
+     *
+     * @param filePath           the download path.
+     * @param fsync              whether the file is flushed to the disk before it is renamed to the download path.
+     * @param timeout            time in millis without any content arriving after which the download is failed.
+     * @param executor           executor writing the file, as writing, flushing and renaming it blocks.
+     * @param metrics            source metrics, null if metrics are disabled.
+     * @param completionCallback called with the download path once the file is completely written.
+     */
+    DownloadFileWriter(String filePath, boolean fsync, long timeout, Executor executor, SourceMetrics metrics,
+                       Consumer<String> completionCallback) {
+        this.filePath = filePath;
+        this.fsync = fsync;
+        this.timeout = timeout;
+        this.executor = executor;
+        this.metrics = metrics;
+        this.completionCallback = completionCallback;
+    }
+
+    /**
+     * Start writing the content of the given response, which is written in the executor as it arrives.
+     *
+     * @param carbonMessage the response.
+     */
+    void start(HttpCarbonMessage carbonMessage) {
+        startTime = System.nanoTime();
+        lastContentTime = startTime;
+        scheduleTimeoutCheck(timeout);
+        submit(this::open);
+        carbonMessage.getHttpContentAsync().setMessageListener(httpContent -> {
+            lastContentTime = System.nanoTime();
+            submit(() -> write(httpContent));
+        });
+    }
+
+    private void open() {
+        try {
+            Path path = Paths.get(filePath);
+            // Hidden and unique, as the same path might be downloaded concurrently
+            tempFilePath = path.resolveSibling("." + path.getFileName() + "." + UUID.randomUUID() +
+                    TEMP_FILE_SUFFIX);
+            fileChannel = FileChannel.open(tempFilePath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        } catch (NoSuchFileException e) {
+            fail("Given path to download the file : '" + filePath + "' cannot be found.", e);
+        } catch (IOException | RuntimeException e) {
+            fail("Error occurred during writing the file to '" + filePath + "' due to " + e.getMessage(), e);
+        }
+    }
+
+    private void write(HttpContent httpContent) {
+        try {
+            if (!failed && !completed) {
+                if (httpContent.decoderResult().isFailure()) {
+                    // The transport ends an aborted response with a failed content
+                    fail("Error occurred during receiving the file to '" + filePath + "'.",
+                            httpContent.decoderResult().cause());
+                } else {
+                    ByteBuf content = httpContent.content();
+                    long remaining = content.readableBytes();
+                    // Gathering write of the buffers backing the content, without copying them to the heap
+                    ByteBuffer[] buffers = content.nioBuffers();
+                    while (remaining > 0) {
+                        remaining -= fileChannel.write(buffers);
+                    }
+                    size += content.readableBytes();
+                }
+            }
+        } catch (IOException e) {
+            fail("Error occurred during writing the file to '" + filePath + "' due to " + e.getMessage(), e);
+        } finally {
+            httpContent.release();
+        }
+        if (httpContent instanceof LastHttpContent && !failed && !completed) {
+            complete();
+        }
+    }
+
+    private void complete() {
+        completed = true;
+        cancelTimeoutCheck();
+        try {
+            if (fsync) {
+                fileChannel.force(true);
+            }
+            fileChannel.close();
+            Path path = Paths.get(filePath);
+            try {
+                Files.move(tempFilePath, path, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFilePath, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            fail("Error occurred during writing the file to '" + filePath + "' due to " + e.getMessage(), e);
+            return;
+        }
+        if (metrics != null) {
+            metrics.recordDownload(size, System.nanoTime() - startTime);
+        }
+        completionCallback.accept(filePath);
+    }
+
+    private void checkTimeout() {
+        if (failed || completed) {
+            return;
+        }
+        long idleTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastContentTime);
+        if (idleTime >= timeout) {
+            fail("Error occurred during receiving the file to '" + filePath + "'.", new TimeoutException(
+                    "No content received within " + timeout + " ms."));
+        } else {
+            scheduleTimeoutCheck(timeout - idleTime);
+        }
+    }
+
+    private void scheduleTimeoutCheck(long delay) {
+        timeoutCheck = TIMEOUT_TIMER.newTimeout(check -> submit(this::checkTimeout), delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelTimeoutCheck() {
+        Timeout check = timeoutCheck;
+        if (check != null) {
+            check.cancel();
+        }
+    }
+
+    private void fail(String message, Throwable cause) {
+        failed = true;
+        cancelTimeoutCheck();
+        logger.error(message, cause);
+        try {
+            if (fileChannel != null) {
+                fileChannel.close();
+            }
+            if (tempFilePath != null) {
+                Files.deleteIfExists(tempFilePath);
+            }
+        } catch (IOException e) {
+            logger.error("Error occurred during deleting the partially downloaded file '" + tempFilePath + "'.", e);
+        }
+    }
+
+    private void submit(Runnable task) {
+        tasks.add(task);
+        if (running.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::runTasks);
+            } catch (RejectedExecutionException e) {
+                // The source is disconnected, hence the download is run through to release the file
+                runTasks();
+            }
+        }
+    }
+
+    private void runTasks() {
+        // Rechecked as a task might be added after the queue was found empty but before the flag was cleared
+        do {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    logger.error("Error occurred during downloading the file to '" + filePath + "'.", e);
+                }
+            }
+            running.set(false);
+        } while (!tasks.isEmpty() && running.compareAndSet(false, true));
+    }
+}
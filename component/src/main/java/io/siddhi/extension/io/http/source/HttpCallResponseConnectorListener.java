@@ -66,7 +66,7 @@ public class HttpCallResponseConnectorListener implements HttpConnectorListener
         }
         HttpResponseProcessor workerThread =
                 new HttpResponseProcessor(carbonMessage, sourceEventListener, shouldAllowStreamingResponses,
-                        sinkId, properties, metrics);
+                        sinkId, properties, metrics, executorService);
         executorService.execute(workerThread);
     }
 
@@ -23,6 +23,7 @@ import io.siddhi.annotation.Parameter;
 import io.siddhi.annotation.util.DataType;
 import io.siddhi.core.config.SiddhiAppContext;
 import io.siddhi.core.exception.ConnectionUnavailableException;
+import io.siddhi.core.exception.SiddhiAppCreationException;
 import io.siddhi.core.stream.ServiceDeploymentInfo;
 import io.siddhi.core.stream.input.source.Source;
 import io.siddhi.core.stream.input.source.SourceEventListener;
@@ -30,8 +31,15 @@ import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.core.util.snapshot.state.State;
 import io.siddhi.core.util.snapshot.state.StateFactory;
 import io.siddhi.core.util.transport.OptionHolder;
+import io.siddhi.extension.io.http.metrics.SourceMetrics;
 import io.siddhi.extension.io.http.util.HTTPSourceRegistry;
 import io.siddhi.extension.io.http.util.HttpConstants;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.wso2.carbon.si.metrics.core.internal.MetricsDataHolder;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import static io.siddhi.extension.io.http.util.HttpConstants.DEFAULT_WORKER_COUNT;
 
@@ -126,6 +134,7 @@ import static io.siddhi.extension.io.http.util.HttpConstants.DEFAULT_WORKER_COUN
                 )}
 )
 public class HttpCallResponseSource extends Source {
+    private static final Logger log = LogManager.getLogger(HttpCallResponseSource.class);
 
     private String sinkId;
     private SourceEventListener sourceEventListener;
@@ -135,7 +144,9 @@ public class HttpCallResponseSource extends Source {
     private HttpCallResponseConnectorListener httpCallResponseSourceListener;
     private HttpCallResponseSourceConnectorRegistry httpConnectorRegistry;
     private String httpStatusCode;
+    private Pattern httpStatusCodePattern;
     private boolean shouldAllowStreamingResponses;
+    private SourceMetrics metrics;
 
 
     @Override
@@ -157,8 +168,15 @@ public class HttpCallResponseSource extends Source {
                 .validateAndGetStaticValue(HttpConstants.WORKER_COUNT, DEFAULT_WORKER_COUNT);
         this.httpStatusCode = optionHolder.validateAndGetStaticValue(HttpConstants.HTTP_STATUS_CODE,
                 HttpConstants.DEFAULT_HTTP_SUCCESS_CODE);
+        try {
+            this.httpStatusCodePattern = Pattern.compile(httpStatusCode);
+        } catch (PatternSyntaxException e) {
+            throw new SiddhiAppCreationException(HttpConstants.HTTP_STATUS_CODE + " should be a valid regex, but " +
+                    "found '" + httpStatusCode + "' in http-call-response source with sink.id '" + sinkId + "'.", e);
+        }
         this.shouldAllowStreamingResponses = Boolean.parseBoolean(
                 optionHolder.validateAndGetStaticValue(HttpConstants.ALLOW_STREAMING_RESPONSES, HttpConstants.FALSE));
+        initMetrics();
         return null;
     }
 
@@ -180,7 +198,7 @@ public class HttpCallResponseSource extends Source {
         this.httpCallResponseSourceListener =
                 new HttpCallResponseConnectorListener(Integer.parseInt(workerThread), sourceEventListener,
                         shouldAllowStreamingResponses, sinkId, requestedTransportPropertyNames,
-                        siddhiAppName, null);
+                        siddhiAppName, metrics);
         this.httpConnectorRegistry.registerSourceListener(httpCallResponseSourceListener, sinkId, httpStatusCode);
         HTTPSourceRegistry.registerCallResponseSource(sinkId, httpStatusCode, this);
     }
@@ -193,6 +211,9 @@ public class HttpCallResponseSource extends Source {
 
     @Override
     public void destroy() {
+        if (metrics != null) {
+            metrics.unregister();
+        }
     }
 
     @Override
@@ -209,9 +230,36 @@ public class HttpCallResponseSource extends Source {
         return httpCallResponseSourceListener;
     }
 
+    private void initMetrics() {
+        if (MetricsDataHolder.getInstance().getMetricService() != null
+                && MetricsDataHolder.getInstance().getMetricManagementService().isEnabled()) {
+            try {
+                if (MetricsDataHolder.getInstance().getMetricManagementService()
+                        .isReporterRunning(HttpConstants.PROMETHEUS_REPORTER_NAME)) {
+                    // The responses are identified by the sink and the status codes they are received for
+                    metrics = new SourceMetrics(siddhiAppName, sourceEventListener.getStreamDefinition().getId(),
+                            sinkId + HttpConstants.PORT_CONTEXT_SEPARATOR + httpStatusCode);
+                }
+            } catch (IllegalArgumentException e) {
+                log.debug("Prometheus reporter is not running. Hence http-call-response source metrics will not " +
+                        "be initialized for " + siddhiAppName);
+            }
+        }
+    }
+
     public boolean matches(String thatSinkId, String thatStatusCode) {
-        return (sinkId != null ? sinkId.equals(thatSinkId) : thatSinkId == null) &&
-                (httpStatusCode != null ?
-                        thatStatusCode != null && thatStatusCode.matches(httpStatusCode) : thatStatusCode == null);
+        return (sinkId != null ? sinkId.equals(thatSinkId) : thatSinkId == null) && matchesStatusCode(thatStatusCode);
+    }
+
+    /**
+     * Check whether the responses with the given status code are received by this source.
+     *
+     * @param thatStatusCode the response status code.
+     * @return true if the status code matches the http.status.code regex of the source.
+     */
+    public boolean matchesStatusCode(String thatStatusCode) {
+        return httpStatusCodePattern != null ?
+                thatStatusCode != null && httpStatusCodePattern.matcher(thatStatusCode).matches() :
+                thatStatusCode == null;
     }
 }
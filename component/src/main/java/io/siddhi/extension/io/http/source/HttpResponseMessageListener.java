@@ -34,7 +34,6 @@ import org.wso2.transport.http.netty.contract.exceptions.ClientConnectorExceptio
 import org.wso2.transport.http.netty.contract.exceptions.ServerConnectorException;
 import org.wso2.transport.http.netty.message.HttpCarbonMessage;
 
-import java.io.IOException;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 
@@ -57,13 +56,11 @@ public class HttpResponseMessageListener implements HttpConnectorListener {
     private String siddhiAppName;
     private String publisherURL;
     private SinkMetrics metrics;
-    private long startTime;
-    private long endTime;
 
     public HttpResponseMessageListener(HttpSink sink, Map<String, Object> trpProperties, String sinkId,
                                        boolean isDownloadEnabled, CountDownLatch latch,
                                        Object payload, DynamicOptions dynamicOptions,
-                                       String siddhiAppName, String publisherURL, SinkMetrics metrics, long startTime) {
+                                       String siddhiAppName, String publisherURL, SinkMetrics metrics) {
         this.trpProperties = trpProperties;
         this.isDownloadEnabled = isDownloadEnabled;
         this.sinkId = sinkId;
@@ -74,17 +71,13 @@ public class HttpResponseMessageListener implements HttpConnectorListener {
         this.siddhiAppName = siddhiAppName;
         this.publisherURL = publisherURL;
         this.metrics = metrics;
-        this.startTime = startTime;
     }
 
     @Override
     public void onMessage(HttpCarbonMessage carbonMessage) {
-        endTime = System.currentTimeMillis();
-
         if (metrics != null) {
             metrics.setEndpointStatusMetric(publisherURL, EndpointStatus.ONLINE);
-            metrics.setLatencyMetric(publisherURL, endTime - startTime);
-            metrics.setLastEventTime(publisherURL, endTime);
+            metrics.setLastEventTime(publisherURL, System.currentTimeMillis());
 
             // Catch unsuccessful requests
             if (carbonMessage.getHttpStatusCode() / 100 != 2) {
@@ -120,9 +113,6 @@ public class HttpResponseMessageListener implements HttpConnectorListener {
             metrics.setEndpointStatusMetric(publisherURL, EndpointStatus.OFFLINE);
         }
 
-        if (throwable instanceof IOException) {
-            sink.createClientConnector(null);
-        }
         if (latch != null) {
             latch.countDown();
         }
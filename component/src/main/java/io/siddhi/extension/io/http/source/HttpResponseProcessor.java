@@ -30,14 +30,10 @@ import org.wso2.transport.http.netty.message.HttpCarbonMessage;
 import org.wso2.transport.http.netty.message.HttpMessageDataStreamer;
 
 import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStream;
 import java.nio.charset.Charset;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 /**
@@ -52,19 +48,23 @@ public class HttpResponseProcessor implements Runnable {
     private String[] trpProperties;
     private String filePath;
     private SourceMetrics metrics;
+    private Executor executor;
 
     HttpResponseProcessor(HttpCarbonMessage cMessage, SourceEventListener sourceEventListener, boolean
-            shouldAllowStreamingResponses, String sinkId, String[] trpProperties, SourceMetrics metrics) {
+            shouldAllowStreamingResponses, String sinkId, String[] trpProperties, SourceMetrics metrics,
+            Executor executor) {
         this.carbonMessage = cMessage;
         this.sourceEventListener = sourceEventListener;
         this.sinkId = sinkId;
         this.trpProperties = trpProperties;
         this.shouldAllowStreamingResponses = shouldAllowStreamingResponses;
         this.metrics = metrics;
+        this.executor = executor;
     }
 
     @Override
     public void run() {
+        boolean isDownloading = false;
         try {
             int code = carbonMessage.getNettyHttpResponse().status().code() / 100;
             boolean isDownloadableContent =
@@ -72,10 +72,14 @@ public class HttpResponseProcessor implements Runnable {
 
             if (isDownloadableContent && code == 2) {
                 filePath = carbonMessage.getProperty(HttpConstants.DOWNLOAD_PATH).toString();
-                String fileName = writeToTile(carbonMessage);
-                if (fileName != null) {
-                    sourceEventListener.onEvent(fileName, trpProperties);
-                }
+                boolean fsync = Boolean.TRUE.equals(carbonMessage.getProperty(HttpConstants.DOWNLOAD_FSYNC));
+                Object timeout = carbonMessage.getProperty(HttpConstants.DOWNLOAD_TIMEOUT);
+                long downloadTimeout = timeout instanceof Long ? (Long) timeout :
+                        Long.parseLong(HttpConstants.DEFAULT_DOWNLOAD_TIMEOUT);
+                // The content is written as it arrives, hence the message is released by the writer
+                new DownloadFileWriter(filePath, fsync, downloadTimeout, executor, metrics,
+                        fileName -> sourceEventListener.onEvent(fileName, trpProperties)).start(carbonMessage);
+                isDownloading = true;
             } else {
                 HttpContent content;
                 if (!shouldAllowStreamingResponses) {
@@ -130,25 +134,9 @@ public class HttpResponseProcessor implements Runnable {
                 }
             }
         } finally {
-            carbonMessage.waitAndReleaseAllEntities();
-        }
-    }
-
-    private String writeToTile(HttpCarbonMessage carbonMessage) {
-        File file = new File(filePath);
-        try (InputStream inputStream = new HttpMessageDataStreamer(carbonMessage).getInputStream();
-             OutputStream outputStream = new FileOutputStream(file)) {
-            int read;
-            byte[] bytes = new byte[1024];
-            while ((read = inputStream.read(bytes)) != -1) {
-                outputStream.write(bytes, 0, read);
+            if (!isDownloading) {
+                carbonMessage.waitAndReleaseAllEntities();
             }
-            return filePath;
-        } catch (FileNotFoundException e) {
-            logger.error("Given path to download the file : '" + filePath + "' cannot be found.", e);
-        } catch (IOException e) {
-            logger.error("Error occurred during writing the file to '" + filePath + "' due to " + e.getMessage(), e);
         }
-        return null;
     }
 }
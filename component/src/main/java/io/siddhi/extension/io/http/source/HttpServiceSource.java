@@ -411,6 +411,9 @@ public class HttpServiceSource extends HttpSource {
         this.httpConnectorRegistry.clearBootstrapConfigIfLast();
         HTTPSourceRegistry.removeServiceSource(sourceId);
         timer.stop();
+        if (metrics != null) {
+            metrics.unregister();
+        }
     }
 
     @Override
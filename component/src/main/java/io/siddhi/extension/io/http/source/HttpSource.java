@@ -440,6 +440,9 @@ public class HttpSource extends Source {
     @Override
     public void destroy() {
         this.httpConnectorRegistry.clearBootstrapConfigIfLast();
+        if (metrics != null) {
+            metrics.unregister();
+        }
     }
 
     /**
@@ -443,6 +443,9 @@ public class HttpWebSubSource extends Source {
     @Override
     public void destroy() {
         this.httpConnectorRegistry.clearBootstrapConfigIfLast();
+        if (metrics != null) {
+            metrics.unregister();
+        }
     }
 
     @Override
@@ -66,7 +66,7 @@ public class SSEResponseListener implements HttpConnectorListener {
     @Override
     public void onError(Throwable throwable) {
         if (throwable instanceof IOException) {
-            source.createClientConnector();
+            source.resetClientConnector();
         }
 
         if (latch != null) {
@@ -41,6 +41,7 @@ import io.siddhi.core.util.transport.Option;
 import io.siddhi.core.util.transport.OptionHolder;
 import io.siddhi.extension.io.http.metrics.SourceMetrics;
 import io.siddhi.extension.io.http.sink.ClientConnector;
+import io.siddhi.extension.io.http.sink.HttpClientConnectorRegistry;
 import io.siddhi.extension.io.http.sink.util.HttpSinkUtil;
 import io.siddhi.extension.io.http.util.HTTPSourceRegistry;
 import io.siddhi.extension.io.http.util.HttpConstants;
@@ -52,7 +53,6 @@ import org.wso2.transport.http.netty.contract.Constants;
 import org.wso2.transport.http.netty.contract.HttpResponseFuture;
 import org.wso2.transport.http.netty.contract.config.KeepAliveConfig;
 import org.wso2.transport.http.netty.contract.config.SenderConfiguration;
-import org.wso2.transport.http.netty.contractimpl.DefaultHttpWsConnectorFactory;
 import org.wso2.transport.http.netty.contractimpl.sender.channel.pool.PoolConfiguration;
 import org.wso2.transport.http.netty.message.HttpCarbonMessage;
 
@@ -63,7 +63,6 @@ import java.util.Objects;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
-import static io.siddhi.extension.io.http.sink.util.HttpSinkUtil.createConnectorFactory;
 import static io.siddhi.extension.io.http.sink.util.HttpSinkUtil.createPoolConfigurations;
 import static io.siddhi.extension.io.http.util.HttpConstants.DEFAULT_WORKER_COUNT;
 import static io.siddhi.extension.io.http.util.HttpConstants.EMPTY_STRING;
@@ -200,7 +199,7 @@ public class SSESource extends Source {
     private String[] requestedTransportPropertyNames;
     private Option httpHeaderOption;
     private ClientConnector clientConnector;
-    private DefaultHttpWsConnectorFactory httpConnectorFactory;
+    private boolean clientRuntimeRegistered;
     private ConfigReader configReader;
     private PoolConfiguration connectionPoolConfiguration;
     private SSESourceConnectorRegistry httpConnectorRegistry;
@@ -251,8 +250,8 @@ public class SSESource extends Source {
         this.eventSourceUrl = optionHolder.validateAndGetOption(HttpConstants.RECEIVER_URL).getValue();
         this.httpConnectorRegistry = SSESourceConnectorRegistry.getInstance();
         this.requestedTransportPropertyNames = requestedTransportPropertyNames.clone();
-        this.httpConnectorFactory = createConnectorFactory(configReader);
         this.connectionPoolConfiguration = createPoolConfigurations(optionHolder);
+        registerClientRuntime();
         this.clientConnector = createClientConnector();
         initMetrics();
         return null;
@@ -266,6 +265,10 @@ public class SSESource extends Source {
 
     @Override
     public void connect(ConnectionCallback connectionCallback, State state) throws ConnectionUnavailableException {
+        if (!clientRuntimeRegistered) {
+            registerClientRuntime();
+            this.clientConnector = createClientConnector();
+        }
         this.httpSSEResponseConnectorListener =
                 new SSEResponseConnectorListener(workerThread, sourceEventListener, streamID,
                         requestedTransportPropertyNames, siddhiAppName, metrics);
@@ -314,13 +317,13 @@ public class SSESource extends Source {
     public void disconnect() {
         if (clientConnector != null) {
             String publisherURL = clientConnector.getPublisherURL();
+            clientConnector.close();
             clientConnector = null;
             log.debug("Server connector for url " + publisherURL + " disconnected.");
         }
-
-        if (httpConnectorFactory != null) {
-            httpConnectorFactory.shutdownNow();
-            httpConnectorFactory = null;
+        if (clientRuntimeRegistered) {
+            HttpClientConnectorRegistry.getInstance().unregister(connectionPoolConfiguration);
+            clientRuntimeRegistered = false;
         }
 
         httpConnectorRegistry.unregisterSourceListener(streamID, siddhiAppName);
@@ -334,6 +337,9 @@ public class SSESource extends Source {
             clientConnector = null;
             log.debug("Server connector for url " + publisherURL + " disconnected.");
         }
+        if (metrics != null) {
+            metrics.unregister();
+        }
     }
 
     @Override
@@ -370,6 +376,22 @@ public class SSESource extends Source {
         return httpSSEResponseConnectorListener;
     }
 
+    /**
+     * Replace the client connector with a new one, closing the current connector.
+     */
+    public void resetClientConnector() {
+        ClientConnector oldClientConnector = clientConnector;
+        clientConnector = createClientConnector();
+        if (oldClientConnector != null) {
+            oldClientConnector.close();
+        }
+    }
+
+    private void registerClientRuntime() {
+        HttpClientConnectorRegistry.getInstance().register(configReader, connectionPoolConfiguration);
+        clientRuntimeRegistered = true;
+    }
+
     public ClientConnector createClientConnector() {
         Map<String, String> httpURLProperties = HttpSinkUtil.getURLProperties(eventSourceUrl);
         SenderConfiguration senderConfig = HttpSinkUtil
@@ -383,8 +405,8 @@ public class SSESource extends Source {
         senderConfig.setPoolConfiguration(connectionPoolConfiguration);
         Map<String, Object> bootStrapProperties = HttpSinkUtil
                 .populateTransportConfiguration(clientBootstrapConfiguration);
-        return new ClientConnector(eventSourceUrl, httpURLProperties,
-                httpConnectorFactory.createHttpClientConnector(bootStrapProperties, senderConfig));
+        return new ClientConnector(eventSourceUrl, httpURLProperties, HttpClientConnectorRegistry.getInstance()
+                .createHttpClientConnector(bootStrapProperties, senderConfig));
     }
 
     private HttpCarbonMessage generateCarbonMessage(List<Header> headers, String contentType,
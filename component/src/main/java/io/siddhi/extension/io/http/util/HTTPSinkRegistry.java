@@ -39,12 +39,7 @@ public class HTTPSinkRegistry {
     }
 
     public static SSEServerSink findAndGetSSESource(String streamId) {
-        for (SSEServerSink sseSink : sseSourceRegistry.values()) {
-            if (sseSink.matches(streamId)) {
-                return sseSink;
-            }
-        }
-        return null;
+        return streamId != null ? sseSourceRegistry.get(streamId) : null;
     }
 
 }
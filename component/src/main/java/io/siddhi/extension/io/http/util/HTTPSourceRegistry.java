@@ -22,7 +22,9 @@ import io.siddhi.extension.io.http.source.HttpCallResponseSource;
 import io.siddhi.extension.io.http.source.HttpServiceSource;
 import io.siddhi.extension.io.http.source.SSESource;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -31,7 +33,7 @@ import java.util.concurrent.ConcurrentHashMap;
 public class HTTPSourceRegistry {
 
     private static Map<String, HttpServiceSource> serviceSourceRegistry = new ConcurrentHashMap<>();
-    private static Map<String, HttpCallResponseSource> callResponseSourceRegistry = new ConcurrentHashMap<>();
+    private static Map<String, CallResponseSources> callResponseSourceRegistry = new ConcurrentHashMap<>();
     private static Map<String, SSESource> sseSourceRegistry = new ConcurrentHashMap<>();
 
     // handle service sources
@@ -47,21 +49,35 @@ public class HTTPSourceRegistry {
         serviceSourceRegistry.remove(sourceId);
     }
 
-    public static void registerCallResponseSource(String sinkId, String statusCode, HttpCallResponseSource source) {
-        callResponseSourceRegistry.put(sinkId + statusCode, source);
+    public static synchronized void registerCallResponseSource(String sinkId, String statusCode,
+                                                               HttpCallResponseSource source) {
+        CallResponseSources sources = callResponseSourceRegistry.get(sinkId);
+        Map<String, HttpCallResponseSource> statusCodeSources = sources != null ?
+                new LinkedHashMap<>(sources.statusCodeSources) : new LinkedHashMap<>();
+        statusCodeSources.put(statusCode, source);
+        callResponseSourceRegistry.put(sinkId, new CallResponseSources(statusCodeSources));
     }
 
-    public static void removeCallResponseSource(String sinkId, String statusCode) {
-        callResponseSourceRegistry.remove(sinkId + statusCode);
+    public static synchronized void removeCallResponseSource(String sinkId, String statusCode) {
+        CallResponseSources sources = callResponseSourceRegistry.get(sinkId);
+        if (sources == null || !sources.statusCodeSources.containsKey(statusCode)) {
+            return;
+        }
+        Map<String, HttpCallResponseSource> statusCodeSources = new LinkedHashMap<>(sources.statusCodeSources);
+        statusCodeSources.remove(statusCode);
+        if (statusCodeSources.isEmpty()) {
+            callResponseSourceRegistry.remove(sinkId);
+        } else {
+            callResponseSourceRegistry.put(sinkId, new CallResponseSources(statusCodeSources));
+        }
     }
 
     public static HttpCallResponseSource findAndGetResponseSource(String sinkId, String statusCode) {
-        for (HttpCallResponseSource responseSource : callResponseSourceRegistry.values()) {
-            if (responseSource.matches(sinkId, statusCode)) {
-                return responseSource;
-            }
+        if (sinkId == null || statusCode == null) {
+            return null;
         }
-        return null;
+        CallResponseSources sources = callResponseSourceRegistry.get(sinkId);
+        return sources != null ? sources.find(statusCode) : null;
     }
 
     public static void registerSSESource(String streamId, SSESource source) {
@@ -73,12 +89,34 @@ public class HTTPSourceRegistry {
     }
 
     public static SSESource findAndGetSSESource(String streamId) {
-        for (SSESource sseSource : sseSourceRegistry.values()) {
-            if (sseSource.matches(streamId)) {
-                return sseSource;
+        return streamId != null ? sseSourceRegistry.get(streamId) : null;
+    }
+
+    /**
+     * {@code CallResponseSources} holds the http-call-response sources of a sink, remembering the source resolved
+     * for each status code, or that none matched, as there are only a few status codes while a lookup is made for
+     * every response. The sources are never changed, a new instance is registered instead, so that the resolved
+     * sources stay valid.
+     */
+    private static class CallResponseSources {
+        private final Map<String, HttpCallResponseSource> statusCodeSources;
+        private final Map<String, Optional<HttpCallResponseSource>> resolvedSources = new ConcurrentHashMap<>();
+
+        private CallResponseSources(Map<String, HttpCallResponseSource> statusCodeSources) {
+            this.statusCodeSources = statusCodeSources;
+        }
+
+        private HttpCallResponseSource find(String statusCode) {
+            return resolvedSources.computeIfAbsent(statusCode, this::resolve).orElse(null);
+        }
+
+        private Optional<HttpCallResponseSource> resolve(String statusCode) {
+            for (HttpCallResponseSource responseSource : statusCodeSources.values()) {
+                if (responseSource.matchesStatusCode(statusCode)) {
+                    return Optional.of(responseSource);
+                }
             }
+            return Optional.empty();
         }
-        return null;
     }
-
 }
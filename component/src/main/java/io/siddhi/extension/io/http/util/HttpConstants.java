@@ -56,6 +56,7 @@ public class HttpConstants {
     public static final String APPLICATION_XML = "application/xml";
     public static final String APPLICATION_JSON = "application/json";
     public static final String APPLICATION_URL_ENCODED = "application/x-www-form-urlencoded";
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
     public static final String DEFAULT_ENCODING = "UTF-8";
     public static final String DOWNLOAD_ENABLED = "downloading.enabled";
     public static final String DEFAULT_DOWNLOAD_ENABLED_VALUE = "false";
@@ -214,6 +215,7 @@ public class HttpConstants {
     public static final int AUTHENTICATION_FAIL_CODE = 401;
     public static final int PERSISTENT_ACCESS_FAIL_CODE = 400;
     public static final int INTERNAL_SERVER_FAIL_CODE = 500;
+    public static final int SERVICE_UNAVAILABLE_CODE = 503;
     public static final String OAUTH_CLIENT_ID = "client_id";
     public static final String OAUTH_CLIENT_SECRET = "client_secret";
     public static final String RECEIVER_OAUTH_USERNAME = "oauth.username";
@@ -228,6 +230,7 @@ public class HttpConstants {
     public static final String BEARER = "Bearer ";
     public static final String ACCESS_TOKEN = "access_token";
     public static final String REFRESH_TOKEN = "refresh_token";
+    public static final String EXPIRES_IN = "expires_in";
     public static final String BLOCKING_IO = "blocking.io";
 
     //pool configurations
@@ -251,6 +254,92 @@ public class HttpConstants {
     public static final String DEFAULT_EXHAUSTED_ACTION = "1"; // block when exhausted
     public static final String MAX_WAIT_TIME = "max.wait.time";
     public static final String DEFAULT_MAX_WAIT_TIME = "60000";
+    public static final String HTTP2_MAX_ACTIVE_STREAMS = "http2.max.active.streams.per.connection";
+    public static final String DEFAULT_HTTP2_MAX_ACTIVE_STREAMS = "100";
+    public static final String CLIENT_CONNECTOR_CACHE_SIZE = "client.connector.cache.size";
+    public static final String DEFAULT_CLIENT_CONNECTOR_CACHE_SIZE = "100";
+    public static final String CLIENT_CONNECTOR_CACHE_IDLE_TIMEOUT = "client.connector.cache.idle.timeout";
+    public static final String DEFAULT_CLIENT_CONNECTOR_CACHE_IDLE_TIMEOUT = "300000";
+    public static final String BATCH_SIZE = "batch.size";
+    public static final String DEFAULT_BATCH_SIZE = "1";
+    public static final String BATCH_BYTES = "batch.bytes";
+    public static final String DEFAULT_BATCH_BYTES = "0";
+    public static final String BATCH_LINGER_MS = "batch.linger.ms";
+    public static final String DEFAULT_BATCH_LINGER_MS = "100";
+    public static final String BATCH_FORMAT = "batch.format";
+    public static final String BATCH_FORMAT_JSON = "json";
+    public static final String BATCH_FORMAT_NDJSON = "ndjson";
+    public static final String BATCH_FORMAT_TEXT = "text";
+    public static final String TOKEN_REFRESH_SKEW = "token.refresh.skew";
+    public static final String DEFAULT_TOKEN_REFRESH_SKEW = "30000";
+    public static final String RESPONSE_MODE = "response.mode";
+    public static final String RESPONSE_MODE_DISCARD = "discard";
+    public static final String RESPONSE_MODE_STATUS_ONLY = "status-only";
+    public static final String RESPONSE_MODE_FULL = "full";
+    public static final String MAX_INFLIGHT_REQUESTS = "max.inflight.requests";
+    public static final String DEFAULT_MAX_INFLIGHT_REQUESTS = "0";
+    public static final String INFLIGHT_REQUEST_WAIT_TIME = "inflight.request.wait.time";
+    public static final String DEFAULT_INFLIGHT_REQUEST_WAIT_TIME = "0";
+    public static final String RETRY_MAX_ATTEMPTS = "retry.max.attempts";
+    public static final String DEFAULT_RETRY_MAX_ATTEMPTS = "1";
+    public static final String RETRY_BACKOFF_INITIAL = "retry.backoff.initial";
+    public static final String DEFAULT_RETRY_BACKOFF_INITIAL = "100";
+    public static final String RETRY_BACKOFF_MAX = "retry.backoff.max";
+    public static final String DEFAULT_RETRY_BACKOFF_MAX = "10000";
+    public static final String RETRY_STATUS_CODES = "retry.status.codes";
+    public static final String DEFAULT_RETRY_STATUS_CODES = "429,502,503,504";
+    public static final String CIRCUIT_BREAKER_FAILURE_THRESHOLD = "circuit.breaker.failure.threshold";
+    public static final String DEFAULT_CIRCUIT_BREAKER_FAILURE_THRESHOLD = "0";
+    public static final String CIRCUIT_BREAKER_OPEN_TIME = "circuit.breaker.open.time";
+    public static final String DEFAULT_CIRCUIT_BREAKER_OPEN_TIME = "30000";
+    public static final String PUBLISHER_URLS = "publisher.urls";
+    public static final String PUBLISHER_URLS_FILE = "publisher.urls.file";
+    public static final String LOAD_BALANCING_STRATEGY = "load.balancing.strategy";
+    public static final String DEFAULT_LOAD_BALANCING_STRATEGY = "round-robin";
+    public static final String ENDPOINT_EJECTION_TIME = "endpoint.ejection.time";
+    public static final String DEFAULT_ENDPOINT_EJECTION_TIME = "30000";
+    public static final String ENDPOINT_WARMUP_TIME = "endpoint.warmup.time";
+    public static final String DEFAULT_ENDPOINT_WARMUP_TIME = "30000";
+    public static final String HTTP_VERSION = "http.version";
+    public static final String HTTP_VERSION_1_1 = "1.1";
+    public static final String HTTP_VERSION_2_0 = "2.0";
+    public static final String HTTP2_PRIOR_KNOWLEDGE = "http2.prior.knowledge";
+    public static final String DEFAULT_HTTP2_PRIOR_KNOWLEDGE = "false";
+    public static final String COMPRESSION = "compression";
+    public static final String COMPRESSION_MIN_BYTES = "compression.min.bytes";
+    public static final String DEFAULT_COMPRESSION_MIN_BYTES = "1024";
+    public static final String SPOOL_DIR = "spool.dir";
+    public static final String SPOOL_MAX_SIZE = "spool.max.size";
+    public static final String DEFAULT_SPOOL_MAX_SIZE = "1073741824";
+    public static final String SPOOL_SEGMENT_SIZE = "spool.segment.size";
+    public static final String DEFAULT_SPOOL_SEGMENT_SIZE = "67108864";
+    public static final String SPOOL_FSYNC = "spool.fsync";
+    public static final String DEFAULT_SPOOL_FSYNC = "periodic";
+    public static final String SPOOL_REPLAY_RATE = "spool.replay.rate";
+    public static final String DEFAULT_SPOOL_REPLAY_RATE = "100";
+    public static final String HEDGE_DELAY = "hedge.delay";
+    public static final String DEFAULT_HEDGE_DELAY = "0";
+    public static final String HEDGE_DELAY_PERCENTILE = "hedge.delay.percentile";
+    public static final String DEFAULT_HEDGE_DELAY_PERCENTILE = "0";
+    public static final String HEDGE_BUDGET = "hedge.budget";
+    public static final String DEFAULT_HEDGE_BUDGET = "10";
+    public static final String RESPONSE_CACHE_MAX_ENTRIES = "response.cache.max.entries";
+    public static final String DEFAULT_RESPONSE_CACHE_MAX_ENTRIES = "0";
+    public static final String RESPONSE_CACHE_MAX_SIZE = "response.cache.max.size";
+    public static final String DEFAULT_RESPONSE_CACHE_MAX_SIZE = "67108864";
+    public static final String REQUEST_COALESCING = "request.coalescing";
+    public static final String DEFAULT_REQUEST_COALESCING = "false";
+    public static final String REQUEST_COALESCING_HEADERS = "request.coalescing.headers";
+    public static final String REQUEST_COALESCING_MAX_BODY_SIZE = "request.coalescing.max.body.size";
+    public static final String DEFAULT_REQUEST_COALESCING_MAX_BODY_SIZE = "1048576";
+    public static final String ORDERED_IO = "ordered.io";
+    public static final String ORDERED_IO_MAX_INFLIGHT_REQUESTS = "ordered.io.max.inflight.requests";
+    public static final String DEFAULT_ORDERED_IO_MAX_INFLIGHT_REQUESTS = "100";
+    public static final String ORDERED_IO_TIMEOUT = "ordered.io.timeout";
+    public static final String DEFAULT_ORDERED_IO_TIMEOUT = "30000";
+    public static final String DOWNLOAD_FSYNC = "download.fsync";
+    public static final String DOWNLOAD_TIMEOUT = "download.timeout";
+    public static final String DEFAULT_DOWNLOAD_TIMEOUT = "60000";
 
     public static final String HOSTNAME_VERIFICATION_ENABLED = "hostname.verification.enabled";
     public static final String SSL_VERIFICATION_DISABLED = "ssl.verification.disabled";
@@ -0,0 +1,87 @@
+/*
+ *  Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package io.siddhi.extension.io.http.metrics;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Test cases for the latency histogram.
+ */
+public class LatencyHistogramTestCase {
+
+    @Test
+    public void testBucketsCoverAllValues() {
+        for (long value = 0; value < 100000; value++) {
+            int bucket = LatencyHistogram.getBucket(value);
+            Assert.assertTrue(LatencyHistogram.getHighestValue(bucket) >= value);
+            Assert.assertTrue(bucket == 0 || LatencyHistogram.getHighestValue(bucket - 1) < value);
+        }
+        Assert.assertEquals(LatencyHistogram.getHighestValue(LatencyHistogram.getBucket(Long.MAX_VALUE)),
+                Long.MAX_VALUE);
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Assert.assertEquals(histogram.getValueAtPercentile(99), 0);
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        Assert.assertEquals(histogram.getCount(), 1000);
+        Assert.assertEquals(histogram.getMean(), 500500d);
+        assertWithinError(histogram.getValueAtPercentile(50), 500000);
+        assertWithinError(histogram.getValueAtPercentile(95), 950000);
+        assertWithinError(histogram.getValueAtPercentile(99), 990000);
+    }
+
+    @Test
+    public void testRollingWindow() {
+        AtomicLong clock = new AtomicLong();
+        RollingLatencyHistogram histogram = new RollingLatencyHistogram(1000, clock::get);
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(100000);
+        }
+        clock.set(1500);
+        histogram.record(1000);
+        // The previous interval is still within the window
+        Assert.assertEquals(histogram.getCount(), 101);
+        assertWithinError(histogram.getValueAtPercentile(50), 100000);
+
+        clock.set(2500);
+        histogram.record(1000);
+        // The first interval is dropped as its latencies are older than the window
+        Assert.assertEquals(histogram.getCount(), 2);
+        Assert.assertEquals(histogram.getMean(), 1000d);
+        assertWithinError(histogram.getValueAtPercentile(99), 1000);
+
+        clock.set(10000);
+        // Nothing was recorded for a whole interval
+        Assert.assertEquals(histogram.getCount(), 0);
+        Assert.assertEquals(histogram.getValueAtPercentile(99), 0);
+        Assert.assertEquals(histogram.getMean(), 0d);
+    }
+
+    private static void assertWithinError(long actual, long expected) {
+        Assert.assertTrue(actual >= expected && actual <= expected * 1.07, "Expected about " + expected +
+                ", but found " + actual);
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ *  Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package io.siddhi.extension.io.http.sink;
+
+import io.siddhi.core.exception.ConnectionUnavailableException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.HttpClientConnector;
+import org.wso2.transport.http.netty.contract.HttpConnectorListener;
+import org.wso2.transport.http.netty.contract.HttpResponseFuture;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test cases for caching the client connectors of dynamic publisher urls.
+ */
+public class ClientConnectorCacheTestCase {
+    private final List<FakeConnector> connectors = new ArrayList<>();
+
+    private ClientConnectorCache createCache(int maxSize) {
+        return new ClientConnectorCache(maxSize, 0, httpURLProperties -> {
+            FakeConnector connector = new FakeConnector();
+            connectors.add(connector);
+            return connector.httpClientConnector;
+        }, null);
+    }
+
+    @Test
+    public void testConnectorSharedByHost() {
+        ClientConnectorCache cache = createCache(2);
+        ClientConnector first = cache.getClientConnector("http://localhost:8005/abc");
+        ClientConnector second = cache.getClientConnector("http://localhost:8005/xyz");
+        Assert.assertEquals(connectors.size(), 1, "Connector is not shared by the urls of the same host");
+        Assert.assertEquals(first.getPublisherURL(), "http://localhost:8005/abc");
+        Assert.assertEquals(second.getPublisherURL(), "http://localhost:8005/xyz");
+        cache.getClientConnector("http://localhost:8006/abc");
+        Assert.assertEquals(connectors.size(), 2);
+        Assert.assertEquals(cache.size(), 2);
+    }
+
+    @Test
+    public void testEvictionDuringUse() {
+        ClientConnectorCache cache = createCache(1);
+        AtomicInteger responses = new AtomicInteger();
+        ClientConnector clientConnector = cache.getClientConnector("http://localhost:8005/abc");
+        clientConnector.send(null, new CountingListener(responses));
+        cache.getClientConnector("http://localhost:8006/abc");
+        Assert.assertEquals(cache.size(), 1);
+        FakeConnector evicted = connectors.get(0);
+        Assert.assertFalse(evicted.closed, "Connector is closed while a request is in flight");
+
+        evicted.respond(0, null);
+        Assert.assertEquals(responses.get(), 1);
+        Assert.assertTrue(evicted.closed, "Evicted connector is not closed once its request completed");
+        Assert.assertFalse(connectors.get(1).closed);
+    }
+
+    @Test
+    public void testSendThroughClosedConnector() {
+        ClientConnectorCache cache = createCache(1);
+        AtomicInteger responses = new AtomicInteger();
+        ClientConnector clientConnector = cache.getClientConnector("http://localhost:8005/abc");
+        cache.invalidate("http://localhost:8005/abc");
+        Assert.assertTrue(connectors.get(0).closed);
+
+        // The request is sent through the connector cached in place of the closed one
+        clientConnector.send(null, new CountingListener(responses));
+        Assert.assertEquals(connectors.size(), 2);
+        Assert.assertEquals(connectors.get(0).listeners.size(), 0);
+        connectors.get(1).respond(0, null);
+        Assert.assertEquals(responses.get(), 1);
+    }
+
+    @Test
+    public void testInvalidationOnConsecutiveFailures() {
+        ClientConnectorCache cache = createCache(2);
+        AtomicInteger responses = new AtomicInteger();
+        ClientConnector clientConnector = cache.getClientConnector("http://localhost:8005/abc");
+        FakeConnector connector = connectors.get(0);
+        for (int i = 0; i <= ClientConnectorCache.MAX_CONSECUTIVE_FAILURES * 2; i++) {
+            clientConnector.send(null, new CountingListener(responses));
+        }
+        // A successful response in between resets the failures
+        for (int i = 0; i < ClientConnectorCache.MAX_CONSECUTIVE_FAILURES - 1; i++) {
+            connector.respond(i, new IOException("Connection reset by peer"));
+        }
+        connector.respond(ClientConnectorCache.MAX_CONSECUTIVE_FAILURES - 1, null);
+        Assert.assertSame(cache.getClientConnector("http://localhost:8005/abc").getHttpURLProperties(),
+                clientConnector.getHttpURLProperties());
+        Assert.assertEquals(connectors.size(), 1, "Connector is evicted before reaching the failure threshold");
+
+        for (int i = ClientConnectorCache.MAX_CONSECUTIVE_FAILURES;
+             i < ClientConnectorCache.MAX_CONSECUTIVE_FAILURES * 2; i++) {
+            connector.respond(i, new IOException("Connection reset by peer"));
+        }
+        Assert.assertEquals(cache.size(), 0, "Connector is not evicted after consecutive failures");
+        Assert.assertFalse(connector.closed, "Connector is closed while a request is in flight");
+        connector.respond(ClientConnectorCache.MAX_CONSECUTIVE_FAILURES * 2, null);
+        Assert.assertTrue(connector.closed);
+        Assert.assertEquals(responses.get(), ClientConnectorCache.MAX_CONSECUTIVE_FAILURES * 2 + 1);
+
+        cache.getClientConnector("http://localhost:8005/abc");
+        Assert.assertEquals(connectors.size(), 2);
+    }
+
+    @Test
+    public void testClear() {
+        ClientConnectorCache cache = createCache(2);
+        cache.getClientConnector("http://localhost:8005/abc").send(null, new CountingListener(new AtomicInteger()));
+        cache.getClientConnector("http://localhost:8006/abc");
+        cache.clear();
+        Assert.assertEquals(cache.size(), 0);
+        Assert.assertFalse(connectors.get(0).closed, "Connector is closed while a request is in flight");
+        Assert.assertTrue(connectors.get(1).closed);
+        connectors.get(0).respond(0, new IOException("Connection refused"));
+        Assert.assertTrue(connectors.get(0).closed);
+    }
+
+    @Test
+    public void testInflightRequestWindowKeptOnInvalidation() throws ConnectionUnavailableException {
+        ClientConnectorCache cache = new ClientConnectorCache(2, 0, httpURLProperties -> {
+            FakeConnector connector = new FakeConnector();
+            connectors.add(connector);
+            return connector.httpClientConnector;
+        }, null, 2);
+        AtomicInteger responses = new AtomicInteger();
+        ClientConnector clientConnector = cache.getClientConnector("http://localhost:8005/abc");
+        InflightRequestWindow window = clientConnector.getInflightRequestWindow();
+        clientConnector.send(null, window.acquire(0, new CountingListener(responses), "http://localhost:8005/abc"));
+        cache.invalidate("http://localhost:8005/abc");
+
+        // The request in flight on the invalidated connector still holds a permit of the endpoint
+        ClientConnector replacement = cache.getClientConnector("http://localhost:8005/abc");
+        Assert.assertEquals(connectors.size(), 2);
+        Assert.assertSame(replacement.getInflightRequestWindow(), window,
+                "In-flight request window is not kept for the connector replacing an invalidated one");
+        replacement.send(null, window.acquire(0, new CountingListener(responses), "http://localhost:8005/abc"));
+        try {
+            window.acquire(0, new CountingListener(responses), "http://localhost:8005/abc");
+            Assert.fail("In-flight requests of the endpoint exceed the window");
+        } catch (ConnectionUnavailableException e) {
+            Assert.assertEquals(window.getInflightRequests(), 2);
+        }
+
+        connectors.get(0).respond(0, null);
+        connectors.get(1).respond(0, null);
+        Assert.assertEquals(responses.get(), 2);
+        Assert.assertEquals(window.getInflightRequests(), 0);
+        cache.invalidate("http://localhost:8005/abc");
+        cache.getClientConnector("http://localhost:8006/abc");
+        Assert.assertNotSame(cache.getClientConnector("http://localhost:8005/abc").getInflightRequestWindow(), window,
+                "Unused in-flight request window of an evicted connector is not removed");
+    }
+
+    private static class FakeConnector implements InvocationHandler {
+        private final List<HttpConnectorListener> listeners = new ArrayList<>();
+        private final HttpClientConnector httpClientConnector = (HttpClientConnector) Proxy.newProxyInstance(
+                HttpClientConnector.class.getClassLoader(), new Class[]{HttpClientConnector.class}, this);
+        private boolean closed;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "send":
+                    Assert.assertFalse(closed, "Request is sent through a closed connector");
+                    return Proxy.newProxyInstance(HttpResponseFuture.class.getClassLoader(),
+                            new Class[]{HttpResponseFuture.class}, (future, futureMethod, futureArgs) -> {
+                                if ("setHttpConnectorListener".equals(futureMethod.getName())) {
+                                    listeners.add((HttpConnectorListener) futureArgs[0]);
+                                }
+                                return null;
+                            });
+                case "close":
+                    closed = true;
+                    return true;
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "FakeConnector@" + System.identityHashCode(proxy);
+                default:
+                    return null;
+            }
+        }
+
+        void respond(int request, Throwable throwable) {
+            if (throwable == null) {
+                listeners.get(request).onMessage(null);
+            } else {
+                listeners.get(request).onError(throwable);
+            }
+        }
+    }
+
+    private static class CountingListener implements HttpConnectorListener {
+        private final AtomicInteger responses;
+
+        CountingListener(AtomicInteger responses) {
+            this.responses = responses;
+        }
+
+        @Override
+        public void onMessage(HttpCarbonMessage httpCarbonMessage) {
+            responses.incrementAndGet();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            responses.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ *  Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package io.siddhi.extension.io.http.sink;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test cases for deciding when the requests of the http-call sink are hedged.
+ */
+public class HedgingPolicyTestCase {
+    private static final String URL_1 = "http://localhost:8005/abc";
+    private static final String URL_2 = "http://localhost:8006/abc";
+
+    @Test
+    public void testFixedDelay() {
+        HedgingPolicy hedgingPolicy = new HedgingPolicy(50, 0, 10);
+        for (int i = 0; i < 200; i++) {
+            hedgingPolicy.recordLatency(URL_1, TimeUnit.MILLISECONDS.toNanos(5));
+        }
+        Assert.assertEquals(hedgingPolicy.getDelay(URL_1), TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    public void testHedgeBudget() {
+        HedgingPolicy hedgingPolicy = new HedgingPolicy(50, 0, 10);
+        Assert.assertFalse(hedgingPolicy.tryAcquire());
+        for (int i = 0; i < 100; i++) {
+            hedgingPolicy.getDelay(URL_1);
+        }
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(hedgingPolicy.tryAcquire());
+        }
+        Assert.assertFalse(hedgingPolicy.tryAcquire());
+        for (int i = 0; i < 10; i++) {
+            hedgingPolicy.getDelay(URL_1);
+        }
+        Assert.assertTrue(hedgingPolicy.tryAcquire());
+        Assert.assertFalse(hedgingPolicy.tryAcquire());
+    }
+
+    @Test
+    public void testAdaptiveDelay() {
+        HedgingPolicy hedgingPolicy = new HedgingPolicy(50, 95, 10);
+        for (int i = 1; i < 100; i++) {
+            hedgingPolicy.recordLatency(URL_1, TimeUnit.MILLISECONDS.toNanos(i));
+        }
+        // The fixed delay is used till enough latencies are observed
+        Assert.assertEquals(hedgingPolicy.getDelay(URL_1), TimeUnit.MILLISECONDS.toNanos(50));
+        hedgingPolicy.recordLatency(URL_1, TimeUnit.MILLISECONDS.toNanos(100));
+        long delay = hedgingPolicy.getDelay(URL_1);
+        Assert.assertTrue(delay >= TimeUnit.MILLISECONDS.toNanos(95), "Delay was " + delay);
+        Assert.assertTrue(delay <= TimeUnit.MILLISECONDS.toNanos(102), "Delay was " + delay);
+        Assert.assertEquals(hedgingPolicy.getDelay(URL_2), TimeUnit.MILLISECONDS.toNanos(50));
+    }
+}
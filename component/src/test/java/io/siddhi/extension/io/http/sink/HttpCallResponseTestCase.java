@@ -17,9 +17,11 @@
  */
 package io.siddhi.extension.io.http.sink;
 
+import com.sun.net.httpserver.HttpServer;
 import io.siddhi.core.SiddhiAppRuntime;
 import io.siddhi.core.SiddhiManager;
 import io.siddhi.core.event.Event;
+import io.siddhi.core.exception.SiddhiAppCreationException;
 import io.siddhi.core.stream.input.InputHandler;
 import io.siddhi.core.stream.output.StreamCallback;
 import io.siddhi.core.util.EventPrinter;
@@ -34,10 +36,19 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class HttpCallResponseTestCase {
     private static final Logger log = LogManager.getLogger(HttpCallResponseTestCase.class);
+    private static final String JSON_RESPONSE_ETAG = "\"v1\"";
 
     private AtomicInteger eventCount = new AtomicInteger(0);
     private String downloadPath;
@@ -413,4 +424,141 @@ public class HttpCallResponseTestCase {
         siddhiAppRuntime.shutdown();
         httpServerListenerHandler.shutdown();
     }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void testHTTPCallResponseInvalidStatusCode() {
+        log.info("Creating test for rejecting an invalid http.status.code regex in http-call-response source.");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inStreamDefinition = "" +
+                "define stream FooStream (message String);"
+                + "@sink(type='http-call',publisher.url='http://localhost:8005/abc',method='POST',"
+                + "sink.id='invalid-status-code', @map(type='json', @payload('{{message}}'))) "
+                + "define stream BarStream (message String);"
+                + "@source(type='http-call-response', sink.id='invalid-status-code', http.status.code='2(0',"
+                + "@map(type='json'))"
+                + "define stream responseStream(name String, id int);";
+        String query = ("@info(name = 'query') "
+                + "from FooStream "
+                + "select message "
+                + "insert into BarStream;"
+        );
+        try {
+            siddhiManager.createSiddhiAppRuntime(inStreamDefinition + query);
+        } finally {
+            siddhiManager.shutdown();
+        }
+    }
+
+    @Test(dependsOnMethods = "testHTTPRequestResponse6")
+    public void testHTTPRequestCoalescingWithoutHeaders() throws Exception {
+        log.info("Send coalesced GET requests from an http-call sink without headers and receive the responses");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inStreamDefinition = "" +
+                "define stream FooStream (name String);"
+                + "@sink(type='http-call',publisher.url='http://localhost:8005/abc',method='GET',"
+                + "sink.id='coalescing', request.coalescing='true', @map(type='json')) "
+                + "define stream BarStream (name String);"
+                + "@source(type='http-call-response', sink.id='coalescing', "
+                + "@map(type='json',@attributes(name='name', id='id')))"
+                + "define stream responseStream(name String, id int);";
+        String query = ("@info(name = 'query') "
+                + "from FooStream "
+                + "select name "
+                + "insert into BarStream;"
+        );
+        List<String> ifNoneMatchHeaders = Collections.synchronizedList(new ArrayList<>());
+        HttpServer server = startJsonServer(ifNoneMatchHeaders);
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inStreamDefinition + query);
+        try {
+            siddhiAppRuntime.addCallback("responseStream", new StreamCallback() {
+                @Override
+                public void receive(Event[] events) {
+                    for (Event event : events) {
+                        Assert.assertEquals(event.getData(0), "wso2");
+                        Assert.assertEquals(event.getData(1), 1234);
+                        eventCount.incrementAndGet();
+                    }
+                }
+            });
+            siddhiAppRuntime.start();
+            InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+            fooStream.send(new Object[]{"wso2"});
+            fooStream.send(new Object[]{"wso2"});
+            SiddhiTestHelper.waitForEvents(100, 2, eventCount, 10000);
+            Assert.assertEquals(eventCount.get(), 2);
+        } finally {
+            siddhiAppRuntime.shutdown();
+            server.stop(1);
+        }
+    }
+
+    @Test(dependsOnMethods = "testHTTPRequestCoalescingWithoutHeaders")
+    public void testHTTPResponseCacheRevalidationWithoutHeaders() throws Exception {
+        log.info("Revalidate a cached response of an http-call sink without headers");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String inStreamDefinition = "" +
+                "define stream FooStream (name String);"
+                + "@sink(type='http-call',publisher.url='http://localhost:8005/abc',method='GET',"
+                + "sink.id='caching', response.cache.max.entries='10', @map(type='json')) "
+                + "define stream BarStream (name String);"
+                + "@source(type='http-call-response', sink.id='caching', "
+                + "@map(type='json',@attributes(name='name', id='id')))"
+                + "define stream responseStream(name String, id int);";
+        String query = ("@info(name = 'query') "
+                + "from FooStream "
+                + "select name "
+                + "insert into BarStream;"
+        );
+        List<String> ifNoneMatchHeaders = Collections.synchronizedList(new ArrayList<>());
+        HttpServer server = startJsonServer(ifNoneMatchHeaders);
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inStreamDefinition + query);
+        try {
+            siddhiAppRuntime.addCallback("responseStream", new StreamCallback() {
+                @Override
+                public void receive(Event[] events) {
+                    for (Event event : events) {
+                        Assert.assertEquals(event.getData(0), "wso2");
+                        Assert.assertEquals(event.getData(1), 1234);
+                        eventCount.incrementAndGet();
+                    }
+                }
+            });
+            siddhiAppRuntime.start();
+            InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+            fooStream.send(new Object[]{"wso2"});
+            SiddhiTestHelper.waitForEvents(100, 1, eventCount, 10000);
+            // The cached response has an ETag but no max-age, hence it is revalidated and served from the cache
+            fooStream.send(new Object[]{"wso2"});
+            SiddhiTestHelper.waitForEvents(100, 2, eventCount, 10000);
+            Assert.assertEquals(eventCount.get(), 2);
+            Assert.assertEquals(ifNoneMatchHeaders, Arrays.asList("null", JSON_RESPONSE_ETAG));
+        } finally {
+            siddhiAppRuntime.shutdown();
+            server.stop(1);
+        }
+    }
+
+    /**
+     * Start a server responding the GET requests to /abc with a json body and an ETag, and with 304 to the requests
+     * revalidating the ETag.
+     */
+    private static HttpServer startJsonServer(List<String> ifNoneMatchHeaders) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(8005), 5);
+        server.createContext("/abc", exchange -> {
+            String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            ifNoneMatchHeaders.add(String.valueOf(ifNoneMatch));
+            exchange.getResponseHeaders().add("ETag", JSON_RESPONSE_ETAG);
+            if (JSON_RESPONSE_ETAG.equals(ifNoneMatch)) {
+                exchange.sendResponseHeaders(HttpURLConnection.HTTP_NOT_MODIFIED, -1);
+            } else {
+                byte[] response = "{\"name\":\"wso2\", \"id\":1234}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, response.length);
+                exchange.getResponseBody().write(response);
+            }
+            exchange.close();
+        });
+        server.start();
+        return server;
+    }
 }
@@ -0,0 +1,174 @@
+/*
+ *  Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package io.siddhi.extension.io.http.sink;
+
+import io.siddhi.core.SiddhiAppRuntime;
+import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.exception.SiddhiAppCreationException;
+import io.siddhi.core.stream.input.InputHandler;
+import io.siddhi.extension.io.http.sink.util.HttpServerListenerHandler;
+import io.siddhi.extension.map.json.sinkmapper.JsonSinkMapper;
+import io.siddhi.extension.map.text.sinkmapper.TextSinkMapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.Logger;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Test cases for batching events in http sink.
+ */
+public class HttpSinkBatchingTestCase {
+    private static final Logger log = (Logger) LogManager.getLogger(HttpSinkBatchingTestCase.class);
+
+    /**
+     * Creating test for publishing a batch of json events as a json array once the batch is full.
+     *
+     * @throws Exception Interrupted exception
+     */
+    @Test
+    public void testHTTPSinkJsonBatch() throws Exception {
+        log.info("Creating test for publishing a batch of json events as a json array.");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setExtension("json-output-mapper", JsonSinkMapper.class);
+        String inStreamDefinition = "Define stream FooStream (message String);"
+                + "@sink(type='http',publisher.url='http://localhost:8005/abc',method='POST',"
+                + "batch.size='2', batch.linger.ms='60000',"
+                + "@map(type='json', @payload('{{message}}'))) "
+                + "Define stream BarStream (message String);";
+        String query = ("@info(name = 'query') "
+                + "from FooStream "
+                + "select message "
+                + "insert into BarStream;"
+        );
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inStreamDefinition + query);
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+        HttpServerListenerHandler lst = new HttpServerListenerHandler(8005);
+        lst.run();
+        fooStream.send(new Object[]{"{\"symbol\":\"WSO2\"}"});
+        Thread.sleep(500);
+        Assert.assertFalse(lst.getServerListener().isMessageArrive(), "Incomplete batch is sent before linger time");
+        fooStream.send(new Object[]{"{\"symbol\":\"IBM\"}"});
+        waitForMessage(lst);
+        Assert.assertEquals(lst.getServerListener().getHeaders().getFirst("Content-Type"), "application/json");
+        Assert.assertEquals(lst.getServerListener().getData(), "[{\"symbol\":\"WSO2\"},{\"symbol\":\"IBM\"}]\n");
+        siddhiAppRuntime.shutdown();
+        lst.shutdown();
+    }
+
+    /**
+     * Creating test for publishing an incomplete batch of text events once the linger time elapses.
+     *
+     * @throws Exception Interrupted exception
+     */
+    @Test(dependsOnMethods = "testHTTPSinkJsonBatch")
+    public void testHTTPSinkTextBatchLinger() throws Exception {
+        log.info("Creating test for publishing an incomplete batch of text events after the linger time.");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setExtension("text-output-mapper", TextSinkMapper.class);
+        String inStreamDefinition = "Define stream FooStream (message String);"
+                + "@sink(type='http',publisher.url='http://localhost:8005/abc',method='POST',"
+                + "batch.size='10', batch.linger.ms='200',"
+                + "@map(type='text', @payload('{{message}}'))) "
+                + "Define stream BarStream (message String);";
+        String query = ("@info(name = 'query') "
+                + "from FooStream "
+                + "select message "
+                + "insert into BarStream;"
+        );
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inStreamDefinition + query);
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+        HttpServerListenerHandler lst = new HttpServerListenerHandler(8005);
+        lst.run();
+        fooStream.send(new Object[]{"WSO2"});
+        fooStream.send(new Object[]{"IBM"});
+        waitForMessage(lst);
+        Assert.assertEquals(lst.getServerListener().getHeaders().getFirst("Content-Type"), "text/plain");
+        Assert.assertEquals(lst.getServerListener().getData(), "WSO2\nIBM\n");
+        siddhiAppRuntime.shutdown();
+        lst.shutdown();
+    }
+
+    /**
+     * Creating test for publishing a batch of json events as newline delimited json.
+     *
+     * @throws Exception Interrupted exception
+     */
+    @Test(dependsOnMethods = "testHTTPSinkTextBatchLinger")
+    public void testHTTPSinkNdjsonBatch() throws Exception {
+        log.info("Creating test for publishing a batch of json events as newline delimited json.");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setExtension("json-output-mapper", JsonSinkMapper.class);
+        String inStreamDefinition = "Define stream FooStream (message String);"
+                + "@sink(type='http',publisher.url='http://localhost:8005/abc',method='POST',"
+                + "batch.size='2', batch.format='ndjson',"
+                + "@map(type='json', @payload('{{message}}'))) "
+                + "Define stream BarStream (message String);";
+        String query = ("@info(name = 'query') "
+                + "from FooStream "
+                + "select message "
+                + "insert into BarStream;"
+        );
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inStreamDefinition + query);
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+        HttpServerListenerHandler lst = new HttpServerListenerHandler(8005);
+        lst.run();
+        fooStream.send(new Object[]{"{\"symbol\":\"WSO2\"}"});
+        fooStream.send(new Object[]{"{\"symbol\":\"IBM\"}"});
+        waitForMessage(lst);
+        Assert.assertEquals(lst.getServerListener().getHeaders().getFirst("Content-Type"),
+                "application/x-ndjson");
+        Assert.assertEquals(lst.getServerListener().getData(), "{\"symbol\":\"WSO2\"}\n{\"symbol\":\"IBM\"}\n");
+        siddhiAppRuntime.shutdown();
+        lst.shutdown();
+    }
+
+    @Test(dependsOnMethods = "testHTTPSinkNdjsonBatch", expectedExceptions = SiddhiAppCreationException.class)
+    public void testHTTPCallSinkBatchWithDownload() {
+        log.info("Creating test for rejecting batching together with downloading in http-call sink.");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setExtension("json-output-mapper", JsonSinkMapper.class);
+        String inStreamDefinition = "Define stream FooStream (message String);"
+                + "@sink(type='http-call',publisher.url='http://localhost:8005/abc',method='POST',"
+                + "sink.id='batch', batch.size='2', downloading.enabled='true', download.path='/tmp/batch.txt',"
+                + "@map(type='json', @payload('{{message}}'))) "
+                + "Define stream BarStream (message String);";
+        String query = ("@info(name = 'query') "
+                + "from FooStream "
+                + "select message "
+                + "insert into BarStream;"
+        );
+        try {
+            siddhiManager.createSiddhiAppRuntime(inStreamDefinition + query);
+        } finally {
+            siddhiManager.shutdown();
+        }
+    }
+
+    private void waitForMessage(HttpServerListenerHandler lst) throws InterruptedException {
+        int waitTime = 0;
+        while (!lst.getServerListener().isMessageArrive() && waitTime < 10000) {
+            Thread.sleep(10);
+            waitTime += 10;
+        }
+        Assert.assertTrue(lst.getServerListener().isMessageArrive(), "Batch is not received");
+    }
+}
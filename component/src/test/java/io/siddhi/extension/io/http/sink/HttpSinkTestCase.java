@@ -32,9 +32,11 @@ import org.apache.logging.log4j.core.Logger;
 import org.testng.Assert;
 import org.testng.annotations.BeforeTest;
 import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contractimpl.sender.channel.pool.ConnectionManager;
 
 import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -204,4 +206,113 @@ public class HttpSinkTestCase {
             siddhiAppRuntime.shutdown();
         }
     }
+
+    /**
+     * Creating test for a sink sending events after another sink sharing its client runtime is undeployed.
+     *
+     * @throws Exception Interrupted exception
+     */
+    @Test(dependsOnMethods = "testHTTPConnectionFailure")
+    public void testSharedClientRuntimeAfterUndeploy() throws Exception {
+        log.info("Creating test for a sink sending events after another sink sharing its client runtime is " +
+                "undeployed.");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setExtension("xml-output-mapper", XMLSinkMapper.class);
+        String streams = "Define stream FooStream (message String,method String,headers String);"
+                + "@sink(type='http',publisher.url='http://localhost:8005/abc',method='{{method}}',"
+                + "headers='{{headers}}',"
+                + "@map(type='xml', @payload('{{message}}'))) "
+                + "Define stream BarStream (message String,method String,headers String);";
+        String query = (
+                "@info(name = 'query') "
+                        + "from FooStream "
+                        + "select message,method,headers "
+                        + "insert into BarStream;"
+        );
+        HttpClientConnectorRegistry registry = HttpClientConnectorRegistry.getInstance();
+        int connectionManagers = registry.getConnectionManagerCount();
+        SiddhiAppRuntime firstAppRuntime = siddhiManager.createSiddhiAppRuntime("@App:name('FirstApp') " +
+                streams + query);
+        SiddhiAppRuntime secondAppRuntime = siddhiManager.createSiddhiAppRuntime("@App:name('SecondApp') " +
+                streams + query);
+        HttpServerListenerHandler lst = new HttpServerListenerHandler(8005);
+        lst.run();
+        try {
+            firstAppRuntime.start();
+            secondAppRuntime.start();
+            Assert.assertEquals(registry.getConnectionManagerCount(), connectionManagers + 1,
+                    "Connection manager is not shared by the sinks with the same configuration");
+            firstAppRuntime.getInputHandler("FooStream").send(new Object[]{payload, "POST", "'Name:John'"});
+            waitForMessage(lst);
+            Assert.assertEquals(lst.getServerListener().getData(), expected);
+
+            firstAppRuntime.shutdown();
+            Assert.assertTrue(registry.isActive(), "Client runtime is shut down while a sink is deployed");
+            Assert.assertEquals(registry.getConnectionManagerCount(), connectionManagers + 1);
+            InputHandler fooStream = secondAppRuntime.getInputHandler("FooStream");
+            for (int i = 0; i < 3; i++) {
+                fooStream.send(new Object[]{payload, "POST", "'Name:John'"});
+                waitForMessage(lst);
+                Assert.assertEquals(lst.getServerListener().getData(), expected);
+            }
+            List<ConnectionManager> sharedManagers = registry.getConnectionManagers();
+            Assert.assertTrue(HttpClientConnectorRegistry.getIdleConnectionCount(sharedManagers) > 0,
+                    "Connection is not returned to the shared connection pool");
+            secondAppRuntime.shutdown();
+            Assert.assertEquals(registry.getConnectionManagerCount(), connectionManagers);
+            Assert.assertEquals(HttpClientConnectorRegistry.getIdleConnectionCount(sharedManagers), 0,
+                    "Idle connections are not closed when the connection manager is released");
+        } finally {
+            siddhiManager.shutdown();
+            lst.shutdown();
+        }
+    }
+
+    /**
+     * Creating test for an HTTP/2 sink falling back to HTTP/1.1 when the endpoint does not accept the h2c upgrade.
+     *
+     * @throws Exception Interrupted exception
+     */
+    @Test(dependsOnMethods = "testSharedClientRuntimeAfterUndeploy")
+    public void testHTTP2UpgradeFallback() throws Exception {
+        log.info("Creating test for an HTTP/2 sink falling back to HTTP/1.1 when the endpoint does not accept the " +
+                "h2c upgrade.");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        siddhiManager.setExtension("xml-output-mapper", XMLSinkMapper.class);
+        String inStreamDefinition = "Define stream FooStream (message String,method String,headers String);"
+                + "@sink(type='http',publisher.url='http://localhost:8005/abc',method='{{method}}',"
+                + "headers='{{headers}}',http.version='2.0',"
+                + "@map(type='xml', @payload('{{message}}'))) "
+                + "Define stream BarStream (message String,method String,headers String);";
+        String query = (
+                "@info(name = 'query') "
+                        + "from FooStream "
+                        + "select message,method,headers "
+                        + "insert into BarStream;"
+        );
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(inStreamDefinition + query);
+        HttpServerListenerHandler lst = new HttpServerListenerHandler(8005);
+        lst.run();
+        try {
+            siddhiAppRuntime.start();
+            siddhiAppRuntime.getInputHandler("FooStream").send(new Object[]{payload, "POST", "'Name:John'"});
+            waitForMessage(lst);
+            // The test server is HTTP/1.1 only, hence it answers the upgrade request over HTTP/1.1
+            Headers headers = lst.getServerListener().getHeaders();
+            Assert.assertEquals(headers.getFirst("Upgrade"), "h2c");
+            Assert.assertNotNull(headers.getFirst("HTTP2-Settings"));
+            Assert.assertEquals(lst.getServerListener().getData(), expected);
+        } finally {
+            siddhiManager.shutdown();
+            lst.shutdown();
+        }
+    }
+
+    private void waitForMessage(HttpServerListenerHandler lst) throws InterruptedException {
+        long timeout = System.currentTimeMillis() + 10000;
+        while (!lst.getServerListener().isMessageArrive() && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(lst.getServerListener().isMessageArrive(), "Event is not received by the endpoint");
+    }
 }
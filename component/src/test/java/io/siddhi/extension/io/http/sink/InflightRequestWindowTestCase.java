@@ -0,0 +1,90 @@
+/*
+ *  Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package io.siddhi.extension.io.http.sink;
+
+import io.siddhi.core.exception.ConnectionUnavailableException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.HttpConnectorListener;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test cases for bounding the in-flight requests of an endpoint.
+ */
+public class InflightRequestWindowTestCase {
+
+    @Test
+    public void testPermitReleasedOnResponse() throws Exception {
+        InflightRequestWindow window = new InflightRequestWindow(2);
+        AtomicInteger responses = new AtomicInteger();
+        InflightRequestWindow.PermitReleasingListener first = window.acquire(0, new CountingListener(responses),
+                "http://localhost:8005/abc");
+        InflightRequestWindow.PermitReleasingListener second = window.acquire(0, new CountingListener(responses),
+                "http://localhost:8005/abc");
+        Assert.assertEquals(window.getInflightRequests(), 2);
+        try {
+            window.acquire(0, new CountingListener(responses), "http://localhost:8005/abc");
+            Assert.fail("Request is allowed beyond the maximum in-flight requests");
+        } catch (ConnectionUnavailableException e) {
+            // Expected as the window is full
+        }
+        first.onMessage(null);
+        first.release();
+        second.onError(new Exception("Connection refused"));
+        Assert.assertEquals(responses.get(), 2);
+        Assert.assertEquals(window.getInflightRequests(), 0, "Permits are not released exactly once");
+    }
+
+    @Test
+    public void testWaitForPermit() throws Exception {
+        InflightRequestWindow window = new InflightRequestWindow(1);
+        InflightRequestWindow.PermitReleasingListener listener = window.acquire(0,
+                new CountingListener(new AtomicInteger()), "http://localhost:8005/abc");
+        new Thread(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            listener.onMessage(null);
+        }).start();
+        window.acquire(5000, new CountingListener(new AtomicInteger()), "http://localhost:8005/abc");
+        Assert.assertEquals(window.getInflightRequests(), 1);
+    }
+
+    private static class CountingListener implements HttpConnectorListener {
+        private final AtomicInteger responses;
+
+        CountingListener(AtomicInteger responses) {
+            this.responses = responses;
+        }
+
+        @Override
+        public void onMessage(HttpCarbonMessage httpCarbonMessage) {
+            responses.incrementAndGet();
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            responses.incrementAndGet();
+        }
+    }
+}
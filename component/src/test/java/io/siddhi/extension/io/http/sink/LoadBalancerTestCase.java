@@ -0,0 +1,124 @@
+/*
+ *  Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package io.siddhi.extension.io.http.sink;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.HttpConnectorListener;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Test cases for load balancing the requests of a sink across multiple urls.
+ */
+public class LoadBalancerTestCase {
+    private static final String URL_1 = "http://localhost:8005/abc";
+    private static final String URL_2 = "http://localhost:8006/abc";
+    private static final String URL_3 = "http://localhost:8007/abc";
+
+    @Test
+    public void testRoundRobin() {
+        LoadBalancer loadBalancer = new LoadBalancer(Arrays.asList(URL_1, URL_2, URL_3),
+                LoadBalancer.Strategy.ROUND_ROBIN, 30000, 0);
+        Map<String, Integer> selections = select(loadBalancer, 300);
+        Assert.assertEquals(selections.get(URL_1).intValue(), 100);
+        Assert.assertEquals(selections.get(URL_2).intValue(), 100);
+        Assert.assertEquals(selections.get(URL_3).intValue(), 100);
+    }
+
+    @Test
+    public void testLeastInflight() {
+        LoadBalancer loadBalancer = new LoadBalancer(Arrays.asList(URL_1, URL_2),
+                LoadBalancer.Strategy.LEAST_INFLIGHT, 30000, 0);
+        HttpConnectorListener listener = loadBalancer.getEndpoint(URL_1).track(new NoOpListener());
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(loadBalancer.select(), URL_2);
+        }
+        listener.onMessage(null);
+        Assert.assertEquals(loadBalancer.getEndpoint(URL_1).getInflightRequests(), 0);
+    }
+
+    @Test
+    public void testOfflineEndpointEjected() {
+        LoadBalancer loadBalancer = new LoadBalancer(Arrays.asList(URL_1, URL_2),
+                LoadBalancer.Strategy.POWER_OF_TWO_CHOICES, 30000, 0);
+        loadBalancer.getEndpoint(URL_1).track(new NoOpListener()).onError(new Exception("Connection refused"));
+        Map<String, Integer> selections = select(loadBalancer, 100);
+        Assert.assertNull(selections.get(URL_1), "Offline endpoint is selected within its ejection time");
+        Assert.assertEquals(selections.get(URL_2).intValue(), 100);
+    }
+
+    @Test
+    public void testAllEndpointsEjected() {
+        LoadBalancer loadBalancer = new LoadBalancer(Arrays.asList(URL_1, URL_2),
+                LoadBalancer.Strategy.ROUND_ROBIN, 30000, 0);
+        loadBalancer.getEndpoint(URL_1).track(new NoOpListener()).onError(new Exception("Connection refused"));
+        loadBalancer.getEndpoint(URL_2).track(new NoOpListener()).onError(new Exception("Connection refused"));
+        Map<String, Integer> selections = select(loadBalancer, 100);
+        Assert.assertEquals(selections.get(URL_1).intValue(), 50);
+        Assert.assertEquals(selections.get(URL_2).intValue(), 50);
+    }
+
+    @Test
+    public void testURLsFileReloaded() throws Exception {
+        Path urlsFile = File.createTempFile("publisher-urls", ".txt").toPath();
+        try {
+            Files.write(urlsFile, Arrays.asList("# replicas", URL_1, "", URL_2), StandardCharsets.UTF_8);
+            LoadBalancer loadBalancer = new LoadBalancer(urlsFile, LoadBalancer.Strategy.ROUND_ROBIN, 30000, 0);
+            LoadBalancer.Endpoint endpoint = loadBalancer.getEndpoint(URL_2);
+            Assert.assertEquals(select(loadBalancer, 10).size(), 2);
+            Files.write(urlsFile, Arrays.asList(URL_2, URL_3), StandardCharsets.UTF_8);
+            Files.setLastModifiedTime(urlsFile, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+            Thread.sleep(1100);
+            Map<String, Integer> selections = select(loadBalancer, 10);
+            Assert.assertNull(selections.get(URL_1), "Removed url is selected after the file is modified");
+            Assert.assertEquals(selections.get(URL_3).intValue(), 5);
+            Assert.assertSame(loadBalancer.getEndpoint(URL_2), endpoint, "State of a listed url is not kept");
+        } finally {
+            Files.delete(urlsFile);
+        }
+    }
+
+    private static Map<String, Integer> select(LoadBalancer loadBalancer, int requests) {
+        Map<String, Integer> selections = new HashMap<>();
+        for (int i = 0; i < requests; i++) {
+            selections.merge(loadBalancer.select(), 1, Integer::sum);
+        }
+        return selections;
+    }
+
+    private static class NoOpListener implements HttpConnectorListener {
+
+        @Override
+        public void onMessage(HttpCarbonMessage httpCarbonMessage) {
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+    }
+}
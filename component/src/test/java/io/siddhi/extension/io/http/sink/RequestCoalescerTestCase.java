@@ -0,0 +1,214 @@
+/*
+ *  Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package io.siddhi.extension.io.http.sink;
+
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.DecoderResult;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.siddhi.extension.io.http.sink.util.HttpSinkUtil;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.Constants;
+import org.wso2.transport.http.netty.contract.HttpConnectorListener;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test cases for coalescing the identical requests of the http-call sink.
+ */
+public class RequestCoalescerTestCase {
+    private static final String KEY_1 = "http://localhost:8005/abc/1";
+    private static final String KEY_2 = "http://localhost:8005/abc/2";
+    private static final int MAX_BODY_SIZE = 16;
+    private static final Runnable NO_SENDER = () -> {
+    };
+
+    @Test
+    public void testJoin() {
+        RequestCoalescer requestCoalescer = new RequestCoalescer(null, MAX_BODY_SIZE);
+        RecordingListener listener1 = new RecordingListener();
+        RecordingListener listener2 = new RecordingListener();
+        RequestCoalescer.CoalescingListener coalescingListener = requestCoalescer.join(KEY_1, listener1, NO_SENDER);
+        Assert.assertNotNull(coalescingListener);
+        Assert.assertNull(requestCoalescer.join(KEY_1, listener2, NO_SENDER));
+        Assert.assertNotNull(requestCoalescer.join(KEY_2, new RecordingListener(), NO_SENDER));
+        Assert.assertEquals(requestCoalescer.getInflightRequests(), 2);
+    }
+
+    @Test
+    public void testSingleResponse() {
+        RequestCoalescer requestCoalescer = new RequestCoalescer(null, MAX_BODY_SIZE);
+        RecordingListener listener = new RecordingListener();
+        HttpCarbonMessage response = new HttpCarbonMessage(new DefaultHttpResponse(HttpVersion.HTTP_1_1,
+                HttpResponseStatus.OK));
+        requestCoalescer.join(KEY_1, listener, NO_SENDER).onMessage(response);
+        Assert.assertSame(listener.response, response, "Response of a single event should be passed as it is");
+        Assert.assertEquals(requestCoalescer.getInflightRequests(), 0);
+    }
+
+    @Test
+    public void testNewRequestAfterResponse() {
+        RequestCoalescer requestCoalescer = new RequestCoalescer(null, MAX_BODY_SIZE);
+        RecordingListener listener1 = new RecordingListener();
+        RequestCoalescer.CoalescingListener coalescingListener = requestCoalescer.join(KEY_1, listener1, NO_SENDER);
+        coalescingListener.onError(new IOException("Connection refused"));
+        Assert.assertEquals(requestCoalescer.getInflightRequests(), 0);
+        RecordingListener listener2 = new RecordingListener();
+        Assert.assertNotNull(requestCoalescer.join(KEY_1, listener2, NO_SENDER));
+        Assert.assertNotNull(listener1.error);
+        Assert.assertNull(listener2.error);
+    }
+
+    @Test
+    public void testErrorFanOut() {
+        RequestCoalescer requestCoalescer = new RequestCoalescer(null, MAX_BODY_SIZE);
+        RecordingListener listener1 = new RecordingListener();
+        RecordingListener listener2 = new RecordingListener();
+        RecordingListener listener3 = new RecordingListener();
+        RequestCoalescer.CoalescingListener coalescingListener = requestCoalescer.join(KEY_1, listener1, NO_SENDER);
+        Assert.assertNull(requestCoalescer.join(KEY_1, listener2, NO_SENDER));
+        Assert.assertNull(requestCoalescer.join(KEY_1, listener3, NO_SENDER));
+        IOException error = new IOException("Connection refused");
+        coalescingListener.onError(error);
+        Assert.assertSame(listener1.error, error);
+        Assert.assertSame(listener2.error, error);
+        Assert.assertSame(listener3.error, error);
+    }
+
+    @Test
+    public void testAbort() {
+        RequestCoalescer requestCoalescer = new RequestCoalescer(null, MAX_BODY_SIZE);
+        RecordingListener listener1 = new RecordingListener();
+        RecordingListener listener2 = new RecordingListener();
+        RequestCoalescer.CoalescingListener coalescingListener = requestCoalescer.join(KEY_1, listener1, NO_SENDER);
+        Assert.assertNull(requestCoalescer.join(KEY_1, listener2, NO_SENDER));
+        RuntimeException error = new RuntimeException("Circuit breaker is open");
+        coalescingListener.abort(error);
+        // The failure is thrown to the event sending the request, hence only the attached events are notified
+        Assert.assertNull(listener1.error);
+        Assert.assertSame(listener2.error, error);
+        Assert.assertEquals(requestCoalescer.getInflightRequests(), 0);
+    }
+
+    @Test
+    public void testSharedResponse() {
+        RequestCoalescer requestCoalescer = new RequestCoalescer(null, MAX_BODY_SIZE);
+        RecordingListener listener1 = new RecordingListener();
+        RecordingListener listener2 = new RecordingListener();
+        RequestCoalescer.CoalescingListener coalescingListener = requestCoalescer.join(KEY_1, listener1, NO_SENDER);
+        Assert.assertNull(requestCoalescer.join(KEY_1, listener2, NO_SENDER));
+        HttpCarbonMessage response = createResponse();
+        coalescingListener.onMessage(response);
+        response.addHttpContent(new DefaultHttpContent(Unpooled.copiedBuffer("Hello ", StandardCharsets.UTF_8)));
+        response.addHttpContent(new DefaultLastHttpContent(Unpooled.copiedBuffer("World", StandardCharsets.UTF_8)));
+        Assert.assertEquals(HttpSinkUtil.readContent(listener1.response), "Hello World");
+        Assert.assertEquals(HttpSinkUtil.readContent(listener2.response), "Hello World");
+    }
+
+    @Test
+    public void testDecoderFailure() {
+        RequestCoalescer requestCoalescer = new RequestCoalescer(null, MAX_BODY_SIZE);
+        RecordingListener listener1 = new RecordingListener();
+        RecordingListener listener2 = new RecordingListener();
+        RequestCoalescer.CoalescingListener coalescingListener = requestCoalescer.join(KEY_1, listener1, NO_SENDER);
+        Assert.assertNull(requestCoalescer.join(KEY_1, listener2, NO_SENDER));
+        HttpCarbonMessage response = createResponse();
+        coalescingListener.onMessage(response);
+        response.addHttpContent(new DefaultHttpContent(Unpooled.copiedBuffer("Hello ", StandardCharsets.UTF_8)));
+        // The transport ends the content this way when the connection is closed before the whole body arrives
+        LastHttpContent lastHttpContent = new DefaultLastHttpContent();
+        DecoderException error = new DecoderException("Remote host closed the connection");
+        lastHttpContent.setDecoderResult(DecoderResult.failure(error));
+        response.addHttpContent(lastHttpContent);
+        Assert.assertNull(listener1.response);
+        Assert.assertNull(listener2.response);
+        Assert.assertSame(listener1.error, error);
+        Assert.assertSame(listener2.error, error);
+    }
+
+    @Test
+    public void testLargeResponse() {
+        RequestCoalescer requestCoalescer = new RequestCoalescer(null, MAX_BODY_SIZE);
+        RecordingListener listener1 = new RecordingListener();
+        RecordingListener listener2 = new RecordingListener();
+        AtomicInteger sentRequests = new AtomicInteger();
+        RequestCoalescer.CoalescingListener coalescingListener = requestCoalescer.join(KEY_1, listener1,
+                sentRequests::incrementAndGet);
+        Assert.assertNull(requestCoalescer.join(KEY_1, listener2, sentRequests::incrementAndGet));
+        HttpCarbonMessage response = createResponse();
+        coalescingListener.onMessage(response);
+        response.addHttpContent(new DefaultHttpContent(Unpooled.copiedBuffer("0123456789", StandardCharsets.UTF_8)));
+        Assert.assertEquals(sentRequests.get(), 0);
+        response.addHttpContent(new DefaultHttpContent(Unpooled.copiedBuffer("0123456789", StandardCharsets.UTF_8)));
+        // The body exceeds the maximum, hence the attached event sends its own request
+        Assert.assertEquals(sentRequests.get(), 1);
+        Assert.assertNull(listener2.response);
+        response.addHttpContent(new DefaultLastHttpContent(Unpooled.copiedBuffer("end", StandardCharsets.UTF_8)));
+        Assert.assertEquals(HttpSinkUtil.readContent(listener1.response), "01234567890123456789end");
+    }
+
+    @Test
+    public void testLargeContentLength() {
+        RequestCoalescer requestCoalescer = new RequestCoalescer(null, MAX_BODY_SIZE);
+        RecordingListener listener1 = new RecordingListener();
+        RecordingListener listener2 = new RecordingListener();
+        AtomicInteger sentRequests = new AtomicInteger();
+        RequestCoalescer.CoalescingListener coalescingListener = requestCoalescer.join(KEY_1, listener1,
+                sentRequests::incrementAndGet);
+        Assert.assertNull(requestCoalescer.join(KEY_1, listener2, sentRequests::incrementAndGet));
+        HttpCarbonMessage response = createResponse();
+        response.setHeader(HttpHeaderNames.CONTENT_LENGTH.toString(), String.valueOf(MAX_BODY_SIZE + 1));
+        coalescingListener.onMessage(response);
+        Assert.assertSame(listener1.response, response, "Response too large to share should be passed as it is");
+        Assert.assertNull(listener2.response);
+        Assert.assertEquals(sentRequests.get(), 1);
+    }
+
+    private static HttpCarbonMessage createResponse() {
+        HttpCarbonMessage response = new HttpCarbonMessage(new DefaultHttpResponse(HttpVersion.HTTP_1_1,
+                HttpResponseStatus.OK));
+        response.setProperty(Constants.HTTP_STATUS_CODE, HttpResponseStatus.OK.code());
+        return response;
+    }
+
+    private static class RecordingListener implements HttpConnectorListener {
+        private HttpCarbonMessage response;
+        private Throwable error;
+
+        @Override
+        public void onMessage(HttpCarbonMessage httpCarbonMessage) {
+            response = httpCarbonMessage;
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+    }
+}
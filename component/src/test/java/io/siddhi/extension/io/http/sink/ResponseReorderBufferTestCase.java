@@ -0,0 +1,182 @@
+/*
+ *  Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package io.siddhi.extension.io.http.sink;
+
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.util.HashedWheelTimer;
+import io.siddhi.core.exception.ConnectionUnavailableException;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.contract.HttpConnectorListener;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Test cases for passing the responses of the http-call sink in the order of the requests.
+ */
+public class ResponseReorderBufferTestCase {
+    private static final String URL = "http://localhost:8005/abc";
+
+    private HashedWheelTimer timer;
+    private List<String> outcomes;
+
+    @BeforeMethod
+    public void init() {
+        timer = new HashedWheelTimer();
+        outcomes = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    @AfterMethod
+    public void stop() {
+        timer.stop();
+    }
+
+    @Test
+    public void testResponsesInRequestOrder() throws ConnectionUnavailableException {
+        ResponseReorderBuffer reorderBuffer = new ResponseReorderBuffer(10, 30000, timer);
+        ResponseReorderBuffer.Slot slot1 = reorderBuffer.register(new RecordingListener("1"), URL);
+        ResponseReorderBuffer.Slot slot2 = reorderBuffer.register(new RecordingListener("2"), URL);
+        ResponseReorderBuffer.Slot slot3 = reorderBuffer.register(new RecordingListener("3"), URL);
+        slot3.onMessage(createResponse());
+        slot2.onError(new IOException("Connection reset"));
+        Assert.assertEquals(outcomes.size(), 0);
+        Assert.assertEquals(reorderBuffer.getPendingResponses(), 3);
+        slot1.onMessage(createResponse());
+        Assert.assertEquals(outcomes, Arrays.asList("1:response", "2:error", "3:response"));
+        Assert.assertEquals(reorderBuffer.getPendingResponses(), 0);
+    }
+
+    @Test
+    public void testTimeout() throws ConnectionUnavailableException, InterruptedException {
+        ResponseReorderBuffer reorderBuffer = new ResponseReorderBuffer(10, 200, timer);
+        reorderBuffer.register(new RecordingListener("1"), URL);
+        ResponseReorderBuffer.Slot slot2 = reorderBuffer.register(new RecordingListener("2"), URL);
+        slot2.onMessage(createResponse());
+        Assert.assertEquals(outcomes.size(), 0);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (outcomes.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Assert.assertEquals(outcomes, Arrays.asList("1:timeout", "2:response"));
+    }
+
+    @Test
+    public void testMaxInflightRequests() throws ConnectionUnavailableException, InterruptedException {
+        ResponseReorderBuffer reorderBuffer = new ResponseReorderBuffer(2, 30000, timer);
+        ResponseReorderBuffer.Slot slot1 = reorderBuffer.register(new RecordingListener("1"), URL);
+        reorderBuffer.register(new RecordingListener("2"), URL);
+        AtomicReference<ResponseReorderBuffer.Slot> slot3 = new AtomicReference<>();
+        Thread publisher = new Thread(() -> {
+            try {
+                slot3.set(reorderBuffer.register(new RecordingListener("3"), URL));
+            } catch (ConnectionUnavailableException e) {
+                outcomes.add("3:unavailable");
+            }
+        });
+        publisher.start();
+        publisher.join(500);
+        Assert.assertTrue(publisher.isAlive(), "Request should wait while the maximum requests are in flight");
+        // A request which could not be sent frees its slot without passing anything on
+        slot1.skip();
+        publisher.join(5000);
+        Assert.assertNotNull(slot3.get());
+        Assert.assertEquals(outcomes.size(), 0);
+        Assert.assertEquals(reorderBuffer.getPendingResponses(), 2);
+    }
+
+    @Test
+    public void testTimedOutRequestStaysInflight() throws ConnectionUnavailableException, InterruptedException {
+        ResponseReorderBuffer reorderBuffer = new ResponseReorderBuffer(1, 200, timer);
+        ResponseReorderBuffer.Slot slot1 = reorderBuffer.register(new RecordingListener("1"), URL);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (outcomes.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Assert.assertEquals(outcomes, Collections.singletonList("1:timeout"));
+        try {
+            reorderBuffer.register(new RecordingListener("2"), URL);
+            Assert.fail("Request is sent while the timed-out request is still in flight");
+        } catch (ConnectionUnavailableException e) {
+            Assert.assertEquals(reorderBuffer.getPendingResponses(), 0);
+        }
+        // The late response is dropped, and frees the slot of the timed-out request
+        slot1.onMessage(createResponse());
+        ResponseReorderBuffer.Slot slot3 = reorderBuffer.register(new RecordingListener("3"), URL);
+        slot3.onMessage(createResponse());
+        Assert.assertEquals(outcomes, Arrays.asList("1:timeout", "3:response"));
+    }
+
+    @Test
+    public void testResponsesPassedOnOutsideLock() throws ConnectionUnavailableException, InterruptedException {
+        ResponseReorderBuffer reorderBuffer = new ResponseReorderBuffer(10, 30000, timer);
+        AtomicReference<ResponseReorderBuffer.Slot> slot2 = new AtomicReference<>();
+        ResponseReorderBuffer.Slot slot1 = reorderBuffer.register(new RecordingListener("1") {
+            @Override
+            public void onMessage(HttpCarbonMessage httpCarbonMessage) {
+                super.onMessage(httpCarbonMessage);
+                // Another response arriving while this one is passed on should neither block nor overtake it
+                Thread responder = new Thread(() -> slot2.get().onMessage(createResponse()));
+                responder.start();
+                try {
+                    responder.join(5000);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                outcomes.add(responder.isAlive() ? "2:blocked" : "1:done");
+            }
+        }, URL);
+        slot2.set(reorderBuffer.register(new RecordingListener("2"), URL));
+        slot1.onMessage(createResponse());
+        Assert.assertEquals(outcomes, Arrays.asList("1:response", "1:done", "2:response"));
+        Assert.assertEquals(reorderBuffer.getPendingResponses(), 0);
+    }
+
+    private static HttpCarbonMessage createResponse() {
+        return new HttpCarbonMessage(new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK));
+    }
+
+    private class RecordingListener implements HttpConnectorListener {
+        private final String id;
+
+        RecordingListener(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public void onMessage(HttpCarbonMessage httpCarbonMessage) {
+            outcomes.add(id + ":response");
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            outcomes.add(id + (throwable instanceof TimeoutException ? ":timeout" : ":error"));
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ *  Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package io.siddhi.extension.io.http.sink.cache;
+
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+import org.wso2.carbon.messaging.Header;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Test cases for caching the responses of the http-call sink.
+ */
+public class ResponseCacheTestCase {
+    private static final String URL_1 = "http://localhost:8005/abc/1";
+    private static final String URL_2 = "http://localhost:8005/abc/2";
+    private static final String URL_3 = "http://localhost:8005/abc/3";
+
+    @Test
+    public void testFreshness() {
+        Assert.assertEquals(CachedResponse.getFreshness(headers("max-age=60")), 60000);
+        Assert.assertEquals(CachedResponse.getFreshness(headers("public, max-age=60").add(HttpHeaderNames.AGE,
+                "20")), 40000);
+        Assert.assertEquals(CachedResponse.getFreshness(headers("no-cache, max-age=60")), 0);
+        Assert.assertEquals(CachedResponse.getFreshness(headers("max-age=abc")), 0);
+        Assert.assertEquals(CachedResponse.getFreshness(new DefaultHttpHeaders()), 0);
+
+        CachedResponse response = new CachedResponse(200, headers("max-age=60"), new byte[10],
+                Collections.emptyList(), 1000);
+        Assert.assertTrue(response.isFresh(60999));
+        Assert.assertFalse(response.isFresh(61000));
+    }
+
+    @Test
+    public void testStorable() {
+        Assert.assertTrue(CachedResponse.isStorable(headers("max-age=60")));
+        Assert.assertFalse(CachedResponse.isStorable(headers("no-store, max-age=60")));
+        Assert.assertFalse(CachedResponse.isStorable(headers("max-age=60").add(HttpHeaderNames.VARY, "*")));
+        Assert.assertFalse(CachedResponse.isStorable(headers("no-cache")));
+        Assert.assertTrue(CachedResponse.isStorable(headers("no-cache").add(HttpHeaderNames.ETAG, "\"v1\"")));
+    }
+
+    @Test
+    public void testVary() {
+        ResponseCache responseCache = new ResponseCache(10, 1024);
+        List<Header> english = Collections.singletonList(new Header("Accept-Language", "en"));
+        List<Header> french = Collections.singletonList(new Header("Accept-Language", "fr"));
+        responseCache.put(URL_1, new CachedResponse(200, headers("max-age=60").add(HttpHeaderNames.VARY,
+                "Accept-Language"), new byte[10], english, 0));
+        Assert.assertNotNull(responseCache.get(URL_1, english));
+        Assert.assertNotNull(responseCache.get(URL_1, Collections.singletonList(new Header("accept-language",
+                "en"))));
+        Assert.assertNull(responseCache.get(URL_1, french));
+        Assert.assertNull(responseCache.get(URL_1, Collections.emptyList()));
+        Assert.assertNull(responseCache.get(URL_2, english));
+    }
+
+    @Test
+    public void testRevalidation() {
+        CachedResponse response = new CachedResponse(200, headers("max-age=0").add(HttpHeaderNames.ETAG,
+                "\"v1\""), new byte[10], Collections.emptyList(), 1000);
+        Assert.assertFalse(response.isFresh(1000));
+        List<Header> conditionalHeaders = response.getConditionalHeaders();
+        Assert.assertEquals(conditionalHeaders.size(), 1);
+        Assert.assertEquals(conditionalHeaders.get(0).getName(), HttpHeaderNames.IF_NONE_MATCH.toString());
+        Assert.assertEquals(conditionalHeaders.get(0).getValue(), "\"v1\"");
+
+        CachedResponse revalidatedResponse = response.revalidate(headers("max-age=30")
+                .add(HttpHeaderNames.CONTENT_LENGTH, "0"), 2000);
+        Assert.assertTrue(revalidatedResponse.isFresh(31999));
+        Assert.assertFalse(revalidatedResponse.isFresh(32000));
+        Assert.assertEquals(revalidatedResponse.getConditionalHeaders().get(0).getValue(), "\"v1\"");
+    }
+
+    @Test
+    public void testEviction() {
+        CachedResponse response = new CachedResponse(200, headers("max-age=60"), new byte[100],
+                Collections.emptyList(), 0);
+        ResponseCache responseCache = new ResponseCache(2, response.getSize() * 3);
+        responseCache.put(URL_1, response);
+        responseCache.put(URL_2, response);
+        // Accessing the first response makes the second one the least recently used
+        Assert.assertNotNull(responseCache.get(URL_1, Collections.emptyList()));
+        responseCache.put(URL_3, response);
+        Assert.assertEquals(responseCache.getEntries(), 2);
+        Assert.assertNotNull(responseCache.get(URL_1, Collections.emptyList()));
+        Assert.assertNull(responseCache.get(URL_2, Collections.emptyList()));
+        Assert.assertNotNull(responseCache.get(URL_3, Collections.emptyList()));
+
+        CachedResponse largeResponse = new CachedResponse(200, headers("max-age=60"),
+                new byte[response.getSize() * 2], Collections.emptyList(), 0);
+        responseCache.put(URL_2, largeResponse);
+        Assert.assertEquals(responseCache.getEntries(), 1);
+        Assert.assertEquals(responseCache.getSize(), largeResponse.getSize());
+        Assert.assertNotNull(responseCache.get(URL_2, Collections.emptyList()));
+
+        responseCache.put(URL_2, new CachedResponse(200, headers("max-age=60"),
+                new byte[response.getSize() * 3], Collections.emptyList(), 0));
+        Assert.assertEquals(responseCache.getEntries(), 0);
+        Assert.assertEquals(responseCache.getSize(), 0);
+    }
+
+    private static HttpHeaders headers(String cacheControl) {
+        return new DefaultHttpHeaders().add(HttpHeaderNames.CACHE_CONTROL, cacheControl);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ *  Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package io.siddhi.extension.io.http.sink.spool;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Test cases for the disk spool of the http sink.
+ */
+public class DiskSpoolTestCase {
+    private Path directory;
+
+    @BeforeMethod
+    public void createDirectory() throws IOException {
+        directory = Files.createTempDirectory("http-sink-spool");
+    }
+
+    @AfterMethod
+    public void deleteDirectory() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testRecordsReadInOrderAcrossSegments() throws Exception {
+        DiskSpool spool = new DiskSpool(directory, 1024, 1024 * 1024, DiskSpool.FsyncPolicy.NEVER);
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(spool.append(record(i)));
+        }
+        Assert.assertEquals(spool.getDepth(), 100);
+        Assert.assertTrue(spool.getSize() > 1024, "Records are not spread across segments");
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(spool.peek(), record(i));
+            spool.remove();
+        }
+        Assert.assertTrue(spool.isEmpty());
+        Assert.assertNull(spool.peek());
+        Assert.assertEquals(spool.getSize(), 1024, "Segments without records are not deleted");
+    }
+
+    @Test
+    public void testMaxSize() throws Exception {
+        DiskSpool spool = new DiskSpool(directory, 1024, 2048, DiskSpool.FsyncPolicy.NEVER);
+        int appended = 0;
+        while (spool.append(record(appended))) {
+            appended++;
+        }
+        Assert.assertTrue(appended > 0);
+        Assert.assertEquals(spool.getSize(), 2048);
+        Assert.assertFalse(spool.append(new byte[2048]), "Record larger than a segment is appended");
+        spool.remove();
+        Assert.assertEquals(spool.getDepth(), appended - 1);
+    }
+
+    @Test
+    public void testRecoveredAfterRestart() throws Exception {
+        DiskSpool spool = new DiskSpool(directory, 1024, 1024 * 1024, DiskSpool.FsyncPolicy.ALWAYS);
+        for (int i = 0; i < 50; i++) {
+            spool.append(record(i));
+        }
+        for (int i = 0; i < 20; i++) {
+            spool.remove();
+        }
+        spool.force();
+        DiskSpool recoveredSpool = new DiskSpool(directory, 1024, 1024 * 1024, DiskSpool.FsyncPolicy.ALWAYS);
+        Assert.assertEquals(recoveredSpool.getDepth(), 30);
+        Assert.assertEquals(recoveredSpool.peek(), record(20));
+        recoveredSpool.append(record(50));
+        for (int i = 20; i <= 50; i++) {
+            Assert.assertEquals(recoveredSpool.peek(), record(i));
+            recoveredSpool.remove();
+        }
+        Assert.assertTrue(recoveredSpool.isEmpty());
+    }
+
+    private static byte[] record(int index) {
+        return ("{\"symbol\":\"WSO2\",\"price\":55.6,\"volume\":" + index + "}").getBytes(StandardCharsets.UTF_8);
+    }
+}
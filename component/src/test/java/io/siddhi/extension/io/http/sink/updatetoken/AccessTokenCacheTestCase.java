@@ -0,0 +1,136 @@
+/*
+ *  Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package io.siddhi.extension.io.http.sink.updatetoken;
+
+import io.siddhi.extension.io.http.util.HttpConstants;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Test cases for the expiry handling of the access token cache.
+ */
+public class AccessTokenCacheTestCase {
+
+    @Test
+    public void testExpiredAccessTokenIsNotServed() throws Exception {
+        AccessTokenCache accessTokenCache = AccessTokenCache.getInstance();
+        accessTokenCache.setAccessToken("expiryTestKey", "Bearer aaaaa", 1);
+        Assert.assertEquals(accessTokenCache.getValidAccessToken("expiryTestKey"), "Bearer aaaaa");
+        Thread.sleep(1100);
+        Assert.assertNull(accessTokenCache.getValidAccessToken("expiryTestKey"));
+        Assert.assertEquals(accessTokenCache.getAccessToken("expiryTestKey"), "Bearer aaaaa");
+    }
+
+    @Test
+    public void testAccessTokenWithoutExpiry() {
+        AccessTokenCache accessTokenCache = AccessTokenCache.getInstance();
+        accessTokenCache.setAccessToken("noExpiryTestKey", "Bearer bbbbb");
+        Assert.assertEquals(accessTokenCache.getValidAccessToken("noExpiryTestKey"), "Bearer bbbbb");
+        Assert.assertEquals(accessTokenCache.getExpiryTime("noExpiryTestKey"), -1);
+    }
+
+    @Test
+    public void testAccessTokenRefreshedBeforeExpiry() throws Exception {
+        AccessTokenCache accessTokenCache = AccessTokenCache.getInstance();
+        accessTokenCache.setAccessToken("refreshTestKey", "Bearer ccccc", 60);
+        CountDownLatch refreshed = new CountDownLatch(1);
+        accessTokenCache.scheduleRefresh("refreshTestKey", 59800, refreshed::countDown);
+        Assert.assertTrue(refreshed.await(5, TimeUnit.SECONDS), "Access token is not refreshed before expiry");
+    }
+
+    @Test
+    public void testCancelledRefreshIsNotRun() throws Exception {
+        AccessTokenCache accessTokenCache = AccessTokenCache.getInstance();
+        accessTokenCache.setAccessToken("cancelTestKey", "Bearer ddddd", 60);
+        CountDownLatch refreshed = new CountDownLatch(1);
+        accessTokenCache.scheduleRefresh("cancelTestKey", 59500, refreshed::countDown);
+        accessTokenCache.cancelRefresh("cancelTestKey");
+        Assert.assertFalse(refreshed.await(1, TimeUnit.SECONDS), "Cancelled access token refresh is run");
+    }
+
+    @Test
+    public void testConcurrentTokenRequestsAreCoalesced() throws Exception {
+        AccessTokenCache accessTokenCache = AccessTokenCache.getInstance();
+        AtomicInteger tokenRequests = new AtomicInteger();
+        CountDownLatch requestStarted = new CountDownLatch(1);
+        CountDownLatch requestReleased = new CountDownLatch(1);
+        Runnable tokenRequest = () -> {
+            tokenRequests.incrementAndGet();
+            requestStarted.countDown();
+            try {
+                requestReleased.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            accessTokenCache.setAccessToken("coalesceTestKey", "Bearer eeeee", 60);
+            accessTokenCache.setResponseCode("coalesceTestKey", HttpConstants.SUCCESS_CODE);
+        };
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            Future<Integer> firstRequest = executorService.submit(() -> accessTokenCache.requestAccessToken(
+                    "coalesceTestKey", "https://localhost:8005/token", tokenRequest));
+            Assert.assertTrue(requestStarted.await(5, TimeUnit.SECONDS));
+            Future<Integer> secondRequest = executorService.submit(() -> accessTokenCache.requestAccessToken(
+                    "coalesceTestKey", "https://localhost:8005/token", tokenRequest));
+            Future<Integer> thirdRequest = executorService.submit(() -> accessTokenCache.requestAccessToken(
+                    "coalesceTestKey", "https://localhost:8005/token", tokenRequest));
+            Thread.sleep(200);
+            requestReleased.countDown();
+            Assert.assertEquals(firstRequest.get(5, TimeUnit.SECONDS).intValue(), HttpConstants.SUCCESS_CODE);
+            Assert.assertEquals(secondRequest.get(5, TimeUnit.SECONDS).intValue(), HttpConstants.SUCCESS_CODE);
+            Assert.assertEquals(thirdRequest.get(5, TimeUnit.SECONDS).intValue(), HttpConstants.SUCCESS_CODE);
+            Assert.assertEquals(tokenRequests.get(), 1);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailedTokenRequestIsNotRepeated() {
+        AccessTokenCache accessTokenCache = AccessTokenCache.getInstance();
+        AtomicInteger tokenRequests = new AtomicInteger();
+        Runnable tokenRequest = () -> {
+            tokenRequests.incrementAndGet();
+            accessTokenCache.setResponseCode("failureTestKey", HttpConstants.AUTHENTICATION_FAIL_CODE);
+        };
+        Assert.assertEquals(accessTokenCache.requestAccessToken("failureTestKey", "https://localhost:8006/token",
+                tokenRequest), HttpConstants.AUTHENTICATION_FAIL_CODE);
+        Assert.assertEquals(accessTokenCache.requestAccessToken("failureTestKey", "https://localhost:8006/token",
+                tokenRequest), HttpConstants.AUTHENTICATION_FAIL_CODE);
+        Assert.assertEquals(tokenRequests.get(), 1);
+    }
+
+    @Test
+    public void testTokenRequestWithoutResponseCode() {
+        AccessTokenCache accessTokenCache = AccessTokenCache.getInstance();
+        accessTokenCache.setResponseCode("noStatusTestKey", HttpConstants.SUCCESS_CODE);
+        Assert.assertEquals(accessTokenCache.requestAccessToken("noStatusTestKey", "https://localhost:8007/token",
+                () -> { }), HttpConstants.SERVICE_UNAVAILABLE_CODE);
+        Assert.assertEquals(accessTokenCache.getResponseCode("noStatusTestKey"),
+                HttpConstants.SERVICE_UNAVAILABLE_CODE);
+        Assert.assertEquals(accessTokenCache.getResponseCode("unknownTestKey"), HttpConstants.SERVICE_UNAVAILABLE_CODE);
+    }
+}
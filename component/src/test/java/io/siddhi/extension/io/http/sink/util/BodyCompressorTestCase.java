@@ -0,0 +1,99 @@
+/*
+ *  Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package io.siddhi.extension.io.http.sink.util;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufInputStream;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Test cases for compressing request bodies.
+ */
+public class BodyCompressorTestCase {
+
+    @Test
+    public void testGzip() throws Exception {
+        byte[] body = createBody();
+        ByteBuf directBody = PooledByteBufAllocator.DEFAULT.directBuffer().writeBytes(body);
+        ByteBuf compressed = new BodyCompressor(BodyCompressor.GZIP, 0).compress(directBody,
+                PooledByteBufAllocator.DEFAULT);
+        try {
+            Assert.assertEquals(directBody.readableBytes(), body.length, "Body is consumed by the compression");
+            Assert.assertTrue(compressed.readableBytes() < body.length, "Body is not compressed");
+            Assert.assertEquals(read(new GZIPInputStream(new ByteBufInputStream(compressed))), body);
+        } finally {
+            directBody.release();
+            compressed.release();
+        }
+    }
+
+    @Test
+    public void testDeflate() throws Exception {
+        byte[] body = createBody();
+        BodyCompressor bodyCompressor = new BodyCompressor(BodyCompressor.DEFLATE, 0);
+        // Compress twice to check the deflater is reset after each body
+        for (int i = 0; i < 2; i++) {
+            ByteBuf compressed = bodyCompressor.compress(Unpooled.wrappedBuffer(body),
+                    PooledByteBufAllocator.DEFAULT);
+            try {
+                Assert.assertEquals(read(new InflaterInputStream(new ByteBufInputStream(compressed))), body);
+            } finally {
+                compressed.release();
+            }
+        }
+    }
+
+    @Test
+    public void testMinBytes() {
+        BodyCompressor bodyCompressor = new BodyCompressor(BodyCompressor.GZIP, 1024);
+        Assert.assertFalse(bodyCompressor.isCompressible(1023));
+        Assert.assertTrue(bodyCompressor.isCompressible(1024));
+    }
+
+    private static byte[] createBody() {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < 1000; i++) {
+            body.append("{\"symbol\":\"WSO2\",\"price\":").append(55.6 + i).append(",\"volume\":").append(i)
+                    .append("},");
+        }
+        body.setCharAt(body.length() - 1, ']');
+        return body.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] read(InputStream inputStream) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int length;
+        while ((length = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, length);
+        }
+        inputStream.close();
+        return outputStream.toByteArray();
+    }
+}
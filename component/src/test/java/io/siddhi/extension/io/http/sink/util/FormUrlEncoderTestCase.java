@@ -0,0 +1,59 @@
+/*
+ *  Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package io.siddhi.extension.io.http.sink.util;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.net.URLEncoder;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Test cases for the form url encoder.
+ */
+public class FormUrlEncoderTestCase {
+
+    @Test
+    public void testEncodingMatchesUrlEncoder() throws Exception {
+        String[] values = {"WSO2", "a b+c", "key=value&x=y", "-_.*~!'()", "price: 55.6%", "na\u00EFve caf\u00E9",
+                "\u65E5\u672C\u8A9E", "emoji \uD83D\uDE00", "unpaired \uD83D surrogate", ""};
+        for (String value : values) {
+            Map<String, String> params = new LinkedHashMap<>();
+            params.put("value", value);
+            Assert.assertEquals(FormUrlEncoder.encode(params), "value=" + URLEncoder.encode(value, "UTF-8"),
+                    "Encoding mismatch for '" + value + "'");
+        }
+    }
+
+    @Test
+    public void testEncodingMultipleParameters() {
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("symbol", "WSO2");
+        params.put("price", 55.6f);
+        params.put("volume", 100L);
+        params.put("company name", "WSO2 Inc");
+        Assert.assertEquals(FormUrlEncoder.encode(params), "symbol=WSO2&price=55.6&volume=100&company+name=WSO2+Inc");
+    }
+
+    @Test
+    public void testEncodingNoParameters() {
+        Assert.assertEquals(FormUrlEncoder.encode(new LinkedHashMap<>()), "");
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ *  Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package io.siddhi.extension.io.http.sink.util;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Test cases for the retry policy.
+ */
+public class RetryPolicyTestCase {
+
+    @Test
+    public void testRetriableFailures() {
+        RetryPolicy retryPolicy = new RetryPolicy(3, 100, 1000, new HashSet<>(Arrays.asList(502, 503)));
+        Assert.assertTrue(retryPolicy.isRetriable(503, 1));
+        Assert.assertTrue(retryPolicy.isRetriable(502, 2));
+        Assert.assertFalse(retryPolicy.isRetriable(503, 3), "Retried beyond the maximum attempts");
+        Assert.assertFalse(retryPolicy.isRetriable(500, 1), "Retried a non retriable status code");
+        Assert.assertTrue(retryPolicy.isRetriable(2));
+        Assert.assertFalse(retryPolicy.isRetriable(3));
+    }
+
+    @Test
+    public void testBackoffBounds() {
+        RetryPolicy retryPolicy = new RetryPolicy(100, 100, 1000, new HashSet<>());
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(retryPolicy.getBackoff(1) <= 100);
+            Assert.assertTrue(retryPolicy.getBackoff(3) <= 400);
+            long backoff = retryPolicy.getBackoff(80);
+            Assert.assertTrue(backoff >= 0 && backoff <= 1000, "Backoff exceeds its maximum: " + backoff);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ *  Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package io.siddhi.extension.io.http.source;
+
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.DecoderResult;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import io.netty.handler.codec.http.LastHttpContent;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.transport.http.netty.message.HttpCarbonMessage;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Test cases for writing the downloaded files of the http-call-response source.
+ */
+public class DownloadFileWriterTestCase {
+    private Path downloadDirectory;
+    private ExecutorService executor;
+    private List<String> downloadedFiles;
+
+    @BeforeMethod
+    public void init() throws IOException {
+        downloadDirectory = Files.createTempDirectory("siddhi-http-download");
+        executor = Executors.newSingleThreadExecutor();
+        downloadedFiles = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    @AfterMethod
+    public void stop() throws IOException {
+        executor.shutdown();
+        try (Stream<Path> paths = Files.walk(downloadDirectory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Test
+    public void testDownload() throws Exception {
+        Path filePath = downloadDirectory.resolve("download.txt");
+        HttpCarbonMessage response = createResponse();
+        startWriter(filePath, 30000, response);
+        response.addHttpContent(new DefaultHttpContent(Unpooled.copiedBuffer("Hello ", StandardCharsets.UTF_8)));
+        waitForTasks();
+        // The content is written to a hidden temporary file till the download completes
+        List<String> fileNames = listFiles();
+        Assert.assertEquals(fileNames.size(), 1);
+        Assert.assertTrue(fileNames.get(0).startsWith(".download.txt.") && fileNames.get(0).endsWith(".part"),
+                "Content is not written to a temporary file");
+        Assert.assertEquals(Files.size(downloadDirectory.resolve(fileNames.get(0))), 6);
+        Assert.assertFalse(Files.exists(filePath), "Partially downloaded file is seen at the download path");
+
+        response.addHttpContent(new DefaultLastHttpContent(Unpooled.copiedBuffer("World", StandardCharsets.UTF_8)));
+        waitForTasks();
+        Assert.assertEquals(downloadedFiles, Collections.singletonList(filePath.toString()));
+        Assert.assertEquals(new String(Files.readAllBytes(filePath), StandardCharsets.UTF_8), "Hello World");
+        Assert.assertEquals(listFiles(), Collections.singletonList("download.txt"));
+    }
+
+    @Test
+    public void testDownloadToMissingDirectory() throws Exception {
+        Path filePath = downloadDirectory.resolve("missing").resolve("download.txt");
+        HttpCarbonMessage response = createResponse();
+        startWriter(filePath, 30000, response);
+        response.addHttpContent(new DefaultLastHttpContent(Unpooled.copiedBuffer("Hello", StandardCharsets.UTF_8)));
+        waitForTasks();
+        Assert.assertEquals(downloadedFiles.size(), 0);
+        Assert.assertFalse(Files.exists(filePath.getParent()));
+        Assert.assertEquals(listFiles().size(), 0);
+    }
+
+    @Test
+    public void testAbortedDownload() throws Exception {
+        Path filePath = downloadDirectory.resolve("download.txt");
+        HttpCarbonMessage response = createResponse();
+        startWriter(filePath, 30000, response);
+        response.addHttpContent(new DefaultHttpContent(Unpooled.copiedBuffer("Hello ", StandardCharsets.UTF_8)));
+        // The transport ends the content with a failure when the connection is closed before the response ends
+        LastHttpContent abortedContent = new DefaultLastHttpContent();
+        abortedContent.setDecoderResult(DecoderResult.failure(new DecoderException("Connection closed")));
+        response.addHttpContent(abortedContent);
+        waitForTasks();
+        Assert.assertEquals(downloadedFiles.size(), 0);
+        Assert.assertEquals(listFiles().size(), 0, "Partially downloaded file is not deleted");
+    }
+
+    @Test
+    public void testDownloadTimeout() throws Exception {
+        Path filePath = downloadDirectory.resolve("download.txt");
+        HttpCarbonMessage response = createResponse();
+        startWriter(filePath, 200, response);
+        response.addHttpContent(new DefaultHttpContent(Unpooled.copiedBuffer("Hello ", StandardCharsets.UTF_8)));
+        waitForTasks();
+        Assert.assertEquals(listFiles().size(), 1);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!listFiles().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Assert.assertEquals(listFiles().size(), 0, "Partially downloaded file is not deleted after the timeout");
+        // Content arriving after the timeout is dropped
+        response.addHttpContent(new DefaultLastHttpContent(Unpooled.copiedBuffer("World", StandardCharsets.UTF_8)));
+        waitForTasks();
+        Assert.assertEquals(downloadedFiles.size(), 0);
+        Assert.assertFalse(Files.exists(filePath));
+    }
+
+    private void startWriter(Path filePath, long timeout, HttpCarbonMessage response) {
+        new DownloadFileWriter(filePath.toString(), false, timeout, executor, null, downloadedFiles::add)
+                .start(response);
+    }
+
+    private void waitForTasks() throws Exception {
+        // The tasks of the writer run one at a time in the executor, hence they are done once this task runs
+        executor.submit(() -> {
+        }).get();
+    }
+
+    private List<String> listFiles() throws IOException {
+        try (Stream<Path> paths = Files.list(downloadDirectory)) {
+            return paths.map(path -> path.getFileName().toString()).collect(Collectors.toList());
+        }
+    }
+
+    private static HttpCarbonMessage createResponse() {
+        return new HttpCarbonMessage(new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK));
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ *  Copyright (c) 2019 WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  WSO2 Inc. licenses this file to you under the Apache License,
+ *  Version 2.0 (the "License"); you may not use this file except
+ *  in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing,
+ *  software distributed under the License is distributed on an
+ *  "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ *  KIND, either express or implied.  See the License for the
+ *  specific language governing permissions and limitations
+ *  under the License.
+ *
+ */
+package io.siddhi.extension.io.http.util;
+
+import io.siddhi.extension.io.http.source.HttpCallResponseSource;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Test cases for resolving the http-call-response sources of a sink.
+ */
+public class HTTPSourceRegistryTestCase {
+
+    @Test
+    public void testRegisterAndRemove() {
+        StatusCodeSource successSource = new StatusCodeSource("2\\d+");
+        StatusCodeSource errorSource = new StatusCodeSource("4\\d+");
+        HTTPSourceRegistry.registerCallResponseSource("registry-sink-1", "2\\d+", successSource);
+        Assert.assertSame(HTTPSourceRegistry.findAndGetResponseSource("registry-sink-1", "200"), successSource);
+        Assert.assertNull(HTTPSourceRegistry.findAndGetResponseSource("registry-sink-1", "404"));
+        Assert.assertNull(HTTPSourceRegistry.findAndGetResponseSource("registry-sink-2", "200"));
+
+        HTTPSourceRegistry.registerCallResponseSource("registry-sink-1", "4\\d+", errorSource);
+        Assert.assertSame(HTTPSourceRegistry.findAndGetResponseSource("registry-sink-1", "404"), errorSource);
+        Assert.assertSame(HTTPSourceRegistry.findAndGetResponseSource("registry-sink-1", "200"), successSource);
+
+        HTTPSourceRegistry.removeCallResponseSource("registry-sink-1", "2\\d+");
+        Assert.assertNull(HTTPSourceRegistry.findAndGetResponseSource("registry-sink-1", "200"));
+        Assert.assertSame(HTTPSourceRegistry.findAndGetResponseSource("registry-sink-1", "404"), errorSource);
+
+        HTTPSourceRegistry.removeCallResponseSource("registry-sink-1", "4\\d+");
+        Assert.assertNull(HTTPSourceRegistry.findAndGetResponseSource("registry-sink-1", "404"));
+        HTTPSourceRegistry.removeCallResponseSource("registry-sink-1", "4\\d+");
+    }
+
+    @Test
+    public void testResolvedSourcesAreRemembered() {
+        StatusCodeSource successSource = new StatusCodeSource("2\\d+");
+        HTTPSourceRegistry.registerCallResponseSource("registry-sink-3", "2\\d+", successSource);
+        for (int i = 0; i < 3; i++) {
+            Assert.assertSame(HTTPSourceRegistry.findAndGetResponseSource("registry-sink-3", "200"), successSource);
+            Assert.assertNull(HTTPSourceRegistry.findAndGetResponseSource("registry-sink-3", "500"));
+        }
+        Assert.assertEquals(successSource.matchCount.get(), 2, "Status codes are not resolved once");
+
+        HTTPSourceRegistry.registerCallResponseSource("registry-sink-3", "5\\d+", new StatusCodeSource("5\\d+"));
+        Assert.assertNotNull(HTTPSourceRegistry.findAndGetResponseSource("registry-sink-3", "500"),
+                "Status code that did not match is not re-resolved after registering a source");
+        HTTPSourceRegistry.removeCallResponseSource("registry-sink-3", "2\\d+");
+        HTTPSourceRegistry.removeCallResponseSource("registry-sink-3", "5\\d+");
+    }
+
+    private static class StatusCodeSource extends HttpCallResponseSource {
+        private final Pattern statusCodePattern;
+        private final AtomicInteger matchCount = new AtomicInteger();
+
+        private StatusCodeSource(String statusCode) {
+            this.statusCodePattern = Pattern.compile(statusCode);
+        }
+
+        @Override
+        public boolean matchesStatusCode(String thatStatusCode) {
+            matchCount.incrementAndGet();
+            return statusCodePattern.matcher(thatStatusCode).matches();
+        }
+    }
+}